@@ -9,6 +9,15 @@ import com.qualcomm.robotcore.hardware.Gamepad;
 import com.qualcomm.robotcore.hardware.Servo;
 import com.qualcomm.robotcore.util.ElapsedTime;
 
+import org.firstinspires.ftc.teamcode.Commands.ArmMotionCommand;
+import org.firstinspires.ftc.teamcode.Commands.DriveToPositionCommand;
+import org.firstinspires.ftc.teamcode.Commands.FollowPathCommand;
+import org.firstinspires.ftc.teamcode.Commands.InstantCommand;
+import org.firstinspires.ftc.teamcode.Commands.ParallelCommandGroup;
+import org.firstinspires.ftc.teamcode.Commands.RobotCommand;
+import org.firstinspires.ftc.teamcode.Commands.SequentialCommandGroup;
+import org.firstinspires.ftc.teamcode.Commands.TurnToRotationCommand;
+import org.firstinspires.ftc.teamcode.Commands.WaitCommand;
 import org.firstinspires.ftc.teamcode.Drivers.ChassisDriver;
 import org.firstinspires.ftc.teamcode.Drivers.HardwareDriver;
 import org.firstinspires.ftc.teamcode.RobotModule;
@@ -18,6 +27,8 @@ import org.firstinspires.ftc.teamcode.RobotModules.Mini1024EncoderReader;
 import org.firstinspires.ftc.teamcode.RobotModules.RobotAuxiliarySystem;
 import org.firstinspires.ftc.teamcode.RobotModules.RobotPositionCalculator;
 import org.firstinspires.ftc.teamcode.Sensors.ColorDistanceSensor;
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
+import org.firstinspires.ftc.teamcode.Utils.SystemNanoClock;
 
 import java.util.HashMap;
 
@@ -40,12 +51,17 @@ import java.util.HashMap;
  */
 abstract class AutoStage extends LinearOpMode {
     private static final boolean reflected = false; // true for left side
+    /** how long before the arm is predicted to reach the highest tower the aiming starts, 0 to wait for the arrival until the prediction is checked on the robot */
+    private static final double aimingLeadTime = 0; // todo: measure this value
 
     private ElapsedTime elapsedTime = new ElapsedTime();
+    /** the clock of the robot, sampled at the start of every control cycle, times the modules and the commands of the routine */
+    private final RobotClock clock = new SystemNanoClock();
 
-    private HardwareDriver hardwareDriver = new HardwareDriver();
+    private HardwareDriver hardwareDriver = new HardwareDriver(clock);
     private ChassisDriver chassis;
     private AutoStageArm arm;
+    private Arm armModule;
     private RobotPositionCalculator positionCalculator;
     private RobotAuxiliarySystem robotAuxiliarySystem;
 
@@ -66,11 +82,11 @@ abstract class AutoStage extends LinearOpMode {
         HashMap<String, Object> armModuleDependentInstances = new HashMap<>(1);
         armModuleDependentInstances.put("hardwareDriver", hardwareDriver);
         armModuleDependentInstances.put("initialControllerPad", new Gamepad());
-        Arm armModule = new Arm();
+        armModule = new Arm();
         armModule.init(armModuleDependentModules, armModuleDependentInstances, false);
 
         /** the temporary arm module to operate the arm during auto stage */
-        this.arm = new AutoStageArm(armModule);
+        this.arm = new AutoStageArm(armModule, hardwareDriver);
 
         /** pass the hardware ports to the encoder reader module */
         HashMap<String, RobotModule> encoderReaderDependentModules = null;
@@ -79,6 +95,7 @@ abstract class AutoStage extends LinearOpMode {
         encoderReaderDependentInstances.put("encoder-1-instance", hardwareDriver.leftFront);
         encoderReaderDependentInstances.put("encoder-2-instance", hardwareDriver.rightFront);
         encoderReaderDependentInstances.put("encoder-3-instance", hardwareDriver.leftRear);
+        encoderReaderDependentInstances.put("hardwareDriver", hardwareDriver);
         Mini1024EncoderReader encoderReader = new Mini1024EncoderReader();
         encoderReader.init(encoderReaderDependentModules, encoderReaderDependentInstances);
         /** pass the encoder reader to the temporary position calculator */
@@ -90,6 +107,8 @@ abstract class AutoStage extends LinearOpMode {
 
         /** the driver of the chassis */
         this.chassis = new ChassisDriver(hardwareDriver, positionCalculator);
+        /* so that the motions stop once the op-mode is asked to stop */
+        this.chassis.setOpMode(this);
 
         /** the RAS */
         ColorDistanceSensor color = new ColorDistanceSensor(hardwareMap, 1);
@@ -201,72 +220,92 @@ abstract class AutoStage extends LinearOpMode {
      * @throws InterruptedException
      * */
     private void proceedAutoStageInstructions() throws InterruptedException {
-        /* grab the preloaded sleeve */
-        arm.holdPreLoadedSleeve();
-        Thread.sleep(500);
-
-        /* go to the center of the grid */
-        chassis.goToPosition(0, 1000, 0);
-
-        /* move to center the grid on the left */
-        chassis.goToPosition(-11500, 1000, 0);
-
-        /* go to the center of the grid ahead */
-        chassis.goToPosition(-11500, 14500, 0); // TODO measure the y-axis
-
-        /* raise the arm and score goal */
-        arm.goToHighestTower();
-        if (reflected) aimAndScore(2);
-        else aimAndScore(1);
-
-        /* go back to the center of the grid */
-        chassis.goToPosition(-11500, 14500, 0);
-
-
-        /* move back to the center of the grid */
-        chassis.goToPosition(-11500, 14500, 0);
-
-        /* move to the grid ahead */
-        chassis.goToPosition(-11500, 29000, 0);
-
-        /* turn to face the sleeves and move to beside them */
-        chassis.goToRotation(-90);
-        chassis.goToPosition(13800, 29000, -90);
-
-        /* grab the second sleeve from sleeves stack */
-//        if (!grabSleeveFromSleevesStack()) {
-//            /* go back to the center of the field */
-//            chassis.goToPosition(-11500, 30000, 0);
-//            return;
-//        }
-        arm.levelArmToSleevesStack();
-        // chassis.goToPosition(16200, 29500, -85);
-        if (reflected) System.out.println(robotAuxiliarySystem.proceedGoToSleevesStack(90));
-        else robotAuxiliarySystem.proceedGoToSleevesStack((-90));
-        arm.liftFromSleevesStack();
-
-        /* go to the left-front (or right-front according to the robot now) side of the highest tower */
-        chassis.goToPosition(-13000, 29000, -90);
-
-        /* raise the arm and score sleeve */
-        arm.goToHighestTower();
-        if (reflected) aimAndScore(2);
-        else aimAndScore(1);
-
-        /* go back to the center of the grid */
-        chassis.goToPosition(-13000, 27000, -90);
-
-        /* move to beside the sleeves stack */
-        chassis.goToPosition(12800, 27000, -90);
+        final int aimDirection = reflected ? 2 : 1;
+        final int sleevesStackFacing = reflected ? 90 : -90;
+
+        /** the steps that do not depend on each other are put into parallel groups, the arm moves while the robot drives */
+        RobotCommand routine = new SequentialCommandGroup(
+                /* grab the preloaded sleeve */
+                new InstantCommand(new Runnable() { @Override public void run() { arm.holdPreLoadedSleeve(); } }),
+                new WaitCommand(0.5),
+
+                /* go through the center of the grid and the center of the grid on the left, to the center of the grid ahead of it, raising the arm on the way, and score goal */
+                new ParallelCommandGroup(
+                        new FollowPathCommand(chassis,
+                                new double[] {0, 1000, 0},
+                                new double[] {-11500, 1000, 0},
+                                new double[] {-11500, 14500, 0}), // TODO measure the y-axis
+                        new ArmMotionCommand(armModule, ArmMotionCommand.HIGH).withLeadTime(aimingLeadTime).withTimeout(3)),
+                new InstantCommand(new Runnable() { @Override public void run() { aimAndScore(aimDirection); } }),
+
+                /* go back to the center of the grid */
+                new DriveToPositionCommand(chassis, -11500, 14500, 0),
+
+                /* move through the grid ahead, turning to face the sleeves on the way, to beside them, lowering the arm to the top of the stack on the way */
+                new ParallelCommandGroup(
+                        new FollowPathCommand(chassis,
+                                new double[] {-11500, 29000, -90},
+                                new double[] {13800, 29000, -90}),
+                        new ArmMotionCommand(armModule, new Runnable() { @Override public void run() { arm.startLevelingArmToSleevesStack(); } }).withTimeout(2)),
+
+                /* grab the second sleeve from sleeves stack */
+                new InstantCommand(new Runnable() { @Override public void run() { robotAuxiliarySystem.proceedGoToSleevesStack(sleevesStackFacing); } }),
+                liftFromSleevesStack(),
+
+                /* go to the left-front (or right-front according to the robot now) side of the highest tower, raising the arm on the way, and score sleeve */
+                new ParallelCommandGroup(
+                        new DriveToPositionCommand(chassis, -13000, 29000, -90),
+                        new ArmMotionCommand(armModule, ArmMotionCommand.HIGH).withLeadTime(aimingLeadTime).withTimeout(3)),
+                new InstantCommand(new Runnable() { @Override public void run() { aimAndScore(aimDirection); } }),
+
+                /* go back to the center of the grid, then move to beside the sleeves stack, lowering the arm on the way */
+                new DriveToPositionCommand(chassis, -13000, 27000, -90),
+                new ParallelCommandGroup(
+                        new DriveToPositionCommand(chassis, 12800, 27000, -90),
+                        new ArmMotionCommand(armModule, new Runnable() { @Override public void run() { arm.startLevelingArmToSleevesStack(); } }).withTimeout(2)),
+
+                /* grab the third sleeve from the stack */
+                new InstantCommand(new Runnable() { @Override public void run() { robotAuxiliarySystem.proceedGoToSleevesStack(sleevesStackFacing); } }),
+                liftFromSleevesStack(),
+
+                new TurnToRotationCommand(chassis, -110)
+        );
+
+        runCommand(routine);
+        System.out.println("auto stage routine finished in " + routine.getLastDuration() + "s, "
+                + routine.getSerializedDuration() + "s if done step by step, "
+                + (routine.getSerializedDuration() - routine.getLastDuration()) + "s saved");
+    }
 
-        /* grab the third sleeve from the stack */
-        arm.levelArmToSleevesStack();
-        // chassis.goToPosition(14700, 29850, -90);
-        if (reflected) robotAuxiliarySystem.proceedGoToSleevesStack(90);
-        else robotAuxiliarySystem.proceedGoToSleevesStack((-90));
-        arm.liftFromSleevesStack();
+    /**
+     * close the claw on the sleeve and lift it off the sleeves stack
+     * @return the command that does so
+     * */
+    private RobotCommand liftFromSleevesStack() {
+        return new SequentialCommandGroup(
+                new InstantCommand(new Runnable() { @Override public void run() { armModule.closeClaw(); } }),
+                new WaitCommand(0.3),
+                new ArmMotionCommand(armModule, ArmMotionCommand.LOW).withTimeout(0.5)
+        );
+    }
 
-        chassis.goToRotation(-110);
+    /**
+     * run a command until it ends, reading the encoders and advancing the chassis and the arm in every cycle
+     * the command is interrupted once the op-mode is asked to stop
+     * @param command: the command to run
+     * */
+    private void runCommand(RobotCommand command) {
+        command.start(clock);
+        do {
+            if (isStopRequested()) {
+                command.cancel();
+                return;
+            }
+            positionCalculator.forceUpdateEncoderValue();
+            positionCalculator.periodic();
+            chassis.sendCommandsToMotors();
+            armModule.periodic();
+        } while (!command.update());
     }
 
     /**
@@ -274,7 +313,7 @@ abstract class AutoStage extends LinearOpMode {
      * @param direction: the direction of the targeted tower 1 for left and 2 for right
      * @return whether the process succeeded
      * */
-    private boolean aimAndScore(int direction) throws InterruptedException {
+    private boolean aimAndScore(int direction) {
         chassis.setAutoMode(false);
 
         robotAuxiliarySystem.startAim(direction);
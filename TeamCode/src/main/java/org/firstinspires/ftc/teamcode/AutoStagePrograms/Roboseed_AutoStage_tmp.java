@@ -64,7 +64,7 @@ public abstract class Roboseed_AutoStage_tmp extends LinearOpMode {
         arm.init(armModuleDependentModules, armModuleDependentInstances, false);
 
         /** the temporary arm module to operate the arm during auto stage */
-        autoStageArm = new AutoStageArm(arm);
+        autoStageArm = new AutoStageArm(arm, hardwareDriver);
 
         /** pass the hardware ports to the encoder reader module */
         HashMap<String, RobotModule> encoderReaderDependentModules = null;
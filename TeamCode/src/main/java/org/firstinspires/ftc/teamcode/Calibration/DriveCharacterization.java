@@ -0,0 +1,161 @@
+package org.firstinspires.ftc.teamcode.Calibration;
+
+import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+import org.firstinspires.ftc.teamcode.Drivers.ChassisDriver;
+import org.firstinspires.ftc.teamcode.Drivers.HardwareDriver;
+import org.firstinspires.ftc.teamcode.RobotModule;
+import org.firstinspires.ftc.teamcode.RobotModules.Mini1024EncoderReader;
+import org.firstinspires.ftc.teamcode.RobotModules.RobotPositionCalculator;
+import org.firstinspires.ftc.teamcode.Utils.CycleTimer;
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
+import org.firstinspires.ftc.teamcode.Utils.SystemNanoClock;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashMap;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: DriveCharacterization.java
+ *
+ * the program that drives the robot with known powers and records how it moves, to fit the feedforward of the chassis
+ * for each axle, forward, sideways and rotating:
+ *  - the power ramps up slowly both ways, so the robot is almost never accelerating, this gives kS and kV
+ *  - the power steps to a fixed value both ways, so the robot accelerates hard, this gives kA
+ * with pauses in between for it to settle, each pair goes one way and back so the robot ends up near where it started
+ * every control cycle, the power, the voltage of the battery and the raw values of the three encoders are written into a file
+ * copy the file to a computer and run DriveCharacterizationSolver on it, it adds the feedforward to the calibration file to copy back to the robot
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+@Autonomous(name = "DriveCharacterization")
+public class DriveCharacterization extends LinearOpMode {
+    /** where the readings are written, on the robot controller */
+    public static final String logFilePath = "/sdcard/FIRST/drive_characterization.csv";
+
+    /** the axles, in the order they are tested */
+    private static final String[] axles = {"forward", "strafe", "rotational"};
+    /** the script for each axle, the name of each segment and the power during it, (starting power, power ramped up per second, seconds) */
+    private static final String[] segmentNames = {
+            "ramp", "settle", "ramp", "settle",
+            "step", "settle", "step", "settle"
+    };
+    private static final double[][] segmentPowers = {
+            {0, 0.12, 3}, {0, 0, 1}, {0, -0.12, 3}, {0, 0, 1},
+            {0.5, 0, 1}, {0, 0, 1}, {-0.5, 0, 1}, {0, 0, 1}
+    };
+
+    private final RobotClock clock = new SystemNanoClock();
+    private final HardwareDriver hardwareDriver = new HardwareDriver(clock);
+    private ChassisDriver chassisDriver;
+    private Mini1024EncoderReader encoderReader;
+
+    @Override
+    public void runOpMode() throws InterruptedException {
+        configureRobot();
+        hardwareDriver.enableBulkCaching(hardwareMap);
+
+        /* the same encoders as the odometry, read raw, the solver works out the motion of each axle from them */
+        HashMap<String, Object> encoderReaderDependentInstances = new HashMap<>(1);
+        encoderReaderDependentInstances.put("encoder-1-instance", hardwareDriver.leftFront);
+        encoderReaderDependentInstances.put("encoder-2-instance", hardwareDriver.rightFront);
+        encoderReaderDependentInstances.put("encoder-3-instance", hardwareDriver.leftRear);
+        encoderReaderDependentInstances.put("hardwareDriver", hardwareDriver);
+        encoderReader = new Mini1024EncoderReader();
+        encoderReader.init(null, encoderReaderDependentInstances);
+
+        HashMap<String, RobotModule> positionCalculatorDependentModules = new HashMap<>(1);
+        positionCalculatorDependentModules.put("encoderReader", encoderReader);
+        RobotPositionCalculator positionCalculator = new RobotPositionCalculator();
+        positionCalculator.init(positionCalculatorDependentModules, null);
+        chassisDriver = new ChassisDriver(hardwareDriver, positionCalculator);
+
+        telemetry.addLine("place the robot in an open space of at least 1.5m around, with a charged battery");
+        telemetry.update();
+        waitForStart();
+
+        PrintWriter log;
+        try {
+            log = new PrintWriter(new BufferedWriter(new FileWriter(logFilePath)));
+        } catch (IOException e) {
+            telemetry.addLine("cannot write " + logFilePath + ": " + e);
+            telemetry.update();
+            while (opModeIsActive()) sleep(50);
+            return;
+        }
+        log.println("axle,segment,seconds,power,voltage,encoder1,encoder2,encoder3");
+
+        CycleTimer segmentTime = new CycleTimer(clock);
+        CycleTimer totalTime = new CycleTimer(clock);
+        try {
+            for (int axle = 0; axle < axles.length && opModeIsActive(); axle++) {
+                for (int segment = 0; segment < segmentNames.length && opModeIsActive(); segment++) {
+                    double[] powers = segmentPowers[segment];
+                    segmentTime.reset();
+                    while (opModeIsActive() && segmentTime.seconds() < powers[2]) {
+                        hardwareDriver.beginControlCycle();
+                        encoderReader.periodic();
+                        double power = powers[0] + powers[1] * segmentTime.seconds();
+                        log.println(axles[axle] + "," + segmentNames[segment] + "," + totalTime.seconds() + "," + power + "," + getBatteryVoltage() + ","
+                                + encoderReader.getEncoderPosition(1) + "," + encoderReader.getEncoderPosition(2) + "," + encoderReader.getEncoderPosition(3));
+
+                        setAxleMotion(axle, power);
+                        hardwareDriver.endControlCycle();
+                    }
+                }
+                telemetry.addLine("axle " + axles[axle] + " done");
+                telemetry.update();
+            }
+        } finally {
+            chassisDriver.setTranslationalMotion(0, 0);
+            chassisDriver.setRotationalMotion(0);
+            hardwareDriver.endControlCycle();
+            log.close();
+        }
+
+        telemetry.addLine("done, copy " + logFilePath + " to a computer and run DriveCharacterizationSolver on it");
+        telemetry.update();
+        while (opModeIsActive()) sleep(50);
+    }
+
+    /** drive the robot along one of the axles, with the others at zero */
+    private void setAxleMotion(int axle, double power) {
+        chassisDriver.setTranslationalMotion(axle == 1 ? power : 0, axle == 0 ? power : 0);
+        chassisDriver.setRotationalMotion(axle == 2 ? power : 0);
+    }
+
+    /** @return the lowest voltage of the hubs, the power of the motors is a fraction of it */
+    private double getBatteryVoltage() {
+        double voltage = Double.POSITIVE_INFINITY;
+        for (VoltageSensor sensor : hardwareMap.getAll(VoltageSensor.class)) {
+            double sensorVoltage = sensor.getVoltage();
+            if (sensorVoltage > 0) voltage = Math.min(voltage, sensorVoltage);
+        }
+        return voltage;
+    }
+
+    private void configureRobot() {
+        hardwareDriver.leftFront = hardwareMap.get(DcMotorEx.class, "leftfront");
+        hardwareDriver.leftRear = hardwareMap.get(DcMotorEx.class, "leftrear");
+        hardwareDriver.rightFront = hardwareMap.get(DcMotorEx.class, "rightfront");
+        hardwareDriver.rightRear = hardwareMap.get(DcMotorEx.class, "rightrear");
+
+        hardwareDriver.rightFront.setDirection(DcMotorSimple.Direction.REVERSE);
+        hardwareDriver.rightRear.setDirection(DcMotorSimple.Direction.REVERSE);
+
+        hardwareDriver.leftFront.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+        hardwareDriver.leftRear.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+        hardwareDriver.rightFront.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+        hardwareDriver.rightRear.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+    }
+}
@@ -0,0 +1,185 @@
+package org.firstinspires.ftc.teamcode.Calibration;
+
+import org.firstinspires.ftc.teamcode.Utils.DriveFeedforward;
+import org.firstinspires.ftc.teamcode.Utils.RobotCalibration;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: DriveCharacterizationSolver.java
+ *
+ * fits the feedforward of the chassis from the readings recorded by DriveCharacterization, run on a computer:
+ *   java DriveCharacterizationSolver drive_characterization.csv [robot_calibration.properties]
+ * the calibration file is read if it exists, the feedforward is added to it and the odometry constants in it are used
+ *
+ * for each axle, the position is worked out from the encoders, the same way as RobotPositionCalculator does
+ * the velocity and the acceleration are the central differences of it, within the same segment
+ * the power is scaled to the nominal voltage, then power = kS * sign(velocity) + kV * velocity + kA * acceleration is fitted by least squares
+ * the readings while the robot is almost still are left out, as the static friction holds it with any power below kS
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class DriveCharacterizationSolver {
+    /** the readings a difference is taken over, on each side */
+    private static final int differenceSpan = 2;
+    /** the readings slower than this fraction of the fastest are left out */
+    private static final double minVelocityRatio = 0.05;
+
+    /** one line of the recorded readings */
+    private static class Reading {
+        String axle, segment;
+        double seconds, power, voltage, encoder1, encoder2, encoder3;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("usage: DriveCharacterizationSolver <readings.csv> [calibration.properties]");
+            return;
+        }
+        List<Reading> readings = read(new File(args[0]));
+        File output = new File(args.length > 1 ? args[1] : "robot_calibration.properties");
+        RobotCalibration calibration = output.exists() ? new RobotCalibration(output) : new RobotCalibration();
+
+        DriveFeedforward forward = solve(readings, "forward", calibration);
+        DriveFeedforward strafe = solve(readings, "strafe", calibration);
+        DriveFeedforward rotational = solve(readings, "rotational", calibration);
+        calibration.setForwardFeedforward(forward);
+        calibration.setStrafeFeedforward(strafe);
+        calibration.setRotationalFeedforward(rotational);
+        calibration.save(output, "feedforward fitted by DriveCharacterizationSolver from " + args[0]);
+
+        System.out.println("forward, in encoder values: " + forward);
+        System.out.println("strafe, in encoder values: " + strafe);
+        System.out.println("rotational, in radian: " + rotational);
+        System.out.println("strafe over forward kV: " + strafe.getVelocityGain() / forward.getVelocityGain() + " (x axle motion scale factor " + calibration.getXAxleMotionScaleFactor() + ")");
+        System.out.println("written to " + output.getAbsolutePath() + ", copy it to " + RobotCalibration.defaultFilePath + " on the robot controller");
+    }
+
+    /**
+     * fit the feedforward of an axle
+     *
+     * @param readings the readings recorded by DriveCharacterization, in order
+     * @param axle the name of the axle
+     * @param calibration the calibration of the odometry, to work out the position of the axle
+     * @return the fitted feedforward
+     * @throws IllegalArgumentException if the readings of the axle are missing or do not move the robot
+     */
+    private static DriveFeedforward solve(List<Reading> readings, String axle, RobotCalibration calibration) throws IllegalArgumentException {
+        List<Reading> axleReadings = new ArrayList<>();
+        for (Reading reading : readings) if (reading.axle.equals(axle)) axleReadings.add(reading);
+        int count = axleReadings.size();
+
+        double[] positions = new double[count];
+        for (int i = 0; i < count; i++) positions[i] = positionOf(axleReadings.get(i), axle, calibration);
+
+        /* the velocities, NaN where the readings around are not all of the same segment */
+        double[] velocities = new double[count];
+        double maxSpeed = 0;
+        for (int i = 0; i < count; i++) {
+            velocities[i] = Double.NaN;
+            if (!isInSegment(axleReadings, i, differenceSpan)) continue;
+            velocities[i] = (positions[i + differenceSpan] - positions[i - differenceSpan])
+                    / (axleReadings.get(i + differenceSpan).seconds - axleReadings.get(i - differenceSpan).seconds);
+            maxSpeed = Math.max(maxSpeed, Math.abs(velocities[i]));
+        }
+
+        /* the normal equations of the least squares, on the columns sign(velocity), velocity and acceleration */
+        double[][] normal = new double[3][3];
+        double[] target = new double[3];
+        for (int i = 0; i < count; i++) {
+            if (!isInSegment(axleReadings, i, differenceSpan * 2)) continue;
+            Reading reading = axleReadings.get(i);
+            double velocity = velocities[i];
+            if (Math.abs(velocity) < maxSpeed * minVelocityRatio || reading.power == 0) continue;
+            double acceleration = (velocities[i + differenceSpan] - velocities[i - differenceSpan])
+                    / (axleReadings.get(i + differenceSpan).seconds - axleReadings.get(i - differenceSpan).seconds);
+            double voltage = reading.voltage > 0 && !Double.isInfinite(reading.voltage) ? reading.voltage : DriveFeedforward.nominalVoltage;
+            double power = reading.power * voltage / DriveFeedforward.nominalVoltage;
+
+            double[] row = {Math.signum(velocity), velocity, acceleration};
+            for (int j = 0; j < 3; j++) {
+                for (int k = 0; k < 3; k++) normal[j][k] += row[j] * row[k];
+                target[j] += row[j] * power;
+            }
+        }
+        double[] gains = solveLinear(normal, target);
+        if (gains == null) throw new IllegalArgumentException("the robot did not move along the axle <<" + axle + ">> in the readings given");
+        return new DriveFeedforward(gains[0], gains[1], gains[2]);
+    }
+
+    /** @return the position of the robot along an axle, rotating is clockwise, the way a positive power turns it */
+    private static double positionOf(Reading reading, String axle, RobotCalibration calibration) {
+        double counterClockwiseRotation = (reading.encoder2 - reading.encoder1) / calibration.getTrackWidth();
+        if (axle.equals("forward")) return (reading.encoder1 + reading.encoder2) / 2;
+        if (axle.equals("strafe")) return reading.encoder3 - counterClockwiseRotation * calibration.getLateralWheelOffset();
+        return -counterClockwiseRotation;
+    }
+
+    /** @return whether the readings within a span around one are all in the same segment, and that segment is not a pause */
+    private static boolean isInSegment(List<Reading> readings, int index, int span) {
+        if (index - span < 0 || index + span >= readings.size()) return false;
+        String segment = readings.get(index).segment;
+        if (segment.equals("settle")) return false;
+        for (int i = index - span; i <= index + span; i++) if (!readings.get(i).segment.equals(segment)) return false;
+        return true;
+    }
+
+    /** solve a small linear system by gaussian elimination, @return the solution, or null if it is singular */
+    private static double[] solveLinear(double[][] matrix, double[] vector) {
+        int size = vector.length;
+        for (int column = 0; column < size; column++) {
+            int pivot = column;
+            for (int row = column + 1; row < size; row++) if (Math.abs(matrix[row][column]) > Math.abs(matrix[pivot][column])) pivot = row;
+            if (Math.abs(matrix[pivot][column]) < 1e-12) return null;
+            double[] rowSwapped = matrix[column]; matrix[column] = matrix[pivot]; matrix[pivot] = rowSwapped;
+            double valueSwapped = vector[column]; vector[column] = vector[pivot]; vector[pivot] = valueSwapped;
+
+            for (int row = column + 1; row < size; row++) {
+                double factor = matrix[row][column] / matrix[column][column];
+                for (int k = column; k < size; k++) matrix[row][k] -= factor * matrix[column][k];
+                vector[row] -= factor * vector[column];
+            }
+        }
+        double[] solution = new double[size];
+        for (int row = size - 1; row >= 0; row--) {
+            double sum = vector[row];
+            for (int k = row + 1; k < size; k++) sum -= matrix[row][k] * solution[k];
+            solution[row] = sum / matrix[row][row];
+        }
+        return solution;
+    }
+
+    /** read the file written by DriveCharacterization */
+    private static List<Reading> read(File file) throws IOException {
+        List<Reading> readings = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            String line = reader.readLine(); // the header
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.split(",");
+                if (values.length < 8) continue;
+                Reading reading = new Reading();
+                reading.axle = values[0].trim();
+                reading.segment = values[1].trim();
+                reading.seconds = Double.parseDouble(values[2]);
+                reading.power = Double.parseDouble(values[3]);
+                reading.voltage = Double.parseDouble(values[4]);
+                reading.encoder1 = Double.parseDouble(values[5]);
+                reading.encoder2 = Double.parseDouble(values[6]);
+                reading.encoder3 = Double.parseDouble(values[7]);
+                readings.add(reading);
+            }
+        } finally {
+            reader.close();
+        }
+        return readings;
+    }
+}
@@ -0,0 +1,163 @@
+package org.firstinspires.ftc.teamcode.Calibration;
+
+import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+
+import org.firstinspires.ftc.teamcode.Drivers.ChassisDriver;
+import org.firstinspires.ftc.teamcode.Drivers.HardwareDriver;
+import org.firstinspires.ftc.teamcode.RobotModule;
+import org.firstinspires.ftc.teamcode.RobotModules.IMUReader;
+import org.firstinspires.ftc.teamcode.RobotModules.Mini1024EncoderReader;
+import org.firstinspires.ftc.teamcode.RobotModules.RobotPositionCalculator;
+import org.firstinspires.ftc.teamcode.Utils.CycleTimer;
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
+import org.firstinspires.ftc.teamcode.Utils.SystemNanoClock;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashMap;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: OdometryCalibration.java
+ *
+ * the program that moves the robot in a fixed script and records the raw readings, to calibrate the odometry
+ * the robot spins both ways, drives forward and backward, and moves sideways both ways, with pauses in between for it to settle
+ * every control cycle, the raw values of the three encoders and the yaw of the imu are written into a file
+ * after the forward drive, the program waits for the pilot to measure how far the robot moved and press A
+ * copy the file to a computer and run OdometryCalibrationSolver on it, it writes the calibration file to copy back to the robot
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+@Autonomous(name = "OdometryCalibration")
+public class OdometryCalibration extends LinearOpMode {
+    /** where the readings are written, on the robot controller */
+    public static final String logFilePath = "/sdcard/FIRST/odometry_calibration.csv";
+
+    /** the script, the name of each segment and the motion during it, (x, y, rotation, seconds) */
+    private static final String[] segmentNames = {
+            "spin", "settle", "spin", "settle",
+            "forward", "settle", "forward", "settle",
+            "strafe", "settle", "strafe", "settle"
+    };
+    private static final double[][] segmentMotions = {
+            {0, 0, 0.35, 4}, {0, 0, 0, 1}, {0, 0, -0.35, 4}, {0, 0, 0, 1},
+            {0, 0.35, 0, 1.5}, {0, 0, 0, 1}, {0, -0.35, 0, 1.5}, {0, 0, 0, 1},
+            {0.35, 0, 0, 1.5}, {0, 0, 0, 1}, {-0.35, 0, 0, 1.5}, {0, 0, 0, 1}
+    };
+    /** the segment after which the pilot measures the distance moved */
+    private static final int measuredSegment = 5;
+
+    private final RobotClock clock = new SystemNanoClock();
+    private final HardwareDriver hardwareDriver = new HardwareDriver(clock);
+    private ChassisDriver chassisDriver;
+    private Mini1024EncoderReader encoderReader;
+    private IMUReader imuReader;
+
+    @Override
+    public void runOpMode() throws InterruptedException {
+        configureRobot();
+        hardwareDriver.enableBulkCaching(hardwareMap);
+
+        /* the same encoders as the odometry, read raw, the calibration does not rely on the constants it measures */
+        HashMap<String, Object> encoderReaderDependentInstances = new HashMap<>(1);
+        encoderReaderDependentInstances.put("encoder-1-instance", hardwareDriver.leftFront);
+        encoderReaderDependentInstances.put("encoder-2-instance", hardwareDriver.rightFront);
+        encoderReaderDependentInstances.put("encoder-3-instance", hardwareDriver.leftRear);
+        encoderReaderDependentInstances.put("hardwareDriver", hardwareDriver);
+        encoderReader = new Mini1024EncoderReader();
+        encoderReader.init(null, encoderReaderDependentInstances);
+
+        HashMap<String, RobotModule> positionCalculatorDependentModules = new HashMap<>(1);
+        positionCalculatorDependentModules.put("encoderReader", encoderReader);
+        RobotPositionCalculator positionCalculator = new RobotPositionCalculator();
+        positionCalculator.init(positionCalculatorDependentModules, null);
+        chassisDriver = new ChassisDriver(hardwareDriver, positionCalculator);
+
+        HashMap<String, Object> imuReaderDependentInstances = new HashMap<>(1);
+        imuReaderDependentInstances.put("hardwareMap", hardwareMap);
+        imuReader = new IMUReader();
+        imuReader.init(null, imuReaderDependentInstances);
+
+        telemetry.addLine("place the robot in an open space of at least 1.5m around, with the tape measure ready");
+        telemetry.update();
+        waitForStart();
+
+        PrintWriter log;
+        try {
+            log = new PrintWriter(new BufferedWriter(new FileWriter(logFilePath)));
+        } catch (IOException e) {
+            telemetry.addLine("cannot write " + logFilePath + ": " + e);
+            telemetry.update();
+            while (opModeIsActive()) sleep(50);
+            return;
+        }
+        log.println("segment,seconds,encoder1,encoder2,encoder3,imuYaw");
+
+        CycleTimer segmentTime = new CycleTimer(clock);
+        CycleTimer totalTime = new CycleTimer(clock);
+        try {
+            for (int segment = 0; segment < segmentNames.length && opModeIsActive(); segment++) {
+                double[] motion = segmentMotions[segment];
+                segmentTime.reset();
+                while (opModeIsActive() && segmentTime.seconds() < motion[3]) {
+                    hardwareDriver.beginControlCycle();
+                    encoderReader.periodic();
+                    imuReader.updateIMUStatus();
+                    log.println(segmentNames[segment] + "," + totalTime.seconds() + ","
+                            + encoderReader.getEncoderPosition(1) + "," + encoderReader.getEncoderPosition(2) + "," + encoderReader.getEncoderPosition(3) + ","
+                            + imuReader.getRobotHeading());
+
+                    chassisDriver.setTranslationalMotion(motion[0], motion[1]);
+                    chassisDriver.setRotationalMotion(motion[2]);
+                    hardwareDriver.endControlCycle();
+                }
+
+                if (segment == measuredSegment) waitForMeasurement();
+            }
+        } finally {
+            chassisDriver.setTranslationalMotion(0, 0);
+            chassisDriver.setRotationalMotion(0);
+            hardwareDriver.endControlCycle();
+            log.close();
+        }
+
+        telemetry.addLine("done, copy " + logFilePath + " to a computer and run OdometryCalibrationSolver on it, with the distance measured");
+        telemetry.update();
+        while (opModeIsActive()) sleep(50);
+    }
+
+    /** stop the robot and wait for the pilot to measure the distance of the forward drive */
+    private void waitForMeasurement() {
+        chassisDriver.setTranslationalMotion(0, 0);
+        chassisDriver.setRotationalMotion(0);
+        hardwareDriver.endControlCycle();
+        while (opModeIsActive() && !gamepad1.a) {
+            telemetry.addLine("measure how far the robot moved forward, in centimeters, then press A");
+            telemetry.update();
+            sleep(20);
+        }
+    }
+
+    private void configureRobot() {
+        hardwareDriver.leftFront = hardwareMap.get(DcMotorEx.class, "leftfront");
+        hardwareDriver.leftRear = hardwareMap.get(DcMotorEx.class, "leftrear");
+        hardwareDriver.rightFront = hardwareMap.get(DcMotorEx.class, "rightfront");
+        hardwareDriver.rightRear = hardwareMap.get(DcMotorEx.class, "rightrear");
+
+        hardwareDriver.rightFront.setDirection(DcMotorSimple.Direction.REVERSE);
+        hardwareDriver.rightRear.setDirection(DcMotorSimple.Direction.REVERSE);
+
+        hardwareDriver.leftFront.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+        hardwareDriver.leftRear.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+        hardwareDriver.rightFront.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+        hardwareDriver.rightRear.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
+    }
+}
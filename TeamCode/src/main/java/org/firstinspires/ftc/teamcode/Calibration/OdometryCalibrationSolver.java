@@ -0,0 +1,149 @@
+package org.firstinspires.ftc.teamcode.Calibration;
+
+import org.firstinspires.ftc.teamcode.Utils.RobotCalibration;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: OdometryCalibrationSolver.java
+ *
+ * works out the calibration of the robot from the readings recorded by OdometryCalibration, run on a computer:
+ *   java OdometryCalibrationSolver odometry_calibration.csv measuredForwardDistanceInCM [robot_calibration.properties]
+ *
+ * - the track width, the difference of the parallel encoders per radian, is fitted against the imu yaw during the spins
+ * - the lateral wheel offset, the change of the third encoder per radian, is fitted the same way
+ * - the encoder values per centimeter is the forward drive, including its settling, over the distance measured with a tape
+ * - the x axle motion scale factor is how much faster the robot drives forward than sideways, at the same power
+ * every fit is by least squares over the changes between two adjacent readings
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class OdometryCalibrationSolver {
+    /** one line of the recorded readings */
+    private static class Reading {
+        String segment;
+        double seconds, encoder1, encoder2, encoder3, imuYaw;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("usage: OdometryCalibrationSolver <readings.csv> <measured forward distance, cm> [output.properties]");
+            return;
+        }
+        List<Reading> readings = read(new File(args[0]));
+        double measuredForwardDistance = Double.parseDouble(args[1]);
+        File output = new File(args.length > 2 ? args[2] : "robot_calibration.properties");
+
+        RobotCalibration calibration = solve(readings, measuredForwardDistance);
+        calibration.save(output, "fitted by OdometryCalibrationSolver from " + args[0]);
+
+        System.out.println("track width: " + calibration.getTrackWidth() + " encoder values per radian (was " + RobotCalibration.defaultTrackWidth + ")");
+        System.out.println("lateral wheel offset: " + calibration.getLateralWheelOffset() + " encoder values per radian (was " + RobotCalibration.defaultLateralWheelOffset + ")");
+        System.out.println("encoder values per cm: " + calibration.getEncoderValuesPerCM() + " (was " + RobotCalibration.defaultEncoderValuesPerCM + ")");
+        System.out.println("x axle motion scale factor: " + calibration.getXAxleMotionScaleFactor() + " (was " + RobotCalibration.defaultXAxleMotionScaleFactor + ")");
+        System.out.println("written to " + output.getAbsolutePath() + ", copy it to " + RobotCalibration.defaultFilePath + " on the robot controller");
+    }
+
+    /**
+     * fit the calibration
+     *
+     * @param readings the readings recorded by OdometryCalibration, in order
+     * @param measuredForwardDistance how far the robot moved during the first forward drive, in centimeters
+     * @return the fitted calibration
+     * @throws IllegalArgumentException if the readings miss a part of the script
+     */
+    private static RobotCalibration solve(List<Reading> readings, double measuredForwardDistance) throws IllegalArgumentException {
+        /* the spins, encoder difference = track width * yaw change, third encoder = lateral offset * yaw change */
+        double yawSquared = 0, parallelDifferenceByYaw = 0, thirdEncoderByYaw = 0;
+        for (int i = 1; i < readings.size(); i++) {
+            Reading previous = readings.get(i - 1), current = readings.get(i);
+            if (!current.segment.equals("spin") || !previous.segment.equals("spin")) continue;
+            double yawChange = Math.IEEEremainder(current.imuYaw - previous.imuYaw, Math.PI * 2);
+            double parallelDifferenceChange = (current.encoder2 - current.encoder1) - (previous.encoder2 - previous.encoder1);
+            yawSquared += yawChange * yawChange;
+            parallelDifferenceByYaw += parallelDifferenceChange * yawChange;
+            thirdEncoderByYaw += (current.encoder3 - previous.encoder3) * yawChange;
+        }
+        if (yawSquared == 0) throw new IllegalArgumentException("the robot did not spin in the readings given");
+        double trackWidth = parallelDifferenceByYaw / yawSquared;
+        double lateralWheelOffset = thirdEncoderByYaw / yawSquared;
+
+        /* the first forward drive and the settling after it, which is what the tape measured */
+        int forwardStart = indexOfSegment(readings, "forward", 0);
+        int forwardEnd = indexOfSegment(readings, "settle", forwardStart);
+        while (forwardEnd + 1 < readings.size() && readings.get(forwardEnd + 1).segment.equals("settle")) forwardEnd++;
+        Reading start = readings.get(Math.max(forwardStart - 1, 0)), end = readings.get(forwardEnd); // from the last reading before it starts
+        double forwardEncoderValues = ((end.encoder1 + end.encoder2) - (start.encoder1 + start.encoder2)) / 2;
+        double encoderValuesPerCM = Math.abs(forwardEncoderValues) / measuredForwardDistance;
+
+        /* the speeds forward and sideways at the same power, sideways takes away what the third encoder senses of the rotation */
+        double forwardSpeed = meanSpeed(readings, "forward", trackWidth, lateralWheelOffset, false);
+        double sidewaysSpeed = meanSpeed(readings, "strafe", trackWidth, lateralWheelOffset, true);
+
+        RobotCalibration calibration = new RobotCalibration();
+        calibration.setTrackWidth(Math.abs(trackWidth));
+        calibration.setLateralWheelOffset(lateralWheelOffset);
+        calibration.setEncoderValuesPerCM(encoderValuesPerCM);
+        calibration.setXAxleMotionScaleFactor(forwardSpeed / sidewaysSpeed);
+        return calibration;
+    }
+
+    /**
+     * the mean speed of the robot along an axle, over all the segments with the given name
+     *
+     * @param sideways whether to take the speed sideways, using the third encoder, or forward, using the parallel ones
+     * @return the speed, in encoder values per second
+     * @throws IllegalArgumentException if there is no such segment
+     */
+    private static double meanSpeed(List<Reading> readings, String segmentName, double trackWidth, double lateralWheelOffset, boolean sideways) throws IllegalArgumentException {
+        double distance = 0, time = 0;
+        for (int i = 1; i < readings.size(); i++) {
+            Reading previous = readings.get(i - 1), current = readings.get(i);
+            if (!current.segment.equals(segmentName) || !previous.segment.equals(segmentName)) continue;
+            double rotation = ((current.encoder2 - current.encoder1) - (previous.encoder2 - previous.encoder1)) / trackWidth;
+            if (sideways) distance += Math.abs(current.encoder3 - previous.encoder3 - rotation * lateralWheelOffset);
+            else distance += Math.abs(current.encoder1 + current.encoder2 - previous.encoder1 - previous.encoder2) / 2;
+            time += current.seconds - previous.seconds;
+        }
+        if (time == 0) throw new IllegalArgumentException("no segment <<" + segmentName + ">> in the readings given");
+        return distance / time;
+    }
+
+    /** @return the index of the first reading of a segment, starting the search from an index */
+    private static int indexOfSegment(List<Reading> readings, String segmentName, int from) throws IllegalArgumentException {
+        for (int i = from; i < readings.size(); i++) if (readings.get(i).segment.equals(segmentName)) return i;
+        throw new IllegalArgumentException("no segment <<" + segmentName + ">> in the readings given");
+    }
+
+    /** read the file written by OdometryCalibration */
+    private static List<Reading> read(File file) throws IOException {
+        List<Reading> readings = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            String line = reader.readLine(); // the header
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.split(",");
+                if (values.length < 6) continue;
+                Reading reading = new Reading();
+                reading.segment = values[0].trim();
+                reading.seconds = Double.parseDouble(values[1]);
+                reading.encoder1 = Double.parseDouble(values[2]);
+                reading.encoder2 = Double.parseDouble(values[3]);
+                reading.encoder3 = Double.parseDouble(values[4]);
+                reading.imuYaw = Double.parseDouble(values[5]);
+                readings.add(reading);
+            }
+        } finally {
+            reader.close();
+        }
+        return readings;
+    }
+}
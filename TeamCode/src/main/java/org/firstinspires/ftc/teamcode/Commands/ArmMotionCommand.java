@@ -0,0 +1,77 @@
+package org.firstinspires.ftc.teamcode.Commands;
+
+import org.firstinspires.ftc.teamcode.RobotModules.Arm;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: ArmMotionCommand.java
+ *
+ * moves the arm and waits until it holds still at the new height
+ * the arm is advanced by the program calling arm.periodic() every cycle, this command only starts the motion and watches the status code
+ * with a lead time, it finishes that long before the arm is predicted to arrive, so the next step of a routine overlaps the end of the motion
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class ArmMotionCommand extends RobotCommand {
+    /** the heights of the arm, the same as Arm.armPositionCode */
+    public static final int GROUND = 0, LOW = 1, MID = 2, HIGH = 3;
+
+    private final Arm arm;
+    /** starts the motion of the arm */
+    private final Runnable startMotion;
+    /** how long before the predicted arrival of the arm to finish, in seconds */
+    private double leadTime = 0;
+
+    /**
+     * move the arm to one of the preset heights
+     *
+     * @param arm the arm module
+     * @param positionCode GROUND, LOW, MID or HIGH
+     * @throws IllegalArgumentException if the position code is none of them
+     */
+    public ArmMotionCommand(final Arm arm, int positionCode) throws IllegalArgumentException {
+        this.arm = arm;
+        switch (positionCode) {
+            case GROUND: startMotion = new Runnable() { @Override public void run() { arm.toGroundArmPosition(); } }; break;
+            case LOW: startMotion = new Runnable() { @Override public void run() { arm.toLowArmPosition(); } }; break;
+            case MID: startMotion = new Runnable() { @Override public void run() { arm.toMidArmPosition(); } }; break;
+            case HIGH: startMotion = new Runnable() { @Override public void run() { arm.toHighArmPosition(); } }; break;
+            default: throw new IllegalArgumentException("unknown arm position code: " + positionCode);
+        }
+    }
+
+    /**
+     * move the arm in a custom way
+     *
+     * @param arm the arm module
+     * @param startMotion starts the motion of the arm, like calling arm.elevateArm()
+     */
+    public ArmMotionCommand(Arm arm, Runnable startMotion) {
+        this.arm = arm;
+        this.startMotion = startMotion;
+    }
+
+    /**
+     * finish a while before the arm is predicted to arrive, see Arm.getTimeToArrival()
+     *
+     * @param seconds how long before the arrival to finish
+     * @return this command, so that it can be written inside the declaration of a group
+     */
+    public ArmMotionCommand withLeadTime(double seconds) {
+        this.leadTime = seconds;
+        return this;
+    }
+
+    @Override
+    protected void initialize() {
+        startMotion.run();
+    }
+
+    @Override
+    protected boolean isFinished() {
+        /* the arm is holding still, or relaxed, or will be there within the lead time */
+        return arm.getArmStatusCode() <= 0 || arm.getTimeToArrival() <= leadTime;
+    }
+}
@@ -0,0 +1,64 @@
+package org.firstinspires.ftc.teamcode.Commands;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: CommandGroup.java
+ *
+ * a command made up of other commands
+ * the commands are kept in an array, together with whether each of them has ended, so running a group does not allocate memory
+ * a command should only be put into one group, and two commands using the same part of the robot should not run at the same time
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public abstract class CommandGroup extends RobotCommand {
+    /** the commands in this group */
+    protected final RobotCommand[] commands;
+    /** whether each of the commands has ended in the current run */
+    protected final boolean[] ended;
+
+    /**
+     * construct a group
+     *
+     * @param commands the commands in this group
+     * @throws IllegalArgumentException if no commands are given
+     */
+    protected CommandGroup(RobotCommand... commands) throws IllegalArgumentException {
+        if (commands.length == 0) throw new IllegalArgumentException("a command group needs at least one command");
+        this.commands = commands;
+        this.ended = new boolean[commands.length];
+    }
+
+    /** start all the commands in the group */
+    protected final void startAll() {
+        for (int i = 0; i < commands.length; i++) {
+            ended[i] = false;
+            commands[i].start(getClock());
+        }
+    }
+
+    /** update all the commands that have not ended */
+    protected final void updateAll() {
+        for (int i = 0; i < commands.length; i++)
+            if (!ended[i]) ended[i] = commands[i].update();
+    }
+
+    /** interrupt all the commands that have not ended */
+    protected final void cancelAll() {
+        for (int i = 0; i < commands.length; i++)
+            if (!ended[i]) {
+                commands[i].cancel();
+                ended[i] = true;
+            }
+    }
+
+    /** @return the sum of the time of all the commands that ran, as if they were done one after another */
+    @Override
+    public double getSerializedDuration() {
+        if (getLastDuration() == 0 && !isRunning()) return 0;
+        double serializedDuration = 0;
+        for (int i = 0; i < commands.length; i++) if (ended[i]) serializedDuration += commands[i].getSerializedDuration();
+        return serializedDuration;
+    }
+}
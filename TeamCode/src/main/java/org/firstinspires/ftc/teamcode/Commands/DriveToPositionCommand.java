@@ -0,0 +1,51 @@
+package org.firstinspires.ftc.teamcode.Commands;
+
+import org.firstinspires.ftc.teamcode.Drivers.ChassisDriver;
+import org.firstinspires.ftc.teamcode.Drivers.ChassisMotionCommand;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: DriveToPositionCommand.java
+ *
+ * drives the robot to a position while maintaining a rotation, using the non-blocking motions of the chassis driver
+ * the chassis is advanced by the program calling chassisDriver.sendCommandsToMotors() every cycle, this command only watches the motion
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class DriveToPositionCommand extends RobotCommand {
+    private final ChassisDriver chassisDriver;
+    /** the targeted position, in encoder values */
+    private final double x, y;
+    /** the rotation to maintain, in degrees */
+    private final int degrees;
+
+    /** the motion of the current run */
+    private ChassisMotionCommand motion;
+
+    public DriveToPositionCommand(ChassisDriver chassisDriver, double x, double y, int degrees) {
+        this.chassisDriver = chassisDriver;
+        this.x = x;
+        this.y = y;
+        this.degrees = degrees;
+    }
+
+    @Override
+    protected void initialize() {
+        motion = chassisDriver.startGoToPosition(x, y, degrees);
+    }
+
+    @Override
+    protected boolean isFinished() {
+        return motion.isFinished();
+    }
+
+    @Override
+    protected void end(boolean interrupted) {
+        if (interrupted) motion.cancel();
+    }
+
+    /** @return whether the robot reached the position the last time this command ran */
+    public boolean isSucceeded() { return motion != null && motion.isSucceeded(); }
+}
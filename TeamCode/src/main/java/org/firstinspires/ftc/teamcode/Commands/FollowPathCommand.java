@@ -0,0 +1,58 @@
+package org.firstinspires.ftc.teamcode.Commands;
+
+import org.firstinspires.ftc.teamcode.Drivers.ChassisDriver;
+import org.firstinspires.ftc.teamcode.Drivers.ChassisMotionCommand;
+import org.firstinspires.ftc.teamcode.Utils.SplinePath;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: FollowPathCommand.java
+ *
+ * drives the robot along a smooth path through some waypoints, without stopping at any but the last, using the non-blocking motions of the chassis driver
+ * the path is planned from where the robot is when the command starts
+ * the chassis is advanced by the program calling chassisDriver.sendCommandsToMotors() every cycle, this command only watches the motion
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class FollowPathCommand extends RobotCommand {
+    private final ChassisDriver chassisDriver;
+    /** the waypoints, in the form of {x, y, heading}, in encoder values and radian */
+    private final double[][] waypoints;
+
+    /** the motion of the current run */
+    private ChassisMotionCommand motion;
+
+    /**
+     * @param chassisDriver the chassis to drive
+     * @param waypoints the waypoints, in the form of {x, y, degrees}, in encoder values and degrees, like the arguments of DriveToPositionCommand
+     */
+    public FollowPathCommand(ChassisDriver chassisDriver, double[]... waypoints) {
+        this.chassisDriver = chassisDriver;
+        this.waypoints = new double[waypoints.length][];
+        for (int i = 0; i < waypoints.length; i++) this.waypoints[i] = new double[] {
+                waypoints[i][SplinePath.waypointXIndex],
+                waypoints[i][SplinePath.waypointYIndex],
+                Math.toRadians(waypoints[i][SplinePath.waypointHeadingIndex])
+        };
+    }
+
+    @Override
+    protected void initialize() {
+        motion = chassisDriver.startFollowPath(waypoints);
+    }
+
+    @Override
+    protected boolean isFinished() {
+        return motion.isFinished();
+    }
+
+    @Override
+    protected void end(boolean interrupted) {
+        if (interrupted) motion.cancel();
+    }
+
+    /** @return whether the robot reached the end of the path the last time this command ran */
+    public boolean isSucceeded() { return motion != null && motion.isSucceeded(); }
+}
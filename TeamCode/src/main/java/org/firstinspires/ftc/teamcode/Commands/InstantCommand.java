@@ -0,0 +1,31 @@
+package org.firstinspires.ftc.teamcode.Commands;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: InstantCommand.java
+ *
+ * runs an action once and ends in the same cycle
+ * also used to put the older blocking procedures into a routine, in which case nothing else runs until the action returns
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class InstantCommand extends RobotCommand {
+    /** the action to run */
+    private final Runnable action;
+
+    public InstantCommand(Runnable action) {
+        this.action = action;
+    }
+
+    @Override
+    protected void initialize() {
+        action.run();
+    }
+
+    @Override
+    protected boolean isFinished() {
+        return true;
+    }
+}
@@ -0,0 +1,33 @@
+package org.firstinspires.ftc.teamcode.Commands;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: ParallelCommandGroup.java
+ *
+ * runs all the commands at the same time, ends when all of them have ended
+ * if interrupted, the commands still running are interrupted
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class ParallelCommandGroup extends CommandGroup {
+    public ParallelCommandGroup(RobotCommand... commands) {
+        super(commands);
+    }
+
+    @Override
+    protected void initialize() { startAll(); }
+
+    @Override
+    protected void execute() { updateAll(); }
+
+    @Override
+    protected boolean isFinished() {
+        for (int i = 0; i < commands.length; i++) if (!ended[i]) return false;
+        return true;
+    }
+
+    @Override
+    protected void end(boolean interrupted) { cancelAll(); }
+}
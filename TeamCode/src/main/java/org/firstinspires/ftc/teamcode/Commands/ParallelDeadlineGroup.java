@@ -0,0 +1,43 @@
+package org.firstinspires.ftc.teamcode.Commands;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: ParallelDeadlineGroup.java
+ *
+ * runs all the commands at the same time, ends when the first command, the deadline, ends
+ * the other commands still running at that moment are interrupted
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class ParallelDeadlineGroup extends CommandGroup {
+    /**
+     * construct a deadline group
+     *
+     * @param deadline the command that decides when the group ends
+     * @param commands the commands that run alongside the deadline
+     */
+    public ParallelDeadlineGroup(RobotCommand deadline, RobotCommand... commands) {
+        super(prepend(deadline, commands));
+    }
+
+    private static RobotCommand[] prepend(RobotCommand deadline, RobotCommand[] commands) {
+        RobotCommand[] allCommands = new RobotCommand[commands.length + 1];
+        allCommands[0] = deadline;
+        System.arraycopy(commands, 0, allCommands, 1, commands.length);
+        return allCommands;
+    }
+
+    @Override
+    protected void initialize() { startAll(); }
+
+    @Override
+    protected void execute() { updateAll(); }
+
+    @Override
+    protected boolean isFinished() { return ended[0]; }
+
+    @Override
+    protected void end(boolean interrupted) { cancelAll(); }
+}
@@ -0,0 +1,33 @@
+package org.firstinspires.ftc.teamcode.Commands;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: ParallelRaceGroup.java
+ *
+ * runs all the commands at the same time, ends as soon as any one of them ends
+ * the commands still running at that moment are interrupted
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class ParallelRaceGroup extends CommandGroup {
+    public ParallelRaceGroup(RobotCommand... commands) {
+        super(commands);
+    }
+
+    @Override
+    protected void initialize() { startAll(); }
+
+    @Override
+    protected void execute() { updateAll(); }
+
+    @Override
+    protected boolean isFinished() {
+        for (int i = 0; i < commands.length; i++) if (ended[i]) return true;
+        return false;
+    }
+
+    @Override
+    protected void end(boolean interrupted) { cancelAll(); }
+}
@@ -0,0 +1,133 @@
+package org.firstinspires.ftc.teamcode.Commands;
+
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: RobotCommand.java
+ *
+ * a step of an auto stage routine, like driving to a position or raising the arm
+ * a command is started once, updated every cycle until it finishes, and ended either normally or by an interruption
+ * the commands are put together with the command groups to form a routine, so that the steps that do not depend on each other run at the same time
+ *
+ * the subclasses override:
+ *  - initialize(): called once when the command starts
+ *  - execute(): called every cycle while the command is running
+ *  - isFinished(): called every cycle after execute(), the command ends when it returns true
+ *  - end(interrupted): called once when the command ends, interrupted is true if it is cancelled or timed out
+ * the commands should not allocate memory in execute() and isFinished(), as they are called every cycle
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public abstract class RobotCommand {
+    /** the longest time the command may run, in nanoseconds, 0 for no limit */
+    private long timeout = 0;
+
+    /** the clock given when the command is started, the command is timed with the timestamps of the control cycles */
+    private RobotClock clock;
+    /** whether the command is running */
+    private boolean running = false;
+    /** whether the command ended the last time because it ran out of time */
+    private boolean timedOut = false;
+    /** the time the command started, in nanoseconds */
+    private long startTime;
+    /** the time the command took the last time it ran, in nanoseconds, 0 if it has not run */
+    private long lastDuration = 0;
+
+    /** called once when the command starts */
+    protected void initialize() {}
+
+    /** called every cycle while the command is running */
+    protected void execute() {}
+
+    /** @return whether the command has finished its work */
+    protected abstract boolean isFinished();
+
+    /**
+     * called once when the command ends
+     * @param interrupted whether the command is cancelled or timed out, rather than finished
+     */
+    protected void end(boolean interrupted) {}
+
+    /**
+     * limit the time the command may run, it is interrupted once the time is up
+     *
+     * @param seconds the longest time the command may run, in seconds
+     * @return this command, so that it can be written inside the declaration of a group
+     */
+    public RobotCommand withTimeout(double seconds) {
+        this.timeout = RobotClock.secondsToNanos(seconds);
+        return this;
+    }
+
+    /**
+     * start the command
+     *
+     * @param clock the clock used to time the command, kept until the command is started again
+     */
+    public final void start(RobotClock clock) {
+        this.clock = clock;
+        running = true;
+        timedOut = false;
+        lastDuration = 0;
+        startTime = clock.getCycleTimestamp();
+        initialize();
+    }
+
+    /**
+     * update the command, called every cycle
+     *
+     * @return whether the command has ended, true if it is not running
+     */
+    public final boolean update() {
+        if (!running) return true;
+        execute();
+
+        if (isFinished()) {
+            stop(false);
+            return true;
+        }
+        if (timeout > 0 && clock.getCycleTimestamp() - startTime >= timeout) {
+            timedOut = true;
+            stop(true);
+            return true;
+        }
+        return false;
+    }
+
+    /** interrupt the command, nothing happens if it is not running */
+    public final void cancel() {
+        if (running) stop(true);
+    }
+
+    private void stop(boolean interrupted) {
+        running = false;
+        lastDuration = clock.getCycleTimestamp() - startTime;
+        end(interrupted);
+    }
+
+    /** @return the clock given when the command is started */
+    protected final RobotClock getClock() { return clock; }
+
+    /** @return the time since the command started, in seconds */
+    protected final double getElapsedSeconds() { return RobotClock.nanosToSeconds(clock.getCycleTimestamp() - startTime); }
+
+    public final boolean isRunning() { return running; }
+
+    /** @return whether the command ended the last time because it ran out of time */
+    public final boolean isTimedOut() { return timedOut; }
+
+    /** @return the time the command took the last time it ran, in seconds, 0 if it has not run */
+    public final double getLastDuration() { return RobotClock.nanosToSeconds(lastDuration); }
+
+    /**
+     * the time the command would have taken if all of its steps were done one after another
+     * for a single command, this is the time it took; the groups add up the time of their commands
+     * compared with getLastDuration(), it tells how much time is saved by running the steps at the same time
+     *
+     * @return the time, in seconds, 0 if the command has not run
+     */
+    public double getSerializedDuration() { return getLastDuration(); }
+}
@@ -0,0 +1,49 @@
+package org.firstinspires.ftc.teamcode.Commands;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: SequentialCommandGroup.java
+ *
+ * runs the commands one after another, the next command starts in the same cycle that the former one ends
+ * ends when the last command ends; if interrupted, the running command is interrupted and the rest are not started
+ * a command that times out does not stop the sequence, the next command is started as usual
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class SequentialCommandGroup extends CommandGroup {
+    /** the index of the running command */
+    private int currentIndex;
+
+    public SequentialCommandGroup(RobotCommand... commands) {
+        super(commands);
+    }
+
+    @Override
+    protected void initialize() {
+        for (int i = 0; i < commands.length; i++) ended[i] = false;
+        currentIndex = 0;
+        commands[0].start(getClock());
+    }
+
+    @Override
+    protected void execute() {
+        if (currentIndex >= commands.length || !commands[currentIndex].update()) return;
+
+        ended[currentIndex++] = true;
+        if (currentIndex < commands.length) commands[currentIndex].start(getClock());
+    }
+
+    @Override
+    protected boolean isFinished() {
+        return currentIndex >= commands.length;
+    }
+
+    @Override
+    protected void end(boolean interrupted) {
+        if (!interrupted || currentIndex >= commands.length) return;
+        commands[currentIndex].cancel();
+        ended[currentIndex] = true;
+    }
+}
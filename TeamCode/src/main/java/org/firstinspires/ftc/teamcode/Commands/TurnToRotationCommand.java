@@ -0,0 +1,46 @@
+package org.firstinspires.ftc.teamcode.Commands;
+
+import org.firstinspires.ftc.teamcode.Drivers.ChassisDriver;
+import org.firstinspires.ftc.teamcode.Drivers.ChassisMotionCommand;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: TurnToRotationCommand.java
+ *
+ * turns the robot to a facing, using the non-blocking motions of the chassis driver
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class TurnToRotationCommand extends RobotCommand {
+    private final ChassisDriver chassisDriver;
+    /** the targeted facing, in degrees */
+    private final int degrees;
+
+    /** the motion of the current run */
+    private ChassisMotionCommand motion;
+
+    public TurnToRotationCommand(ChassisDriver chassisDriver, int degrees) {
+        this.chassisDriver = chassisDriver;
+        this.degrees = degrees;
+    }
+
+    @Override
+    protected void initialize() {
+        motion = chassisDriver.startGoToRotation(degrees);
+    }
+
+    @Override
+    protected boolean isFinished() {
+        return motion.isFinished();
+    }
+
+    @Override
+    protected void end(boolean interrupted) {
+        if (interrupted) motion.cancel();
+    }
+
+    /** @return whether the robot reached the facing the last time this command ran */
+    public boolean isSucceeded() { return motion != null && motion.isSucceeded(); }
+}
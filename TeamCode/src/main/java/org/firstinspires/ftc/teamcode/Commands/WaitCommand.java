@@ -0,0 +1,25 @@
+package org.firstinspires.ftc.teamcode.Commands;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: WaitCommand.java
+ *
+ * does nothing for a period of time, replaces Thread.sleep() inside a routine so that the other commands keep running
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class WaitCommand extends RobotCommand {
+    /** the time to wait, in seconds */
+    private final double seconds;
+
+    public WaitCommand(double seconds) {
+        this.seconds = seconds;
+    }
+
+    @Override
+    protected boolean isFinished() {
+        return getElapsedSeconds() >= seconds;
+    }
+}
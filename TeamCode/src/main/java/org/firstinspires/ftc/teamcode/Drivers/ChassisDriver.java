@@ -1,38 +1,83 @@
 package org.firstinspires.ftc.teamcode.Drivers;
 
-import com.qualcomm.robotcore.util.ElapsedTime;
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 
+import org.firstinspires.ftc.teamcode.Geometry.Rotation2d;
+import org.firstinspires.ftc.teamcode.Geometry.Vector2d;
 import org.firstinspires.ftc.teamcode.RobotModules.RobotPositionCalculator;
+import org.firstinspires.ftc.teamcode.Utils.CycleTimer;
+import org.firstinspires.ftc.teamcode.Utils.DriveFeedforward;
+import org.firstinspires.ftc.teamcode.Utils.HeadingController;
+import org.firstinspires.ftc.teamcode.Utils.MecanumKinematics;
+import org.firstinspires.ftc.teamcode.Utils.MotionProfile;
+import org.firstinspires.ftc.teamcode.Utils.PIDFController;
+import org.firstinspires.ftc.teamcode.Utils.PoseSnapshot;
+import org.firstinspires.ftc.teamcode.Utils.RobotCalibration;
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
+import org.firstinspires.ftc.teamcode.Utils.SplinePath;
 
 public class ChassisDriver {
     /* private final double maxPower = 0.6;
     private final double encoderDistanceStartDecelerate = 15000;
     private final double motorPowerPerEncoderValueError = (maxPower / encoderDistanceStartDecelerate); */
-    private static final double maxRotatingPowerStationary = 0.5;
-    private static final double rotationDifferenceStartDecelerateStationary = Math.toRadians(15);
-    private static final double motorPowerPerRotationDifferenceStationary = -(maxRotatingPowerStationary / rotationDifferenceStartDecelerateStationary);
-    private static final double velocityDebugTimeRotationStationary = 0.05;
+    /** the scheduling values of the gain tables, going to a position is scheduled by whether the robot is in auto stage, rotating by whether it is aiming */
+    private static final double pilotSchedule = 0;
+    private static final double autoStageSchedule = 1;
+    private static final double inMotionSchedule = 0;
+    private static final double stationarySchedule = 1;
 
-    private static final double maxRotatingPowerInMotion = 0.4;
-    private static final double rotationDifferenceStartDecelerateInMotion = Math.toRadians(20);
-    private static final double motorPowerPerRotationDifferenceInMotion = -(maxRotatingPowerInMotion / rotationDifferenceStartDecelerateInMotion);
-    private static final double velocityDebugTimeRotationInMotion = 0.03;
+    /**
+     * the gains of going to a position, in encoder values, in the form of {schedule, kP, kI, kD, kF, max power}, see PIDFController
+     * kP is the max power over the distance to start decelerating, kD is kP times the time the velocity is looked ahead by
+     * */
+    private static final double[][] translationalGainTable = {
+            {pilotSchedule, 0.4 / 800, 0, 0.4 / 800 * 0.15, 0, 0.4},
+            {autoStageSchedule, 0.6 / 1700, 0, 0.6 / 1700 * 0.18, 0, 0.6}
+    };
+    /** the integral grows only when the robot is almost there */
+    private static final double translationalIntegralZone = 200;
+    /** the gains of rotating, in radian, in the same form */
+    private static final double[][] rotationalGainTable = {
+            {inMotionSchedule, 0.4 / Math.toRadians(20), 0, 0.4 / Math.toRadians(20) * 0.03, 0, 0.4},
+            {stationarySchedule, 0.5 / Math.toRadians(15), 0, 0.5 / Math.toRadians(15) * 0.05, 0, 0.5}
+    };
+    private static final double rotationalIntegralZone = Math.toRadians(15);
+    /** the gains of following a profile or a path, kP four times the one of going to a position in auto stage, as it only corrects what the feedforward misses */
+    private static final double trackingProportionalGain = 4 * 0.6 / 1700;
+    private static final double trackingDerivativeGain = trackingProportionalGain * 0.18;
+    /** the power of the wheels the rotation gets before the translation when they saturate, so the heading correction is not lost when driving at full power */
+    private static final double rotationalAuthority = 0.3;
+    /** the control period the heading controller is worked out at, in seconds, and the static friction is not overcome within a degree of the target */
+    private static final double headingControlPeriod = 0.01;
+    private static final double headingStaticPowerDeadband = Math.toRadians(1);
+    /** the current of a drive motor held still at full power, in amps, and the cycles between two reads of the current of one of them */
+    private static final double wheelStallCurrent = 9.2; // todo: measure this value
+    private static final int wheelCurrentSampleInterval = 5;
 
-    private final double integralCoefficientRotationStationary = 0 * motorPowerPerRotationDifferenceStationary;
     private final double rotationalTolerance = Math.toRadians(3.5);
     private final double minRotatingAngularVelocity = Math.toRadians(10); // 5 degrees a second
 
-    private double maxMotioningPower = 0.4;
-    private double encoderDifferenceStartDecelerate = 800;
-    private double motorPowerPerEncoderDifference = (maxMotioningPower / encoderDifferenceStartDecelerate);
-    private double velocityDebugTimeTranslation = 0.12;
-    private double integrationCoefficientTranslation = 0 * motorPowerPerEncoderDifference; // not needed yet, (originally 0.05 * motor_power_per...)
     private double translationalEncoderTolerance = 360;
     /** the minimum encoder speed, in encoder value per second, of the robot. so the robot can judge whether it is stuck */
     private final double minMotioningEncoderSpeed = 100; // todo: measure this value
-
-    /** the coefficient to scale the x-axle motion up, as the wheel structure made it a little harder to move horizontally than vertically  */
-    private final double xAxleMotionScaleFactor = 1.32;
+    /** the time the robot may stay slower than that before it is stuck, and the longer one when the wheels are judged by the stall detector, which only covers the robot still short of the target */
+    private final double maxStillTime = 0.1;
+    private final double maxStillTimeWithStallDetector = 1;
+
+    /** the limits of the motion profiles that going to a position follows, in encoder values and seconds, todo: measure these values */
+    private double profileMaxVelocity = 19000;
+    private double profileMaxAcceleration = 40000;
+    private double profileMaxJerk = 200000;
+    /** the power to move along each axle at a velocity and an acceleration, see DriveFeedforward, the feedback only corrects what they miss */
+    private DriveFeedforward forwardFeedforward = RobotCalibration.get().getForwardFeedforward();
+    private DriveFeedforward strafeFeedforward = RobotCalibration.get().getStrafeFeedforward();
+    private DriveFeedforward rotationalFeedforward = RobotCalibration.get().getRotationalFeedforward();
+    /** the limits of the paths, on top of the ones of the motion profiles, the acceleration towards the inside of the curves and how fast the heading turns, todo: measure these values */
+    private double pathMaxCentripetalAcceleration = 30000;
+    private double pathMaxAngularVelocity = Math.toRadians(180);
+
+    /** the coefficient to scale the x-axle motion up, as the wheel structure made it a little harder to move horizontally than vertically, see RobotCalibration  */
+    private final double xAxleMotionScaleFactor = RobotCalibration.get().getXAxleMotionScaleFactor();
 
     private boolean xAxleFlipped = false;
 
@@ -46,7 +91,6 @@ public class ChassisDriver {
     private double xAxleTranslationTarget = 0;
 
     private double yAxleTranslationTarget = 0;
-    private double[] translationalIntegration = new double[2];
     private double targetedRotation = 0;
     private boolean RASActivation = false;
     private boolean aimProcessInterrupted = false;
@@ -55,15 +99,76 @@ public class ChassisDriver {
     private final int manualMode = 0;
     private int rotationMode = manualMode;
     private final int gotoPositionMode = 2;
+    private final int followProfileMode = 3;
+    private final int followPathMode = 4;
+    /** moving with the motion given in reference to the ground, turned by the heading of the robot every cycle */
+    private final int manualFieldRelativeMode = 5;
     private int translationalMode = manualMode;
 
-    private double rotationalIntegration;
-
-    private ElapsedTime dt = new ElapsedTime();
+    /** the feedback of going to a position, on each axle in reference to the robot, the measurement being where the robot is from the target */
+    private final PIDFController xTranslationalController = new PIDFController(translationalGainTable, pilotSchedule).setIntegralZone(translationalIntegralZone);
+    private final PIDFController yTranslationalController = new PIDFController(translationalGainTable, pilotSchedule).setIntegralZone(translationalIntegralZone);
+    /** the feedback of the rotation, counter-clockwise positive */
+    private final PIDFController rotationalController = new PIDFController(rotationalGainTable, inMotionSchedule).setIntegralZone(rotationalIntegralZone).setContinuousInput(0, Math.PI * 2);
+    /** the regulator of the heading on the rotational model, null if the model is not measured yet, then the rotational controller is used instead */
+    private HeadingController headingController;
+    /** the errors of the heading and of the angular velocity that the heading controller weighs as much as the max power, in radian and radian per second */
+    private double headingWeightError = Math.toRadians(5);
+    private double headingWeightAngularVelocityError = Math.toRadians(40);
+    /** the feedback of following a profile or a path, on each axle in reference to the ground */
+    private final PIDFController xTrackingController = new PIDFController(trackingProportionalGain, 0, trackingDerivativeGain, 0);
+    private final PIDFController yTrackingController = new PIDFController(trackingProportionalGain, 0, trackingDerivativeGain, 0);
+
+    /** the space to compute the motions in, so sending the commands every cycle does not create objects */
+    private final Rotation2d robotFacing = new Rotation2d();
+    private final Vector2d positionError = new Vector2d();
+    private final double[] robotPose = new double[PoseSnapshot.size];
+
+    /** the profile that going to a position follows, along the line from where it starts to the target */
+    private final MotionProfile translationalProfile = new MotionProfile();
+    private final Vector2d profileStartingPosition = new Vector2d();
+    /** the direction of the line, of length one, in reference to the ground */
+    private final Vector2d profileDirection = new Vector2d();
+    /** the position, velocity and acceleration the profile asks for at the moment, along the line */
+    private final double[] profileState = new double[3];
+    private final Vector2d profilePower = new Vector2d();
+    private final Vector2d profileVelocity = new Vector2d();
+    private final Vector2d profileAcceleration = new Vector2d();
+    /** the time since the profile started */
+    private final CycleTimer profileTime;
+
+    /** the path that the chassis follows, null if it never followed one */
+    private SplinePath path = null;
+    /** where the path wants the robot to be at the moment, how fast it should move and turn */
+    private final double[] pathState = new double[SplinePath.size];
+    /** how far the path has gone, in seconds, it goes slower when the wheels are saturated, so the path does not run away from the robot */
+    private double pathTime;
+    /** the timestamp of the cycle the path last went on, in nanoseconds */
+    private long pathTimestamp;
+
+    /** turns the motions into the powers of the wheels, keeping the directions when they saturate, see MecanumKinematics */
+    private final MecanumKinematics kinematics = new MecanumKinematics(rotationalAuthority);
+    private final double[] wheelPowers = new double[MecanumKinematics.wheelCount];
+    /** judges whether the wheels, in the order of MecanumKinematics, are pushing against something, null if the feedforward is not measured yet */
+    private MotorStallDetector stallDetector;
+    /** the speed of each wheel, in the unit of the power, and the velocity of the robot in reference to itself */
+    private final double[] wheelVelocityPowers = new double[MecanumKinematics.wheelCount];
+    private final Vector2d robotVelocity = new Vector2d();
+
+    private final CycleTimer dt;
+
+    /** the motion that the chassis is carrying out, null if there is none */
+    private ChassisMotionCommand motionCommand = null;
+    /** the op-mode running the robot, optional, to stop the motions when a stop is requested */
+    private LinearOpMode opMode = null;
 
     public ChassisDriver(HardwareDriver hardwareDriver, RobotPositionCalculator positionCalculator) {
         this.hardwareDriver = hardwareDriver;
         this.positionCalculator = positionCalculator;
+        this.dt = new CycleTimer(hardwareDriver.getClock());
+        this.profileTime = new CycleTimer(hardwareDriver.getClock());
+        updateHeadingController();
+        updateStallDetector();
     }
 
     public void setTranslationalMotion(double xAxleMotion, double yAxleMotion) {
@@ -73,18 +178,179 @@ public class ChassisDriver {
         sendCommandsToMotors();
     }
 
+    /**
+     * move with a motion in reference to the ground, it is turned to be in reference to the robot every cycle, so it stays the same when the robot rotates
+     * @param xAxleMotion the motion along the x-axle of the ground
+     * @param yAxleMotion the motion along the y-axle of the ground
+     * */
+    public void setTranslationalMotion_fieldRelative(double xAxleMotion, double yAxleMotion) {
+        this.xAxleMotion = xAxleMotion;
+        this.yAxleMotion = yAxleMotion;
+        translationalMode = manualFieldRelativeMode;
+        sendCommandsToMotors();
+    }
+
+    /**
+     * set how much of the power of the wheels the rotation keeps when they saturate, see MecanumKinematics
+     * @param rotationalAuthority the power the rotation gets before the translation, from 0 to 1
+     * @throws IllegalArgumentException if it is out of the range
+     * */
+    public void setRotationalAuthority(double rotationalAuthority) throws IllegalArgumentException { kinematics.setRotationalAuthority(rotationalAuthority); }
+
     public void setTargetedTranslation_fixedRotation(double xAxleTranslation, double yAxleTranslation, double maintenanceRotation) {
         this.xAxleTranslationTarget = xAxleTranslation;
         this.yAxleTranslationTarget = yAxleTranslation;
         switchToGoToPosition_fixedRotation_mode(maintenanceRotation);
-        translationalIntegration[0] = 0;
-        translationalIntegration[1] = 0;
+        xTranslationalController.reset();
+        yTranslationalController.reset();
     }
 
     public void setTargetedTranslation_fixedRotation(double xAxleTranslation, double yAxleTranslation) {
         setTargetedTranslation_fixedRotation(xAxleTranslation, yAxleTranslation, positionCalculator.getRobotRotation());
     }
 
+    /**
+     * go to a position along a straight line, following a motion profile from where the robot is, and maintain a rotation
+     * the power is worked out from the velocity and acceleration the profile asks for, and corrected by how far the robot is from the profile
+     * @param xAxleTranslation the x-axle target
+     * @param yAxleTranslation the y-axle target
+     * @param maintenanceRotation the rotation to maintain, in radian
+     * */
+    public void setTargetedTranslation_followProfile(double xAxleTranslation, double yAxleTranslation, double maintenanceRotation) {
+        setTargetedTranslation_fixedRotation(xAxleTranslation, yAxleTranslation, maintenanceRotation);
+        translationalMode = followProfileMode;
+
+        positionCalculator.getPose(robotPose);
+        profileStartingPosition.set(robotPose[PoseSnapshot.xIndex], robotPose[PoseSnapshot.yIndex]);
+        profileDirection.set(xAxleTranslation - profileStartingPosition.getX(), yAxleTranslation - profileStartingPosition.getY());
+        double distance = profileDirection.norm();
+        if (distance > 0) profileDirection.set(profileDirection.getX() / distance, profileDirection.getY() / distance);
+        translationalProfile.generate(distance, profileMaxVelocity, profileMaxAcceleration, profileMaxJerk);
+        translationalProfile.sample(0, profileState);
+        xTrackingController.reset();
+        yTrackingController.reset();
+        profileTime.reset();
+    }
+
+    /**
+     * set the limits of the motion profiles, used from the next motion on
+     * @param maxVelocity the limit of the velocity, in encoder values per second
+     * @param maxAcceleration the limit of the acceleration, in encoder values per second squared
+     * @param maxJerk the limit of the jerk, in encoder values per second cubed, Double.POSITIVE_INFINITY for trapezoidal profiles
+     * */
+    public void setMotionProfileConstraints(double maxVelocity, double maxAcceleration, double maxJerk) {
+        this.profileMaxVelocity = maxVelocity;
+        this.profileMaxAcceleration = maxAcceleration;
+        this.profileMaxJerk = maxJerk;
+    }
+
+    /**
+     * set the power needed to move at a velocity and to accelerate, to follow the motion profiles and the paths, in place of the ones of RobotCalibration
+     * @param forwardFeedforward the feedforward moving forward, in encoder values
+     * @param strafeFeedforward the feedforward moving to the right, in encoder values
+     * @param rotationalFeedforward the feedforward rotating clockwise, in radian
+     * */
+    public void setFeedforward(DriveFeedforward forwardFeedforward, DriveFeedforward strafeFeedforward, DriveFeedforward rotationalFeedforward) {
+        this.forwardFeedforward = forwardFeedforward;
+        this.strafeFeedforward = strafeFeedforward;
+        this.rotationalFeedforward = rotationalFeedforward;
+        updateHeadingController();
+        updateStallDetector();
+    }
+
+    /**
+     * set the weights of the heading controller, it turns harder with smaller errors, see HeadingController
+     * @param maxHeadingError the error of the heading that weighs as much as the max power, in radian
+     * @param maxAngularVelocityError the error of the angular velocity that weighs as much as the max power, in radian per second
+     * */
+    public void setHeadingWeights(double maxHeadingError, double maxAngularVelocityError) {
+        this.headingWeightError = maxHeadingError;
+        this.headingWeightAngularVelocityError = maxAngularVelocityError;
+        updateHeadingController();
+    }
+
+    /** work out the heading controller on the rotational model, if it is measured */
+    private void updateHeadingController() {
+        if (!(rotationalFeedforward.getVelocityGain() > 0 && rotationalFeedforward.getAccelerationGain() > 0)) {
+            headingController = null;
+            return;
+        }
+        /* weighed against the highest power of the rotation, when the robot is aiming */
+        headingController = new HeadingController(rotationalFeedforward, headingControlPeriod, headingWeightError, headingWeightAngularVelocityError,
+                rotationalGainTable[rotationalGainTable.length - 1][PIDFController.maxOutputIndex], headingStaticPowerDeadband);
+    }
+
+    /** create the stall detector of the wheels, if the feedforward is measured, the speed of a wheel is worked out from the odometry with it */
+    private void updateStallDetector() {
+        if (!(forwardFeedforward.getVelocityGain() > 0 && forwardFeedforward.getAccelerationGain() > 0
+                && strafeFeedforward.getVelocityGain() > 0 && rotationalFeedforward.getVelocityGain() > 0)) {
+            stallDetector = null;
+            return;
+        }
+        stallDetector = new MotorStallDetector(wheelCurrentSampleInterval);
+        double responseTime = forwardFeedforward.getAccelerationGain() / forwardFeedforward.getVelocityGain();
+        /* added in the order of the wheels, so the index of a wheel in the detector is the same as in MecanumKinematics */
+        stallDetector.addMotor(hardwareDriver.leftFront, forwardFeedforward.getStaticPower(), responseTime, wheelStallCurrent);
+        stallDetector.addMotor(hardwareDriver.leftRear, forwardFeedforward.getStaticPower(), responseTime, wheelStallCurrent);
+        stallDetector.addMotor(hardwareDriver.rightFront, forwardFeedforward.getStaticPower(), responseTime, wheelStallCurrent);
+        stallDetector.addMotor(hardwareDriver.rightRear, forwardFeedforward.getStaticPower(), responseTime, wheelStallCurrent);
+    }
+
+    /** @return the stall detector of the wheels, in the order of MecanumKinematics, null if the feedforward is not measured yet */
+    public MotorStallDetector getStallDetector() { return stallDetector; }
+
+    /** @return the error of the heading in the last cycle the rotation was controlled, counter-clockwise positive, in radian, shown on the telemetry instead of printed */
+    public double getRotationalError() { return headingController != null ? headingController.getError() : rotationalController.getError(); }
+
+    /** @return the rotational motion given to the wheels, positive turns the robot clockwise */
+    public double getRotationalMotion() { return rotationalMotion; }
+
+    /**
+     * set the gains of the feedback when following a profile or a path
+     * @param proportionalGain the power per encoder value of error
+     * @param integralGain the power per encoder value second of the integral of the error
+     * @param derivativeGain the power per encoder value per second of the error of the velocity
+     * */
+    public void setTrackingGains(double proportionalGain, double integralGain, double derivativeGain) {
+        xTrackingController.setGains(proportionalGain, integralGain, derivativeGain, 0);
+        yTrackingController.setGains(proportionalGain, integralGain, derivativeGain, 0);
+    }
+
+    /**
+     * follow a path through the waypoints, from where the robot is, without stopping at any of them
+     * the heading is controlled apart from the direction of the path, it turns evenly between the headings of two waypoints
+     * the power is worked out from the velocity and acceleration the path asks for, and corrected by how far the robot is from where it should be
+     * @param path the path to follow, starting where the robot is
+     * */
+    public void setTargetedTranslation_followPath(SplinePath path) {
+        this.path = path;
+        path.sample(0, pathState);
+        switchToGoToPosition_fixedRotation_mode(pathState[SplinePath.headingIndex]);
+        xAxleTranslationTarget = path.getEndX();
+        yAxleTranslationTarget = path.getEndY();
+        translationalMode = followPathMode;
+        xTrackingController.reset();
+        yTrackingController.reset();
+        pathTime = 0;
+        pathTimestamp = hardwareDriver.getClock().getCycleTimestamp();
+    }
+
+    /**
+     * set the limits that only the paths have, used from the next path on
+     * @param maxCentripetalAcceleration the limit of the acceleration towards the inside of the curves, in encoder values per second squared
+     * @param maxAngularVelocity the limit of how fast the heading turns, in radian per second
+     * */
+    public void setPathConstraints(double maxCentripetalAcceleration, double maxAngularVelocity) {
+        this.pathMaxCentripetalAcceleration = maxCentripetalAcceleration;
+        this.pathMaxAngularVelocity = maxAngularVelocity;
+    }
+
+    /** @return the path that the chassis follows, or followed last, null if it never followed one */
+    public SplinePath getPath() { return path; }
+
+    /** @return the profile that going to a position follows */
+    public MotionProfile getTranslationalProfile() { return translationalProfile; }
+
     /**
      * set the targeted rotation of the robot to maintain
      * @param targetedRotation the targeted facing, in radian
@@ -92,7 +358,7 @@ public class ChassisDriver {
     public void setTargetedRotation(double targetedRotation) {
         this.targetedRotation = targetedRotation;
         switchToGoToRotationMode();
-        rotationalIntegration = 0;
+        rotationalController.reset();
     }
 
     /**
@@ -137,169 +403,409 @@ public class ChassisDriver {
 
     public boolean isRASActivated() { return RASActivation; }
 
+    /**
+     * give the op-mode to the chassis, so that the motions are cancelled once a stop is requested
+     * @param opMode the op-mode running the robot
+     * */
+    public void setOpMode(LinearOpMode opMode) { this.opMode = opMode; }
+
+    /** @return the clock of the robot, the one of the hardware driver */
+    public RobotClock getClock() { return hardwareDriver.getClock(); }
+
     public void sendCommandsToMotors() {
+        updateStallDetection();
+        updateMotionCommand();
         if (rotationMode == goToRotationMode) updateRotationalMotorSpeed(dt.seconds());
         if (translationalMode == gotoPositionMode) updateTranslationalMotionUsingEncoder_fixedRotation(dt.seconds());
-        hardwareDriver.leftFront.setPower(yAxleMotion + rotationalMotion + xAxleMotion);
-        hardwareDriver.leftRear.setPower(yAxleMotion + rotationalMotion - xAxleMotion);
-        hardwareDriver.rightFront.setPower(yAxleMotion - rotationalMotion - xAxleMotion);
-        hardwareDriver.rightRear.setPower(yAxleMotion - rotationalMotion + xAxleMotion);
+        if (translationalMode == followProfileMode) updateTranslationalMotionFollowingProfile(dt.seconds());
+        if (translationalMode == followPathMode) updateTranslationalMotionFollowingPath(dt.seconds());
+
+        if (translationalMode == manualFieldRelativeMode) kinematics.calculateWheelPowersFieldRelative(xAxleMotion, yAxleMotion, rotationalMotion, positionCalculator.getRobotRotation(), wheelPowers);
+        else kinematics.calculateWheelPowers(xAxleMotion, yAxleMotion, rotationalMotion, wheelPowers);
+        hardwareDriver.setPower(hardwareDriver.leftFront, wheelPowers[MecanumKinematics.leftFrontIndex]);
+        hardwareDriver.setPower(hardwareDriver.leftRear, wheelPowers[MecanumKinematics.leftRearIndex]);
+        hardwareDriver.setPower(hardwareDriver.rightFront, wheelPowers[MecanumKinematics.rightFrontIndex]);
+        hardwareDriver.setPower(hardwareDriver.rightRear, wheelPowers[MecanumKinematics.rightRearIndex]);
+        if (stallDetector != null) for (int wheel = 0; wheel < MecanumKinematics.wheelCount; wheel++) stallDetector.setPower(wheel, wheelPowers[wheel]);
     }
 
-    private void updateRotationalMotorSpeed(double dt) {
-        double velocityDebugTime, motorPowerPerRotationDifference, maxPower, integralCoefficient;
-        if (RASActivation) {
-            velocityDebugTime = velocityDebugTimeRotationStationary;
-            motorPowerPerRotationDifference = motorPowerPerRotationDifferenceStationary;
-            maxPower = maxRotatingPowerStationary;
-            integralCoefficient = integralCoefficientRotationStationary;
-        } else { // rotation correction during manual
-            velocityDebugTime = velocityDebugTimeRotationInMotion;
-            motorPowerPerRotationDifference = motorPowerPerRotationDifferenceInMotion;
-            maxPower = maxRotatingPowerInMotion;
-            integralCoefficient = 0;
-        }
-
-        double currentRotation = this.positionCalculator.getRobotRotation();
-        /* according to the angular velocity, predict the future rotation of the robot after velocity debug time */
-        double futureRotation = currentRotation + velocityDebugTime * this.positionCalculator.getAngularVelocity();
+    /**
+     * judge the wheels by the powers sent in the last cycle and the speeds read in this one, once a cycle
+     * the speed of each wheel is the velocity of the robot from the odometry, mixed the same way as the powers, in the power that keeps each axle at it
+     * */
+    private void updateStallDetection() {
+        if (stallDetector == null) return;
+        positionCalculator.getPose(robotPose);
+        robotFacing.set(robotPose[PoseSnapshot.headingIndex]);
+        robotVelocity.set(robotPose[PoseSnapshot.velocityXIndex], robotPose[PoseSnapshot.velocityYIndex]).unrotateByInto(robotFacing, robotVelocity);
+        /* the angular velocity is counter-clockwise, the rotational motion turns clockwise */
+        MecanumKinematics.mix(
+                strafeFeedforward.getVelocityGain() * robotVelocity.getX(),
+                forwardFeedforward.getVelocityGain() * robotVelocity.getY(),
+                -rotationalFeedforward.getVelocityGain() * positionCalculator.getAngularVelocity(),
+                wheelVelocityPowers
+        );
+        for (int wheel = 0; wheel < MecanumKinematics.wheelCount; wheel++) stallDetector.setVelocity(wheel, wheelVelocityPowers[wheel]);
+        stallDetector.update(hardwareDriver.getClock().getCycleTimestamp());
+    }
 
-        double rotationalRawError = getActualDifference(currentRotation, targetedRotation);
-        double rotationalError = getActualDifference(futureRotation, targetedRotation);
+    private void updateRotationalMotorSpeed(double dt) {
+        updateRotationalMotorSpeed(dt, 0);
+    }
 
-        if (Math.abs(rotationalError) < rotationDifferenceStartDecelerateStationary) rotationalIntegration += rotationalRawError * dt;
+    /**
+     * @param targetedAngularVelocity how fast the targeted rotation turns, counter-clockwise positive, in radian per second
+     * */
+    private void updateRotationalMotorSpeed(double dt, double targetedAngularVelocity) {
+        rotationalController.schedule(RASActivation ? stationarySchedule : inMotionSchedule);
 
-        rotationalMotion = rotationalError * motorPowerPerRotationDifference + rotationalIntegration * integralCoefficient;
-        rotationalMotion = Math.copySign(Math.min(maxPower, Math.abs(rotationalMotion)), rotationalMotion);
+        if (headingController != null) {
+            /* the regulator brakes as the model of the robot slows down, within the same power as the rotational controller */
+            rotationalMotion = headingController.calculate(targetedRotation, targetedAngularVelocity, positionCalculator.getRobotRotation(), positionCalculator.getAngularVelocity(), rotationalController.getMaxOutput());
+            return;
+        }
 
-        System.out.println("rotation:" + Math.toDegrees(this.positionCalculator.getRobotRotation()) + ";raw error:" + Math.toDegrees(rotationalRawError) + "; error:" + Math.toDegrees(rotationalError) + "; power" + rotationalMotion);
+        /* the derivative on the angular velocity predicts the future rotation of the robot, a positive rotational motion turns the robot clockwise */
+        rotationalMotion = -rotationalController.calculate(targetedRotation, targetedAngularVelocity, positionCalculator.getRobotRotation(), positionCalculator.getAngularVelocity(), dt);
     }
 
     private void updateTranslationalMotionUsingEncoder_fixedRotation(double dt) {
-        double[] currentPosition = positionCalculator.getRobotPosition();
-        double currentRotation = positionCalculator.getRobotRotation();
-
-        /* according to the robot's translational motion, predict it's future position */
-        double[] positionPrediction = new double[2];
-        positionPrediction[0] = positionCalculator.getVelocity()[0] * velocityDebugTimeTranslation + currentPosition[0];
-        positionPrediction[1] = positionCalculator.getVelocity()[1] * velocityDebugTimeTranslation + currentPosition[1];
-
-        double[] positionRawErrorToGround = new double[]{xAxleTranslationTarget - currentPosition[0], yAxleTranslationTarget - currentPosition[1]};
-        double[] positionErrorToGround = new double[] {xAxleTranslationTarget - positionPrediction[0], yAxleTranslationTarget- positionPrediction[1]};
-
-        double[] positionRawError, positionError; positionRawError = new double[2]; positionError = new double[2];
-        positionRawError[0] = positionRawErrorToGround[0] * Math.cos(currentRotation) + positionRawErrorToGround[1] * Math.sin(currentRotation);
-        positionRawError[1] = positionRawErrorToGround[0] * -Math.sin(currentRotation) + positionRawErrorToGround[1] * Math.cos(currentRotation);
-        positionError[0] = positionErrorToGround[0] * Math.cos(currentRotation) + positionErrorToGround[1] * Math.sin(currentRotation);
-        positionError[1] = positionErrorToGround[0] * -Math.sin(currentRotation) + positionErrorToGround[1] * Math.cos(currentRotation);
-
-        // do the integration when the robot is almost there
-        if (Math.abs(positionError[0]) + Math.abs(positionError[1]) < encoderDifferenceStartDecelerate / 4) {
-            translationalIntegration[0] += dt * positionRawError[0];
-            translationalIntegration[1] += dt * positionRawError[1];
-        }
+        positionCalculator.getPose(robotPose);
+        robotFacing.set(robotPose[PoseSnapshot.headingIndex]);
 
-        xAxleMotion = positionError[0] * motorPowerPerEncoderDifference + translationalIntegration[0] * integrationCoefficientTranslation;
-        yAxleMotion = positionError[1] * motorPowerPerEncoderDifference + translationalIntegration[1] * integrationCoefficientTranslation;
+        /* where the robot is from the target, and its velocity, turned to be in reference to the robot */
+        positionError.set(robotPose[PoseSnapshot.xIndex] - xAxleTranslationTarget, robotPose[PoseSnapshot.yIndex] - yAxleTranslationTarget).unrotateByInto(robotFacing, positionError);
+        profileVelocity.set(robotPose[PoseSnapshot.velocityXIndex], robotPose[PoseSnapshot.velocityYIndex]).unrotateByInto(robotFacing, profileVelocity);
 
-        xAxleMotion = Math.copySign(
-                Math.min(Math.abs(xAxleMotion), maxMotioningPower),
-                xAxleMotion
-        ) * xAxleMotionScaleFactor;
-        yAxleMotion = Math.copySign(
-                Math.min(Math.abs(yAxleMotion), maxMotioningPower),
-                yAxleMotion
-        );
+        /* the derivative on the velocity predicts the future position of the robot */
+        xAxleMotion = xTranslationalController.calculate(0, positionError.getX(), profileVelocity.getX(), dt) * xAxleMotionScaleFactor;
+        yAxleMotion = yTranslationalController.calculate(0, positionError.getY(), profileVelocity.getY(), dt);
 
         updateRotationalMotorSpeed(dt);
-
-        // System.out.println("motor power:" + xAxleMotion + "," + yAxleMotion +"; error:" + positionError[0] + "," + positionError[1] + "; PID coefficient:" + motorPowerPerEncoderDifference);
     }
 
-    @Deprecated
-    private void updateTranslationalMotionUsingEncoder(double dt) {
-        double[] currentPosition = positionCalculator.getRobotPosition();
-        double currentRotation = positionCalculator.getRobotRotation();
+    private void updateTranslationalMotionFollowingProfile(double dt) {
+        positionCalculator.getPose(robotPose);
+        robotFacing.set(robotPose[PoseSnapshot.headingIndex]);
+        translationalProfile.sample(profileTime.seconds(), profileState);
 
-        /* according to the robot's translational motion, predict it's future position */
-        double[] positionPrediction = new double[2];
-        positionPrediction[0] = positionCalculator.getVelocity()[0] * velocityDebugTimeTranslation + currentPosition[0];
-        positionPrediction[1] = positionCalculator.getVelocity()[1] * velocityDebugTimeTranslation + currentPosition[1];
+        /* where the profile wants the robot to be, and how fast, in reference to the ground */
+        double targetedX = profileStartingPosition.getX() + profileDirection.getX() * profileState[MotionProfile.positionIndex];
+        double targetedY = profileStartingPosition.getY() + profileDirection.getY() * profileState[MotionProfile.positionIndex];
+        double targetedVelocity = profileState[MotionProfile.velocityIndex], targetedAcceleration = profileState[MotionProfile.accelerationIndex];
 
-        double[] positionRawError = new double[]{xAxleTranslationTarget - currentPosition[0], yAxleTranslationTarget - currentPosition[1]};
-        double[] positionError = new double[] {xAxleTranslationTarget - positionPrediction[0], yAxleTranslationTarget- positionPrediction[1]};
+        /* the derivative acts on the error of the velocity */
+        double xFeedback = xTrackingController.calculate(targetedX, profileDirection.getX() * targetedVelocity, robotPose[PoseSnapshot.xIndex], robotPose[PoseSnapshot.velocityXIndex], dt);
+        double yFeedback = yTrackingController.calculate(targetedY, profileDirection.getY() * targetedVelocity, robotPose[PoseSnapshot.yIndex], robotPose[PoseSnapshot.velocityYIndex], dt);
 
-        // do the integration when the robot is almost there
-        if (Math.abs(positionError[0]) + Math.abs(positionError[1]) < encoderDifferenceStartDecelerate) {
-            translationalIntegration[0] += dt * positionRawError[0];
-            translationalIntegration[1] += dt * positionRawError[1];
-        }
+        setTranslationalMotionWithFeedforward(
+                profileDirection.getX() * targetedVelocity, profileDirection.getY() * targetedVelocity,
+                profileDirection.getX() * targetedAcceleration, profileDirection.getY() * targetedAcceleration,
+                xFeedback, yFeedback
+        );
 
-        double xAxleMotionToGround;
-        double yAxleMotionToGround;
-        xAxleMotionToGround = positionError[0] * motorPowerPerEncoderDifference + translationalIntegration[0] * integrationCoefficientTranslation;
-        yAxleMotionToGround = positionError[1] * motorPowerPerEncoderDifference + translationalIntegration[1] * integrationCoefficientTranslation;
+        updateRotationalMotorSpeed(dt);
+    }
 
-        xAxleMotionToGround = Math.copySign(
-                Math.min(Math.abs(xAxleMotionToGround), maxMotioningPower),
-                xAxleMotionToGround
-        );
-        yAxleMotionToGround = Math.copySign(
-                Math.min(Math.abs(yAxleMotionToGround), maxMotioningPower),
-                yAxleMotionToGround
+    private void updateTranslationalMotionFollowingPath(double dt) {
+        positionCalculator.getPose(robotPose);
+        robotFacing.set(robotPose[PoseSnapshot.headingIndex]);
+        long timestamp = hardwareDriver.getClock().getCycleTimestamp();
+        pathTime += RobotClock.nanosToSeconds(timestamp - pathTimestamp) * kinematics.getTranslationalScale();
+        pathTimestamp = timestamp;
+        path.sample(pathTime, pathState);
+        targetedRotation = pathState[SplinePath.headingIndex];
+
+        /* the same as following a profile, but the direction changes along the path, and the acceleration includes the one towards the inside of the curves */
+        double xFeedback = xTrackingController.calculate(pathState[SplinePath.xIndex], pathState[SplinePath.velocityXIndex], robotPose[PoseSnapshot.xIndex], robotPose[PoseSnapshot.velocityXIndex], dt);
+        double yFeedback = yTrackingController.calculate(pathState[SplinePath.yIndex], pathState[SplinePath.velocityYIndex], robotPose[PoseSnapshot.yIndex], robotPose[PoseSnapshot.velocityYIndex], dt);
+
+        setTranslationalMotionWithFeedforward(
+                pathState[SplinePath.velocityXIndex], pathState[SplinePath.velocityYIndex],
+                pathState[SplinePath.accelerationXIndex], pathState[SplinePath.accelerationYIndex],
+                xFeedback, yFeedback
         );
 
-        xAxleMotion = (xAxleMotionToGround * Math.cos(currentRotation)) + (yAxleMotionToGround * Math.sin(currentRotation));
-        yAxleMotion = (xAxleMotionToGround * Math.sin(currentRotation)) + (yAxleMotionToGround * Math.cos(currentRotation));
+        updateRotationalMotorSpeed(dt, pathState[SplinePath.angularVelocityIndex]);
+        /* the heading turns along with the path, a positive rotational motion turns clockwise */
+        rotationalMotion -= rotationalFeedforward.calculate(pathState[SplinePath.angularVelocityIndex], 0);
+        rotationalMotion = Math.copySign(Math.min(Math.abs(rotationalMotion), 1), rotationalMotion);
+    }
 
-        // System.out.println("raw error:" + positionRawError[1] + "; error:" + positionError[1] + "; motion(to ground)" + yAxleMotionToGround + "; motion:" + yAxleMotion);
+    /**
+     * set the translational motion to follow a reference, the feedforward of each axle of the robot plus the feedback on the error
+     * the robot faces robotFacing, all the arguments are in reference to the ground
+     * @param velocityX the velocity the reference asks for, in encoder values per second
+     * @param velocityY the velocity the reference asks for, in encoder values per second
+     * @param accelerationX the acceleration the reference asks for, in encoder values per second squared
+     * @param accelerationY the acceleration the reference asks for, in encoder values per second squared
+     * @param xFeedback the power the feedback asks for
+     * @param yFeedback the power the feedback asks for
+     * */
+    private void setTranslationalMotionWithFeedforward(double velocityX, double velocityY, double accelerationX, double accelerationY, double xFeedback, double yFeedback) {
+        profileVelocity.set(velocityX, velocityY).unrotateByInto(robotFacing, profileVelocity);
+        profileAcceleration.set(accelerationX, accelerationY).unrotateByInto(robotFacing, profileAcceleration);
+        profilePower.set(xFeedback, yFeedback).unrotateByInto(robotFacing, profilePower);
+
+        /* moving sideways is harder, the feedforward of it already includes that, the feedback is scaled up like going to a position without a profile */
+        xAxleMotion = strafeFeedforward.calculate(profileVelocity.getX(), profileAcceleration.getX()) + profilePower.getX() * xAxleMotionScaleFactor;
+        yAxleMotion = forwardFeedforward.calculate(profileVelocity.getY(), profileAcceleration.getY()) + profilePower.getY();
+        xAxleMotion = Math.copySign(Math.min(Math.abs(xAxleMotion), 1), xAxleMotion);
+        yAxleMotion = Math.copySign(Math.min(Math.abs(yAxleMotion), 1), yAxleMotion);
     }
 
     /**
-     * go to a targeted sector and stop, for auto stage
+     * start going to a targeted sector, without waiting for the motion to finish
+     * the motion is advanced every time the commands are sent to the motors, so sendCommandsToMotors() must be called periodically
+     * a motion already running is cancelled
      * @param x: the x-axle target
      * @param y: the y-axle target
      * @param maintenanceRotation: the rotation to maintain, in radian
-     * @return whether the process succeeded or did it got stuck
+     * @return the handle of the motion
      * */
-    public boolean goToPosition(double x, double y, double maintenanceRotation) {
+    public ChassisMotionCommand startGoToPosition(double x, double y, double maintenanceRotation) {
         if (xAxleFlipped) x *= -1;
         maintenanceRotation = getActualRadian(maintenanceRotation);
 
+        if (motionCommand != null) motionCommand.cancel();
         setAutoMode(true);
+        setTargetedTranslation_followProfile(x, y, maintenanceRotation);
 
-        setTargetedTranslation_fixedRotation(x, y, maintenanceRotation);
-        double xError, yError;
-        ElapsedTime dt = new ElapsedTime();
-        /* the time that the robot has been stuck */
-        ElapsedTime stuckTime = new ElapsedTime();
-        do {
-            positionCalculator.forceUpdateEncoderValue();
-            positionCalculator.periodic();
+        motionCommand = new ChassisMotionCommand(this, ChassisMotionCommand.Type.GO_TO_POSITION, x, y, maintenanceRotation);
+        motionCommand.stuckTime.reset();
+        if (stallDetector != null) stallDetector.reset();
+        return motionCommand;
+    }
 
-            xError = x - positionCalculator.getRobotPosition()[0];
-            yError = y - positionCalculator.getRobotPosition()[1];
-            sendCommandsToMotors();
-            dt.reset();
-
-            /* to judge if the robot is stuck */
-            if (
-                    positionCalculator.getRawVelocity()[1] * positionCalculator.getRawVelocity()[1]
-                            + positionCalculator.getRawVelocity()[0] * positionCalculator.getRawVelocity()[0]
-                            > minMotioningEncoderSpeed * minMotioningEncoderSpeed) {
-                stuckTime.reset();
-            } else if (stuckTime.seconds() > 0.1) {
-                setAutoMode(false);
-                return false;
+    /**
+     * start going to a targeted sector, maintain in current rotation
+     * @param x: the x-axle target
+     * @param y: the y-axle target
+     * @return the handle of the motion
+     * */
+    public ChassisMotionCommand startGoToPosition(double x, double y) {
+        return startGoToPosition(x, y, positionCalculator.getRobotRotation());
+    }
+
+    /**
+     * start going to a targeted sector
+     * @param x: the x-axle target
+     * @param y: the y-axle target
+     * @param degrees: the rotation to maintain, in degrees
+     * @return the handle of the motion
+     * */
+    public ChassisMotionCommand startGoToPosition(double x, double y, int degrees) {
+        return startGoToPosition(x, y, Math.toRadians(degrees));
+    }
+
+    /**
+     * start rotating to a facing, without waiting for the motion to finish
+     * @param radian: the targeted facing, in radian
+     * @return the handle of the motion
+     * */
+    public ChassisMotionCommand startGoToRotation(double radian) {
+        radian = getActualRadian(radian);
+
+        if (motionCommand != null) motionCommand.cancel();
+        setTargetedRotation(radian);
+
+        motionCommand = new ChassisMotionCommand(this, ChassisMotionCommand.Type.GO_TO_ROTATION, 0, 0, radian);
+        motionCommand.stuckTime.reset();
+        if (stallDetector != null) stallDetector.reset();
+        return motionCommand;
+    }
+
+    /**
+     * start rotating to a facing
+     * @param degrees: the targeted facing, in degrees
+     * @return the handle of the motion
+     * */
+    public ChassisMotionCommand startGoToRotation(int degrees) {
+        return startGoToRotation(Math.toRadians(degrees));
+    }
+
+    /**
+     * start following a path through the waypoints, from where the robot is, without waiting for the motion to finish
+     * the robot does not stop at the waypoints, only at the last one
+     * a motion already running is cancelled
+     * @param waypoints: the waypoints, in the form of {x, y, heading}, in encoder values and radian
+     * @return the handle of the motion
+     * @throws IllegalArgumentException if two adjacent waypoints are at the same position
+     * */
+    public ChassisMotionCommand startFollowPath(double[][] waypoints) throws IllegalArgumentException {
+        positionCalculator.getPose(robotPose);
+
+        /* the path starts where the robot is, the waypoints the robot is already at are left out */
+        int firstWaypoint = 0;
+        while (firstWaypoint < waypoints.length - 1 && isWithinTolerance(waypoints[firstWaypoint])) firstWaypoint++;
+        double[][] pathWaypoints = new double[waypoints.length - firstWaypoint + 1][];
+        pathWaypoints[0] = new double[] {robotPose[PoseSnapshot.xIndex], robotPose[PoseSnapshot.yIndex], robotPose[PoseSnapshot.headingIndex]};
+        for (int i = firstWaypoint; i < waypoints.length; i++) pathWaypoints[i - firstWaypoint + 1] = new double[] {
+                xAxleFlipped ? -waypoints[i][SplinePath.waypointXIndex] : waypoints[i][SplinePath.waypointXIndex],
+                waypoints[i][SplinePath.waypointYIndex],
+                getActualRadian(waypoints[i][SplinePath.waypointHeadingIndex])
+        };
+        /* already at the last waypoint, only the heading is left */
+        double[] end = waypoints[waypoints.length - 1];
+        if (isWithinTolerance(end)) return startGoToPosition(end[SplinePath.waypointXIndex], end[SplinePath.waypointYIndex], end[SplinePath.waypointHeadingIndex]);
+        end = pathWaypoints[pathWaypoints.length - 1];
+
+        SplinePath path = new SplinePath(pathWaypoints, profileMaxVelocity, profileMaxAcceleration, pathMaxCentripetalAcceleration, pathMaxAngularVelocity);
+        if (motionCommand != null) motionCommand.cancel();
+        setAutoMode(true);
+        setTargetedTranslation_followPath(path);
+
+        motionCommand = new ChassisMotionCommand(this, ChassisMotionCommand.Type.FOLLOW_PATH, end[SplinePath.waypointXIndex], end[SplinePath.waypointYIndex], end[SplinePath.waypointHeadingIndex]);
+        motionCommand.stuckTime.reset();
+        if (stallDetector != null) stallDetector.reset();
+        return motionCommand;
+    }
+
+    /** @return whether the robot is at a waypoint, not mirrored yet, within the tolerance, the heading is not compared */
+    private boolean isWithinTolerance(double[] waypoint) {
+        double xError = (xAxleFlipped ? -waypoint[SplinePath.waypointXIndex] : waypoint[SplinePath.waypointXIndex]) - robotPose[PoseSnapshot.xIndex];
+        double yError = waypoint[SplinePath.waypointYIndex] - robotPose[PoseSnapshot.yIndex];
+        return xError * xError + yError * yError < translationalEncoderTolerance * translationalEncoderTolerance;
+    }
+
+    /** @return the motion that the chassis is carrying out, null if there is none */
+    public ChassisMotionCommand getMotionCommand() { return motionCommand; }
+
+    /**
+     * check whether the current motion has reached its target or got stuck, called every time the commands are sent to the motors
+     * */
+    private void updateMotionCommand() {
+        if (motionCommand == null || motionCommand.isFinished()) return;
+
+        if (opMode != null && opMode.isStopRequested()) {
+            finishMotion(ChassisMotionCommand.Result.CANCELLED);
+            return;
+        }
+
+        switch (motionCommand.type) {
+            case GO_TO_POSITION: case FOLLOW_PATH: {
+                /* the motion is over-ridden, by the pilot or the RAS */
+                boolean followingPath = motionCommand.type == ChassisMotionCommand.Type.FOLLOW_PATH;
+                if (followingPath ? translationalMode != followPathMode : translationalMode != gotoPositionMode && translationalMode != followProfileMode) {
+                    motionCommand.finish(ChassisMotionCommand.Result.CANCELLED);
+                    setAutoMode(false);
+                    return;
+                }
+
+                positionCalculator.getPose(robotPose);
+                double xError = motionCommand.targetedX - robotPose[PoseSnapshot.xIndex];
+                double yError = motionCommand.targetedY - robotPose[PoseSnapshot.yIndex];
+                /* with the feedforward, the robot keeps up with the profile or the path, and would still be moving fast when it gets within the tolerance
+                 * so the target is only reached once they have come to the end, a path may also pass by its end on the way */
+                boolean referenceEnded = followingPath ? pathTime >= path.getDuration()
+                        : translationalMode != followProfileMode || profileTime.seconds() >= translationalProfile.getDuration();
+                if (referenceEnded && xError * xError + yError * yError < translationalEncoderTolerance * translationalEncoderTolerance) {
+                    finishMotion(ChassisMotionCommand.Result.SUCCEEDED);
+                    return;
+                }
+
+                /* to judge if the robot is stuck, the speed is the same in reference to the ground or to the robot */
+                double speedSquared = robotPose[PoseSnapshot.velocityXIndex] * robotPose[PoseSnapshot.velocityXIndex]
+                        + robotPose[PoseSnapshot.velocityYIndex] * robotPose[PoseSnapshot.velocityYIndex];
+                /* a profile or a path starts slowly, the robot is not stuck if it is not yet asked to move fast */
+                boolean profileStarting = translationalMode == followProfileMode
+                        && profileTime.seconds() < translationalProfile.getDuration()
+                        && Math.abs(profileState[MotionProfile.velocityIndex]) < minMotioningEncoderSpeed;
+                if (followingPath) profileStarting = pathTime < path.getDuration()
+                        && Math.hypot(pathState[SplinePath.velocityXIndex], pathState[SplinePath.velocityYIndex]) < minMotioningEncoderSpeed;
+                /* the stall detector tells a push against something from a slow approach, the speed alone only catches the robot that gave up short of the target */
+                if (updateStallOfMotion()) return;
+                if (speedSquared > minMotioningEncoderSpeed * minMotioningEncoderSpeed || profileStarting) {
+                    motionCommand.stuckTime.reset();
+                } else if (motionCommand.stuckTime.seconds() > (stallDetector == null ? maxStillTime : maxStillTimeWithStallDetector)) finishMotion(ChassisMotionCommand.Result.STUCK);
+                return;
+            }
+            case GO_TO_ROTATION: {
+                if (rotationMode != goToRotationMode) {
+                    motionCommand.finish(ChassisMotionCommand.Result.CANCELLED);
+                    return;
+                }
+
+                double rotationError = getActualDifference(positionCalculator.getRobotRotation(), motionCommand.targetedRotation);
+                if (Math.abs(rotationError) < rotationalTolerance) {
+                    finishMotion(ChassisMotionCommand.Result.SUCCEEDED);
+                    return;
+                }
+
+                if (updateStallOfMotion()) return;
+                if (Math.abs(positionCalculator.getAngularVelocity()) > minRotatingAngularVelocity) motionCommand.stuckTime.reset();
+                else if (motionCommand.stuckTime.seconds() > 0.5) finishMotion(ChassisMotionCommand.Result.STUCK);
             }
+        }
+    }
 
-            // System.out.println("total error:" + Math.sqrt(xError * xError + yError * yError));
-        } while(xError * xError + yError * yError > translationalEncoderTolerance * translationalEncoderTolerance);
-        switchToManualPositionMode();
-        setTranslationalMotion(0, 0);
+    /**
+     * pass the judgement of the stall detector on to the motion, a wheel that has stalled ends it, one that has just collided is only marked on it
+     * @return whether the motion is ended
+     * */
+    private boolean updateStallOfMotion() {
+        if (stallDetector == null) return false;
+        if (stallDetector.isAnyStalled()) {
+            finishMotion(ChassisMotionCommand.Result.STUCK);
+            return true;
+        }
+        if (stallDetector.isAnyCollided()) motionCommand.collide();
+        return false;
+    }
+
+    /**
+     * end the current motion and stop the chassis, the zero power is sent in the same call of sendCommandsToMotors()
+     * after going to a position, the chassis keeps maintaining the rotation, unless the motion is cancelled
+     * @param result: how the motion ended
+     * */
+    private void finishMotion(ChassisMotionCommand.Result result) {
+        if (motionCommand.type == ChassisMotionCommand.Type.FOLLOW_PATH) targetedRotation = motionCommand.targetedRotation;
+        if (motionCommand.type == ChassisMotionCommand.Type.GO_TO_POSITION || motionCommand.type == ChassisMotionCommand.Type.FOLLOW_PATH) {
+            switchToManualPositionMode();
+            xAxleMotion = yAxleMotion = 0;
+            setAutoMode(false);
+        }
+        if (motionCommand.type == ChassisMotionCommand.Type.GO_TO_ROTATION || result == ChassisMotionCommand.Result.CANCELLED) {
+            switchToManualRotationMode();
+            rotationalMotion = 0;
+        }
+        motionCommand.finish(result);
+    }
+
+    /** stop a motion on the request of its handle */
+    void cancelMotion(ChassisMotionCommand command) {
+        if (command != motionCommand) {
+            command.finish(ChassisMotionCommand.Result.CANCELLED);
+            return;
+        }
+        finishMotion(ChassisMotionCommand.Result.CANCELLED);
+        sendCommandsToMotors();
+    }
 
-        setAutoMode(false);
-        return true;
+    /**
+     * wait until a motion finishes, reading the encoders and sending the commands to the motors in the meantime
+     * @param command: the motion to wait for
+     * @return whether the motion succeeded
+     * */
+    private boolean waitForMotion(ChassisMotionCommand command) {
+        while (!command.isFinished()) {
+            positionCalculator.forceUpdateEncoderValue();
+            positionCalculator.periodic();
+            sendCommandsToMotors();
+        }
+        return command.isSucceeded();
+    }
+
+    /**
+     * go to a targeted sector and stop, for auto stage
+     * blocks until the motion finishes, or until the op-mode is asked to stop
+     * @param x: the x-axle target
+     * @param y: the y-axle target
+     * @param maintenanceRotation: the rotation to maintain, in radian
+     * @return whether the process succeeded or did it got stuck
+     * */
+    public boolean goToPosition(double x, double y, double maintenanceRotation) {
+        return waitForMotion(startGoToPosition(x, y, maintenanceRotation));
     }
 
     /**
@@ -323,32 +829,24 @@ public class ChassisDriver {
         return goToPosition(x, y, Math.toRadians(degrees));
     }
 
+    /**
+     * follow a path through the waypoints and stop at the last one, for auto stage
+     * blocks until the motion finishes, or until the op-mode is asked to stop
+     * @param waypoints: the waypoints, in the form of {x, y, heading}, in encoder values and radian
+     * @return whether the process succeeded or did it got stuck
+     * */
+    public boolean followPath(double[][] waypoints) {
+        return waitForMotion(startFollowPath(waypoints));
+    }
+
     /**
      * go to a rotation and stop, for auto stage
+     * blocks until the motion finishes, or until the op-mode is asked to stop
      * @param radian: the targeted facing, in radian
      * @return whether the process succeeded
      * */
     public boolean goToRotation(double radian) {
-        radian = getActualRadian(radian);
-
-        setTargetedRotation(radian);
-        double rotationError;
-        ElapsedTime dt = new ElapsedTime();
-        ElapsedTime stuckTime = new ElapsedTime();
-        do {
-            positionCalculator.forceUpdateEncoderValue();
-            positionCalculator.periodic();
-
-            rotationError = getActualDifference(positionCalculator.getRobotRotation(), radian);
-            sendCommandsToMotors();
-            dt.reset();
-
-            if (Math.abs(positionCalculator.getAngularVelocity()) > minRotatingAngularVelocity) stuckTime.reset();
-            else if (stuckTime.seconds() > 0.5) return false;
-        } while (Math.abs(rotationError) > rotationalTolerance);
-        switchToManualRotationMode();
-        setRotationalMotion(0);
-        return true;
+        return waitForMotion(startGoToRotation(radian));
     }
 
     /**
@@ -360,19 +858,14 @@ public class ChassisDriver {
         return goToRotation(Math.toRadians(degrees));
     }
 
+    /**
+     * schedule the gains of going to a position, faster in auto stage, gentler for the pilot, see translationalGainTable
+     * @param autoMode whether the robot is in auto stage
+     * */
     public void setAutoMode(boolean autoMode) {
         System.out.println("<-- update, chassis auto-stage PID preset, it is now" + autoMode + " -->");
-        if (autoMode) {
-            maxMotioningPower = 0.6;
-            encoderDifferenceStartDecelerate = 1700;
-            velocityDebugTimeTranslation = 0.18;
-        } else {
-            maxMotioningPower = 0.4;
-            encoderDifferenceStartDecelerate = 800;
-            velocityDebugTimeTranslation = 0.15;
-        }
-        motorPowerPerEncoderDifference = (maxMotioningPower / encoderDifferenceStartDecelerate);
-        integrationCoefficientTranslation = 0.00 * motorPowerPerEncoderDifference;
+        xTranslationalController.schedule(autoMode ? autoStageSchedule : pilotSchedule);
+        yTranslationalController.schedule(autoMode ? autoStageSchedule : pilotSchedule);
     }
 
     /** set the robot into mirrored mode */
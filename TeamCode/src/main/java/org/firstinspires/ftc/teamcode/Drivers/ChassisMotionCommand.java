@@ -0,0 +1,98 @@
+package org.firstinspires.ftc.teamcode.Drivers;
+
+import org.firstinspires.ftc.teamcode.Utils.CycleTimer;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: ChassisMotionCommand.java
+ *
+ * the handle of a motion that the chassis driver is carrying out, returned when the motion is started
+ * the motion does not block the program, it is advanced by the chassis driver every time the commands are sent to the motors
+ * the program polls the handle to know whether the motion is finished, and can cancel it at any time
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class ChassisMotionCommand {
+    /** the state of a motion */
+    public enum Result {
+        /** the chassis is still moving */
+        RUNNING,
+        /** the chassis reached the target */
+        SUCCEEDED,
+        /** the chassis stopped moving before reaching the target */
+        STUCK,
+        /** the motion is stopped by the program, by a newer motion or by the stop request of the op-mode */
+        CANCELLED
+    }
+
+    /** the kinds of motion */
+    enum Type {
+        /** move to a position, while maintaining a rotation */
+        GO_TO_POSITION,
+        /** rotate to a facing, without moving */
+        GO_TO_ROTATION,
+        /** move along a path through some waypoints, turning to the heading of each on the way */
+        FOLLOW_PATH
+    }
+
+    /** the chassis driver carrying out the motion */
+    private final ChassisDriver chassisDriver;
+    /** the kind of this motion */
+    final Type type;
+    /** the targeted position, in encoder values, the end of the path when following one, not used when rotating */
+    final double targetedX, targetedY;
+    /** the targeted rotation, in radian */
+    final double targetedRotation;
+
+    /** the time that the robot has been stuck */
+    final CycleTimer stuckTime;
+    /** the state of the motion */
+    private Result result = Result.RUNNING;
+    /** whether the chassis has pushed against something during the motion */
+    private boolean collided = false;
+
+    ChassisMotionCommand(ChassisDriver chassisDriver, Type type, double targetedX, double targetedY, double targetedRotation) {
+        this.chassisDriver = chassisDriver;
+        this.type = type;
+        this.targetedX = targetedX;
+        this.targetedY = targetedY;
+        this.targetedRotation = targetedRotation;
+        this.stuckTime = new CycleTimer(chassisDriver.getClock());
+    }
+
+    /**
+     * check the state of the motion, the motion is advanced by the chassis driver, not by this method
+     *
+     * @return the state of the motion
+     */
+    public Result poll() { return result; }
+
+    /** @return the state of the motion, RUNNING until it has finished */
+    public Result getResult() { return result; }
+
+    /** @return whether the motion has finished, no matter it succeeded or not */
+    public boolean isFinished() { return result != Result.RUNNING; }
+
+    /** @return whether the chassis reached the target */
+    public boolean isSucceeded() { return result == Result.SUCCEEDED; }
+
+    /**
+     * @return whether the chassis has pushed against something during the motion, known in the cycle it happens
+     * the motion goes on, it ends as STUCK only if the wheels keep pushing until they stall
+     */
+    public boolean hasCollided() { return collided; }
+
+    /** stop the motion and the chassis, nothing happens if the motion is already finished */
+    public void cancel() {
+        if (isFinished()) return;
+        chassisDriver.cancelMotion(this);
+    }
+
+    /** called by the chassis driver when the wheels push against something */
+    void collide() { collided = true; }
+
+    /** called by the chassis driver when the motion ends */
+    void finish(Result result) { this.result = result; }
+}
@@ -11,12 +11,19 @@
 
 package org.firstinspires.ftc.teamcode.Drivers;
 
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 import com.qualcomm.robotcore.hardware.Servo;
 
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
+import org.firstinspires.ftc.teamcode.Utils.SystemNanoClock;
+
+import java.util.ArrayList;
+import java.util.List;
+
 public class HardwareDriver
 {
     /* Public OpMode members. */
@@ -38,8 +45,34 @@ public class HardwareDriver
     /* HardwareMap. */
     HardwareMap hwMap           =  null;
 
+    /* Bulk reading */
+    /** the hubs of the robot, their bulk caches are cleared once at the start of every control cycle */
+    private List<LynxModule> hubs = new ArrayList<>();
+    /** the readings of the motors in the current control cycle, the modules read the encoders from here */
+    private final HardwareSnapshot snapshot = new HardwareSnapshot();
+    /** whether the hubs are set to manual bulk caching */
+    private boolean bulkCachingEnabled = false;
+    /** held while the bulk caches are cleared and read again, as the odometry thread reads the hubs as well as the main loop */
+    private final Object bulkReadLock = new Object();
+
+    /* Writing */
+    /** the commands to the motors and servos, redundant ones are dropped and the rest may be sent together at the end of the cycle */
+    private final MotorCommandBuffer commandBuffer = new MotorCommandBuffer();
+
+    /* Timing */
+    /** the clock of the robot, sampled once at the start of every control cycle, the modules read their time from here */
+    private final RobotClock clock;
+
     /* Constructor */
     public HardwareDriver(){
+        this(new SystemNanoClock());
+    }
+
+    /**
+     * @param clock the clock of the robot, a virtual clock can be given to run the program in a simulation
+     */
+    public HardwareDriver(RobotClock clock) {
+        this.clock = clock;
     }
 
     /* Initialize standard Hardware interfaces */
@@ -88,4 +121,101 @@ public class HardwareDriver
         // Init CRServo Direction
 
     }
+
+    /**
+     * set all the hubs to manual bulk caching, so that every control cycle reads each hub only once
+     * call after all the motors are configured, as the motors to store in the snapshot are decided here
+     *
+     * @param hardwareMap the hardware map, to find the hubs
+     */
+    public void enableBulkCaching(HardwareMap hardwareMap) {
+        hubs = hardwareMap.getAll(LynxModule.class);
+        for (LynxModule hub: hubs) hub.setBulkCachingMode(LynxModule.BulkCachingMode.MANUAL);
+
+        snapshot.setMotors(leftFront, leftRear, rightFront, rightRear, lift_left, lift_right);
+        bulkCachingEnabled = true;
+
+        /* take the first readings, so the modules calibrating during initialization read the real positions */
+        beginControlCycle();
+    }
+
+    /**
+     * start a new control cycle, called once at the start of every loop, before any module reads the hardware
+     * samples the clock, clears the bulk caches and reads all the motors into the snapshot
+     * if bulk caching is not enabled, only the counters are rolled over and the snapshot keeps reading the motors directly
+     * the commands still waiting from the last cycle are sent first, so that the loops which never end their cycles still move the robot
+     */
+    public void beginControlCycle() {
+        commandBuffer.flush();
+        commandBuffer.startNewCycle();
+        snapshot.startNewCycle();
+        long timestamp = clock.beginCycle();
+        if (!bulkCachingEnabled) return;
+
+        synchronized (bulkReadLock) {
+            for (int i = 0; i < hubs.size(); i++) hubs.get(i).clearBulkCache();
+            snapshot.update(hubs.size(), timestamp);
+        }
+    }
+
+    /**
+     * create a snapshot of some of the motors, to be read by another thread at its own rate, see bulkRead()
+     *
+     * @param motors the motors to store, at most eight of them
+     * @return the snapshot, which reads the motors straight through until it is first bulk-read
+     */
+    public HardwareSnapshot createSnapshot(DcMotorEx... motors) {
+        HardwareSnapshot snapshot = new HardwareSnapshot();
+        snapshot.setMotors(motors);
+        return snapshot;
+    }
+
+    /**
+     * read the hubs again into a snapshot of another thread, without starting a control cycle
+     * the clock and the commands belong to the main loop and are not touched
+     * the snapshot of the main loop stays as it is, the next read of the hubs from the main loop simply gets the newer readings
+     *
+     * @param snapshot the snapshot created by createSnapshot(), only to be read by the thread calling this
+     */
+    public void bulkRead(HardwareSnapshot snapshot) {
+        snapshot.startNewCycle();
+        if (!bulkCachingEnabled) return;
+
+        synchronized (bulkReadLock) {
+            for (int i = 0; i < hubs.size(); i++) hubs.get(i).clearBulkCache();
+            snapshot.update(hubs.size(), clock.nanoTime());
+        }
+    }
+
+    /** @return the readings of the motors in the current control cycle */
+    public HardwareSnapshot getSnapshot() { return snapshot; }
+
+    /** @return the clock of the robot, shared by all the modules connected to this hardware */
+    public RobotClock getClock() { return clock; }
+
+    /** @return whether the hubs are set to manual bulk caching */
+    public boolean isBulkCachingEnabled() { return bulkCachingEnabled; }
+
+    /** end the control cycle, called once at the end of every loop, sends the commands kept during the cycle */
+    public void endControlCycle() {
+        commandBuffer.flush();
+    }
+
+    /** set the run mode of a motor, through the command buffer */
+    public void setMode(DcMotorEx motor, DcMotor.RunMode mode) { commandBuffer.setMode(motor, mode); }
+
+    /** set the target position of a motor, through the command buffer */
+    public void setTargetPosition(DcMotorEx motor, int target) { commandBuffer.setTargetPosition(motor, target); }
+
+    /** set the power of a motor, through the command buffer */
+    public void setPower(DcMotorEx motor, double power) { commandBuffer.setPower(motor, power); }
+
+    /** set the velocity of a motor, in encoder values per second, through the command buffer */
+    public void setVelocity(DcMotorEx motor, double velocity) { commandBuffer.setVelocity(motor, velocity); }
+
+    /** set the position of a servo, through the command buffer */
+    public void setServoPosition(Servo servo, double position) { commandBuffer.setServoPosition(servo, position); }
+
+    /** @return the commands to the motors and servos, to configure the batching and the power epsilon, and to read the counters */
+    public MotorCommandBuffer getCommandBuffer() { return commandBuffer; }
 }
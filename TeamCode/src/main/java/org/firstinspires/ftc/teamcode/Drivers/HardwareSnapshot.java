@@ -0,0 +1,131 @@
+package org.firstinspires.ftc.teamcode.Drivers;
+
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: HardwareSnapshot.java
+ *
+ * the readings of all the motors, taken once at the start of every control cycle using the bulk-read of the hubs
+ * the modules read the encoders from here instead of asking the hub again, so one cycle costs one bulk-read per hub
+ * if bulk caching is not enabled, the readings are passed straight through to the motors, so the modules work either way
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class HardwareSnapshot {
+    /** the maximum amount of motors, four on each of the two hubs */
+    private static final int maxMotors = 8;
+
+    /** the motors whose readings are stored */
+    private final DcMotorEx[] motors = new DcMotorEx[maxMotors];
+    /** the amount of motors stored */
+    private int motorsCount = 0;
+    /** the encoder positions of the motors, in the same order as the motors */
+    private final int[] positions = new int[maxMotors];
+    /** the encoder velocities of the motors, in encoder values per second */
+    private final double[] velocities = new double[maxMotors];
+
+    /** whether the readings are taken from the bulk cache, or passed straight through to the motors */
+    private boolean enabled = false;
+    /** the time the readings are taken, in nanoseconds */
+    private long timestamp;
+
+    /** the amount of transactions with the hubs in the present cycle and the last cycle */
+    private int hardwareTransactions, hardwareTransactionsLastCycle;
+    /** the amount of readings answered by this snapshot in the present cycle and the last cycle */
+    private int cachedReads, cachedReadsLastCycle;
+
+    /**
+     * set the motors to read in every cycle
+     *
+     * @param motors the motors, at most eight of them, null values are ignored
+     * @throws IndexOutOfBoundsException if too many motors are given
+     */
+    void setMotors(DcMotorEx... motors) throws IndexOutOfBoundsException {
+        motorsCount = 0;
+        for (DcMotorEx motor: motors) {
+            if (motor == null || indexOf(motor) != -1) continue;
+            if (motorsCount == maxMotors) throw new IndexOutOfBoundsException("a hardware snapshot stores at most " + maxMotors + " motors");
+            this.motors[motorsCount++] = motor;
+        }
+    }
+
+    /**
+     * read all the motors and store the readings
+     * called right after the bulk caches are cleared, so the first read of each hub triggers one bulk-read and the rest are taken from the cache
+     *
+     * @param hubsCount the amount of hubs, each of which does one bulk-read
+     * @param timestamp the time the readings are taken, in nanoseconds
+     */
+    void update(int hubsCount, long timestamp) {
+        enabled = true;
+        for (int i = 0; i < motorsCount; i++) {
+            positions[i] = motors[i].getCurrentPosition();
+            velocities[i] = motors[i].getVelocity();
+        }
+        this.timestamp = timestamp;
+        hardwareTransactions += hubsCount;
+    }
+
+    /** move the counters of the present cycle to the last cycle, called at the start of every cycle */
+    void startNewCycle() {
+        hardwareTransactionsLastCycle = hardwareTransactions;
+        cachedReadsLastCycle = cachedReads;
+        hardwareTransactions = cachedReads = 0;
+    }
+
+    /**
+     * get the encoder position of a motor
+     *
+     * @param motor the motor to read
+     * @return the position of the encoder, from the snapshot if the motor is stored, otherwise read from the motor
+     */
+    public int getCurrentPosition(DcMotorEx motor) {
+        int index = indexOf(motor);
+        if (!enabled || index == -1) {
+            if (!enabled) hardwareTransactions++; // with bulk caching on, the hub answers from its cache
+            return motor.getCurrentPosition();
+        }
+        cachedReads++;
+        return positions[index];
+    }
+
+    /**
+     * get the encoder velocity of a motor
+     *
+     * @param motor the motor to read
+     * @return the velocity of the encoder, in encoder values per second, from the snapshot if the motor is stored, otherwise read from the motor
+     */
+    public double getVelocity(DcMotorEx motor) {
+        int index = indexOf(motor);
+        if (!enabled || index == -1) {
+            if (!enabled) hardwareTransactions++;
+            return motor.getVelocity();
+        }
+        cachedReads++;
+        return velocities[index];
+    }
+
+    /** @return the time the readings are taken, in nanoseconds */
+    public long getTimestamp() { return timestamp; }
+
+    /** @return whether the readings are taken from the bulk cache */
+    public boolean isEnabled() { return enabled; }
+
+    /** @return the amount of transactions with the hubs during the last cycle */
+    public int getHardwareTransactionsLastCycle() { return hardwareTransactionsLastCycle; }
+
+    /** @return the amount of readings answered by this snapshot during the last cycle */
+    public int getCachedReadsLastCycle() { return cachedReadsLastCycle; }
+
+    /**
+     * find the index of a motor, the motors are compared by identity
+     * there are only a few motors, so a linear search is faster than a hash map and does not allocate
+     */
+    private int indexOf(DcMotorEx motor) {
+        for (int i = 0; i < motorsCount; i++) if (motors[i] == motor) return i;
+        return -1;
+    }
+}
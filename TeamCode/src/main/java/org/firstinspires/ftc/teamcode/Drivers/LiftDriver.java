@@ -0,0 +1,369 @@
+package org.firstinspires.ftc.teamcode.Drivers;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+
+import org.firstinspires.ftc.teamcode.Utils.DriveFeedforward;
+import org.firstinspires.ftc.teamcode.Utils.MotionProfile;
+import org.firstinspires.ftc.teamcode.Utils.PIDFController;
+import org.firstinspires.ftc.teamcode.Utils.RobotCalibration;
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: LiftDriver.java
+ *
+ * drives the two lift motors of the arm with a loop of its own, instead of running them to their positions by the hub
+ *   power = gravity(height) + kS * sign(velocity) + kV * velocity + kA * acceleration + feedback
+ *  - a move follows a motion profile, so the arm speeds up and slows down smoothly and arrives without overshooting
+ *  - the gravity is looked up from a table by the height of the arm, as the arm pulls less the more upright it stands
+ *  - the feedback is a PIDFController on the position, with the velocity of the profile as the rate of its setpoint
+ * both motors are given the same power in the same cycle, as they turn the same arm
+ * the two encoders are compared every cycle, when they drift apart, the one reading 0 has failed, as a cut off encoder does, or else the one that moved less since they last agreed
+ * from then on the other one guides both motors, until the driver is created again, which encoders are trusted is shown on the telemetry instead of printed
+ * the positions are in the encoder values of lift_left, the right encoder is shifted by the difference between the two when the driver is created
+ * the stall detector judges both motors by the speed of the arm, so a failed encoder does not look like a stalled motor
+ * as a move is planned in time, when it arrives is known from its start, so the callers can start what comes next a known time before
+ *   time to arrival = time left of the profile + the distance the arm lags behind it / the max velocity
+ * how late each move arrives against the time predicted when it started is kept, to check the prediction on the robot from the telemetry
+ * updating creates no objects
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class LiftDriver {
+    /** the power that holds the arm still against the gravity, by the height of the arm above where it starts, in the form of {height, power}, todo: measure these values */
+    private static final double[][] gravityTable = {
+            {0, 0.15},
+            {300, 0.12},
+            {600, 0.05},
+            {800, 0},
+            {1000, -0.08}
+    };
+    /** where each value is placed in a row of the gravity table */
+    private static final int heightIndex = 0;
+    private static final int gravityPowerIndex = 1;
+
+    /** the gains of the feedback, in encoder values, kD is kP times the time the velocity is looked ahead by, todo: measure these values */
+    private static final double proportionalGain = 0.3 / 100;
+    private static final double integralGain = 0.005;
+    private static final double derivativeGain = proportionalGain * 0.05;
+    /** the integral only grows near the target, to make up for what the gravity table misses */
+    private static final double integralZone = 100;
+    /** the most power the feedback gives on its own */
+    private static final double maxFeedbackPower = 0.5;
+
+    /** the distance the two encoders may differ by before one of them has failed, in encoder values */
+    private static final double encoderDivergenceTolerance = 60; // todo: measure this value
+    /** the distance from the target, in encoder values, within which the arm has arrived once the profile has ended */
+    private static final double arrivalTolerance = 20;
+    /** the current of a lift motor held still at full power, in amps, and the cycles between two reads of the current of one of them */
+    private static final double liftStallCurrent = 9.2; // todo: measure this value
+    private static final int liftCurrentSampleInterval = 5;
+
+    /** the limits of the motion profiles of the moves, in encoder values and seconds, loaded from the calibration of the robot, see RobotCalibration */
+    private double profileMaxVelocity = RobotCalibration.get().getLiftMaxVelocity();
+    private double profileMaxAcceleration = RobotCalibration.get().getLiftMaxAcceleration();
+    private double profileMaxJerk = RobotCalibration.get().getLiftMaxJerk();
+    /** the highest power given to the motors */
+    private double maxPower = 1;
+
+    private final HardwareDriver hardwareDriver;
+    /** the power to move the arm beyond holding it, see DriveFeedforward */
+    private final DriveFeedforward feedforward = RobotCalibration.get().getLiftFeedforward();
+    /** the feedback on the position */
+    private final PIDFController controller = new PIDFController(proportionalGain, integralGain, derivativeGain, 0)
+            .setIntegralZone(integralZone)
+            .setOutputRange(-maxFeedbackPower, maxFeedbackPower);
+
+    /** judges whether the lift motors are pushing against something, see MotorStallDetector */
+    private final MotorStallDetector stallDetector = new MotorStallDetector(liftCurrentSampleInterval);
+    private final int leftIndex, rightIndex;
+
+    /** the position of the arm when the driver is created, where the heights of the gravity table start */
+    private final double bottomPosition;
+    /** the right encoder minus the left one when the driver is created */
+    private final int rightEncoderOffset;
+    /** whether each encoder is still trusted */
+    private boolean leftEncoderHealthy = true, rightEncoderHealthy = true;
+    /** the readings of the two encoders the last time they agreed */
+    private int agreedLeftPosition, agreedRightPosition;
+
+    /** the position and the velocity of the arm in this cycle, from the encoders trusted */
+    private double position, velocity;
+    /** the timestamp of the last update, in nanoseconds, and the time since the one before */
+    private long timestamp;
+    private boolean hasTimestamp = false;
+    private double dt = 0;
+
+    /** whether the motors are driven, false when the arm is relaxed */
+    private boolean active = false;
+    /** the position the arm is going to */
+    private double targetedPosition;
+    /** the move, from where it starts to the target */
+    private final MotionProfile profile = new MotionProfile();
+    private double profileStartingPosition;
+    /** the position, velocity and acceleration the profile asks for at the moment */
+    private final double[] profileState = new double[3];
+    /** the timestamp of the cycle the profile started in, in nanoseconds */
+    private long profileStartTimestamp;
+    /** where the profile asks the arm to be in this cycle */
+    private double setpoint;
+    /** whether the move has arrived, and how late it arrived against the time predicted when it started, in seconds, negative if early */
+    private boolean arrivalRecorded = false;
+    private double lastArrivalDelay = 0;
+    /** the space to plan the moves that are not started yet */
+    private final MotionProfile plannedProfile = new MotionProfile();
+    /** the power given to the motors in the last cycle */
+    private double power = 0;
+
+    /**
+     * create the driver, reading the encoders of the present cycle as where the arm starts
+     *
+     * @param hardwareDriver the connection to the hardware, with its snapshot read
+     */
+    public LiftDriver(HardwareDriver hardwareDriver) {
+        this.hardwareDriver = hardwareDriver;
+        final int leftPosition = hardwareDriver.getSnapshot().getCurrentPosition(hardwareDriver.lift_left);
+        final int rightPosition = hardwareDriver.getSnapshot().getCurrentPosition(hardwareDriver.lift_right);
+        this.rightEncoderOffset = rightPosition - leftPosition;
+        this.agreedLeftPosition = leftPosition;
+        this.agreedRightPosition = rightPosition - rightEncoderOffset;
+        this.bottomPosition = leftPosition;
+        this.position = this.targetedPosition = this.profileStartingPosition = this.setpoint = leftPosition;
+
+        /* the speed is given to the detector in the unit of the power, so it stays the same whatever the lift is fitted with */
+        final double responseTime = feedforward.getVelocityGain() > 0 ? feedforward.getAccelerationGain() / feedforward.getVelocityGain() : 0.05;
+        leftIndex = stallDetector.addMotor(hardwareDriver.lift_left, feedforward.getStaticPower(), responseTime, liftStallCurrent);
+        rightIndex = stallDetector.addMotor(hardwareDriver.lift_right, feedforward.getStaticPower(), responseTime, liftStallCurrent);
+    }
+
+    /**
+     * read the encoders of this cycle and judge the motors, called once every cycle before deciding what the arm should do
+     * updating again in the same cycle is ignored
+     */
+    public void update() {
+        final long cycleTimestamp = hardwareDriver.getClock().getCycleTimestamp();
+        if (hasTimestamp && cycleTimestamp == timestamp) return;
+        dt = hasTimestamp ? RobotClock.nanosToSeconds(cycleTimestamp - timestamp) : 0;
+        timestamp = cycleTimestamp;
+        hasTimestamp = true;
+
+        updateEncoders();
+        recordArrival();
+
+        final double velocityPower = velocity * feedforward.getVelocityGain();
+        stallDetector.setVelocity(leftIndex, velocityPower);
+        stallDetector.setVelocity(rightIndex, velocityPower);
+        stallDetector.update(cycleTimestamp);
+    }
+
+    /** read the two encoders, judge whether they are still healthy, and take the position and the velocity from the ones that are */
+    private void updateEncoders() {
+        final int leftReading = hardwareDriver.getSnapshot().getCurrentPosition(hardwareDriver.lift_left);
+        final int rightReading = hardwareDriver.getSnapshot().getCurrentPosition(hardwareDriver.lift_right);
+        final int leftPosition = leftReading, rightPosition = rightReading - rightEncoderOffset;
+        final double leftVelocity = hardwareDriver.getSnapshot().getVelocity(hardwareDriver.lift_left);
+        final double rightVelocity = hardwareDriver.getSnapshot().getVelocity(hardwareDriver.lift_right);
+
+        if (leftEncoderHealthy && rightEncoderHealthy) {
+            if (Math.abs(leftPosition - rightPosition) <= encoderDivergenceTolerance) {
+                agreedLeftPosition = leftPosition;
+                agreedRightPosition = rightPosition;
+            } else if (rightReading == 0 && leftReading != 0 || rightReading != 0 && leftReading != 0 && Math.abs(leftPosition - agreedLeftPosition) >= Math.abs(rightPosition - agreedRightPosition)) {
+                /* a failed encoder reads 0 when it is cut off, or stops counting, so it is the one that moved less */
+                rightEncoderHealthy = false;
+            } else leftEncoderHealthy = false;
+        }
+
+        if (leftEncoderHealthy && rightEncoderHealthy) {
+            position = (leftPosition + rightPosition) / 2.0;
+            velocity = (leftVelocity + rightVelocity) / 2;
+        } else if (leftEncoderHealthy) {
+            position = leftPosition;
+            velocity = leftVelocity;
+        } else {
+            position = rightPosition;
+            velocity = rightVelocity;
+        }
+    }
+
+    /** when the move arrives, keep how late it is against the prediction */
+    private void recordArrival() {
+        if (arrivalRecorded || !hasArrived()) return;
+        arrivalRecorded = true;
+        if (profile.getDistance() == 0) return;
+        lastArrivalDelay = RobotClock.nanosToSeconds(timestamp - profileStartTimestamp) - profile.getDuration();
+    }
+
+    /**
+     * give the motors the power of this cycle, called once every cycle after deciding what the arm should do
+     * a relaxed arm is given no power
+     */
+    public void sendCommandsToMotors() {
+        if (!active) {
+            power = 0;
+        } else {
+            final double profileTime = RobotClock.nanosToSeconds(timestamp - profileStartTimestamp);
+            profile.sample(profileTime, profileState);
+            setpoint = profileStartingPosition + profileState[MotionProfile.positionIndex];
+            final double setpointVelocity = profileState[MotionProfile.velocityIndex];
+            final double setpointAcceleration = profileState[MotionProfile.accelerationIndex];
+
+            final double feedback = controller.calculate(setpoint, setpointVelocity, position, velocity, dt);
+            power = getGravityPower(position - bottomPosition) + feedforward.calculate(setpointVelocity, setpointAcceleration) + feedback;
+            power = Math.max(Math.min(power, maxPower), -maxPower);
+            hardwareDriver.setMode(hardwareDriver.lift_left, DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+            hardwareDriver.setMode(hardwareDriver.lift_right, DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        }
+        hardwareDriver.setPower(hardwareDriver.lift_left, power);
+        hardwareDriver.setPower(hardwareDriver.lift_right, power);
+
+        /* the detector knows the speed the power beyond the gravity should reach */
+        final double movingPower = active ? power - getGravityPower(position - bottomPosition) : 0;
+        stallDetector.setMaxPower(leftIndex, maxPower);
+        stallDetector.setMaxPower(rightIndex, maxPower);
+        stallDetector.setPower(leftIndex, movingPower);
+        stallDetector.setPower(rightIndex, movingPower);
+    }
+
+    /**
+     * @param height the height of the arm above where it starts, in encoder values
+     * @return the power that holds the arm still there, interpolated in the gravity table
+     */
+    private static double getGravityPower(double height) {
+        int upper = 0;
+        while (upper < gravityTable.length && gravityTable[upper][heightIndex] < height) upper++;
+        if (upper == 0) return gravityTable[0][gravityPowerIndex];
+        if (upper == gravityTable.length) return gravityTable[gravityTable.length - 1][gravityPowerIndex];
+        final double[] lowerRow = gravityTable[upper - 1], upperRow = gravityTable[upper];
+        final double fraction = (height - lowerRow[heightIndex]) / (upperRow[heightIndex] - lowerRow[heightIndex]);
+        return lowerRow[gravityPowerIndex] + (upperRow[gravityPowerIndex] - lowerRow[gravityPowerIndex]) * fraction;
+    }
+
+    /**
+     * start moving the arm to a position, along a motion profile from where it is
+     * asking again for the position it is already going to or holding changes nothing, so a button held down does not start the move over every cycle
+     *
+     * @param position the targeted position, in encoder values of lift_left
+     */
+    public void moveTo(double position) {
+        if (active && position == targetedPosition) return;
+        startProfile(position, this.position);
+    }
+
+    /**
+     * hold the arm at a position, without a motion profile, such as where it is
+     *
+     * @param position the position to hold, in encoder values of lift_left
+     */
+    public void holdAt(double position) {
+        if (active && position == targetedPosition && profile.getDistance() == 0) return;
+        startProfile(position, position);
+    }
+
+    private void startProfile(double position, double startingPosition) {
+        targetedPosition = position;
+        profileStartingPosition = startingPosition;
+        profile.generate(position - startingPosition, profileMaxVelocity, profileMaxAcceleration, profileMaxJerk);
+        profileStartTimestamp = hardwareDriver.getClock().getCycleTimestamp();
+        setpoint = startingPosition;
+        arrivalRecorded = false;
+        if (!active) controller.reset();
+        active = true;
+        stallDetector.reset();
+    }
+
+    /** cut the power of the motors, the arm falls to the bottom */
+    public void relax() {
+        active = false;
+        controller.reset();
+        stallDetector.reset();
+    }
+
+    /** @return whether the profile of the move has ended and the arm is close enough to the target */
+    public boolean hasArrived() {
+        return active
+                && RobotClock.nanosToSeconds(hardwareDriver.getClock().getCycleTimestamp() - profileStartTimestamp) >= profile.getDuration()
+                && Math.abs(targetedPosition - position) <= arrivalTolerance;
+    }
+
+    /**
+     * predict how long until the arm arrives at its target, so what comes next can be started that long before
+     * the time left of the profile, plus the time to make up the distance the arm lags behind it at the max velocity
+     *
+     * @return the time, in seconds, 0 once it has arrived, Double.POSITIVE_INFINITY if the arm is relaxed
+     */
+    public double getTimeToArrival() {
+        if (!active) return Double.POSITIVE_INFINITY;
+        if (arrivalRecorded) return 0;
+        final double profileTimeLeft = profile.getDuration() - RobotClock.nanosToSeconds(hardwareDriver.getClock().getCycleTimestamp() - profileStartTimestamp);
+        final double lagDistance;
+        if (profileTimeLeft > 0) lagDistance = (setpoint - position) * Math.signum(targetedPosition - profileStartingPosition);
+        else lagDistance = Math.abs(targetedPosition - position) - arrivalTolerance;
+        return Math.max(profileTimeLeft, 0) + Math.max(lagDistance, 0) / profileMaxVelocity;
+    }
+
+    /**
+     * predict how long a move from where the arm is would take, without starting it
+     *
+     * @param position the targeted position, in encoder values of lift_left
+     * @return the time, in seconds
+     */
+    public double getMoveDuration(double position) {
+        return plannedProfile.generate(position - this.position, profileMaxVelocity, profileMaxAcceleration, profileMaxJerk).getDuration();
+    }
+
+    /** @return how late the last move arrived against the time predicted when it started, in seconds, negative if early */
+    public double getLastArrivalDelay() { return lastArrivalDelay; }
+
+    /**
+     * set the limits of the motion profiles of the moves to come
+     *
+     * @param maxVelocity the limit of the velocity, in encoder values per second
+     * @param maxAcceleration the limit of the acceleration, in encoder values per second squared
+     * @param maxJerk the limit of the jerk, in encoder values per second cubed, Double.POSITIVE_INFINITY for trapezoidal profiles
+     * @throws IllegalArgumentException if any of them is not positive
+     */
+    public void setProfileLimits(double maxVelocity, double maxAcceleration, double maxJerk) throws IllegalArgumentException {
+        if (!(maxVelocity > 0 && maxAcceleration > 0 && maxJerk > 0)) throw new IllegalArgumentException("the limits of the profiles of the lift must be positive");
+        this.profileMaxVelocity = maxVelocity;
+        this.profileMaxAcceleration = maxAcceleration;
+        this.profileMaxJerk = maxJerk;
+    }
+
+    /**
+     * @param maxPower the highest power given to the motors, from 0 to 1
+     * @throws IllegalArgumentException if it is out of the range
+     */
+    public void setMaxPower(double maxPower) throws IllegalArgumentException {
+        if (!(maxPower > 0 && maxPower <= 1)) throw new IllegalArgumentException("the max power of the lift must be from 0 to 1, not " + maxPower);
+        this.maxPower = maxPower;
+    }
+
+    /** @return the position of the arm in this cycle, in encoder values of lift_left */
+    public double getPosition() { return position; }
+
+    /** @return the velocity of the arm in this cycle, in encoder values per second */
+    public double getVelocity() { return velocity; }
+
+    /** @return the position the arm is going to or holding */
+    public double getTargetedPosition() { return targetedPosition; }
+
+    /** @return whether the motors are driven, false when the arm is relaxed */
+    public boolean isActive() { return active; }
+
+    /** @return the power given to the motors in the last cycle */
+    public double getPower() { return power; }
+
+    public boolean isLeftEncoderHealthy() { return leftEncoderHealthy; }
+
+    public boolean isRightEncoderHealthy() { return rightEncoderHealthy; }
+
+    /** @return the detector of the lift motors, the left and the right one, judged in update() */
+    public MotorStallDetector getStallDetector() { return stallDetector; }
+
+    public int getLeftMotorIndex() { return leftIndex; }
+
+    public int getRightMotorIndex() { return rightIndex; }
+}
@@ -0,0 +1,246 @@
+package org.firstinspires.ftc.teamcode.Drivers;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.Servo;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: MotorCommandBuffer.java
+ *
+ * the write side of the hardware driver, every command to the motors and servos goes through here
+ * it remembers what was last sent to each motor, and drops the commands that would not change anything on the hardware
+ * when batching is enabled, the commands are kept until the end of the control cycle and only the last one of each kind is sent
+ * when batching is disabled, the commands are sent at once, but the redundant ones are still dropped
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class MotorCommandBuffer {
+    /** the maximum amount of motors, four on each of the two hubs */
+    private static final int maxMotors = 8;
+    /** the maximum amount of servos */
+    private static final int maxServos = 6;
+
+    /** the motors that have received commands, added the first time they are commanded */
+    private final DcMotorEx[] motors = new DcMotorEx[maxMotors];
+    /** the amount of motors that have received commands */
+    private int motorsCount = 0;
+
+    /** the last mode, target position, power and velocity sent to the motors, null or NaN if unknown */
+    private final DcMotor.RunMode[] sentModes = new DcMotor.RunMode[maxMotors];
+    private final int[] sentTargets = new int[maxMotors];
+    private final boolean[] targetSent = new boolean[maxMotors];
+    private final double[] sentPowers = new double[maxMotors];
+    private final double[] sentVelocities = new double[maxMotors];
+
+    /** the commands waiting to be sent at the end of the cycle */
+    private final DcMotor.RunMode[] pendingModes = new DcMotor.RunMode[maxMotors];
+    private final int[] pendingTargets = new int[maxMotors];
+    private final boolean[] targetPending = new boolean[maxMotors];
+    private final double[] pendingPowers = new double[maxMotors];
+    private final boolean[] powerPending = new boolean[maxMotors];
+    private final double[] pendingVelocities = new double[maxMotors];
+    private final boolean[] velocityPending = new boolean[maxMotors];
+
+    /** the servos that have received commands, their last sent and pending positions */
+    private final Servo[] servos = new Servo[maxServos];
+    private int servosCount = 0;
+    private final double[] sentServoPositions = new double[maxServos];
+    private final double[] pendingServoPositions = new double[maxServos];
+    private final boolean[] servoPositionPending = new boolean[maxServos];
+
+    /** the change in power smaller than which a power command is considered redundant, a command to stop is always sent */
+    private double powerEpsilon = 0.005;
+    /** whether to keep the commands until the end of the control cycle */
+    private boolean batching = false;
+
+    /** the amount of commands sent to the hardware in the present cycle and the last cycle */
+    private int writesIssued, writesIssuedLastCycle;
+    /** the amount of commands dropped in the present cycle and the last cycle */
+    private int writesSuppressed, writesSuppressedLastCycle;
+
+    /** set the run mode of a motor, dropped if the motor is already in this mode */
+    public void setMode(DcMotorEx motor, DcMotor.RunMode mode) {
+        int index = indexOf(motor);
+        if (pendingModes[index] != null) writesSuppressed++; // the earlier command in this cycle is replaced
+        pendingModes[index] = mode;
+        if (!batching) flush(index);
+    }
+
+    /** set the target position of a motor, dropped if the motor already has this target */
+    public void setTargetPosition(DcMotorEx motor, int target) {
+        int index = indexOf(motor);
+        if (targetPending[index]) writesSuppressed++;
+        pendingTargets[index] = target;
+        targetPending[index] = true;
+        if (!batching) flush(index);
+    }
+
+    /** set the power of a motor, dropped if it differs from the power sent last time by less than the power epsilon */
+    public void setPower(DcMotorEx motor, double power) {
+        int index = indexOf(motor);
+        if (powerPending[index] || velocityPending[index]) writesSuppressed++;
+        pendingPowers[index] = power;
+        powerPending[index] = true;
+        velocityPending[index] = false; // the power and the velocity both decide the output of the motor, the later one wins
+        if (!batching) flush(index);
+    }
+
+    /** set the velocity of a motor, in encoder values per second, dropped if the motor is already given this velocity */
+    public void setVelocity(DcMotorEx motor, double velocity) {
+        int index = indexOf(motor);
+        if (powerPending[index] || velocityPending[index]) writesSuppressed++;
+        pendingVelocities[index] = velocity;
+        velocityPending[index] = true;
+        powerPending[index] = false;
+        if (!batching) flush(index);
+    }
+
+    /** set the position of a servo, dropped if the servo is already given this position */
+    public void setServoPosition(Servo servo, double position) {
+        int index = indexOfServo(servo);
+        if (servoPositionPending[index]) writesSuppressed++;
+        pendingServoPositions[index] = position;
+        servoPositionPending[index] = true;
+        if (!batching) flushServo(index);
+    }
+
+    /** send all the commands waiting, called at the end of every control cycle */
+    public void flush() {
+        for (int i = 0; i < motorsCount; i++) flush(i);
+        for (int i = 0; i < servosCount; i++) flushServo(i);
+    }
+
+    /** move the counters of the present cycle to the last cycle, called at the start of every cycle */
+    void startNewCycle() {
+        writesIssuedLastCycle = writesIssued;
+        writesSuppressedLastCycle = writesSuppressed;
+        writesIssued = writesSuppressed = 0;
+    }
+
+    /**
+     * send the commands waiting for a motor, skipping the ones that are already in effect
+     * the target goes first, as the sdk refuses to switch to RUN_TO_POSITION without a target, then the mode, then the power or velocity
+     */
+    private void flush(int index) {
+        DcMotorEx motor = motors[index];
+
+        if (targetPending[index]) {
+            targetPending[index] = false;
+            if (targetSent[index] && sentTargets[index] == pendingTargets[index]) writesSuppressed++;
+            else {
+                motor.setTargetPosition(pendingTargets[index]);
+                sentTargets[index] = pendingTargets[index];
+                targetSent[index] = true;
+                writesIssued++;
+            }
+        }
+
+        if (pendingModes[index] != null) {
+            if (sentModes[index] == pendingModes[index]) writesSuppressed++;
+            else {
+                motor.setMode(pendingModes[index]);
+                sentModes[index] = pendingModes[index];
+                writesIssued++;
+                /* the controller may reset the output when the mode changes, so the next power or velocity is always sent */
+                sentPowers[index] = sentVelocities[index] = Double.NaN;
+            }
+            pendingModes[index] = null;
+        }
+
+        if (powerPending[index]) {
+            powerPending[index] = false;
+            double power = pendingPowers[index];
+            boolean redundant = Math.abs(power - sentPowers[index]) < powerEpsilon && (power != 0 || sentPowers[index] == 0);
+            if (redundant) writesSuppressed++;
+            else {
+                motor.setPower(power);
+                sentPowers[index] = power;
+                sentVelocities[index] = Double.NaN;
+                writesIssued++;
+            }
+        } else if (velocityPending[index]) {
+            velocityPending[index] = false;
+            if (sentVelocities[index] == pendingVelocities[index]) writesSuppressed++;
+            else {
+                motor.setVelocity(pendingVelocities[index]);
+                sentVelocities[index] = pendingVelocities[index];
+                sentPowers[index] = Double.NaN;
+                writesIssued++;
+            }
+        }
+    }
+
+    private void flushServo(int index) {
+        if (!servoPositionPending[index]) return;
+        servoPositionPending[index] = false;
+        if (sentServoPositions[index] == pendingServoPositions[index]) {
+            writesSuppressed++;
+            return;
+        }
+        servos[index].setPosition(pendingServoPositions[index]);
+        sentServoPositions[index] = pendingServoPositions[index];
+        writesIssued++;
+    }
+
+    /**
+     * find the index of a motor, the motor is added if it has never been commanded
+     *
+     * @throws IndexOutOfBoundsException if too many motors are commanded
+     */
+    private int indexOf(DcMotorEx motor) throws IndexOutOfBoundsException {
+        for (int i = 0; i < motorsCount; i++) if (motors[i] == motor) return i;
+
+        if (motorsCount == maxMotors) throw new IndexOutOfBoundsException("a motor command buffer handles at most " + maxMotors + " motors");
+        /* nothing is known about what the motor is doing, so the first command of each kind is always sent */
+        motors[motorsCount] = motor;
+        sentModes[motorsCount] = null;
+        targetSent[motorsCount] = false;
+        sentPowers[motorsCount] = sentVelocities[motorsCount] = Double.NaN;
+        return motorsCount++;
+    }
+
+    private int indexOfServo(Servo servo) throws IndexOutOfBoundsException {
+        for (int i = 0; i < servosCount; i++) if (servos[i] == servo) return i;
+
+        if (servosCount == maxServos) throw new IndexOutOfBoundsException("a motor command buffer handles at most " + maxServos + " servos");
+        servos[servosCount] = servo;
+        sentServoPositions[servosCount] = Double.NaN;
+        return servosCount++;
+    }
+
+    /**
+     * forget what was last sent to the hardware, so that all the following commands are sent
+     * used when something else, like the sdk at the end of an op-mode, might have changed the hardware state
+     */
+    public void invalidate() {
+        for (int i = 0; i < motorsCount; i++) {
+            sentModes[i] = null;
+            targetSent[i] = false;
+            sentPowers[i] = sentVelocities[i] = Double.NaN;
+        }
+        for (int i = 0; i < servosCount; i++) sentServoPositions[i] = Double.NaN;
+    }
+
+    /** @param powerEpsilon the change in power smaller than which a power command is dropped */
+    public void setPowerEpsilon(double powerEpsilon) { this.powerEpsilon = powerEpsilon; }
+
+    /**
+     * @param batching whether to keep the commands until the end of the control cycle
+     *                 the commands already waiting are sent when batching is turned off
+     */
+    public void setBatching(boolean batching) {
+        this.batching = batching;
+        if (!batching) flush();
+    }
+
+    public boolean isBatching() { return batching; }
+
+    /** @return the amount of commands sent to the hardware during the last cycle */
+    public int getWritesIssuedLastCycle() { return writesIssuedLastCycle; }
+
+    /** @return the amount of commands dropped during the last cycle, because they would not change anything or were replaced by a later one */
+    public int getWritesSuppressedLastCycle() { return writesSuppressedLastCycle; }
+}
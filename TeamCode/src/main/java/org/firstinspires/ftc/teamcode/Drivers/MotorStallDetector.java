@@ -0,0 +1,237 @@
+package org.firstinspires.ftc.teamcode.Drivers;
+
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit;
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: MotorStallDetector.java
+ *
+ * judges, for each motor, whether it is pushing against something, from its power, its speed and its current
+ *  - the speed it should reach is the power beyond the static friction, delayed by how fast the motor speeds up
+ *    the load is the share of that speed that is missing, a motor asked for less than a small power is not judged by its speed at all
+ *  - the current is read from one motor every few cycles, in turn, as each read is a transaction of its own with the hub, unlike the encoders
+ *    its load is the share of the current the motor would draw held still at the power it is given, which is the same share as the speed missing
+ *    a motor losing only some of its speed is pushing if the current agrees, so pushing a junction is told from a slow approach
+ *    a motor given almost no power, such as one held at its position by the hub, is judged by the current alone
+ * a motor that starts pushing has collided, an event in the very update it happens, so the owner can stop within the same cycle
+ * if it keeps pushing for the stall time, it has stalled, another event
+ * the speed is given in the unit of the power, the power that would keep the motor at that speed beyond the static friction
+ * so a motor whose encoder is not its own, like a wheel of the chassis measured by the odometry, can be judged as well
+ * updating creates no objects, and updating again in the same cycle is ignored
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class MotorStallDetector {
+    /** the maximum amount of motors, four on each of the two hubs */
+    private static final int maxMotors = 8;
+
+    /** the states of a motor */
+    public static final int freeState = 0;
+    public static final int collisionState = 1;
+    public static final int stallState = 2;
+
+    /** the motors asked for a smaller power, beyond the static friction, are not judged by their speed */
+    private static final double minExpectedPower = 0.15;
+    /** the load above which a motor is pushing, judged by its speed or its current alone */
+    private static final double blockedLoad = 0.7;
+    /** the load above which a motor is pushing if the speed and the current both say so, and below which it is free again, apart so the state does not flicker */
+    private static final double confirmedLoad = 0.4;
+
+    /** the motors, their static power, the time they take to speed up in seconds, and the current they draw held still at full power in amps */
+    private final DcMotorEx[] motors = new DcMotorEx[maxMotors];
+    private final double[] staticPowers = new double[maxMotors];
+    private final double[] responseTimes = new double[maxMotors];
+    private final double[] stallCurrents = new double[maxMotors];
+    /** the power the current of each motor is judged against when the motor is not judged by its speed */
+    private final double[] maxPowers = new double[maxMotors];
+    /** the amount of motors */
+    private int motorsCount = 0;
+
+    /** the power given to each motor, and its speed, in the unit of the power */
+    private final double[] powers = new double[maxMotors];
+    private final double[] velocityPowers = new double[maxMotors];
+    /** the speed each motor should have reached, in the unit of the power */
+    private final double[] expectedPowers = new double[maxMotors];
+    /** the share of the expected speed that is missing, from 0 to 1 */
+    private final double[] loads = new double[maxMotors];
+    /** the last current read from each motor in amps, NaN if never read, and how long ago it was read in seconds */
+    private final double[] currents = new double[maxMotors];
+    private final double[] currentAges = new double[maxMotors];
+    /** how long each motor has been pushing, in seconds */
+    private final double[] blockedTimes = new double[maxMotors];
+    /** the state of each motor, and whether it entered it in the last update */
+    private final int[] states = new int[maxMotors];
+    private final boolean[] events = new boolean[maxMotors];
+
+    /** the cycles between two reads of the current, and the cycles since the last one */
+    private final int currentSampleInterval;
+    private int cyclesSinceCurrentRead = 0;
+    /** the motor to read the current of next */
+    private int nextCurrentIndex = 0;
+    /** how long a read of the current stays valid, in seconds */
+    private double currentValidTime = 0.5;
+    /** how long a motor keeps pushing before it has stalled, in seconds */
+    private double stallTime = 0.25;
+
+    /** the timestamp of the last update, in nanoseconds */
+    private long timestamp;
+    private boolean hasTimestamp = false;
+
+    /**
+     * @param currentSampleInterval the cycles between two reads of the current, one motor is read each time
+     * @throws IllegalArgumentException if it is below one
+     */
+    public MotorStallDetector(int currentSampleInterval) throws IllegalArgumentException {
+        if (currentSampleInterval < 1) throw new IllegalArgumentException("the current must be read at most once a cycle, not every " + currentSampleInterval + " cycles");
+        this.currentSampleInterval = currentSampleInterval;
+    }
+
+    /**
+     * add a motor to judge
+     *
+     * @param motor the motor, to read the current from
+     * @param staticPower the power below which the motor does not move, kS
+     * @param responseTime the time the motor takes to speed up, kA / kV, in seconds
+     * @param stallCurrent the current the motor draws held still at full power, in amps
+     * @return the index of the motor, in the order they are added
+     * @throws IllegalArgumentException if the motor is null, or the response time or the stall current is not positive
+     * @throws IndexOutOfBoundsException if too many motors are added
+     */
+    public int addMotor(DcMotorEx motor, double staticPower, double responseTime, double stallCurrent) throws IllegalArgumentException, IndexOutOfBoundsException {
+        if (motor == null) throw new IllegalArgumentException("the motor to detect the stall of is not connected");
+        if (!(responseTime > 0 && stallCurrent > 0)) throw new IllegalArgumentException("the response time and the stall current of a motor must be positive");
+        if (motorsCount == maxMotors) throw new IndexOutOfBoundsException("a stall detector judges at most " + maxMotors + " motors");
+        motors[motorsCount] = motor;
+        staticPowers[motorsCount] = Math.abs(staticPower);
+        responseTimes[motorsCount] = responseTime;
+        stallCurrents[motorsCount] = stallCurrent;
+        maxPowers[motorsCount] = 1;
+        currents[motorsCount] = Double.NaN;
+        currentAges[motorsCount] = Double.POSITIVE_INFINITY;
+        reset(motorsCount);
+        return motorsCount++;
+    }
+
+    /** set the power given to a motor, the last one in a cycle is judged in the next update, as the speed read then comes from it */
+    public void setPower(int motorIndex, double power) { powers[motorIndex] = power; }
+
+    /** set the speed of a motor read in this cycle, in the unit of the power, see the class */
+    public void setVelocity(int motorIndex, double velocityPower) { velocityPowers[motorIndex] = velocityPower; }
+
+    /**
+     * set the power the current of a motor is judged against when the motor is not judged by its speed, such as the power limit of RUN_TO_POSITION, one if not set
+     *
+     * @throws IllegalArgumentException if it is not positive
+     */
+    public void setMaxPower(int motorIndex, double maxPower) throws IllegalArgumentException {
+        if (!(maxPower > 0)) throw new IllegalArgumentException("the max power of a motor must be positive, not " + maxPower);
+        maxPowers[motorIndex] = maxPower;
+    }
+
+    /**
+     * judge all the motors, called once every cycle after their speeds are set
+     * one motor has its current read, if it is its turn
+     *
+     * @param timestamp the time of the cycle, in nanoseconds, an update with the same time as the last is ignored
+     */
+    public void update(long timestamp) {
+        if (hasTimestamp && timestamp == this.timestamp) return;
+        double dt = hasTimestamp ? RobotClock.nanosToSeconds(timestamp - this.timestamp) : 0;
+        this.timestamp = timestamp;
+        hasTimestamp = true;
+
+        for (int i = 0; i < motorsCount; i++) currentAges[i] += dt;
+        if (motorsCount > 0 && ++cyclesSinceCurrentRead >= currentSampleInterval) {
+            cyclesSinceCurrentRead = 0;
+            currents[nextCurrentIndex] = motors[nextCurrentIndex].getCurrent(CurrentUnit.AMPS);
+            currentAges[nextCurrentIndex] = 0;
+            nextCurrentIndex = (nextCurrentIndex + 1) % motorsCount;
+        }
+
+        for (int i = 0; i < motorsCount; i++) update(i, dt);
+    }
+
+    private void update(int i, double dt) {
+        events[i] = false;
+
+        /* the speed follows the power beyond the static friction, as a first-order lag */
+        double power = powers[i];
+        double targetedPower = Math.abs(power) > staticPowers[i] ? power - Math.copySign(staticPowers[i], power) : 0;
+        expectedPowers[i] += (targetedPower - expectedPowers[i]) * dt / (responseTimes[i] + dt);
+
+        /* a motor given a power but not up to speed yet, such as one reversing, is judged by neither */
+        boolean judgedBySpeed = Math.abs(expectedPowers[i]) >= minExpectedPower;
+        boolean judgedByCurrentAlone = !judgedBySpeed && Math.abs(power) < minExpectedPower;
+        boolean currentValid = currentAges[i] <= currentValidTime;
+        double currentLoad = currentValid ? currents[i] / (stallCurrents[i] * (judgedBySpeed ? Math.abs(power) : maxPowers[i])) : 0;
+        if (judgedBySpeed) loads[i] = Math.max(Math.min(1 - velocityPowers[i] / expectedPowers[i], 1), 0);
+        else loads[i] = judgedByCurrentAlone ? Math.min(currentLoad, 1) : 0;
+        /* a motor speeding up draws a lot of current too, but it is not missing its speed, so the current alone never counts for a motor judged by its speed */
+        boolean confirmed = judgedBySpeed && loads[i] >= confirmedLoad && currentLoad >= confirmedLoad;
+
+        if (loads[i] >= blockedLoad || confirmed) {
+            blockedTimes[i] += dt;
+            if (states[i] == freeState) enter(i, collisionState);
+            if (states[i] == collisionState && blockedTimes[i] >= stallTime) enter(i, stallState);
+        } else if (loads[i] < confirmedLoad) {
+            blockedTimes[i] = 0;
+            states[i] = freeState;
+        }
+    }
+
+    private void enter(int i, int state) {
+        states[i] = state;
+        events[i] = true;
+    }
+
+    /** forget what is known of a motor, except its current, such as when it is given a new motion */
+    public void reset(int motorIndex) {
+        powers[motorIndex] = velocityPowers[motorIndex] = expectedPowers[motorIndex] = loads[motorIndex] = 0;
+        blockedTimes[motorIndex] = 0;
+        states[motorIndex] = freeState;
+        events[motorIndex] = false;
+    }
+
+    /** forget what is known of all the motors, except their currents */
+    public void reset() {
+        for (int i = 0; i < motorsCount; i++) reset(i);
+    }
+
+    /** @param stallTime how long a motor keeps pushing before it has stalled, in seconds */
+    public void setStallTime(double stallTime) { this.stallTime = stallTime; }
+
+    /** @param currentValidTime how long a read of the current stays valid, in seconds */
+    public void setCurrentValidTime(double currentValidTime) { this.currentValidTime = currentValidTime; }
+
+    /** @return the state of a motor, freeState, collisionState or stallState */
+    public int getState(int motorIndex) { return states[motorIndex]; }
+
+    /** @return whether a motor has entered the collision or the stall state in the last update */
+    public boolean hasEvent(int motorIndex) { return events[motorIndex]; }
+
+    /** @return whether any motor is pushing against something, whether or not it has stalled yet */
+    public boolean isAnyCollided() {
+        for (int i = 0; i < motorsCount; i++) if (states[i] != freeState) return true;
+        return false;
+    }
+
+    /** @return whether any motor has stalled */
+    public boolean isAnyStalled() {
+        for (int i = 0; i < motorsCount; i++) if (states[i] == stallState) return true;
+        return false;
+    }
+
+    /** @return the share of the expected speed of a motor that is missing in the last update, or of its stall current if it is not judged by its speed, from 0 to 1 */
+    public double getLoad(int motorIndex) { return loads[motorIndex]; }
+
+    /** @return the last current read from a motor, in amps, NaN if it has never been read */
+    public double getCurrent(int motorIndex) { return currents[motorIndex]; }
+
+    /** @return the amount of motors */
+    public int getMotorsCount() { return motorsCount; }
+}
@@ -0,0 +1,109 @@
+package org.firstinspires.ftc.teamcode.Geometry;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: Matrix2d.java
+ *
+ * a 2 by 2 matrix, a linear transformation in 2d space
+ * the methods ending with "Into" write the result into a given matrix or vector, which can be one of the operands
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class Matrix2d {
+    /** the elements, in the order of {row 0: a, b; row 1: c, d} */
+    private double a, b, c, d;
+
+    /** construct an identity matrix */
+    public Matrix2d() {
+        this(1, 0, 0, 1);
+    }
+
+    public Matrix2d(double a, double b, double c, double d) {
+        set(a, b, c, d);
+    }
+
+    /** @return the matrix that turns a vector counter-clockwise by a rotation */
+    public static Matrix2d rotation(Rotation2d rotation) {
+        return new Matrix2d().setRotation(rotation);
+    }
+
+    public Matrix2d set(double a, double b, double c, double d) {
+        this.a = a;
+        this.b = b;
+        this.c = c;
+        this.d = d;
+        return this;
+    }
+
+    public Matrix2d set(Matrix2d other) {
+        return set(other.a, other.b, other.c, other.d);
+    }
+
+    public Matrix2d setIdentity() {
+        return set(1, 0, 0, 1);
+    }
+
+    public Matrix2d setRotation(Rotation2d rotation) {
+        return set(rotation.getCos(), -rotation.getSin(), rotation.getSin(), rotation.getCos());
+    }
+
+    /**
+     * @param row the row, 0 or 1
+     * @param column the column, 0 or 1
+     * @throws IndexOutOfBoundsException if the element does not exist
+     */
+    public double get(int row, int column) throws IndexOutOfBoundsException {
+        if (row < 0 || row > 1 || column < 0 || column > 1) throw new IndexOutOfBoundsException("no element (" + row + ", " + column + ") in a 2 by 2 matrix");
+        if (row == 0) return column == 0 ? a : b;
+        return column == 0 ? c : d;
+    }
+
+    public double determinant() {
+        return a * d - b * c;
+    }
+
+    public Vector2d times(Vector2d vector) {
+        return timesInto(vector, new Vector2d());
+    }
+
+    public Vector2d timesInto(Vector2d vector, Vector2d result) {
+        return result.set(a * vector.getX() + b * vector.getY(), c * vector.getX() + d * vector.getY());
+    }
+
+    public Matrix2d times(Matrix2d other) {
+        return timesInto(other, new Matrix2d());
+    }
+
+    public Matrix2d timesInto(Matrix2d other, Matrix2d result) {
+        return result.set(
+                a * other.a + b * other.c, a * other.b + b * other.d,
+                c * other.a + d * other.c, c * other.b + d * other.d
+        );
+    }
+
+    public Matrix2d transpose() {
+        return transposeInto(new Matrix2d());
+    }
+
+    public Matrix2d transposeInto(Matrix2d result) {
+        return result.set(a, c, b, d);
+    }
+
+    public Matrix2d inverse() throws ArithmeticException {
+        return inverseInto(new Matrix2d());
+    }
+
+    /** @throws ArithmeticException if the matrix is singular */
+    public Matrix2d inverseInto(Matrix2d result) throws ArithmeticException {
+        double determinant = determinant();
+        if (determinant == 0) throw new ArithmeticException("cannot invert a singular matrix " + this);
+        return result.set(d / determinant, -b / determinant, -c / determinant, a / determinant);
+    }
+
+    @Override
+    public String toString() {
+        return "[[" + a + ", " + b + "], [" + c + ", " + d + "]]";
+    }
+}
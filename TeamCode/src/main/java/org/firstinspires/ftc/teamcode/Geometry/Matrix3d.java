@@ -0,0 +1,185 @@
+package org.firstinspires.ftc.teamcode.Geometry;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: Matrix3d.java
+ *
+ * a 3 by 3 matrix, for the transformations of poses and for the covariances of the estimators
+ * the methods ending with "Into" write the result into a given matrix, which can be one of the operands
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class Matrix3d {
+    /** the elements, row after row */
+    private final double[] elements = new double[9];
+    /** the space to compute in, so that the result can be one of the operands */
+    private final double[] buffer = new double[9];
+
+    /** construct an identity matrix */
+    public Matrix3d() {
+        setIdentity();
+    }
+
+    /** construct a matrix from its elements, row after row */
+    public Matrix3d(double... elements) throws IllegalArgumentException {
+        set(elements);
+    }
+
+    /** @return the matrix that moves a point, in homogeneous coordinates, from the reference of a pose to the field */
+    public static Matrix3d transform(Pose2d pose) {
+        Rotation2d rotation = pose.getRotation();
+        return new Matrix3d(
+                rotation.getCos(), -rotation.getSin(), pose.getX(),
+                rotation.getSin(), rotation.getCos(), pose.getY(),
+                0, 0, 1
+        );
+    }
+
+    /** @return a matrix with the given elements on the diagonal and zeros elsewhere */
+    public static Matrix3d diagonal(double d0, double d1, double d2) {
+        return new Matrix3d(d0, 0, 0, 0, d1, 0, 0, 0, d2);
+    }
+
+    /** @throws IllegalArgumentException if not given nine elements */
+    public Matrix3d set(double... elements) throws IllegalArgumentException {
+        if (elements.length != 9) throw new IllegalArgumentException("a 3 by 3 matrix needs 9 elements, " + elements.length + " given");
+        System.arraycopy(elements, 0, this.elements, 0, 9);
+        return this;
+    }
+
+    public Matrix3d set(Matrix3d other) {
+        System.arraycopy(other.elements, 0, elements, 0, 9);
+        return this;
+    }
+
+    public Matrix3d setIdentity() {
+        for (int i = 0; i < 9; i++) elements[i] = i % 4 == 0 ? 1 : 0;
+        return this;
+    }
+
+    public Matrix3d setZero() {
+        for (int i = 0; i < 9; i++) elements[i] = 0;
+        return this;
+    }
+
+    /**
+     * @param row the row, from 0 to 2
+     * @param column the column, from 0 to 2
+     */
+    public double get(int row, int column) {
+        return elements[row * 3 + column];
+    }
+
+    public Matrix3d set(int row, int column, double value) {
+        elements[row * 3 + column] = value;
+        return this;
+    }
+
+    public double determinant() {
+        double[] m = elements;
+        return m[0] * (m[4] * m[8] - m[5] * m[7])
+                - m[1] * (m[3] * m[8] - m[5] * m[6])
+                + m[2] * (m[3] * m[7] - m[4] * m[6]);
+    }
+
+    public Matrix3d plus(Matrix3d other) {
+        return plusInto(other, new Matrix3d());
+    }
+
+    public Matrix3d plusInto(Matrix3d other, Matrix3d result) {
+        for (int i = 0; i < 9; i++) result.elements[i] = elements[i] + other.elements[i];
+        return result;
+    }
+
+    public Matrix3d minus(Matrix3d other) {
+        return minusInto(other, new Matrix3d());
+    }
+
+    public Matrix3d minusInto(Matrix3d other, Matrix3d result) {
+        for (int i = 0; i < 9; i++) result.elements[i] = elements[i] - other.elements[i];
+        return result;
+    }
+
+    public Matrix3d times(double scalar) {
+        return timesInto(scalar, new Matrix3d());
+    }
+
+    public Matrix3d timesInto(double scalar, Matrix3d result) {
+        for (int i = 0; i < 9; i++) result.elements[i] = elements[i] * scalar;
+        return result;
+    }
+
+    public Matrix3d times(Matrix3d other) {
+        return timesInto(other, new Matrix3d());
+    }
+
+    public Matrix3d timesInto(Matrix3d other, Matrix3d result) {
+        for (int row = 0; row < 3; row++)
+            for (int column = 0; column < 3; column++)
+                buffer[row * 3 + column] = elements[row * 3] * other.elements[column]
+                        + elements[row * 3 + 1] * other.elements[3 + column]
+                        + elements[row * 3 + 2] * other.elements[6 + column];
+        System.arraycopy(buffer, 0, result.elements, 0, 9);
+        return result;
+    }
+
+    /**
+     * multiply a column vector
+     *
+     * @param vector the vector, three elements
+     * @param result the array to write the result into, can be the same one as the vector
+     * @return the result
+     */
+    public double[] timesInto(double[] vector, double[] result) {
+        double r0 = elements[0] * vector[0] + elements[1] * vector[1] + elements[2] * vector[2];
+        double r1 = elements[3] * vector[0] + elements[4] * vector[1] + elements[5] * vector[2];
+        double r2 = elements[6] * vector[0] + elements[7] * vector[1] + elements[8] * vector[2];
+        result[0] = r0;
+        result[1] = r1;
+        result[2] = r2;
+        return result;
+    }
+
+    public Matrix3d transpose() {
+        return transposeInto(new Matrix3d());
+    }
+
+    public Matrix3d transposeInto(Matrix3d result) {
+        for (int row = 0; row < 3; row++)
+            for (int column = 0; column < 3; column++)
+                buffer[column * 3 + row] = elements[row * 3 + column];
+        System.arraycopy(buffer, 0, result.elements, 0, 9);
+        return result;
+    }
+
+    public Matrix3d inverse() throws ArithmeticException {
+        return inverseInto(new Matrix3d());
+    }
+
+    /** @throws ArithmeticException if the matrix is singular */
+    public Matrix3d inverseInto(Matrix3d result) throws ArithmeticException {
+        double determinant = determinant();
+        if (determinant == 0) throw new ArithmeticException("cannot invert a singular matrix " + this);
+        double[] m = elements;
+        /* the adjugate matrix divided by the determinant */
+        buffer[0] = (m[4] * m[8] - m[5] * m[7]) / determinant;
+        buffer[1] = (m[2] * m[7] - m[1] * m[8]) / determinant;
+        buffer[2] = (m[1] * m[5] - m[2] * m[4]) / determinant;
+        buffer[3] = (m[5] * m[6] - m[3] * m[8]) / determinant;
+        buffer[4] = (m[0] * m[8] - m[2] * m[6]) / determinant;
+        buffer[5] = (m[2] * m[3] - m[0] * m[5]) / determinant;
+        buffer[6] = (m[3] * m[7] - m[4] * m[6]) / determinant;
+        buffer[7] = (m[1] * m[6] - m[0] * m[7]) / determinant;
+        buffer[8] = (m[0] * m[4] - m[1] * m[3]) / determinant;
+        System.arraycopy(buffer, 0, result.elements, 0, 9);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        double[] m = elements;
+        return "[[" + m[0] + ", " + m[1] + ", " + m[2] + "], [" + m[3] + ", " + m[4] + ", " + m[5] + "], [" + m[6] + ", " + m[7] + ", " + m[8] + "]]";
+    }
+}
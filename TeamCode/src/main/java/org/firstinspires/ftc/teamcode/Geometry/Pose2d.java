@@ -0,0 +1,163 @@
+package org.firstinspires.ftc.teamcode.Geometry;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: Pose2d.java
+ *
+ * the position and facing of the robot on the field
+ * the robot's own reference has its x-axle pointing to the right of the robot and its y-axle pointing forward when the facing is zero
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class Pose2d {
+    /** the position */
+    private final Vector2d translation = new Vector2d();
+    /** the facing */
+    private final Rotation2d rotation = new Rotation2d();
+
+    public Pose2d() {
+        this(0, 0, 0);
+    }
+
+    public Pose2d(double x, double y, double radians) {
+        set(x, y, radians);
+    }
+
+    public Pose2d(Vector2d translation, Rotation2d rotation) {
+        this.translation.set(translation);
+        this.rotation.set(rotation);
+    }
+
+    public Pose2d set(double x, double y, double radians) {
+        translation.set(x, y);
+        rotation.set(radians);
+        return this;
+    }
+
+    public Pose2d set(Pose2d other) {
+        translation.set(other.translation);
+        rotation.set(other.rotation);
+        return this;
+    }
+
+    public double getX() { return translation.getX(); }
+
+    public double getY() { return translation.getY(); }
+
+    public double getHeading() { return rotation.getRadians(); }
+
+    /** @return the position, changing it changes the pose */
+    public Vector2d getTranslation() { return translation; }
+
+    /** @return the facing, changing it changes the pose */
+    public Rotation2d getRotation() { return rotation; }
+
+    /**
+     * move the pose along an arc, the pose exponential
+     *
+     * @param twist the motion, in reference to the robot at this pose
+     * @return the pose at the end of the arc
+     */
+    public Pose2d exp(Twist2d twist) {
+        return expInto(twist, new Pose2d());
+    }
+
+    public Pose2d expInto(Twist2d twist, Pose2d result) {
+        double dTheta = twist.getDTheta();
+        /* the factors that bend the straight motion into an arc, use their taylor series when the rotation is too small to divide by */
+        double sinFactor, cosFactor;
+        if (Math.abs(dTheta) < 1e-6) {
+            sinFactor = 1 - dTheta * dTheta / 6;
+            cosFactor = dTheta / 2;
+        } else {
+            sinFactor = Math.sin(dTheta) / dTheta;
+            cosFactor = (1 - Math.cos(dTheta)) / dTheta;
+        }
+        double arcX = sinFactor * twist.getDx() - cosFactor * twist.getDy();
+        double arcY = cosFactor * twist.getDx() + sinFactor * twist.getDy();
+
+        /* turn the arc to be in reference to the field, using the facing at the start of it */
+        double cos = rotation.getCos(), sin = rotation.getSin();
+        return result.set(
+                translation.getX() + arcX * cos - arcY * sin,
+                translation.getY() + arcX * sin + arcY * cos,
+                rotation.getRadians() + dTheta
+        );
+    }
+
+    /**
+     * find the arc that takes this pose to another, the pose logarithm, reverse of exp()
+     *
+     * @param end the pose at the end of the arc
+     * @return the motion, in reference to the robot at this pose
+     */
+    public Twist2d log(Pose2d end) {
+        return logInto(end, new Twist2d());
+    }
+
+    public Twist2d logInto(Pose2d end, Twist2d result) {
+        /* the motion in reference to the robot at this pose */
+        double cos = rotation.getCos(), sin = rotation.getSin();
+        double fieldX = end.getX() - getX(), fieldY = end.getY() - getY();
+        double localX = fieldX * cos + fieldY * sin;
+        double localY = -fieldX * sin + fieldY * cos;
+        double dTheta = Rotation2d.wrap(end.getHeading() - getHeading());
+
+        /* undo the bending of exp() */
+        double halfTheta = dTheta / 2;
+        double halfThetaByTanHalfTheta;
+        if (Math.abs(dTheta) < 1e-6) halfThetaByTanHalfTheta = 1 - dTheta * dTheta / 12;
+        else halfThetaByTanHalfTheta = halfTheta * Math.sin(dTheta) / (1 - Math.cos(dTheta));
+        return result.set(
+                halfThetaByTanHalfTheta * localX + halfTheta * localY,
+                -halfTheta * localX + halfThetaByTanHalfTheta * localY,
+                dTheta
+        );
+    }
+
+    /**
+     * express this pose in reference to another one
+     *
+     * @param origin the pose taken as the origin
+     * @return this pose, as seen from the origin
+     */
+    public Pose2d relativeTo(Pose2d origin) {
+        return relativeToInto(origin, new Pose2d());
+    }
+
+    public Pose2d relativeToInto(Pose2d origin, Pose2d result) {
+        double cos = origin.rotation.getCos(), sin = origin.rotation.getSin();
+        double fieldX = getX() - origin.getX(), fieldY = getY() - origin.getY();
+        return result.set(
+                fieldX * cos + fieldY * sin,
+                -fieldX * sin + fieldY * cos,
+                getHeading() - origin.getHeading()
+        );
+    }
+
+    /**
+     * move this pose by another pose given in reference to it, the opposite of relativeTo()
+     *
+     * @param other the pose in reference to this one
+     * @return the other pose, as seen from the field
+     */
+    public Pose2d plus(Pose2d other) {
+        return plusInto(other, new Pose2d());
+    }
+
+    public Pose2d plusInto(Pose2d other, Pose2d result) {
+        double cos = rotation.getCos(), sin = rotation.getSin();
+        return result.set(
+                getX() + other.getX() * cos - other.getY() * sin,
+                getY() + other.getX() * sin + other.getY() * cos,
+                getHeading() + other.getHeading()
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "Pose2d(" + getX() + ", " + getY() + ", " + Math.toDegrees(getHeading()) + "deg)";
+    }
+}
@@ -0,0 +1,102 @@
+package org.firstinspires.ftc.teamcode.Geometry;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: Rotation2d.java
+ *
+ * a rotation in 2d space, or a facing, counter-clockwise positive
+ * the sine and cosine are computed once when the angle is set, and reused by every vector turned by this rotation
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class Rotation2d {
+    /** the angle, in radian, not wrapped */
+    private double radians;
+    /** the cosine and sine of the angle */
+    private double cos, sin;
+
+    /** construct a rotation of zero */
+    public Rotation2d() {
+        this(0);
+    }
+
+    public Rotation2d(double radians) {
+        set(radians);
+    }
+
+    public static Rotation2d fromDegrees(double degrees) {
+        return new Rotation2d(Math.toRadians(degrees));
+    }
+
+    /** @return this rotation, changed to the given angle, in radian */
+    public Rotation2d set(double radians) {
+        this.radians = radians;
+        this.cos = Math.cos(radians);
+        this.sin = Math.sin(radians);
+        return this;
+    }
+
+    public Rotation2d set(Rotation2d other) {
+        this.radians = other.radians;
+        this.cos = other.cos;
+        this.sin = other.sin;
+        return this;
+    }
+
+    public double getRadians() { return radians; }
+
+    public double getDegrees() { return Math.toDegrees(radians); }
+
+    public double getCos() { return cos; }
+
+    public double getSin() { return sin; }
+
+    /** @return the rotation of both this and the other one */
+    public Rotation2d plus(Rotation2d other) {
+        return plusInto(other, new Rotation2d());
+    }
+
+    public Rotation2d plusInto(Rotation2d other, Rotation2d result) {
+        return result.set(radians + other.radians);
+    }
+
+    /** @return the rotation from the other one to this one */
+    public Rotation2d minus(Rotation2d other) {
+        return minusInto(other, new Rotation2d());
+    }
+
+    public Rotation2d minusInto(Rotation2d other, Rotation2d result) {
+        return result.set(radians - other.radians);
+    }
+
+    public Rotation2d inverse() {
+        return new Rotation2d(-radians);
+    }
+
+    /**
+     * find the shortest turn from this facing to another
+     *
+     * @param other the facing to turn to
+     * @return the angle to turn, in radian, from -pi to pi
+     */
+    public double differenceTo(Rotation2d other) {
+        return wrap(other.radians - radians);
+    }
+
+    /**
+     * wrap an angle into the range of -pi to pi
+     *
+     * @param radians the angle, in radian
+     * @return the same facing, from -pi to pi
+     */
+    public static double wrap(double radians) {
+        return Math.atan2(Math.sin(radians), Math.cos(radians));
+    }
+
+    @Override
+    public String toString() {
+        return "Rotation2d(" + Math.toDegrees(radians) + "deg)";
+    }
+}
@@ -0,0 +1,55 @@
+package org.firstinspires.ftc.teamcode.Geometry;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: Twist2d.java
+ *
+ * a motion along an arc, in reference to the robot itself
+ * it is the change of the pose during one period when the robot's velocity is constant in reference to itself
+ * see Pose2d.exp() and Pose2d.log()
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class Twist2d {
+    /** the motion sideways and forward, in reference to the robot */
+    private double dx, dy;
+    /** the change in facing, in radian */
+    private double dTheta;
+
+    public Twist2d() {
+        this(0, 0, 0);
+    }
+
+    public Twist2d(double dx, double dy, double dTheta) {
+        set(dx, dy, dTheta);
+    }
+
+    public Twist2d set(double dx, double dy, double dTheta) {
+        this.dx = dx;
+        this.dy = dy;
+        this.dTheta = dTheta;
+        return this;
+    }
+
+    public Twist2d set(Twist2d other) {
+        return set(other.dx, other.dy, other.dTheta);
+    }
+
+    public double getDx() { return dx; }
+
+    public double getDy() { return dy; }
+
+    public double getDTheta() { return dTheta; }
+
+    /** @return the twist scaled, for example to turn a velocity into the motion over a period */
+    public Twist2d timesInto(double scalar, Twist2d result) {
+        return result.set(dx * scalar, dy * scalar, dTheta * scalar);
+    }
+
+    @Override
+    public String toString() {
+        return "Twist2d(" + dx + ", " + dy + ", " + Math.toDegrees(dTheta) + "deg)";
+    }
+}
@@ -0,0 +1,155 @@
+package org.firstinspires.ftc.teamcode.Geometry;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: Vector2d.java
+ *
+ * a vector in 2d space, used for positions, velocities and motions
+ * the methods named after an operation return a new vector
+ * the ones ending with "Into" write the result into a given vector instead, so the control loops do not create objects every cycle
+ * the result vector can be the same object as one of the operands
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class Vector2d {
+    /** the components of the vector */
+    private double x, y;
+
+    /** construct a zero vector */
+    public Vector2d() {
+        this(0, 0);
+    }
+
+    public Vector2d(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /** construct a vector with the given length and direction, in radian */
+    public static Vector2d fromPolar(double magnitude, double direction) {
+        return new Vector2d(magnitude * Math.cos(direction), magnitude * Math.sin(direction));
+    }
+
+    public double getX() { return x; }
+
+    public double getY() { return y; }
+
+    /** @return this vector, changed to the given components */
+    public Vector2d set(double x, double y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    /** @return this vector, changed to be equal to the given one */
+    public Vector2d set(Vector2d other) {
+        return set(other.x, other.y);
+    }
+
+    /** @return the length of the vector */
+    public double norm() {
+        return Math.hypot(x, y);
+    }
+
+    /** @return the square of the length, cheaper than norm() when only comparing */
+    public double squaredNorm() {
+        return x * x + y * y;
+    }
+
+    /** @return the direction of the vector, in radian, from -pi to pi */
+    public double angle() {
+        return Math.atan2(y, x);
+    }
+
+    public double dot(Vector2d other) {
+        return x * other.x + y * other.y;
+    }
+
+    /** @return the z component of the cross product, positive if the other vector is counter-clockwise from this one */
+    public double cross(Vector2d other) {
+        return x * other.y - y * other.x;
+    }
+
+    public double distanceTo(Vector2d other) {
+        return Math.hypot(other.x - x, other.y - y);
+    }
+
+    public Vector2d plus(Vector2d other) {
+        return plusInto(other, new Vector2d());
+    }
+
+    public Vector2d plusInto(Vector2d other, Vector2d result) {
+        return result.set(x + other.x, y + other.y);
+    }
+
+    public Vector2d minus(Vector2d other) {
+        return minusInto(other, new Vector2d());
+    }
+
+    public Vector2d minusInto(Vector2d other, Vector2d result) {
+        return result.set(x - other.x, y - other.y);
+    }
+
+    public Vector2d times(double scalar) {
+        return timesInto(scalar, new Vector2d());
+    }
+
+    public Vector2d timesInto(double scalar, Vector2d result) {
+        return result.set(x * scalar, y * scalar);
+    }
+
+    public Vector2d unaryMinus() {
+        return times(-1);
+    }
+
+    /** @return this vector plus another one scaled, which is how the position is moved by a velocity over a period */
+    public Vector2d plusScaledInto(Vector2d other, double scalar, Vector2d result) {
+        return result.set(x + other.x * scalar, y + other.y * scalar);
+    }
+
+    /** @return the vector turned counter-clockwise by a rotation */
+    public Vector2d rotateBy(Rotation2d rotation) {
+        return rotateByInto(rotation, new Vector2d());
+    }
+
+    public Vector2d rotateByInto(Rotation2d rotation, Vector2d result) {
+        double cos = rotation.getCos(), sin = rotation.getSin();
+        return result.set(x * cos - y * sin, x * sin + y * cos);
+    }
+
+    /** @return the vector turned clockwise by a rotation, which takes a vector from the field into the robot's own reference when given the robot's facing */
+    public Vector2d unrotateBy(Rotation2d rotation) {
+        return unrotateByInto(rotation, new Vector2d());
+    }
+
+    public Vector2d unrotateByInto(Rotation2d rotation, Vector2d result) {
+        double cos = rotation.getCos(), sin = rotation.getSin();
+        return result.set(x * cos + y * sin, -x * sin + y * cos);
+    }
+
+    /** @return the vector scaled to length one, or a zero vector if it has no length */
+    public Vector2d normalizedInto(Vector2d result) {
+        double norm = norm();
+        if (norm == 0) return result.set(0, 0);
+        return result.set(x / norm, y / norm);
+    }
+
+    /** @return the vector with its length limited, keeping the direction */
+    public Vector2d clampedInto(double maxNorm, Vector2d result) {
+        double norm = norm();
+        if (norm <= maxNorm) return result.set(x, y);
+        return result.set(x * maxNorm / norm, y * maxNorm / norm);
+    }
+
+    /** @return the components in an array, {x, y}, for the code that still uses arrays */
+    public double[] toArray() {
+        return new double[] {x, y};
+    }
+
+    @Override
+    public String toString() {
+        return "(" + x + ", " + y + ")";
+    }
+}
@@ -15,6 +15,7 @@ import org.firstinspires.ftc.teamcode.Drivers.ChassisDriver;
 import org.firstinspires.ftc.teamcode.Drivers.HardwareDriver;
 import org.firstinspires.ftc.teamcode.RobotModules.AutoStageRobotChassis;
 import org.firstinspires.ftc.teamcode.RobotModules.Mini1024EncoderReader;
+import org.firstinspires.ftc.teamcode.RobotModules.OdometryThread;
 import org.firstinspires.ftc.teamcode.RobotModules.PilotChassis;
 import org.firstinspires.ftc.teamcode.RobotModules.ComputerVisionFieldNavigation_v2;
 import org.firstinspires.ftc.teamcode.RobotModules.Arm;
@@ -22,6 +23,8 @@ import org.firstinspires.ftc.teamcode.RobotModules.IMUReader;
 import org.firstinspires.ftc.teamcode.RobotModules.RobotAuxiliarySystem;
 import org.firstinspires.ftc.teamcode.RobotModules.RobotPositionCalculator;
 import org.firstinspires.ftc.teamcode.Sensors.ColorDistanceSensor;
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
+import org.firstinspires.ftc.teamcode.Utils.SystemNanoClock;
 
 import java.util.HashMap;
 
@@ -39,8 +42,10 @@ import java.util.HashMap;
  */
 @TeleOp(name = "ManualControlMode_v2.0_DualPilot")
 public class Roboseed_DualPilot extends LinearOpMode {
+    /** the clock of the robot, sampled at the start of every control cycle and shared by the scheduler and all the modules */
+    private final RobotClock clock = new SystemNanoClock();
     /** the interface that connects the robot's hardware */
-    private final HardwareDriver hardwareDriver = new HardwareDriver();
+    private final HardwareDriver hardwareDriver = new HardwareDriver(clock);
     private ChassisDriver chassisDriver;
 
     /** whether the program will switch to slow motion mode automatically when using the arm */
@@ -52,6 +57,9 @@ public class Roboseed_DualPilot extends LinearOpMode {
     /** to measure the delay of the program */
     private final ElapsedTime programDelay = new ElapsedTime();
 
+    /** calls the periodic functions of the modules at their own rates */
+    private final RobotModuleScheduler scheduler = new RobotModuleScheduler(clock);
+
     /** connect to the robot modules */
     private Arm arm;
     private PilotChassis pilotChassis;
@@ -61,6 +69,8 @@ public class Roboseed_DualPilot extends LinearOpMode {
     private Mini1024EncoderReader encoderReader;
     private RobotPositionCalculator positionCalculator;
     private RobotAuxiliarySystem robotAuxiliarySystem;
+    /** updates the odometry on a thread of its own, so it keeps its rate when the main loop is busy or waiting in the aiming of the RAS */
+    private OdometryThread odometryThread;
 
     /**
      * the main entry of the robot's program during manual stage
@@ -71,6 +81,8 @@ public class Roboseed_DualPilot extends LinearOpMode {
     public void runOpMode() throws InterruptedException {
         /* configure the ports for all the hardware's */
         this.configureRobot();
+        /* read each hub once per control cycle, instead of once per call to the motors */
+        hardwareDriver.enableBulkCaching(hardwareMap);
 
         /** pass the hardware ports to the encoder reader module */
         HashMap<String, RobotModule> encoderReaderDependentModules = null;
@@ -83,6 +95,8 @@ public class Roboseed_DualPilot extends LinearOpMode {
         encoderReaderDependentInstances.put("encoder-1-instance", hardwareDriver.leftFront);
         encoderReaderDependentInstances.put("encoder-2-instance", hardwareDriver.rightFront);
         encoderReaderDependentInstances.put("encoder-3-instance", hardwareDriver.leftRear);
+        /* read the encoders from the bulk-read snapshot */
+        encoderReaderDependentInstances.put("hardwareDriver", hardwareDriver);
         encoderReader = new Mini1024EncoderReader();
         encoderReader.init(encoderReaderDependentModules, encoderReaderDependentInstances);
 
@@ -92,6 +106,7 @@ public class Roboseed_DualPilot extends LinearOpMode {
         positionCalculatorDependentModules.put("encoderReader", encoderReader);
         this.positionCalculator = new RobotPositionCalculator();
         this.positionCalculator.init(positionCalculatorDependentModules, positionCalculatorDependentInstances);
+        this.odometryThread = new OdometryThread(positionCalculator, hardwareDriver, 250);
 
         /** pass the hardware ports to the robot chassis */
         this.chassisDriver = new ChassisDriver(hardwareDriver, this.positionCalculator);
@@ -159,11 +174,23 @@ public class Roboseed_DualPilot extends LinearOpMode {
         autoStageRobotChassis.calibrateEncoder();
         // imuReader.calibrateIMU();
 
+        /** register the modules to the scheduler, the encoders and the position are updated by the odometry thread instead */
+        scheduler.register(pilotChassis, 100, 2);
+        scheduler.register(arm, 50, 1);
+        scheduler.register(robotAuxiliarySystem, 50, 0);
+        // scheduler.register(fieldNavigation, 10, -1);
+
+        /* from now on, the commands to the motors are kept during each cycle and sent together at the end of it */
+        hardwareDriver.getCommandBuffer().setBatching(true);
+
         /* add telemetry line, TODO:use robot-debug-bridge to do it */
         telemetry.addLine("<--start-up complete-->");
         telemetry.update();
 
         waitForStart();
+        /* the modules are registered before the start, release them from now on */
+        scheduler.restart();
+        odometryThread.start();
         telemetry.addLine("position");
         telemetry.addLine("rotation");
         telemetry.addLine("program-delay");
@@ -173,6 +200,7 @@ public class Roboseed_DualPilot extends LinearOpMode {
             runLoop();
             telemetry.update();
         }
+        odometryThread.stop();
     }
 
     /**
@@ -184,31 +212,12 @@ public class Roboseed_DualPilot extends LinearOpMode {
         telemetry.addData("program-delay(ms)", programDelay.seconds()*1000);
         programDelay.reset();
 
-        /** calls the periodic function of the modules TODO put the modules in a map and go through in every run loop */
-        ElapsedTime elapsedTime = new ElapsedTime();
-        elapsedTime.reset();
-        pilotChassis.periodic();
-        // System.out.println("<--chassis module delay: " + elapsedTime.seconds()*1000 + "-->");
-        elapsedTime.reset();
-        arm.periodic();
-        // System.out.println("<--arm module delay: " + elapsedTime.seconds()*1000 + "-->");
-        elapsedTime.reset();
-        // fieldNavigation.periodic();
-        // System.out.println("<--visual navigation module delay: " + elapsedTime.seconds()*1000 + "-->");
-        // elapsedTime.reset();
-        // imuReader.periodic();
-        // System.out.println("<--imu reader module delay: " + elapsedTime.seconds()*1000 + "-->");
-        // elapsedTime.reset();
-        encoderReader.periodic();
-        // System.out.println("<--encoder reader module delay: " + elapsedTime.seconds()*1000 + "-->");
-        elapsedTime.reset();
-        positionCalculator.periodic();
-        // System.out.println("<--position calculator delay: " + elapsedTime.seconds()*1000 + "-->");
-        elapsedTime.reset();
-        robotAuxiliarySystem.periodic();
-        // System.out.println("<--RAS delay: " + elapsedTime.seconds()*1000 + "-->");
-        elapsedTime.reset();
-
+        /** calls the periodic function of the modules that are due, the scheduler records the overruns and skipped periods of each of them
+         * the hubs are bulk-read only when some module is due, so the loop spinning in between costs no hardware transactions */
+        if (scheduler.getTimeUntilNextRelease() == 0) {
+            hardwareDriver.beginControlCycle();
+            scheduler.runCycle();
+        }
 
 
         /** switch between the two control modes if asked to */
@@ -231,10 +240,24 @@ public class Roboseed_DualPilot extends LinearOpMode {
             gamepad1.rumble(500);
         }
 
-        telemetry.addData("position", positionCalculator.getRobotPosition()[0] + ", " + positionCalculator.getRobotPosition()[1]);
+        /** send the commands given to the motors during this cycle */
+        hardwareDriver.endControlCycle();
+
+        double[] robotPosition = positionCalculator.getRobotPosition();
+        telemetry.addData("position", robotPosition[0] + ", " + robotPosition[1]);
         // System.out.println("arm position code: " + arm.getArmStatusCode());
         telemetry.addData("rotation", Math.toDegrees(positionCalculator.getRobotRotation()));
+        telemetry.addData("rotation error(deg), power", Math.toDegrees(chassisDriver.getRotationalError()) + ", " + chassisDriver.getRotationalMotion());
         telemetry.addData("distance sensor reading", robotAuxiliarySystem.tofDistanceSensorReading);
+        telemetry.addData("lift arrival delay(ms)", arm.getLastArrivalDelay() * 1000);
+        telemetry.addData("lift encoders healthy(left, right)", arm.isLeftLiftEncoderHealthy() + ", " + arm.isRightLiftEncoderHealthy());
+        telemetry.addData("lift collisions, stalls, dropped events", arm.getEventCount(Arm.Event.COLLIDED) + ", " + arm.getEventCount(Arm.Event.STALLED) + ", " + arm.getDroppedEventsCount());
+        telemetry.addData("scheduler", scheduler.getStatistics());
+        telemetry.addData("odometry thread", odometryThread.getStatistics());
+        telemetry.addData("hardware transactions(last cycle)", hardwareDriver.getSnapshot().getHardwareTransactionsLastCycle());
+        telemetry.addData("cached reads(last cycle)", hardwareDriver.getSnapshot().getCachedReadsLastCycle());
+        telemetry.addData("motor writes issued(last cycle)", hardwareDriver.getCommandBuffer().getWritesIssuedLastCycle());
+        telemetry.addData("motor writes suppressed(last cycle)", hardwareDriver.getCommandBuffer().getWritesSuppressedLastCycle());
 
         telemetry.update();
 
@@ -212,8 +212,8 @@ public class Roboseed_SinglePilot extends LinearOpMode {
         }
 
         if (PreviousElevatorActivation.seconds() > 30 & pilotChassis.getLastMovementTime() > 30 & PreviousClawActivation.seconds() > 30) { // no operation after 30s
-            hardwareDriver.lift_left.setPower(0);
-            hardwareDriver.lift_left.setPower(0);
+            hardwareDriver.setPower(hardwareDriver.lift_left, 0);
+            hardwareDriver.setPower(hardwareDriver.lift_left, 0);
             System.exit(0);
         } if (PreviousElevatorActivation.seconds() > 5 & arm.getClaw()) {
             System.out.println("saving battery...");
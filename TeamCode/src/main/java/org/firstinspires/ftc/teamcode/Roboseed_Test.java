@@ -85,7 +85,7 @@ public class Roboseed_Test extends LinearOpMode {
         arm.init(armModuleDependentModules, armModuleDependentInstances, false);
 
         /** the temporary arm module to operate the arm during auto stage */
-        AutoStageArm autoStageArm = new AutoStageArm(arm);
+        AutoStageArm autoStageArm = new AutoStageArm(arm, hardwareDriver);
 
         /** pass the hardware ports to the encoder reader module */
         HashMap<String, RobotModule> encoderReaderDependentModules = null;
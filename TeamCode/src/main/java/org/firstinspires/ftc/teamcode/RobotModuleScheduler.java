@@ -0,0 +1,235 @@
+package org.firstinspires.ftc.teamcode;
+
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: RobotModuleScheduler.java
+ *
+ * calls the periodic functions of the robot modules at fixed rates, instead of as fast as the main loop spins
+ * every module is registered with a rate, a priority and a deadline:
+ *  - the rate decides how often periodic() is called, the release times are fixed so the rate does not drift when the loop is slow
+ *  - when several modules are due in the same cycle, the ones with higher priority run first
+ *  - a module that finishes later than its deadline (counted from its release time) is recorded as an overrun
+ *  - if the main loop is blocked for longer than a whole period, the missed periods are recorded as skipped, they are not called afterwards to catch up
+ * all the timing goes through RobotClock, so the scheduler runs deterministically under a VirtualClock
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class RobotModuleScheduler {
+    /** the source of time */
+    private final RobotClock clock;
+
+    /** all the registered modules, sorted from the highest priority to the lowest */
+    private final List<ScheduledModule> scheduledModules = new ArrayList<>();
+
+    /**
+     * construct a scheduler
+     *
+     * @param clock the clock used to decide when the modules are due, and to measure how long they take
+     */
+    public RobotModuleScheduler(RobotClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * register a module to the scheduler
+     *
+     * @param module the module to call
+     * @param rate how often the module should be called, in Hz
+     * @param priority modules with greater priority are called first, when several modules are due in the same cycle
+     * @param deadline the time, in seconds after the release time of the module, that the module should have finished
+     * @return the entry of the module, through which its statistics can be read
+     * @throws IllegalArgumentException if the rate or the deadline is not positive, or if the module is already registered
+     */
+    public ScheduledModule register(RobotModule module, double rate, int priority, double deadline) throws IllegalArgumentException {
+        if (rate <= 0) throw new IllegalArgumentException("the rate of module <<" + module.getModuleName() + ">> must be positive, given " + rate);
+        if (deadline <= 0) throw new IllegalArgumentException("the deadline of module <<" + module.getModuleName() + ">> must be positive, given " + deadline);
+        if (getScheduledModule(module.getModuleName()) != null) throw new IllegalArgumentException("module <<" + module.getModuleName() + ">> is already registered");
+
+        ScheduledModule scheduledModule = new ScheduledModule(
+                module,
+                RobotClock.secondsToNanos(1 / rate),
+                priority,
+                RobotClock.secondsToNanos(deadline),
+                clock.nanoTime()
+        );
+
+        /* insert after all the modules with the same or higher priority, so modules with the same priority keep the order they are registered */
+        int index = 0;
+        while (index < scheduledModules.size() && scheduledModules.get(index).priority >= priority) index++;
+        scheduledModules.add(index, scheduledModule);
+        return scheduledModule;
+    }
+
+    /**
+     * register a module to the scheduler, the deadline is set to be one period
+     *
+     * @param module the module to call
+     * @param rate how often the module should be called, in Hz
+     * @param priority modules with greater priority are called first, when several modules are due in the same cycle
+     * @return the entry of the module, through which its statistics can be read
+     */
+    public ScheduledModule register(RobotModule module, double rate, int priority) {
+        return register(module, rate, priority, 1 / rate);
+    }
+
+    /**
+     * called in every loop of the main program
+     * calls the periodic function of all the modules that are due, in the order of priority
+     *
+     * @return the amount of modules called in this cycle
+     */
+    public int runCycle() {
+        int modulesCalled = 0;
+        for (int i = 0; i < scheduledModules.size(); i++) {
+            ScheduledModule scheduledModule = scheduledModules.get(i);
+            long now = clock.nanoTime();
+            if (now < scheduledModule.nextReleaseTime) continue;
+
+            /* if the loop is blocked for more than a period, the missed periods are skipped rather than called one after another */
+            long releaseTime = scheduledModule.nextReleaseTime;
+            long periodsMissed = (now - releaseTime) / scheduledModule.period;
+            scheduledModule.skippedPeriods += periodsMissed;
+            scheduledModule.nextReleaseTime = releaseTime + (periodsMissed + 1) * scheduledModule.period;
+            long actualReleaseTime = releaseTime + periodsMissed * scheduledModule.period;
+
+            scheduledModule.module.periodic();
+
+            long finishTime = clock.nanoTime();
+            scheduledModule.lastExecutionTime = finishTime - now;
+            scheduledModule.maxExecutionTime = Math.max(scheduledModule.maxExecutionTime, scheduledModule.lastExecutionTime);
+            if (finishTime - actualReleaseTime > scheduledModule.deadline) scheduledModule.overruns++;
+            scheduledModule.runs++;
+            modulesCalled++;
+        }
+        return modulesCalled;
+    }
+
+    /**
+     * get the time until the next module is due
+     * the main program can sleep for this amount of time when it has nothing else to do
+     *
+     * @return the time until the next release, in nanoseconds, 0 if a module is already due, Long.MAX_VALUE if no modules are registered
+     */
+    public long getTimeUntilNextRelease() {
+        long now = clock.nanoTime();
+        long timeUntilNextRelease = Long.MAX_VALUE;
+        for (int i = 0; i < scheduledModules.size(); i++)
+            timeUntilNextRelease = Math.min(timeUntilNextRelease, Math.max(0, scheduledModules.get(i).nextReleaseTime - now));
+        return timeUntilNextRelease;
+    }
+
+    /**
+     * find a registered module by its name
+     *
+     * @param moduleName the name of the module
+     * @return the entry of the module, or null if no module with this name is registered
+     */
+    public ScheduledModule getScheduledModule(String moduleName) {
+        for (ScheduledModule scheduledModule: scheduledModules)
+            if (scheduledModule.module.getModuleName().equals(moduleName)) return scheduledModule;
+        return null;
+    }
+
+    /** reset the statistics of all the modules, the release times are not affected */
+    public void resetStatistics() {
+        for (ScheduledModule scheduledModule: scheduledModules) {
+            scheduledModule.runs = scheduledModule.overruns = scheduledModule.skippedPeriods = 0;
+            scheduledModule.lastExecutionTime = scheduledModule.maxExecutionTime = 0;
+        }
+    }
+
+    /**
+     * release all the modules now and reset their statistics
+     * called when the op mode starts, so the time waiting for the start is not counted as skipped periods of the modules registered before it
+     */
+    public void restart() {
+        long now = clock.nanoTime();
+        for (ScheduledModule scheduledModule: scheduledModules) scheduledModule.nextReleaseTime = now;
+        resetStatistics();
+    }
+
+    /**
+     * get the statistics of all the modules, one line for each module, to print on the telemetry or the console
+     *
+     * @return the statistics, in the form of "name: runs, overruns, skipped periods, max execution time"
+     */
+    public String getStatistics() {
+        StringBuilder statistics = new StringBuilder();
+        for (ScheduledModule scheduledModule: scheduledModules) statistics.append(scheduledModule).append('\n');
+        return statistics.toString();
+    }
+
+    /**
+     * a module registered to the scheduler, together with its timing settings and statistics
+     */
+    public static class ScheduledModule {
+        /** the module */
+        private final RobotModule module;
+        /** the time between two calls, in nanoseconds */
+        private final long period;
+        /** modules with greater priority are called first */
+        private final int priority;
+        /** the time after release that the module should have finished, in nanoseconds */
+        private final long deadline;
+
+        /** the time that the module should be called again */
+        private long nextReleaseTime;
+
+        /** the amount of times that the module is called */
+        private long runs;
+        /** the amount of times that the module finished later than its deadline */
+        private long overruns;
+        /** the amount of periods that the module is not called as the main loop is blocked */
+        private long skippedPeriods;
+        /** the time the module took in the last call, in nanoseconds */
+        private long lastExecutionTime;
+        /** the longest time the module ever took, in nanoseconds */
+        private long maxExecutionTime;
+
+        private ScheduledModule(RobotModule module, long period, int priority, long deadline, long firstReleaseTime) {
+            this.module = module;
+            this.period = period;
+            this.priority = priority;
+            this.deadline = deadline;
+            this.nextReleaseTime = firstReleaseTime;
+        }
+
+        public RobotModule getModule() { return module; }
+
+        public int getPriority() { return priority; }
+
+        /** @return the time between two calls, in seconds */
+        public double getPeriod() { return RobotClock.nanosToSeconds(period); }
+
+        /** @return the amount of times that the module is called */
+        public long getRuns() { return runs; }
+
+        /** @return the amount of times that the module finished later than its deadline */
+        public long getOverruns() { return overruns; }
+
+        /** @return the amount of periods that the module missed as the main loop is blocked */
+        public long getSkippedPeriods() { return skippedPeriods; }
+
+        /** @return the time the module took in the last call, in seconds */
+        public double getLastExecutionTime() { return RobotClock.nanosToSeconds(lastExecutionTime); }
+
+        /** @return the longest time the module ever took, in seconds */
+        public double getMaxExecutionTime() { return RobotClock.nanosToSeconds(maxExecutionTime); }
+
+        @Override
+        public String toString() {
+            return module.getModuleName()
+                    + ": runs " + runs
+                    + ", overruns " + overruns
+                    + ", skipped " + skippedPeriods
+                    + ", max " + (maxExecutionTime / 1000) / 1000.0 + "ms";
+        }
+    }
+}
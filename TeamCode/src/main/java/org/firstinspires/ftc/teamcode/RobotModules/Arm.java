@@ -10,12 +10,14 @@
  * */
 package org.firstinspires.ftc.teamcode.RobotModules;
 
-import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.Gamepad;
-import com.qualcomm.robotcore.util.ElapsedTime;
 
 import org.firstinspires.ftc.teamcode.Drivers.HardwareDriver;
+import org.firstinspires.ftc.teamcode.Drivers.LiftDriver;
+import org.firstinspires.ftc.teamcode.Drivers.MotorStallDetector;
 import org.firstinspires.ftc.teamcode.RobotModule;
+import org.firstinspires.ftc.teamcode.Utils.CycleTimer;
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
 
 import java.util.HashMap;
 
@@ -30,20 +32,13 @@ public class Arm extends RobotModule {
     private int lowPos = 320;
     /** loading position of the arm */
     private int gndPos = 65;
-    /**
-     * power of the motor to lower the arm
-     * 20% when it's going down, in considerate of the impulse of gravitation
-     */
-    double armDeclineSpeed = 0.2;
-    /**
-     * power of the motor to lower the arm
-     * 40% when it's going up
-     */
-    double armInclineSpeed = 0.4;
 
     /** connects to the hardware */
     private HardwareDriver hardwareDriver;
 
+    /** drives the lift motors along motion profiles, holding the arm against the gravity, and judges whether they are pushing against something, see LiftDriver */
+    private LiftDriver liftDriver;
+
     /** connects to the game pad that's used to control the arm */
     private Gamepad gamepad;
 
@@ -60,19 +55,140 @@ public class Arm extends RobotModule {
     public short armPositionCode;
 
     /**
-     * the status code for the arm
-     *
-     * -1: the arm is relaxed and waiting for pilot's instructions;
-     * 0: the arm is holding still at current height and waiting for pilot's instructions;
-     * 1: the arm is motioning downwards and has a distance between the objective position, so it should continue moving downwards to go to the targeted position;
-     * 2: the arm is motioning upwards and has a distance between the objective position, so it should continue moving upwards to go to the targeted position;
-     * 3: the arm is currently motioning downwards but is already close to the objective position, so it should decelerate;
-     * 4: the arm is currently motioning upwards but is already close to the objective position, so it should immediately jump to status 0 and maintain height, after being slowed down due to gravity;
-     * 5: the arm is doing the complete process of grabbing and is currently on it's way to the lowest position
-     * 6: the arm is doing the complete process of grabbing and is current closing it's claw, 300ms after being so the should then be lifted to middle position
-     * 7: the arm is in the deactivation process and is moving downward, it should jump out and go to code -1 after it reaches ground
+     * the states of the arm
+     * the arm goes from one to another only by the events, through the transition table, see Event
+     * entering a state gives the lift and the claw their instructions once, and each state times out if the arm stays in it too long
      */
-    private short armStatusCode;
+    public enum State {
+        /** the arm is relaxed and waiting for pilot's instructions, the lift is given no power */
+        RELAXED(-1, Double.POSITIVE_INFINITY),
+        /** the arm is holding still at the targeted height and waiting for pilot's instructions */
+        HOLDING(0, Double.POSITIVE_INFINITY),
+        /** the arm is moving down to the targeted position, and holds there once it has arrived */
+        DECLINING(1, 2.5),
+        /** the arm is moving up to the targeted position, and holds there once it has arrived */
+        INCLINING(2, 2.5),
+        /** the arm is doing the complete process of grabbing, and is on its way to the ground with the claw open */
+        GRAB_DESCENDING(5, 2.5),
+        /** the arm is doing the complete process of grabbing, and is closing its claw on the ground, after which the sleeve is lifted to the low position */
+        GRAB_CLOSING(6, 0.3),
+        /** the arm is in the deactivation process and is moving down, it relaxes once it reaches the ground */
+        DEACTIVATING(7, 2.5);
+
+        /** the status code of the state, see getArmStatusCode() */
+        private final short statusCode;
+        /** the longest the arm stays in the state before the timeout event, in seconds */
+        private final double timeout;
+
+        State(int statusCode, double timeout) {
+            this.statusCode = (short) statusCode;
+            this.timeout = timeout;
+        }
+
+        /** @return the status code of the state, see getArmStatusCode() */
+        public short getStatusCode() { return statusCode; }
+
+        /** @return the longest the arm stays in the state before the timeout event, in seconds, Double.POSITIVE_INFINITY if it never times out */
+        public double getTimeout() { return timeout; }
+    }
+
+    /**
+     * the events that take the arm from one state to another
+     * the requests come from the pilots and the auto stage, each with the position it targets, the others are found by the arm itself in periodic()
+     */
+    public enum Event {
+        /** go up to the given position */
+        RAISE,
+        /** go down to the given position */
+        LOWER,
+        /** go down to the ground and relax there */
+        DEACTIVATE,
+        /** cut the power of the lift where it is */
+        RELAX,
+        /** open the claw, go to the ground, close the claw and lift the sleeve to the low position */
+        GRAB,
+        /** the lift has arrived at the targeted position */
+        ARRIVED,
+        /** the lift motors started pushing against something */
+        COLLIDED,
+        /** the lift motors kept pushing against something until they stalled */
+        STALLED,
+        /** the arm stayed in its state longer than the timeout of the state */
+        TIMEOUT
+    }
+
+    /** the amount of states, and of events */
+    private static final int statesCount = State.values().length;
+    private static final int eventsCount = Event.values().length;
+
+    /** the state each event takes the arm to from each state, indexed by their ordinals, null if the state ignores the event */
+    private static final State[][] transitionTable = new State[statesCount][eventsCount];
+    static {
+        /* the requests are followed whatever the arm is doing, so that the pilots can interrupt any action */
+        for (State state : State.values()) {
+            setTransition(state, Event.RAISE, State.INCLINING);
+            setTransition(state, Event.LOWER, State.DECLINING);
+            setTransition(state, Event.DEACTIVATE, State.DEACTIVATING);
+            setTransition(state, Event.RELAX, State.RELAXED);
+            setTransition(state, Event.GRAB, State.GRAB_DESCENDING);
+        }
+
+        /* a move holds where it arrived, the deactivation relaxes on the ground, and the grabbing closes the claw there */
+        setTransition(State.DECLINING, Event.ARRIVED, State.HOLDING);
+        setTransition(State.INCLINING, Event.ARRIVED, State.HOLDING);
+        setTransition(State.GRAB_DESCENDING, Event.ARRIVED, State.GRAB_CLOSING);
+        setTransition(State.DEACTIVATING, Event.ARRIVED, State.RELAXED);
+
+        /* a move that collides holds where it is instead of driving on into the obstacle, except going down to relax, where it has reached the bottom */
+        setTransition(State.DECLINING, Event.COLLIDED, State.HOLDING);
+        setTransition(State.INCLINING, Event.COLLIDED, State.HOLDING);
+        setTransition(State.GRAB_DESCENDING, Event.COLLIDED, State.HOLDING);
+        setTransition(State.DEACTIVATING, Event.COLLIDED, State.RELAXED);
+
+        /* a lift that stalls going down has the power cut, and one that stalls holding or going up is lowered like when cooling down */
+        setTransition(State.DECLINING, Event.STALLED, State.RELAXED);
+        setTransition(State.GRAB_DESCENDING, Event.STALLED, State.RELAXED);
+        setTransition(State.DEACTIVATING, Event.STALLED, State.RELAXED);
+        setTransition(State.HOLDING, Event.STALLED, State.DEACTIVATING);
+        setTransition(State.INCLINING, Event.STALLED, State.DEACTIVATING);
+        setTransition(State.GRAB_CLOSING, Event.STALLED, State.DEACTIVATING);
+
+        /* a move that does not arrive in time holds where it is, and the claw, once closed, has the sleeve lifted */
+        setTransition(State.DECLINING, Event.TIMEOUT, State.HOLDING);
+        setTransition(State.INCLINING, Event.TIMEOUT, State.HOLDING);
+        setTransition(State.GRAB_DESCENDING, Event.TIMEOUT, State.HOLDING);
+        setTransition(State.GRAB_CLOSING, Event.TIMEOUT, State.INCLINING);
+        setTransition(State.DEACTIVATING, Event.TIMEOUT, State.RELAXED);
+    }
+
+    private static void setTransition(State state, Event event, State nextState) {
+        transitionTable[state.ordinal()][event.ordinal()] = nextState;
+    }
+
+    /** the current state of the arm */
+    private State state = State.RELAXED;
+
+    /** the most events waiting to be handled, more are dropped */
+    private static final int eventQueueCapacity = 8;
+    /** the events waiting to be handled, in a ring, with the position each one targets */
+    private final Event[] queuedEvents = new Event[eventQueueCapacity];
+    private final int[] queuedPositions = new int[eventQueueCapacity];
+    /** where the oldest event waiting is in the ring, and the amount of events waiting */
+    private int queueHead = 0;
+    private int queueSize = 0;
+    /** whether the events are being handled, so that an event posted by an entry action waits in the queue instead of being handled inside it */
+    private boolean handlingEvents = false;
+
+    /** the time the current state was entered, from the clock of the hardware driver, in nanoseconds */
+    private long stateEnteredTimestamp;
+    /** for each state, indexed by the ordinals, the time spent in it before the current stay and the time periodic() took in it, in nanoseconds, and the times it was entered */
+    private final long[] stateDurations = new long[statesCount];
+    private final long[] stateProcessingTimes = new long[statesCount];
+    private final int[] stateEntries = new int[statesCount];
+    /** the times each event was handled, indexed by the ordinals, such as how often the lift collided, instead of printing them from the control loop */
+    private final int[] eventCounts = new int[eventsCount];
+    /** the events dropped as the queue was full, counted and shown next to the event counts instead of printed */
+    private int droppedEventsCount = 0;
 
     /** the status of the arm
     *   true: the arm is busy and in use
@@ -85,16 +201,14 @@ public class Arm extends RobotModule {
      */
     private int targetedArmPosition = -1;
 
-    /** variables that record the time after pressing a button, so that the button is not activated over and over */
-    private final ElapsedTime PreviousElevatorActivation = new ElapsedTime();
-    private final ElapsedTime PreviousClawActivation = new ElapsedTime();
-    private final ElapsedTime PreviousGrepActivation = new ElapsedTime();
-
-    /** to make sure the robot waits until the grabbing is finished */
-    private final ElapsedTime lastGrabbingDelay = new ElapsedTime();
+    /** variables that record the time after pressing a button, so that the button is not activated over and over
+     * all the timers read the clock of the hardware driver, and are created during initialization */
+    private CycleTimer PreviousElevatorActivation;
+    private CycleTimer PreviousClawActivation;
+    private CycleTimer PreviousGrepActivation;
 
     /** time when the claw opens, so that RAS does not step in too fast */
-    private final ElapsedTime lastOpenTime = new ElapsedTime();
+    private CycleTimer lastOpenTime;
 
     /** the chassis module of robot */
     private PilotChassis pilotChassis;
@@ -156,9 +270,16 @@ public class Arm extends RobotModule {
         );
         this.gamepad = (Gamepad) dependentInstances.get("initialControllerPad");
 
+        /* the timers read the same clock as the rest of the robot */
+        this.PreviousElevatorActivation = new CycleTimer(hardwareDriver.getClock());
+        this.PreviousClawActivation = new CycleTimer(hardwareDriver.getClock());
+        this.PreviousGrepActivation = new CycleTimer(hardwareDriver.getClock());
+        this.lastOpenTime = new CycleTimer(hardwareDriver.getClock());
+        this.liftDriver = new LiftDriver(hardwareDriver);
+        this.stateEnteredTimestamp = hardwareDriver.getClock().getCycleTimestamp();
 
         /* calibrate the arm according to the starting positions */
-        double startingPos = hardwareDriver.lift_left.getCurrentPosition();
+        double startingPos = liftDriver.getPosition();
         highPos += startingPos; midPos += startingPos; lowPos += startingPos;
 
         /* set the robot's arm to be the default status */
@@ -191,6 +312,7 @@ public class Arm extends RobotModule {
         switch (instanceName) {
             case "hardwareDriver" : {
                 this.hardwareDriver = (HardwareDriver) newerInstance;
+                this.liftDriver = new LiftDriver(hardwareDriver);
                 break;
             }
             case "controllerPad" : {
@@ -201,54 +323,133 @@ public class Arm extends RobotModule {
         }
     }
 
+    /**
+     * the arm never waits inside this, each call handles the events of the cycle and returns
+     * the requests of the pilots are handled first, then the events the arm finds: the lift pushing against something, arriving, or the state timing out
+     */
     @Override
     public void periodic() {
+        final long processingStart = hardwareDriver.getClock().nanoTime();
+        final State stateOfCycle = state;
+
         /* no mater what, respond to the pilot's input first, so that the pilots have the control over their machine and can interrupt actions */
         reactToPilotInputs();
-        /* proceed different instructions according to the status code */
-        switch (armStatusCode) {
-            case -1: {
+        /* then read the lift, and stop it if it is pushing against something, before it is given the commands of this cycle */
+        liftDriver.update();
+        reactToLiftStall();
+        if (liftDriver.hasArrived()) postEvent(Event.ARRIVED, targetedArmPosition);
+        if (getTimeInCurrentState() > state.getTimeout()) postEvent(Event.TIMEOUT, getTimeoutPosition());
+        handleEvents();
+
+        if (state == State.HOLDING && inManualStage) powerSavingAndChassisStrategy();
+        /* give the lift the power of this cycle, after the state decided where it goes */
+        liftDriver.sendCommandsToMotors();
+
+        stateProcessingTimes[stateOfCycle.ordinal()] += hardwareDriver.getClock().nanoTime() - processingStart;
+    }
+
+    /**
+     * post a request and handle it at once, so the state is up to date when this returns
+     *
+     * @param event the request
+     * @param position the position it targets, in encoder ticks
+     */
+    private void request(Event event, int position) {
+        postEvent(event, position);
+        handleEvents();
+    }
+
+    /** put an event at the end of the queue, or drop it if the queue is full */
+    private void postEvent(Event event, int position) {
+        /* an event the current state ignores changes nothing, don't let it take a place in the queue */
+        if (transitionTable[state.ordinal()][event.ordinal()] == null) return;
+        if (queueSize == eventQueueCapacity) {
+            droppedEventsCount++;
+            return;
+        }
+        final int tail = (queueHead + queueSize) % eventQueueCapacity;
+        queuedEvents[tail] = event;
+        queuedPositions[tail] = position;
+        queueSize++;
+    }
+
+    /** handle the events waiting, in the order they came, including the ones posted while handling them */
+    private void handleEvents() {
+        if (handlingEvents) return;
+        handlingEvents = true;
+        while (queueSize > 0) {
+            final Event event = queuedEvents[queueHead];
+            final int position = queuedPositions[queueHead];
+            queuedEvents[queueHead] = null;
+            queueHead = (queueHead + 1) % eventQueueCapacity;
+            queueSize--;
+            transition(event, position);
+        }
+        handlingEvents = false;
+    }
+
+    /** take the arm to the state the event leads to from the current one, through the table */
+    private void transition(Event event, int position) {
+        final State nextState = transitionTable[state.ordinal()][event.ordinal()];
+        if (nextState == null) return;
+        eventCounts[event.ordinal()]++;
+        /* the same request again, such as a button held down, does not start the state over */
+        if (nextState == state && position == targetedArmPosition) return;
+
+        exit(state);
+        targetedArmPosition = position;
+        state = nextState;
+        enter(nextState);
+    }
+
+    /** the exit actions, adds the stay to the time spent in the state */
+    private void exit(State state) {
+        stateDurations[state.ordinal()] += hardwareDriver.getClock().getCycleTimestamp() - stateEnteredTimestamp;
+    }
+
+    /** the entry actions, gives the lift and the claw their instructions once, which the lift driver then follows every cycle */
+    private void enter(State state) {
+        stateEntries[state.ordinal()]++;
+        stateEnteredTimestamp = hardwareDriver.getClock().getCycleTimestamp();
+        switch (state) {
+            case RELAXED: {
                 /* save battery and cool down the arms */
-                hardwareDriver.lift_left.setPower(0);
-                hardwareDriver.lift_right.setPower(0);
+                liftDriver.relax();
+                armPositionCode = -1;
                 break;
-            } case 0: {
-                setArmStill();
-                if (inManualStage) powerSavingAndChassisStrategy();
+            } case HOLDING: {
+                /* the lift driver holds it, guided by whichever encoder is still working if one of them has failed */
+                liftDriver.holdAt(targetedArmPosition);
                 break;
-            }
-            case 1: {
-                waitForDeclinedCompletion((short) 0);
+            } case DECLINING: case INCLINING: {
+                /* the lift driver speeds it up and slows it down along a motion profile, so it arrives without hitting the structure */
+                liftDriver.moveTo(targetedArmPosition);
                 break;
-            } case 2: {
-                waitForInclinedCompletion();
+            } case GRAB_DESCENDING: {
+                openClaw();
+                armPositionCode = 0;
+                liftDriver.moveTo(targetedArmPosition);
                 break;
-            } case 3: {
-                waitForDecelerateCompletion();
+            } case GRAB_CLOSING: {
+                /* the lift keeps holding the ground while the claw closes, the sleeve goes to the low position when it times out */
+                closeClaw();
+                armPositionCode = 1;
                 break;
-            } case 5: {
-                /* jump out of this status when the arm is almost on the ground */
-                if (hardwareDriver.lift_left.getCurrentPosition() - gndPos < 30 || hardwareDriver.lift_right.getCurrentPosition() - gndPos < 30) {
-                    /* set a 300ms delay to closing the claw */
-                    lastGrabbingDelay.reset();
-                    armStatusCode = 6;
-                }
-                break;
-            }
-            case 6: {
-                if (lastGrabbingDelay.seconds() > 0.3) {
-                    closeClaw();
-                    this.toLowArmPosition(); // raise the arm up
-                }
-                break;
-            } case 7: {
-                /* wait for the arm to move to the ground */
-                waitForDeclinedCompletion((short) -1);
+            } case DEACTIVATING: {
+                armPositionCode = -1;
+                liftDriver.moveTo(targetedArmPosition);
                 break;
             }
         }
     }
 
+    /** @return the position the current state goes on to when it times out, the low position once the claw has closed on a sleeve, or else where the arm is */
+    private int getTimeoutPosition() {
+        if (state == State.GRAB_CLOSING) return lowPos;
+        if (state == State.DEACTIVATING) return targetedArmPosition;
+        return (int) Math.round(liftDriver.getPosition());
+    }
+
     /**
      * reacts to the instructions of the pilot
      * called when status code is -1 or 0,
@@ -297,13 +498,27 @@ public class Arm extends RobotModule {
         }
     }
 
+    /**
+     * react to the lift motors pushing against something, as judged by the lift driver in this cycle, within the same cycle
+     * the transition table decides what the arm does about it, see State
+     */
+    private void reactToLiftStall() {
+        final MotorStallDetector liftStallDetector = liftDriver.getStallDetector();
+        if (!(liftStallDetector.hasEvent(liftDriver.getLeftMotorIndex()) || liftStallDetector.hasEvent(liftDriver.getRightMotorIndex()))) return;
+        if (liftStallDetector.isAnyStalled()) {
+            postEvent(Event.STALLED, gndPos);
+            return;
+        }
+        postEvent(Event.COLLIDED, (int) Math.round(liftDriver.getPosition()));
+    }
+
     /**
      * TODO edit explanations
      * */
     private void powerSavingAndChassisStrategy() {
         if (PreviousElevatorActivation.seconds() > 30 & pilotChassis.getLastMovementTime() > 30 & PreviousClawActivation.seconds() > 30) { // no operation after 30s
-            hardwareDriver.lift_left.setPower(0);
-            hardwareDriver.lift_left.setPower(0);
+            request(Event.RELAX, targetedArmPosition);
+            liftDriver.sendCommandsToMotors();
             System.out.println("saving battery...");
             System.exit(0);
         }
@@ -318,125 +533,6 @@ public class Arm extends RobotModule {
         else pilotChassis.setSlowMotionModeActivationSwitch(false);
     }
 
-    /**
-     * let the arm maintain it's current height
-     */
-    private void setArmStill() {
-        /* if the encoders of the arms are working well */
-        if (hardwareDriver.lift_left.getCurrentPosition() != 0 && hardwareDriver.lift_right.getCurrentPosition() != 0) {
-            hardwareDriver.lift_right.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-            hardwareDriver.lift_left.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-            hardwareDriver.lift_right.setTargetPosition(targetedArmPosition);
-            hardwareDriver.lift_left.setTargetPosition(targetedArmPosition);
-            return;
-        }
-
-        /* use only one encoder to determine how the motors spin */
-        System.out.println("<-- arm encoder not functioning --> ");
-        hardwareDriver.lift_right.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
-        hardwareDriver.lift_left.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
-
-        /* get the current position, velocity and power of the arm according to the more reliable motor */
-        double currentPosition = Math.max(hardwareDriver.lift_left.getCurrentPosition(), hardwareDriver.lift_right.getCurrentPosition());
-        double currentVelocity; if (hardwareDriver.lift_right.getVelocity() != 0) currentVelocity = hardwareDriver.lift_right.getVelocity(); else currentVelocity = hardwareDriver.lift_left.getVelocity();
-        double currentPower = Math.max(hardwareDriver.lift_left.getPower(), hardwareDriver.lift_right.getPower());
-
-//        /* the power that the motors need in order to fall */
-//        double fallingPower; if (currentPosition > 600) fallingPower = 0; else fallingPower = -0.1;
-//        /* the power that the motors need to  */
-
-        /** the amount of motor power the system adjusts in every period, when it's running like what we want */
-        final double powerAttemptingDifference = 0.02;
-        double armPower = 0;
-//        if (targetedArmPosition-currentPosition < -20) {
-//            /* decline the arms */
-//            final double armDecliningVelocity = -300;
-//            if (currentVelocity - armDecliningVelocity < -20) armPower = currentPower + powerAttemptingDifference;
-//            else if(currentVelocity - armDecliningVelocity > 20) armPower = currentPower - powerAttemptingDifference;
-//        } else if (targetedArmPosition-currentPosition > 20) {
-//            /* raise the arms */
-//            final double armIncliningVelocity = 300;
-//            if (currentVelocity - armIncliningVelocity < -20) armPower = currentPower + powerAttemptingDifference;
-//            else if(currentVelocity - armIncliningVelocity > 20) armPower = currentPower - powerAttemptingDifference;
-//        } else {
-//            /* set the arms to be still */
-//            if (currentVelocity < -20) armPower = currentPower + powerAttemptingDifference;
-//            else if(currentVelocity > 20) armPower = currentPower - powerAttemptingDifference;
-//        }
-        if (currentVelocity < -20) armPower = currentPower + powerAttemptingDifference;
-        else if(currentVelocity > 20) armPower = currentPower - powerAttemptingDifference;
-        System.out.println(currentVelocity + ", " + armPower);
-
-        /* set the motor speed(almost forgot) */
-//        hardwareDriver.lift_right.setPower(armPower);
-//        hardwareDriver.lift_left.setPower(armPower);
-    }
-
-    /**
-     * called when status code is 1,
-     * meaning the arm is currently moving downward and should decelerate when the it's close to the objective position
-     */
-    private void waitForDeclinedCompletion(short statusCodeAfterCompletion) {
-        if (Math.abs(hardwareDriver.lift_left.getCurrentPosition() - targetedArmPosition) < 200) {
-            /* set the arms to be decelerating */
-            hardwareDriver.lift_left.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-            hardwareDriver.lift_right.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-            hardwareDriver.lift_right.setVelocity(0);
-            hardwareDriver.lift_left.setVelocity(0);
-
-            /* update the status code of the arm telling that they are currently working to slow down */
-            // armStatusCode = 3;
-
-            /* just stop the process, forget about the deceleration */
-            armStatusCode = statusCodeAfterCompletion;
-        }
-    }
-
-    /**
-     * called when status code is 2,
-     * meaning the arm is currently moving upward and should jump to maintenance of height the moment it gets close enough to the objective position
-     */
-    private void waitForInclinedCompletion() {
-        /* wait until the movement is completed */
-        if (
-                Math.abs(
-                        Math.max(hardwareDriver.lift_left.getCurrentPosition(), hardwareDriver.lift_right.getCurrentPosition())
-                                - targetedArmPosition) < 20
-        ) {
-            /* update the status code of the arm telling that they are maintaining height at current position */
-            armStatusCode = 0;
-            /* do periodic immediately */
-            this.periodic();
-        }
-    }
-
-    /**
-     * called when the status code is 3,
-     * meaning the arm is currently motioning downwards but is already close to the objective position,
-     * so it should slow down to avoid hitting the structure of the robot heavily
-     */
-    private void waitForDecelerateCompletion() {
-        hardwareDriver.lift_left.setVelocity(0);
-        hardwareDriver.lift_left.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
-        hardwareDriver.lift_right.setVelocity(0);
-        hardwareDriver.lift_right.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
-
-        /* wait until the slow-down is completed, accept any deviation less than 10
-        * just do the whole process inside one period, it does not take much time */
-        while (
-                Math.abs(hardwareDriver.lift_left.getVelocity()) > 15) {
-            double power = Math.min(
-                    0.2,
-                    Math.abs(hardwareDriver.lift_left.getVelocity()) / 2000
-            );
-        }
-
-        /* update the status code of the arm telling that the slow-down is completed and they are maintaining height at current position  */
-        armStatusCode = 0;
-        /* do periodic immediately */
-        this.periodic();
-    }
-
     /**
      * move the arm down into the following lower level
      */
@@ -507,72 +603,34 @@ public class Arm extends RobotModule {
 
     /**
      * move the arm to the targeted position
-     * when the arm is almost there, reverse the motors and decelerate to avoid damage to the structer
-     * exit the function when the arm is close enough to the objective
+     * the arm is inclining or declining until it has arrived, then it holds there, see State
      *
      * @param position: the targeted position, ranged 0-1000, 0 is when the arm hits the robot badly, 1000 is when the arm flips around and damage the structer
      */
     public void elevateArm(int position) {
-        /** the direction that the arm is going
-        *   true when the arm is going up
-        *   false when the arm is going down
-        */
-        boolean isDecline = position < hardwareDriver.lift_right.getCurrentPosition();
-
-        if (isDecline) {
-            /* set the power of the motor */
-            hardwareDriver.lift_left.setPower(armDeclineSpeed);
-            hardwareDriver.lift_right.setPower(armDeclineSpeed);
-
-            /* if the arm is declining
-             * set the status code so the arm will decelerate in future calls of periodic
-             * */
-            this.armStatusCode = 1;
-        } else {
-            /* set the power of the motor */
-            hardwareDriver.lift_left.setPower(armInclineSpeed);
-            hardwareDriver.lift_right.setPower(armInclineSpeed);
-
-            /* if the arm isn't declining
-             *  move to the position directly, as gravity will slow the arm down
-             * */
-            this.armStatusCode = 2;
-        }
-
-        /* set the arms to be moving, towards the objective position */
-        hardwareDriver.lift_left.setTargetPosition(position);
-        hardwareDriver.lift_left.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-        hardwareDriver.lift_right.setTargetPosition(position);
-        hardwareDriver.lift_right.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-
-        /* update the targeted position */
-        this.targetedArmPosition = position;
+        /* already holding there or on the way, such as when a button is held down, a reading a little off the target must not start a move back to it */
+        if (position == targetedArmPosition && (state == State.HOLDING || state == State.INCLINING || state == State.DECLINING)) return;
+        request(position < liftDriver.getPosition() ? Event.LOWER : Event.RAISE, position);
     }
 
     public void armDeactivation() {
         /* wait until the arm goes below the lowest position */
-        if (hardwareDriver.lift_left.getCurrentPosition() > gndPos) return;
-        hardwareDriver.lift_left.setPower(0);
-        hardwareDriver.lift_right.setPower(0);
+        if (liftDriver.getPosition() > gndPos) return;
+        request(Event.RELAX, targetedArmPosition);
         openClaw();
-        armStatusCode = -1;
-        armPositionCode = -1;
     }
 
     public void deactivateArm() {
-        /* set the arm to move down */
-        hardwareDriver.lift_left.setTargetPosition(gndPos);
-        hardwareDriver.lift_left.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-        hardwareDriver.lift_right.setTargetPosition(gndPos);
-        hardwareDriver.lift_right.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-
-        /* update the targeted position */
-        this.targetedArmPosition = gndPos;
-
-        armStatusCode = 7;
-        armPositionCode = -1;
+        request(Event.DEACTIVATE, gndPos);
     }
 
+    /**
+     * proceed a complete movement that opens the claw, moves the arm to the ground, grabs the sleeve, and lifts it up to the low position
+     * the arm goes through the grabbing states on its own in periodic()
+     */
+    public void grabSleeve() {
+        request(Event.GRAB, gndPos);
+    }
 
     /**
      * if the claw is opened, close it
@@ -593,7 +651,7 @@ public class Arm extends RobotModule {
     public void openClaw() {
         // System.out.println("opening");
         claw = false;
-        hardwareDriver.claw.setPosition(0.45); // open grabber
+        hardwareDriver.setServoPosition(hardwareDriver.claw, 0.45); // open grabber
         armIsBusy = false;
         lastOpenTime.reset();
     }
@@ -603,7 +661,7 @@ public class Arm extends RobotModule {
     public void closeClaw() {
         // System.out.println("closing");
         claw = true;
-        hardwareDriver.claw.setPosition(0.1); // close grabber
+        hardwareDriver.setServoPosition(hardwareDriver.claw, 0.1); // close grabber
         armIsBusy = true;
     }
 
@@ -617,22 +675,64 @@ public class Arm extends RobotModule {
     }
 
     /**
-     * get the status code of the arm
+     * get the status code of the arm, the code of its state, see State
      *
      * -1: the arm is relaxed and waiting for pilot's instructions;
      * 0: the arm is holding still at current height and waiting for pilot's instructions;
-     * 1: the arm is motioning downwards and has a distance between the objective position, so it should continue moving downwards to go to the targeted position;
-     * 2: the arm is motioning upwards and has a distance between the objective position, so it should continue moving upwards to go to the targeted position;
-     * 3: the arm is currently motioning downwards but is already close to the objective position, so it should decelerate;
-     * 4: the arm is currently motioning upwards but is already close to the objective position, so it should immediately jump to status 0 and maintain height, after being slowed down due to gravity;
+     * 1: the arm is motioning downwards to the targeted position;
+     * 2: the arm is motioning upwards to the targeted position;
      * 5: the arm is doing the complete process of grabbing and is currently on it's way to the lowest position
-     * 6: the arm is doing the complete process of grabbing and is current closing it's claw, 300ms after being so the should then be lifted to middle position
+     * 6: the arm is doing the complete process of grabbing and is current closing it's claw, 300ms after being so the should then be lifted to low position
      * 7: the arm is in the deactivation process and is moving downward, it should jump out and go to code -1 after it reaches ground
+     * the codes 3 and 4 are no longer used, the lift driver slows the arm down along its profile
      */
     public short getArmStatusCode() {
-        return armStatusCode;
+        return state.getStatusCode();
+    }
+
+    /** @return the current state of the arm */
+    public State getState() { return state; }
+
+    /** @return how long the arm has been in its current state, in seconds */
+    public double getTimeInCurrentState() {
+        return RobotClock.nanosToSeconds(hardwareDriver.getClock().getCycleTimestamp() - stateEnteredTimestamp);
     }
 
+    /** @return the total time the arm has spent in a state, including the current stay if it is in it, in seconds */
+    public double getTimeInState(State state) {
+        long duration = stateDurations[state.ordinal()];
+        if (state == this.state) duration += hardwareDriver.getClock().getCycleTimestamp() - stateEnteredTimestamp;
+        return RobotClock.nanosToSeconds(duration);
+    }
+
+    /** @return the total time periodic() has taken in cycles that started in a state, in seconds, to see where the cycle time goes */
+    public double getProcessingTimeInState(State state) { return RobotClock.nanosToSeconds(stateProcessingTimes[state.ordinal()]); }
+
+    /** @return how many times the arm has entered a state */
+    public int getStateEntries(State state) { return stateEntries[state.ordinal()]; }
+
+    /** @return how many times an event was handled, the ones the state ignored are not counted */
+    public int getEventCount(Event event) { return eventCounts[event.ordinal()]; }
+
+    /** @return how many events were dropped as the queue was full */
+    public int getDroppedEventsCount() { return droppedEventsCount; }
+
+    /**
+     * predict how long until the arm reaches its targeted position, from the profile it follows, see LiftDriver
+     * so the callers can start what comes next, like opening the claw, that long before instead of waiting for the status code
+     *
+     * @return the time, in seconds, 0 once it is there, Double.POSITIVE_INFINITY if the arm is relaxed
+     */
+    public double getTimeToArrival() { return liftDriver.getTimeToArrival(); }
+
+    /** @return whether each lift encoder is still trusted, the lift is guided by the other one once one of them has failed, see LiftDriver */
+    public boolean isLeftLiftEncoderHealthy() { return liftDriver.isLeftEncoderHealthy(); }
+
+    public boolean isRightLiftEncoderHealthy() { return liftDriver.isRightEncoderHealthy(); }
+
+    /** @return how late the last move of the arm arrived against the time predicted when it started, in seconds, negative if early */
+    public double getLastArrivalDelay() { return liftDriver.getLastArrivalDelay(); }
+
     /** get the time elapsed after the claw being closed, to debug RAS */
     public double getLastOpenTime() { return lastOpenTime.seconds(); }
 }
@@ -2,6 +2,8 @@ package org.firstinspires.ftc.teamcode.RobotModules;
 
 import com.qualcomm.robotcore.util.ElapsedTime;
 
+import org.firstinspires.ftc.teamcode.Drivers.HardwareDriver;
+
 /**
  * the program that connects to the arm module to control the arm during auto stage
  *
@@ -14,45 +16,88 @@ public class AutoStageArm {
     private static final int[] sleevesStackPositions = {135,110,90,0};
     /** count the number of sleeves obtained already */
     private int sleevesCount = 0;
+    /** the longest the arm is waited for to get to a tower or the sleeves stack, in seconds, in case the lift never arrives */
+    private static final double maxMotionTime = 3;
+    /** the time the claw takes to close on a sleeve, in seconds */
+    private static final double clawClosingTime = 0.3;
     Arm armModule;
-    public AutoStageArm(Arm armModule) {
+    /** the hardware of the arm, to start the control cycles while the waits of this class block the main loop */
+    private final HardwareDriver hardwareDriver;
+    public AutoStageArm(Arm armModule, HardwareDriver hardwareDriver) {
         this.armModule = armModule;
+        this.hardwareDriver = hardwareDriver;
+    }
+
+    /**
+     * advance the arm by one control cycle, called in every pass of the waits of this class
+     * the arm only reads the lift again, and its timers only move, once a new cycle has started
+     */
+    private void runArmCycle() {
+        hardwareDriver.beginControlCycle();
+        armModule.periodic();
     }
 
+    /**
+     * close the claw on the pre-loaded sleeve and hold it at the ground position
+     * the arm handles the request at once, so there is nothing to wait for: it is on its way, or already holding there, when this returns
+     */
     public void holdPreLoadedSleeve() {
         armModule.closeClaw();
         armModule.toGroundArmPosition();
-        while (armModule.getArmStatusCode() <= 0) armModule.periodic();
     }
 
+    /** start lowering the arm and open the claw, the arm handles the request at once */
     public void dropSleeve() {
         armModule.deactivateArm();
-        while (armModule.getArmStatusCode() <= -1) armModule.periodic();
         armModule.openClaw();
     }
 
     //public void
 
     public void goToHighestTower() {
+        goToHighestTower(0);
+    }
+
+    /**
+     * raise the arm to the highest tower, and return a while before it gets there, so the caller can start the next action on the way
+     *
+     * @param leadTime how long before the predicted arrival of the arm to return, in seconds, see Arm.getTimeToArrival()
+     */
+    public void goToHighestTower(double leadTime) {
         armModule.toHighArmPosition();
-        while (armModule.getArmStatusCode() > 0) {
-            armModule.periodic();
-            System.out.println(armModule.getArmStatusCode());
-        }
+        ElapsedTime timeUsed = new ElapsedTime(); timeUsed.reset();
+        while (armModule.getArmStatusCode() > 0 && armModule.getTimeToArrival() > leadTime && timeUsed.seconds() < maxMotionTime) runArmCycle();
     }
 
     public void levelArmToSleevesStack() {
+        levelArmToSleevesStack(0);
+    }
+
+    /**
+     * move the arm to the top of the sleeves stack, and return a while before it gets there
+     *
+     * @param leadTime how long before the predicted arrival of the arm to return, in seconds, see Arm.getTimeToArrival()
+     */
+    public void levelArmToSleevesStack(double leadTime) {
+        startLevelingArmToSleevesStack();
+        ElapsedTime timeUsed = new ElapsedTime(); timeUsed.reset();
+        while (armModule.getArmStatusCode() > 0 && armModule.getTimeToArrival() > leadTime && timeUsed.seconds() < maxMotionTime) runArmCycle();
+    }
+
+    /** open the claw and start moving the arm to the top of the sleeves stack, without waiting for it to get there */
+    public void startLevelingArmToSleevesStack() {
         armModule.openClaw();
         armModule.elevateArm(sleevesStackPositions[sleevesCount++]);
-        while (armModule.getArmStatusCode() > 0) armModule.periodic();
     }
 
     public void liftFromSleevesStack() throws InterruptedException {
         armModule.closeClaw();
-        Thread.sleep(300);
-        armModule.toLowArmPosition();
+        /* keep the lift holding while the claw closes, instead of sleeping with the arm left alone */
         ElapsedTime timeUsed = new ElapsedTime(); timeUsed.reset();
-        while (armModule.getArmStatusCode() > 0 && timeUsed.seconds() < 0.5) armModule.periodic();
+        while (timeUsed.seconds() < clawClosingTime) runArmCycle();
+        armModule.toLowArmPosition();
+        timeUsed.reset();
+        while (armModule.getArmStatusCode() > 0 && timeUsed.seconds() < 0.5) runArmCycle();
     }
 
     public boolean getClaw() { return armModule.getClaw(); }
@@ -6,6 +6,7 @@ import com.qualcomm.robotcore.util.ElapsedTime;
 
 import org.firstinspires.ftc.teamcode.Drivers.HardwareDriver;
 import org.firstinspires.ftc.teamcode.RobotModule;
+import org.firstinspires.ftc.teamcode.Utils.MecanumKinematics;
 
 import java.util.HashMap;
 
@@ -53,6 +54,10 @@ public class AutoStageRobotChassis extends RobotModule {
     private final double waitForNavigationSignTimeLimitation = 0.5; // the time limit when waiting for navigation sign to show up
     private final double rotationalMotionCorrectionFactor = -1;
 
+    /** turns the motions into the powers of the wheels, keeping the directions when they saturate, the rotation correction first */
+    private final MecanumKinematics kinematics = new MecanumKinematics(MecanumKinematics.rotationFirst);
+    private final double[] wheelMotions = new double[MecanumKinematics.wheelCount];
+
     private HardwareDriver hardwareDriver;
     private IMUReader imuReader;
     private ComputerVisionFieldNavigation_v2 fieldNavigation;
@@ -139,6 +144,8 @@ public class AutoStageRobotChassis extends RobotModule {
 
     @Override
     public void periodic() {
+        // this module waits for its motions in its own loops, so it starts the control cycles of the hardware itself
+        hardwareDriver.beginControlCycle();
         imuReader.periodic();
         fieldNavigation.periodic();
     }
@@ -311,25 +318,16 @@ public class AutoStageRobotChassis extends RobotModule {
     public double[] getEncoderPosition() {
         // get the encoder value and calculate the position using Mecanum wheel algorithm
         double[] encoderPosition = new double[2];
+        // read each encoder once, from the snapshot of the current control cycle
+        final double leftFrontPosition = this.hardwareDriver.getSnapshot().getCurrentPosition(this.hardwareDriver.leftFront) * encoderCorrectionFactor;
+        final double rightFrontPosition = this.hardwareDriver.getSnapshot().getCurrentPosition(this.hardwareDriver.rightFront) * encoderCorrectionFactor;
+        final double leftRearPosition = this.hardwareDriver.getSnapshot().getCurrentPosition(this.hardwareDriver.leftRear) * encoderCorrectionFactor;
         if (x_y_Reversed) { // if the x and y axles are reversed
-            this.encoderCurrentPosition[1] = (
-                    (double)
-                            this.hardwareDriver.leftFront.getCurrentPosition() * encoderCorrectionFactor
-                            + this.hardwareDriver.rightFront.getCurrentPosition() * encoderCorrectionFactor)
-                    / 2;
-            this.encoderCurrentPosition[0] = (
-                    (double) this.hardwareDriver.leftFront.getCurrentPosition() * encoderCorrectionFactor
-                            - this.hardwareDriver.leftRear.getCurrentPosition() * encoderCorrectionFactor)
-                    / 2;        } else {
-            this.encoderCurrentPosition[0] = (
-                    (double)
-                            this.hardwareDriver.leftFront.getCurrentPosition() * encoderCorrectionFactor
-                            + this.hardwareDriver.rightFront.getCurrentPosition() * encoderCorrectionFactor)
-                / 2;
-            this.encoderCurrentPosition[1] = (
-                    (double) this.hardwareDriver.leftFront.getCurrentPosition() * encoderCorrectionFactor
-                            - this.hardwareDriver.leftRear.getCurrentPosition() * encoderCorrectionFactor)
-                / 2;
+            this.encoderCurrentPosition[1] = (leftFrontPosition + rightFrontPosition) / 2;
+            this.encoderCurrentPosition[0] = (leftFrontPosition - leftRearPosition) / 2;
+        } else {
+            this.encoderCurrentPosition[0] = (leftFrontPosition + rightFrontPosition) / 2;
+            this.encoderCurrentPosition[1] = (leftFrontPosition - leftRearPosition) / 2;
         }
 
         // calculate the position
@@ -340,7 +338,7 @@ public class AutoStageRobotChassis extends RobotModule {
 
     public double getEncoderRotation() {
         double encoderRotation, robotRotation;
-        this.encoderCurrentRotation = (double) this.hardwareDriver.leftFront.getCurrentPosition()*encoderCorrectionFactor - this.hardwareDriver.rightRear.getCurrentPosition()*encoderCorrectionFactor;
+        this.encoderCurrentRotation = (double) this.hardwareDriver.getSnapshot().getCurrentPosition(this.hardwareDriver.leftFront)*encoderCorrectionFactor - this.hardwareDriver.getSnapshot().getCurrentPosition(this.hardwareDriver.rightRear)*encoderCorrectionFactor;
 
         encoderRotation = encoderCurrentRotation - encoderStartingRotation;
 
@@ -434,6 +432,8 @@ public class AutoStageRobotChassis extends RobotModule {
         double distanceXPosition, distanceYPosition, distanceLeft;
         double rotationDeviationDuringProcess, dynamicalRotationCorrection;
         do {
+            // refresh the readings of the encoders
+            hardwareDriver.beginControlCycle();
             // get the distance left in x and y position
             double[] robotCurrentPosition = fieldNavigation.getRobotPosition();
             distanceXPosition = targetedXPosition - robotCurrentPosition[0];
@@ -492,27 +492,31 @@ public class AutoStageRobotChassis extends RobotModule {
     private void setRobotMotion(double xAxleMotion, double yAxleMotion, double rotationalMotion) {
         rotationalMotion *= rotationalMotionCorrectionFactor;
         // control the Mecanum wheel
+        // the modes are only sent when they change, the command buffer drops the repeated ones
         if (runWithEncoder) {
-            hardwareDriver.leftFront.setVelocity(yAxleMotion + rotationalMotion + xAxleMotion);
-            hardwareDriver.leftRear.setVelocity(yAxleMotion + rotationalMotion - xAxleMotion);
-            hardwareDriver.rightFront.setVelocity(yAxleMotion - rotationalMotion - xAxleMotion);
-            hardwareDriver.rightRear.setVelocity(yAxleMotion - rotationalMotion + xAxleMotion);
-
-            this.hardwareDriver.leftFront.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-            this.hardwareDriver.leftRear.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-            this.hardwareDriver.rightFront.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
-            this.hardwareDriver.rightRear.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+            this.hardwareDriver.setMode(this.hardwareDriver.leftFront, DcMotor.RunMode.RUN_USING_ENCODER);
+            this.hardwareDriver.setMode(this.hardwareDriver.leftRear, DcMotor.RunMode.RUN_USING_ENCODER);
+            this.hardwareDriver.setMode(this.hardwareDriver.rightFront, DcMotor.RunMode.RUN_USING_ENCODER);
+            this.hardwareDriver.setMode(this.hardwareDriver.rightRear, DcMotor.RunMode.RUN_USING_ENCODER);
+
+            /* the velocities are not limited to one, so they are only mixed */
+            MecanumKinematics.mix(xAxleMotion, yAxleMotion, rotationalMotion, wheelMotions);
+            hardwareDriver.setVelocity(hardwareDriver.leftFront, wheelMotions[MecanumKinematics.leftFrontIndex]);
+            hardwareDriver.setVelocity(hardwareDriver.leftRear, wheelMotions[MecanumKinematics.leftRearIndex]);
+            hardwareDriver.setVelocity(hardwareDriver.rightFront, wheelMotions[MecanumKinematics.rightFrontIndex]);
+            hardwareDriver.setVelocity(hardwareDriver.rightRear, wheelMotions[MecanumKinematics.rightRearIndex]);
         } else {
             // set the running parameters for each motors
-            this.hardwareDriver.leftFront.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
-            this.hardwareDriver.leftRear.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
-            this.hardwareDriver.rightFront.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
-            this.hardwareDriver.rightRear.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
-
-            hardwareDriver.leftFront.setPower(yAxleMotion + rotationalMotion + xAxleMotion);
-            hardwareDriver.leftRear.setPower(yAxleMotion + rotationalMotion - xAxleMotion);
-            hardwareDriver.rightFront.setPower(yAxleMotion - rotationalMotion - xAxleMotion);
-            hardwareDriver.rightRear.setPower(yAxleMotion - rotationalMotion + xAxleMotion);
+            this.hardwareDriver.setMode(this.hardwareDriver.leftFront, DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+            this.hardwareDriver.setMode(this.hardwareDriver.leftRear, DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+            this.hardwareDriver.setMode(this.hardwareDriver.rightFront, DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+            this.hardwareDriver.setMode(this.hardwareDriver.rightRear, DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+
+            kinematics.calculateWheelPowers(xAxleMotion, yAxleMotion, rotationalMotion, wheelMotions);
+            hardwareDriver.setPower(hardwareDriver.leftFront, wheelMotions[MecanumKinematics.leftFrontIndex]);
+            hardwareDriver.setPower(hardwareDriver.leftRear, wheelMotions[MecanumKinematics.leftRearIndex]);
+            hardwareDriver.setPower(hardwareDriver.rightFront, wheelMotions[MecanumKinematics.rightFrontIndex]);
+            hardwareDriver.setPower(hardwareDriver.rightRear, wheelMotions[MecanumKinematics.rightRearIndex]);
         }
     }
 
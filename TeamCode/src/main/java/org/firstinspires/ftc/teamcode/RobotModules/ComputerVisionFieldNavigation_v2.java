@@ -21,6 +21,8 @@ import org.firstinspires.ftc.robotcore.external.navigation.VuforiaBase;
 import org.firstinspires.ftc.robotcore.external.navigation.VuforiaCurrentGame;
 import org.firstinspires.ftc.robotcore.external.navigation.VuforiaLocalizer;
 import org.firstinspires.ftc.teamcode.RobotModule;
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
+import org.firstinspires.ftc.teamcode.Utils.SystemNanoClock;
 
 import java.util.HashMap;
 
@@ -62,6 +64,14 @@ public class ComputerVisionFieldNavigation_v2 extends RobotModule {
     /** the variable that stores */
     private double robotRotation;
     private ElapsedTime positionLastUpdateTime = new ElapsedTime();
+    /** the amount of times the position is updated from the camera, so the users can tell a new position from an old one */
+    private int updateCount = 0;
+    /** the clock to time the camera frames with, the same one as the odometry so the two can be compared */
+    private RobotClock clock = new SystemNanoClock();
+    /** the time between a frame being taken and its result being read, in seconds, TODO: measure it, 60ms is a guess for the webcam */
+    private double captureLatency = 0.06;
+    /** when the frame of the last position is taken, in nanoseconds */
+    private long captureTimestamp;
 
     /** construction method of field navigation module */
     public ComputerVisionFieldNavigation_v2() {
@@ -77,6 +87,7 @@ public class ComputerVisionFieldNavigation_v2 extends RobotModule {
      * @param dependentModules: null should be given as this module does not depend on any other modules
      * @param dependentInstances: the instance needed by the robot's chassis
      *                          "hardwareMap" : HardwareMap the connection to the robot's hardware
+     *                          "clock" : RobotClock, optional, the clock of the odometry, to time the camera frames with
      */
     @Override
     public void init(
@@ -94,6 +105,7 @@ public class ComputerVisionFieldNavigation_v2 extends RobotModule {
 
         /* get the connection to the robot's hardware */
         HardwareMap hardwareMap = (HardwareMap) dependentInstances.get("hardwareMap");
+        if (dependentInstances.containsKey("clock")) this.clock = (RobotClock) dependentInstances.get("clock");
 
         /* set the params for vuforia module */
         final String vuforiaLicenseKey = "";
@@ -134,6 +146,8 @@ public class ComputerVisionFieldNavigation_v2 extends RobotModule {
         for (String target: targets) if (isTargetVisible(target)) {
             processTarget();
             positionLastUpdateTime.reset();
+            captureTimestamp = clock.nanoTime() - RobotClock.secondsToNanos(captureLatency);
+            updateCount++;
         }
     }
 
@@ -179,6 +193,15 @@ public class ComputerVisionFieldNavigation_v2 extends RobotModule {
      * @return the time between present and the last the time the data is updated from the camera
      */
     public double PositionLastUpdate() { return positionLastUpdateTime.seconds(); }
+
+    /** @return the amount of times the position is updated from the camera, it changes whenever a new position comes */
+    public int getUpdateCount() { return updateCount; }
+
+    /** @return when the frame of the last position is taken, timed with the given clock, in nanoseconds */
+    public long getCaptureTimestamp() { return captureTimestamp; }
+
+    /** @param captureLatency the time between a frame being taken and its result being read, in seconds */
+    public void setCaptureLatency(double captureLatency) { this.captureLatency = captureLatency; }
     /**
      * to know whether there is(are) at least one navigation sign(s) available to navigate
      * @return the visibility of any single one of all the targets
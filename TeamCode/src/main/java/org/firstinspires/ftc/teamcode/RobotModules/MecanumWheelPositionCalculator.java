@@ -0,0 +1,175 @@
+package org.firstinspires.ftc.teamcode.RobotModules;
+
+import org.firstinspires.ftc.teamcode.Geometry.Matrix3d;
+import org.firstinspires.ftc.teamcode.Geometry.Twist2d;
+import org.firstinspires.ftc.teamcode.RobotModule;
+
+import java.util.HashMap;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: MecanumWheelPositionCalculator.java
+ *
+ * calculates the robot's position from the encoders of the four mecanum wheels, instead of the dead wheels
+ * it is a RobotPositionCalculator, so it can be given to every module that needs the position of the robot
+ *
+ * the wheels sense the motion of the robot as (see the bottom of AutoStageRobotChassis)
+ *  leftFront = Y + R + X
+ *  leftRear = Y + R - X
+ *  rightFront = Y - R - X
+ *  rightRear = Y - R + X
+ * four readings for three unknowns, so the motion is the least-squares fit of the readings
+ * the pseudo-inverse of the sensing is found once during init, so every period only costs a few multiplications
+ * what the fit cannot explain, the residual, comes from the wheels slipping, and is given by getWheelSlip()
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class MecanumWheelPositionCalculator extends RobotPositionCalculator {
+    /** the amount of wheels */
+    private static final int wheelsCount = 4;
+
+    /** some configurations of the robot TODO: measure these settings */
+    /** the distance the robot moves forward, in the units of the dead wheels, when the wheels turn by one encoder value */
+    private double forwardDistancePerWheelEncoderValue = 1;
+    /** the distance the robot moves sideways, when the wheels turn by one encoder value, usually less than forward as the rollers slip */
+    private double sidewaysDistancePerWheelEncoderValue = 1;
+    /** the encoder values each wheel turns when the robot rotates by one radian, from AutoStageRobotChassis */
+    private double wheelEncoderValuesPerRadian = 3900 / (Math.PI * 2);
+
+    /** how the motion of the robot, (x, y, rotation), is sensed by the wheels, a row for each wheel, in the order of leftFront, leftRear, rightFront and rightRear */
+    private final double[] motionToWheels = new double[wheelsCount * 3];
+    /** the pseudo-inverse of the sensing, a row for x, y and rotation each, turns the readings of the wheels into the motion */
+    private final double[] wheelsToMotion = new double[3 * wheelsCount];
+
+    /** the positions of the wheels in the last period */
+    private final double[] previousWheelPositions = new double[wheelsCount];
+    /** the space to compute in, so the periods do not create objects */
+    private final double[] wheelDifferences = new double[wheelsCount];
+    private final double[] wheelVelocities = new double[wheelsCount];
+    /** the change of each wheel in the last period that is not explained by the motion of the robot, in encoder values */
+    private final double[] wheelResiduals = new double[wheelsCount];
+    /** the size of the residuals, in encoder values */
+    private double wheelSlip = 0;
+
+    /**
+     * initialize the calculator with the encoders of the wheels
+     *
+     * @param dependentModules the following modules are required
+     *                         "encoderReader": Mini1024EncoderReader, with at least four channels, leftFront, leftRear, rightFront and rightRear, reversed so that they count up when the robot moves forward
+     * @param dependentInstances null should be given as this module does not dependent on any instance
+     * @throws IllegalArgumentException if the encoder reader has less than four channels
+     */
+    @Override
+    public void init(
+            HashMap<String, RobotModule> dependentModules,
+            HashMap<String, Object> dependentInstances
+    ) throws NullPointerException, IllegalArgumentException {
+        if (dependentModules.containsKey("encoderReader")
+                && ((Mini1024EncoderReader) dependentModules.get("encoderReader")).getChannelCount() < wheelsCount) throw new IllegalArgumentException(
+                "module <<" + this.getModuleName() + ">> needs the encoders of all " + wheelsCount + " wheels from its dependency <<" + "encoderReader" + ">>"
+        );
+        computeWheelsToMotion();
+        super.init(dependentModules, dependentInstances);
+    }
+
+    /**
+     * set the configurations of the robot, the pseudo-inverse is found again
+     *
+     * @param forwardDistancePerWheelEncoderValue the distance the robot moves forward when the wheels turn by one encoder value
+     * @param sidewaysDistancePerWheelEncoderValue the distance the robot moves sideways when the wheels turn by one encoder value
+     * @param wheelEncoderValuesPerRadian the encoder values each wheel turns when the robot rotates by one radian
+     */
+    public void setWheelConfigurations(double forwardDistancePerWheelEncoderValue, double sidewaysDistancePerWheelEncoderValue, double wheelEncoderValuesPerRadian) {
+        this.forwardDistancePerWheelEncoderValue = forwardDistancePerWheelEncoderValue;
+        this.sidewaysDistancePerWheelEncoderValue = sidewaysDistancePerWheelEncoderValue;
+        this.wheelEncoderValuesPerRadian = wheelEncoderValuesPerRadian;
+        computeWheelsToMotion();
+    }
+
+    /** find the sensing of the wheels and its pseudo-inverse, (A^T A)^-1 A^T */
+    private void computeWheelsToMotion() {
+        /*
+         * x points to the right and the rotation is counter-clockwise, as in RobotPositionCalculator
+         * so X = x / sideways, Y = y / forward, and R = -rotation * wheelEncoderValuesPerRadian, as R turns the robot clockwise
+         * */
+        final double[] xSigns = {1, -1, -1, 1}, rSigns = {1, 1, -1, -1};
+        for (int wheel = 0; wheel < wheelsCount; wheel++) {
+            motionToWheels[wheel * 3] = xSigns[wheel] / sidewaysDistancePerWheelEncoderValue;
+            motionToWheels[wheel * 3 + 1] = 1 / forwardDistancePerWheelEncoderValue;
+            motionToWheels[wheel * 3 + 2] = -rSigns[wheel] * wheelEncoderValuesPerRadian;
+        }
+
+        Matrix3d normal = new Matrix3d().setZero();
+        for (int row = 0; row < 3; row++)
+            for (int column = 0; column < 3; column++) {
+                double sum = 0;
+                for (int wheel = 0; wheel < wheelsCount; wheel++) sum += motionToWheels[wheel * 3 + row] * motionToWheels[wheel * 3 + column];
+                normal.set(row, column, sum);
+            }
+        normal.inverseInto(normal);
+
+        for (int row = 0; row < 3; row++)
+            for (int wheel = 0; wheel < wheelsCount; wheel++) {
+                double sum = 0;
+                for (int k = 0; k < 3; k++) sum += normal.get(row, k) * motionToWheels[wheel * 3 + k];
+                wheelsToMotion[row * wheelsCount + wheel] = sum;
+            }
+    }
+
+    /**
+     * work out the motion of the robot from the four wheels, by least squares
+     *
+     * @param displacement to write the change of the robot since the last period in, in reference to the robot at the start of it
+     * @param velocity to write the velocity of the robot in, in reference to itself
+     */
+    @Override
+    protected void measureMotion(Twist2d displacement, Twist2d velocity) {
+        for (int wheel = 0; wheel < wheelsCount; wheel++) {
+            double position = encoderReader.getEncoderPosition(wheel + 1);
+            wheelDifferences[wheel] = position - previousWheelPositions[wheel];
+            wheelVelocities[wheel] = encoderReader.getEncoderVelocity(wheel + 1);
+            previousWheelPositions[wheel] = position;
+        }
+
+        displacement.set(fit(wheelDifferences, 0), fit(wheelDifferences, 1), fit(wheelDifferences, 2));
+        velocity.set(fit(wheelVelocities, 0), fit(wheelVelocities, 1), fit(wheelVelocities, 2));
+
+        /* the part of the readings that the fitted motion does not explain */
+        double squaredSlip = 0;
+        for (int wheel = 0; wheel < wheelsCount; wheel++) {
+            wheelResiduals[wheel] = wheelDifferences[wheel]
+                    - motionToWheels[wheel * 3] * displacement.getDx()
+                    - motionToWheels[wheel * 3 + 1] * displacement.getDy()
+                    - motionToWheels[wheel * 3 + 2] * displacement.getDTheta();
+            squaredSlip += wheelResiduals[wheel] * wheelResiduals[wheel];
+        }
+        wheelSlip = Math.sqrt(squaredSlip);
+    }
+
+    /** @return a part of the motion, 0 for x, 1 for y and 2 for rotation, fitted from the readings of the wheels */
+    private double fit(double[] wheelReadings, int row) {
+        return wheelsToMotion[row * wheelsCount] * wheelReadings[0]
+                + wheelsToMotion[row * wheelsCount + 1] * wheelReadings[1]
+                + wheelsToMotion[row * wheelsCount + 2] * wheelReadings[2]
+                + wheelsToMotion[row * wheelsCount + 3] * wheelReadings[3];
+    }
+
+    /** remember the current positions of the wheels, so the next period knows how much they changed */
+    @Override
+    protected void recordEncoderPositions() {
+        for (int wheel = 0; wheel < wheelsCount; wheel++) previousWheelPositions[wheel] = encoderReader.getEncoderPosition(wheel + 1);
+    }
+
+    /**
+     * how much the wheels disagree with each other in the last period, which happens when a wheel slips
+     * with all four wheels gripping, it stays around the noise of the encoders
+     *
+     * @return the size of the part of the readings that no motion of the robot explains, in wheel encoder values
+     */
+    public double getWheelSlip() { return wheelSlip; }
+
+    /** @return the part of the change of each wheel in the last period not explained by the motion, in the order of leftFront, leftRear, rightFront and rightRear */
+    public double[] getWheelResiduals() { return wheelResiduals; }
+}
@@ -1,50 +1,57 @@
 package org.firstinspires.ftc.teamcode.RobotModules;
 
-import android.os.SystemClock;
-
 import java.util.HashMap;
 
 import com.qualcomm.robotcore.hardware.DcMotorEx;
-import com.qualcomm.robotcore.util.ElapsedTime;
 
+import org.firstinspires.ftc.teamcode.Drivers.HardwareDriver;
+import org.firstinspires.ftc.teamcode.Drivers.HardwareSnapshot;
 import org.firstinspires.ftc.teamcode.RobotModule;
+import org.firstinspires.ftc.teamcode.Utils.FiniteDifferenceVelocityEstimator;
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
+import org.firstinspires.ftc.teamcode.Utils.SystemNanoClock;
+import org.firstinspires.ftc.teamcode.Utils.VelocityEstimator;
 
 /**
  * Copyright © 2023 SCCSC-Robotics-Club
  * FileName: Mini1024EncoderModule
  *
  * the module that reads the angular position, velocity and acceleration of the encoders
+ * any amount of encoders, called channels, can be read, each one is stored at the same index of a set of arrays
+ * the ids of the channels start from 1, channel i is given as "encoder-i-instance"
+ * the velocity and acceleration are worked out by an estimator for each channel, see VelocityEstimator, which can be changed by setVelocityEstimator()
+ * when an OdometryThread runs, the encoders are read only by that thread, from a snapshot of its own, and periodic() called by the others does nothing
  *
  * @Author 四只爱写代码の猫
  * @Date 2023.3.16
- * @Version v0.0.3
+ * @Version v0.1.0
 */
 public class Mini1024EncoderReader extends RobotModule {
-    /** the operable instance of the three encoders */
-    private DcMotorEx encoder1, encoder2, encoder3;
-
-    /** the current position of the encoders, updated every period of the run loop */
-    private double encoder1Position, encoder2Position, encoder3Position;
-    /** the current velocity of the encoders, updated every period of the run loop, determined using the change in position and the difference in time */
-    private double encoder1Velocity, encoder2Velocity, encoder3Velocity;
-    /** the current position of the encoders, updated every period of the run loop, determined using the change in velocity and the difference in time */
-    private double encoder1Acceleration, encoder2Acceleration, encoder3Acceleration;
+    /** the operable instance of the encoders, null if a channel is not used, whose position stays zero */
+    private DcMotorEx[] encoders;
 
+    /** the current position of the encoders, scaled, updated every period of the run loop */
+    private double[] positions;
     /** the starting position of the encoders, updated when the encoders are requested to calibrate */
-    private double encoder1StartingPosition, encoder2StartingPosition, encoder3StartingPosition;
-
-    /** whether to read the data from encoder3 */
-    private boolean useEncoder3;
-
-    /** the correction factor of the first encoders */
-    private double encoder1CorrectionFactor = 1;
-    /** the correction factor of the second encoders */
-    private double encoder2CorrectionFactor = 1;
-    /** the correction factor of the third encoders */
-    private double encoder3CorrectionFactor = 1;
-
-    /** the difference in time between two adjacent periods */
-    private ElapsedTime dt = new ElapsedTime();
+    private double[] startingPositions;
+    /** the factor multiplied to the readings of the encoders, negative if the encoder is reversed */
+    private double[] scales;
+    /** when the encoders are last read, in nanoseconds */
+    private long[] readTimestamps;
+    /** when the last encoder is read in the last period, in nanoseconds */
+    private long lastReadTimestamp;
+    /** work out the velocity and acceleration of the encoders from their positions, the change in position over the change in time unless changed */
+    private VelocityEstimator[] velocityEstimators;
+
+    /** the connection to the hardware, optional, if given the encoders are read from its snapshot of the current control cycle */
+    private HardwareDriver hardwareDriver = null;
+
+    /** the clock to read the time from, the one of the hardware driver if given */
+    private RobotClock clock;
+
+    /** the thread that reads the encoders, and the snapshot it reads them from, null if read by whoever calls periodic() */
+    private volatile Thread readingThread = null;
+    private volatile HardwareSnapshot readingThreadSnapshot = null;
 
     /**
      * construct method of the reader of mini1024 encoder
@@ -54,13 +61,41 @@ public class Mini1024EncoderReader extends RobotModule {
     }
 
     /**
-     * initialize the encoders
+     * initialize the encoders, reading as many channels as given
+     *
+     * @param dependentModules: not needed
+     * @param dependentInstances
+     *                          DcMotorEx "encoder-1-instance", "encoder-2-instance", ..., "encoder-n-instance":
+     *                          the instance of the encoders, the channels end at the first id not given
+     *                          HardwareDriver "hardwareDriver": optional, the connection to the hardware, to read the encoders from its bulk-read snapshot
+     * @param reversedChannels the ids of the channels whose values are inverted
+     * @throws NullPointerException if no encoder is given
+     */
+    public void init(
+            HashMap<String, RobotModule> dependentModules,
+            HashMap<String, Object> dependentInstances,
+            int... reversedChannels
+    ) throws NullPointerException {
+        int channels = 0;
+        while (dependentInstances.containsKey("encoder-" + (channels + 1) + "-instance")) channels++;
+        if (channels == 0) throw new NullPointerException(
+                "dependency <<" + "encoder-1-instance" + ">> not specified for module <<" + this.getModuleName() + ">>"
+        );
+
+        allocateChannels(channels, dependentInstances);
+        for (int id: reversedChannels) setEncoderReversed(id, true);
+        calibrateAllEncoders();
+    }
+
+    /**
+     * initialize the three encoders of the odometry
      *
      * @param dependentModules: not needed
      * @param dependentInstances
      *                          DcMotorEx "encoder-1-instance", "encoder-2-instance", "encoder-3-instance3":
      *                          the instance of the three encoders
-     * @param useEncoder3 whether to read from encoder 3
+     *                          HardwareDriver "hardwareDriver": optional, the connection to the hardware, to read the encoders from its bulk-read snapshot
+     * @param useEncoder3 whether to read from encoder 3, if not, its position stays zero
      * @param reverseEncoder1  whether to inverse encoder1's value
      * @param reverseEncoder2  whether to inverse encoder2's value
      * @param reverseEncoder3  whether to inverse encoder3's value
@@ -73,44 +108,56 @@ public class Mini1024EncoderReader extends RobotModule {
             boolean reverseEncoder2,
             boolean reverseEncoder3
     ) throws NullPointerException {
-        /* get the three encoders from the args */
-        encoder1 = (DcMotorEx) dependentInstances.get("encoder-1-instance");
-        encoder2 = (DcMotorEx) dependentInstances.get("encoder-2-instance");
-
-        /* the third encoder is optional */
-        this.useEncoder3 = useEncoder3;
-        if (useEncoder3) encoder3 = (DcMotorEx) dependentInstances.get("encoder-3-instance");
-
-        /* reverse the value of the encoders if asked */
-        if (reverseEncoder1) encoder1CorrectionFactor = -1;
-        if (reverseEncoder2) encoder2CorrectionFactor = -1;
-        if (reverseEncoder3) encoder3CorrectionFactor = -1;
-
-        /* initialize the time */
-        dt.reset();
+        allocateChannels(3, dependentInstances);
+        if (!useEncoder3) encoders[2] = null;
 
-        /* initialize the encoders */
-        calibrateEncoder(1);
-        calibrateEncoder(2);
-        calibrateEncoder(3);
+        setEncoderReversed(1, reverseEncoder1);
+        setEncoderReversed(2, reverseEncoder2);
+        setEncoderReversed(3, reverseEncoder3);
 
-        System.out.println(encoder2StartingPosition + ", " + encoder2Position);
+        calibrateAllEncoders();
     }
 
     /**
-     * initialize the encoders
+     * initialize the encoders, reading as many channels as given, none of them reversed
+     * (encoder 3 of the odometry used to be asked to be reversed here, but the reversal was never applied, so the odometry is calibrated without it)
      *
      * @param dependentModules: not needed
      * @param dependentInstances
-     *                          DcMotorEx "encoder-1-instance", "encoder-2-instance", "encoder-3-instance3":
-     *                          the instance of the three encoders
+     *                          DcMotorEx "encoder-1-instance", "encoder-2-instance", ..., "encoder-n-instance":
+     *                          the instance of the encoders, the channels end at the first id not given
+     *                          HardwareDriver "hardwareDriver": optional, the connection to the hardware, to read the encoders from its bulk-read snapshot
      */
     @Override
     public void init (
             HashMap<String, RobotModule> dependentModules,
             HashMap<String, Object> dependentInstances
     ) throws NullPointerException {
-        this.init(dependentModules, dependentInstances, true, false, false , true);
+        this.init(dependentModules, dependentInstances, new int[0]);
+    }
+
+    /**
+     * create the arrays of the channels and take the encoders and the hardware driver from the instances
+     *
+     * @param channels the amount of channels
+     * @param dependentInstances the instances given to init
+     */
+    private void allocateChannels(int channels, HashMap<String, Object> dependentInstances) {
+        encoders = new DcMotorEx[channels];
+        positions = new double[channels];
+        startingPositions = new double[channels];
+        scales = new double[channels];
+        readTimestamps = new long[channels];
+        velocityEstimators = new VelocityEstimator[channels];
+        for (int i = 0; i < channels; i++) {
+            encoders[i] = (DcMotorEx) dependentInstances.get("encoder-" + (i + 1) + "-instance");
+            scales[i] = 1;
+            velocityEstimators[i] = new FiniteDifferenceVelocityEstimator();
+        }
+
+        /* the hardware driver is optional, without it the encoders are read directly */
+        if (dependentInstances.containsKey("hardwareDriver")) hardwareDriver = (HardwareDriver) dependentInstances.get("hardwareDriver");
+        clock = hardwareDriver == null ? new SystemNanoClock() : hardwareDriver.getClock();
     }
 
     /**
@@ -128,176 +175,222 @@ public class Mini1024EncoderReader extends RobotModule {
      */
     @Override
     public void periodic() {
-        /** position */
-        /* get the current position of the three encoders */
-        double encoder1CurrentPosition = encoder1.getCurrentPosition();
-        double encoder2CurrentPosition = encoder2.getCurrentPosition();
-        double encoder3CurrentPosition = 0; if (useEncoder3) encoder3CurrentPosition = encoder3.getCurrentPosition();
-
-        /* calculate the change in each of these positions */
-        double encoder1PositionDifference = encoder1CurrentPosition - encoder1Position;
-        double encoder2PositionDifference = encoder2CurrentPosition - encoder2Position;
-        double encoder3PositionDifference = encoder3CurrentPosition - encoder3Position;
-
-        /* the older version of the positions are no longer needed, refresh them */
-        encoder1Position = encoder1CurrentPosition;
-        encoder2Position = encoder2CurrentPosition;
-        encoder3Position = encoder3CurrentPosition;
-
-        /** velocity */
-        /* calculate the current velocity */
-        double encoder1CurrentVelocity = encoder1PositionDifference / dt.seconds();
-        double encoder2CurrentVelocity = encoder2PositionDifference / dt.seconds();
-        double encoder3CurrentVelocity = encoder3PositionDifference / dt.seconds();
-
-        /* calculate the chang in velocities */
-        double encoder1VelocityDifference = encoder1CurrentVelocity - encoder1Velocity;
-        double encoder2VelocityDifference = encoder2CurrentVelocity - encoder2Velocity;
-        double encoder3VelocityDifference = encoder3CurrentVelocity - encoder3Velocity;
-
-        /* the older version of the velocities are used, refresh them */
-        encoder1Velocity = encoder1CurrentVelocity;
-        encoder2Velocity = encoder2CurrentVelocity;
-        encoder3Velocity = encoder3CurrentVelocity;
-
-
-        /** acceleration */
-        /* calculate the acceleration */
-        encoder1Acceleration = encoder1VelocityDifference / dt.seconds();
-        encoder2Acceleration = encoder2VelocityDifference / dt.seconds();
-        encoder3Acceleration = encoder3VelocityDifference / dt.seconds();
-
-
-        /** reset the timer */
-        dt.reset();
+        /* the odometry thread keeps the readings up to date, and is the only one to change them */
+        if (readingThread != null && Thread.currentThread() != readingThread) return;
+
+        for (int i = 0; i < encoders.length; i++) {
+            if (encoders[i] == null) continue;
+            positions[i] = readEncoder(encoders[i]) * scales[i];
+            readTimestamps[i] = lastReadTimestamp = readTimestamp();
+            /* the estimators keep the velocity and acceleration if read twice in the same control cycle */
+            velocityEstimators[i].update(readTimestamps[i], positions[i], readReportedVelocity(i));
+        }
+    }
+
+    /**
+     * start a new control cycle on the hardware and read the encoders
+     * used in the loops that wait for a motion to finish, where the main loop, which starts the control cycles, is blocked
+     * if the odometry thread reads the encoders, only the control cycle is started, so the commands in the loop are still sent
+     */
+    public void forceUpdate() {
+        if (hardwareDriver != null) hardwareDriver.beginControlCycle();
+        periodic();
+    }
+
+    /**
+     * hand the reading of the encoders to a thread, or take it back, called by OdometryThread
+     * the encoders should not be calibrated or changed while a thread reads them
+     *
+     * @param thread the thread to read the encoders, null to read them by whoever calls periodic() again
+     * @param snapshot the snapshot the thread bulk-reads the encoders into, null to read from the one of the hardware driver again
+     */
+    void setReadingThread(Thread thread, HardwareSnapshot snapshot) {
+        this.readingThreadSnapshot = snapshot;
+        this.readingThread = thread;
     }
 
+    /** @return the instances of the encoders, for the odometry thread to bulk-read */
+    DcMotorEx[] getEncoderInstances() { return encoders; }
+
+    /** @return the clock that the readings are timed with */
+    public RobotClock getClock() { return clock; }
+
     /**
-     * set the starting position of the encoders
+     * read the position of an encoder, from the snapshot of the current control cycle if the hardware driver is given
      *
-     * @param id: the id for the encoder, 1 2 or 3
-     * @param
+     * @param encoder the encoder to read
+     * @return the position of the encoder
+     */
+    private double readEncoder(DcMotorEx encoder) {
+        HardwareSnapshot snapshot = getSnapshot();
+        if (snapshot == null) return encoder.getCurrentPosition();
+        return snapshot.getCurrentPosition(encoder);
+    }
+
+    /** @return the snapshot to read the encoders from, the one of the odometry thread if it reads them, null if the encoders are read directly */
+    private HardwareSnapshot getSnapshot() {
+        if (readingThreadSnapshot != null) return readingThreadSnapshot;
+        return hardwareDriver == null ? null : hardwareDriver.getSnapshot();
+    }
+
+    /**
+     * the time the encoder just read is taken at
+     * the time of the bulk read if the snapshot is used, otherwise the encoder is read right now
+     *
+     * @return the timestamp, in nanoseconds
+     */
+    private long readTimestamp() {
+        HardwareSnapshot snapshot = getSnapshot();
+        if (snapshot != null && snapshot.isEnabled()) return snapshot.getTimestamp();
+        return clock.nanoTime();
+    }
+
+    /**
+     * read the velocity measured by the hub, only if the estimator needs it, so no extra reads are made otherwise
+     *
+     * @param index the index of the channel
+     * @return the velocity measured by the hub, scaled, or zero if not needed, in encoder values per second
+     */
+    private double readReportedVelocity(int index) {
+        if (!velocityEstimators[index].usesReportedVelocity()) return 0;
+        HardwareSnapshot snapshot = getSnapshot();
+        if (snapshot == null) return encoders[index].getVelocity() * scales[index];
+        return snapshot.getVelocity(encoders[index]) * scales[index];
+    }
+
+    /**
+     * @param id the id of the encoder, from 1 to the amount of channels
+     * @return the index of the encoder in the arrays
      * @throws IndexOutOfBoundsException if an none-exist encoder is selected
      */
-    private void setEncoderStartingPosition(int id, double startingPosition) {
-        switch (id) {
-            case 1: {
-                encoder1StartingPosition = startingPosition;
-                break;
-            }
-            case 2: {
-                encoder2StartingPosition = startingPosition;
-                break;
-            }
-            case 3: {
-                encoder3StartingPosition = startingPosition;
-                break;
-            }
-            default: {
-                throw new IndexOutOfBoundsException();
-            }
-        }
+    private int indexOf(int id) throws IndexOutOfBoundsException {
+        if (id < 1 || id > encoders.length) throw new IndexOutOfBoundsException(
+                "encoder " + id + " does not exist in module <<" + this.getModuleName() + ">>, which has " + encoders.length + " encoder(s)"
+        );
+        return id - 1;
+    }
+
+    /**
+     * change the way to work out the velocity and acceleration of an encoder
+     *
+     * @param id the id of the encoder, from 1 to the amount of channels
+     * @param velocityEstimator the estimator, each encoder needs an instance of its own
+     * @throws IndexOutOfBoundsException if an none-exist encoder is selected
+     */
+    public void setVelocityEstimator(int id, VelocityEstimator velocityEstimator) throws IndexOutOfBoundsException {
+        velocityEstimator.reset();
+        velocityEstimators[indexOf(id)] = velocityEstimator;
+    }
+
+    /**
+     * invert the value of an encoder or not, the velocity starts over from zero as the readings jump
+     *
+     * @param id the id of the encoder, from 1 to the amount of channels
+     * @param reversed whether to invert the value
+     * @throws IndexOutOfBoundsException if an none-exist encoder is selected
+     */
+    public void setEncoderReversed(int id, boolean reversed) throws IndexOutOfBoundsException {
+        int index = indexOf(id);
+        setEncoderScale(id, reversed ? -Math.abs(scales[index]) : Math.abs(scales[index]));
     }
 
+    /**
+     * set the factor multiplied to the readings of an encoder, such as to turn them into millimeters
+     * the encoder is calibrated again, as the readings jump
+     *
+     * @param id the id of the encoder, from 1 to the amount of channels
+     * @param scale the factor, negative to reverse the encoder
+     * @throws IndexOutOfBoundsException if an none-exist encoder is selected
+     */
+    public void setEncoderScale(int id, double scale) throws IndexOutOfBoundsException {
+        int index = indexOf(id);
+        if (scale == scales[index]) return;
+        scales[index] = scale;
+        velocityEstimators[index].reset();
+        calibrateEncoder(id);
+    }
+
+    /** @return the amount of encoders, the ids are from 1 to it */
+    public int getChannelCount() { return encoders.length; }
+
     /**
      * get the current position of an encoder
      *
-     * @param id: the id of the encoder, 1 2 or 3
+     * @param id: the id of the encoder, from 1 to the amount of channels
      * @return position: the current position of the selected encoder
      * @throws IndexOutOfBoundsException if an none-exist encoder is selected
      */
     public double getEncoderPosition(int id)
             throws IndexOutOfBoundsException {
-        switch (id) {
-            /* return the current position of the selected encoder, minus the starting position of which */
-            case 1: {
-                return encoder1Position - encoder1StartingPosition;
-            }
-            case 2: {
-                return encoder2Position - encoder2StartingPosition;
-            }
-            case 3: {
-                return encoder3Position - encoder3StartingPosition;
-            }
-            default: {
-                IndexOutOfBoundsException indexOutOfBoundsException = new IndexOutOfBoundsException();
-                throw indexOutOfBoundsException;
-            }
-        }
+        /* return the current position of the selected encoder, minus the starting position of which */
+        int index = indexOf(id);
+        return positions[index] - startingPositions[index];
     }
 
     /**
      * get the velocity of an encoder
-     * calculated using the difference in time and the change in encoder position over the last period
+     * worked out by the velocity estimator of the encoder
      *
-     * @param id the id of the wanted encoder, 1 2 or 3
+     * @param id the id of the wanted encoder, from 1 to the amount of channels
      * @return velocity: the current velocity of the selected encoder
      * @throws IndexOutOfBoundsException if an none-exist encoder is selected
      */
     public double getEncoderVelocity(int id)
             throws IndexOutOfBoundsException {
-        switch (id) {
-            case 1: {
-                return encoder1Velocity;
-            }
-            case 2: {
-                return encoder2Velocity;
-            }
-            case 3: {
-                return encoder3Velocity;
-            }
-            default: {
-                IndexOutOfBoundsException indexOutOfBoundsException = new IndexOutOfBoundsException();
-                throw indexOutOfBoundsException;
-            }
-        }
+        return velocityEstimators[indexOf(id)].getVelocity();
     }
 
     /**
      * get the acceleration of an encoder
-     * calculated using the difference in time and the change in encoder position over the last period
+     * worked out by the velocity estimator of the encoder
      *
-     * @param id: the id of the encoder, 1 2 or 3
+     * @param id: the id of the encoder, from 1 to the amount of channels
      * @return acceleration: the current acceleration of the selected encoder
      * @throws IndexOutOfBoundsException if an none-exist encoder is selected
      */
     public double getEncoderAcceleration(int id)
             throws IndexOutOfBoundsException {
-        switch (id) {
-            case 1: {
-                return encoder1Acceleration;
-            }
-            case 2: {
-                return encoder2Acceleration;
-            }
-            case 3: {
-                return encoder3Acceleration;
-            }
-            default: {
-                IndexOutOfBoundsException indexOutOfBoundsException = new IndexOutOfBoundsException();
-                throw indexOutOfBoundsException;
-            }
-        }
+        return velocityEstimators[indexOf(id)].getAcceleration();
     }
 
+    /**
+     * get the time an encoder is last read
+     *
+     * @param id the id of the encoder, from 1 to the amount of channels
+     * @return the timestamp, timed with the clock of this module, in nanoseconds
+     * @throws IndexOutOfBoundsException if an none-exist encoder is selected
+     */
+    public long getEncoderTimestamp(int id) throws IndexOutOfBoundsException {
+        return readTimestamps[indexOf(id)];
+    }
+
+    /** @return the time the encoders are last read, in the last period or calibration, timed with the clock of this module, in nanoseconds */
+    public long getLastReadTimestamp() { return lastReadTimestamp; }
+
     /**
      * calibrate an encoder
-     * set the reference of zero position of the selected encoder to be its current position
+     * set the reference of zero position of the selected encoder to be its current position, the other encoders are not touched
      *
-     * @param id the id of the desired encoder , 1 2 or 3
+     * @param id the id of the desired encoder, from 1 to the amount of channels
      * @throws IndexOutOfBoundsException if an none-exist encoder is selected
      */
     public void calibrateEncoder(int id) throws IndexOutOfBoundsException {
-        /* re-initialize all the variables */
-        encoder1StartingPosition = encoder2StartingPosition = encoder3StartingPosition = 0;
-        encoder1Position = encoder2Position = encoder3Position = 0;
-        encoder1Velocity = encoder2Velocity = encoder3Velocity = 0;
-        encoder1Acceleration = encoder2Acceleration = encoder3Acceleration = 0;
-
-        /* set the starting position */
-        this.periodic();
-        double selectedEncoderCurrentPosition = getEncoderPosition(id);
-        System.out.println("encoder starting position:" + selectedEncoderCurrentPosition);
-        setEncoderStartingPosition(id, selectedEncoderCurrentPosition);
+        int index = indexOf(id);
+        if (encoders[index] == null) return;
+
+        /* take the current reading as the starting position, the velocity is not affected by where zero is */
+        positions[index] = readEncoder(encoders[index]) * scales[index];
+        startingPositions[index] = positions[index];
+    }
+
+    /** calibrate all the encoders, and start the velocities over from zero, with the current readings as the first ones */
+    public void calibrateAllEncoders() {
+        for (int i = 0; i < encoders.length; i++) {
+            velocityEstimators[i].reset();
+            calibrateEncoder(i + 1);
+            if (encoders[i] == null) continue;
+            readTimestamps[i] = lastReadTimestamp = readTimestamp();
+            velocityEstimators[i].update(readTimestamps[i], positions[i], readReportedVelocity(i));
+        }
     }
 }
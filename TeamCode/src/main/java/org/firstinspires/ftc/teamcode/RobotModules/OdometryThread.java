@@ -0,0 +1,150 @@
+package org.firstinspires.ftc.teamcode.RobotModules;
+
+import org.firstinspires.ftc.teamcode.Drivers.HardwareDriver;
+import org.firstinspires.ftc.teamcode.Drivers.HardwareSnapshot;
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: OdometryThread.java
+ *
+ * runs the odometry on a thread of its own, at a fixed rate, no matter how busy or blocked the main loop is
+ * every period, the hubs are bulk-read into a snapshot of this thread, then the encoders are read and the position is calculated
+ * while it runs, the encoder reader and the position calculator are only changed by this thread:
+ *  - their periodic(), called by the scheduler or the waiting loops of the main program, does nothing
+ *  - the pose is read through RobotPositionCalculator.getPose() and the other getters, which read the snapshot the thread publishes
+ *  - a reset asked for by another thread is done at the start of the next period
+ * the release times are fixed, like in RobotModuleScheduler, so the rate does not drift, and the missed periods are counted, not caught up
+ *
+ * usage:
+ *      odometryThread = new OdometryThread(positionCalculator, hardwareDriver, 250);
+ *      waitForStart();
+ *      odometryThread.start();
+ *      while (opModeIsActive()) { ... }
+ *      odometryThread.stop();
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class OdometryThread implements Runnable {
+    /** the odometry to update */
+    private final RobotPositionCalculator positionCalculator;
+    private final Mini1024EncoderReader encoderReader;
+    /** the connection to the hardware, and the snapshot of the encoders that only this thread reads */
+    private final HardwareDriver hardwareDriver;
+    private final HardwareSnapshot snapshot;
+    /** the source of time, the clock of the encoder readings */
+    private final RobotClock clock;
+    /** the time between two periods, in nanoseconds */
+    private final long period;
+
+    /** the thread, null if never started */
+    private Thread thread = null;
+    /** whether the thread should keep running */
+    private volatile boolean running = false;
+
+    /** the statistics, written by the thread only */
+    /** the amount of periods run */
+    private volatile long runs = 0;
+    /** the amount of periods missed as a period took too long, or the thread is not given the processor in time */
+    private volatile long skippedPeriods = 0;
+    /** the longest time a period ever took, in nanoseconds */
+    private volatile long maxExecutionTime = 0;
+
+    /**
+     * construct the thread of the odometry, it does not start until start() is called
+     *
+     * @param positionCalculator the position calculator to update, initialized with its encoder reader
+     * @param hardwareDriver the connection to the hardware, with bulk caching enabled, otherwise the encoders are read one by one
+     * @param rate how often to update the odometry, in Hz
+     * @throws IllegalArgumentException if the rate is not positive
+     */
+    public OdometryThread(RobotPositionCalculator positionCalculator, HardwareDriver hardwareDriver, double rate) throws IllegalArgumentException {
+        if (rate <= 0) throw new IllegalArgumentException("the rate of the odometry thread must be positive, given " + rate);
+        this.positionCalculator = positionCalculator;
+        this.encoderReader = positionCalculator.encoderReader;
+        this.hardwareDriver = hardwareDriver;
+        /* only the encoders are stored, so only the hubs they are connected to are bulk-read */
+        this.snapshot = hardwareDriver.createSnapshot(encoderReader.getEncoderInstances());
+        this.clock = encoderReader.getClock();
+        this.period = RobotClock.secondsToNanos(1 / rate);
+    }
+
+    /** start updating the odometry on the thread, nothing happens if it is already running */
+    public void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this, "odometry");
+        /* the odometry should not wait behind the telemetry or the camera */
+        thread.setPriority(Thread.MAX_PRIORITY);
+        encoderReader.setReadingThread(thread, snapshot);
+        positionCalculator.setUpdatingThread(thread);
+        thread.start();
+    }
+
+    /** stop the thread and wait for it to finish, the odometry is then updated by whoever calls periodic() again */
+    public void stop() {
+        if (thread == null) return;
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** the loop of the thread, do not call it directly, call start() */
+    @Override
+    public void run() {
+        long nextReleaseTime = clock.nanoTime();
+        try {
+            while (running) {
+                long now = clock.nanoTime();
+                if (now < nextReleaseTime) {
+                    LockSupport.parkNanos(nextReleaseTime - now);
+                    continue;
+                }
+
+                /* if the thread is held up for more than a period, the missed periods are skipped rather than run one after another */
+                long periodsMissed = (now - nextReleaseTime) / period;
+                skippedPeriods += periodsMissed;
+                nextReleaseTime += (periodsMissed + 1) * period;
+
+                hardwareDriver.bulkRead(snapshot);
+                encoderReader.periodic();
+                positionCalculator.periodic();
+
+                maxExecutionTime = Math.max(maxExecutionTime, clock.nanoTime() - now);
+                runs++;
+            }
+        } finally {
+            /* hand the odometry back, so it is still updated by the main loop if the thread stops for any reason */
+            running = false;
+            positionCalculator.setUpdatingThread(null);
+            encoderReader.setReadingThread(null, null);
+        }
+    }
+
+    /** @return whether the thread is running */
+    public boolean isRunning() { return running; }
+
+    /** @return the amount of periods run */
+    public long getRuns() { return runs; }
+
+    /** @return the amount of periods missed */
+    public long getSkippedPeriods() { return skippedPeriods; }
+
+    /** @return the longest time a period ever took, in seconds */
+    public double getMaxExecutionTime() { return RobotClock.nanosToSeconds(maxExecutionTime); }
+
+    /** @return the statistics, in the form of "odometry: runs, skipped periods, max execution time", to print on the telemetry */
+    public String getStatistics() {
+        return "odometry: runs " + runs
+                + ", skipped " + skippedPeriods
+                + ", max " + (maxExecutionTime / 1000) / 1000.0 + "ms";
+    }
+}
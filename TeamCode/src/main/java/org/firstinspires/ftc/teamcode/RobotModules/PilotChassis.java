@@ -1,12 +1,14 @@
 package org.firstinspires.ftc.teamcode.RobotModules;
 
 import com.qualcomm.robotcore.hardware.Gamepad;
-import com.qualcomm.robotcore.util.ElapsedTime;
 
 import org.firstinspires.ftc.robotcore.external.navigation.AngularVelocity;
 import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
 import org.firstinspires.ftc.teamcode.Drivers.ChassisDriver;
+import org.firstinspires.ftc.teamcode.Geometry.Rotation2d;
+import org.firstinspires.ftc.teamcode.Geometry.Vector2d;
 import org.firstinspires.ftc.teamcode.RobotModule;
+import org.firstinspires.ftc.teamcode.Utils.CycleTimer;
 
 import java.util.HashMap;
 
@@ -58,19 +60,24 @@ public class PilotChassis extends RobotModule { // controls the moving of the ro
     boolean pilotOnControl = false;
 
     /** the times elapsed after the last time these mode buttons are pressed
-     * so that it does not shift between the modes inside one single press */
-    private final ElapsedTime previousMotionModeButtonActivation = new ElapsedTime();
-    private final ElapsedTime previousNavigationModeButtonActivation = new ElapsedTime();
-    private final ElapsedTime previousYAxleReverseSwitchActivation = new ElapsedTime();
-    private final ElapsedTime lastMovement = new ElapsedTime();
-    private final ElapsedTime dt = new ElapsedTime();
+     * so that it does not shift between the modes inside one single press
+     * timed with the clock of the chassis driver, created during initialization */
+    private CycleTimer previousMotionModeButtonActivation;
+    private CycleTimer previousNavigationModeButtonActivation;
+    private CycleTimer previousYAxleReverseSwitchActivation;
+    private CycleTimer lastMovement;
+    private CycleTimer dt;
+
+    /** the space to turn the pilot's motion in, see navigateGround() */
+    private final Rotation2d navigationFacing = new Rotation2d();
+    private final Vector2d correctedMotion = new Vector2d();
 
     /** the rotation that the pilot set it to be */
     private double targetedRotation = 0;
     /** if the robot is already maintaining rotation */
     private boolean inRotationMaintenance = false;
 
-    private final ElapsedTime lastRotation = new ElapsedTime();
+    private CycleTimer lastRotation;
 
     /** configuration of the robot's driving feelings */
     /** the minimum power needed to move the robot */
@@ -132,6 +139,14 @@ public class PilotChassis extends RobotModule { // controls the moving of the ro
         );
         this.chassisDriver = (ChassisDriver) dependentInstances.get("chassisDriver");
 
+        /* the timers read the same clock as the rest of the robot */
+        this.previousMotionModeButtonActivation = new CycleTimer(chassisDriver.getClock());
+        this.previousNavigationModeButtonActivation = new CycleTimer(chassisDriver.getClock());
+        this.previousYAxleReverseSwitchActivation = new CycleTimer(chassisDriver.getClock());
+        this.lastMovement = new CycleTimer(chassisDriver.getClock());
+        this.dt = new CycleTimer(chassisDriver.getClock());
+        this.lastRotation = new CycleTimer(chassisDriver.getClock());
+
         /* throw out an error if the dependent modules is given an empty map */
         if (dependentModules.isEmpty()) throw new NullPointerException(
                 "an empty map of dependent modules given to this module, which requires at least one instant dependencies"
@@ -160,7 +175,6 @@ public class PilotChassis extends RobotModule { // controls the moving of the ro
         AngularVelocity angularVelocity;
         double facing;
         double velocityYAW;
-        double[] correctedMotion;
 
         /* get the controller pad input, and correct it according to the initial  */
         double yAxleMotion = linearMap(-(gamepad.right_stick_y - this.pilotControllerPadZeroPosition[1])); // the left stick is reversed to match the vehicle
@@ -185,9 +199,9 @@ public class PilotChassis extends RobotModule { // controls the moving of the ro
             facing = positionCalculator.getRobotRotation();
 
             // correct xAxelMotion and yAxelMotion using the IMU
-            correctedMotion = navigateGround(xAxleMotion, yAxleMotion, -facing);
-            xAxleMotion = correctedMotion[0];
-            yAxleMotion = correctedMotion[1];
+            Vector2d groundMotion = navigateGround(xAxleMotion, yAxleMotion, -facing);
+            xAxleMotion = groundMotion.getX();
+            yAxleMotion = groundMotion.getY();
         } else if (yAxleReversedSwitch) yAxleMotion *= -1;
 
         if (yAxleMotion != 0 | xAxleMotion != 0 | rotationalAttempt != 0) lastMovement.reset();
@@ -260,79 +274,18 @@ public class PilotChassis extends RobotModule { // controls the moving of the ro
     /** set the chassis module's auto system disabled */
     public void setChassisAutoSystemDisabled() {chassisAutoEnabled = false; }
 
-    private double[] navigateGround(double objectiveXMotion, double objectiveYMotion, double facing) {
-        double[] correctedMotion = new double[2];
-
-        // correct the motion
-        double speed = Math.sqrt(objectiveXMotion * objectiveXMotion + objectiveYMotion * objectiveYMotion); // the magnitude of resultant velocity
-
-        int sector; // calculate the sector of the direction we want the robot to move(in reference to the ground)
-        if (objectiveXMotion > 0) {
-            if (objectiveYMotion > 0) sector = 1;
-            else sector = 4;
-        } else if (objectiveYMotion > 0) sector = 2;
-        else sector = 3;
-
-        // System.out.print(sector); System.out.print("    "); // until here, no problem
-
-        objectiveXMotion = Math.abs(objectiveXMotion); objectiveYMotion = Math.abs(objectiveYMotion); // take abs value, avoid errors in calculation
-        double targetedVelocityArc = Math.atan(objectiveYMotion / objectiveXMotion); // find the angle of the direction we want the robot to move, but taking it down to sector 1
-        switch (sector) { // transfer targetedVeloctiyArc back to the sector its taken down from
-            // at sector 1, the velocity arc is itself
-            case 2 :{
-                targetedVelocityArc = Math.PI - targetedVelocityArc; // at sector 2, the arc needs to be flipped according to y-axis, so the actual arc will be 180deg - arc
-                break;
-            }
-            case 3 :{
-                targetedVelocityArc += Math.PI; // at sector 3, the arc needs to be pointing at the other way around, makes the actual arc be 180deg + arc
-                break;
-            }
-            case 4 :{
-                targetedVelocityArc = Math.PI * 2 - targetedVelocityArc; // at sector 4, the arc needs to be flipped according to x-axis
-                break;
-            }
-        }
-
-        // System.out.print(targetedVelocityArc); System.out.print("    "); // until here, no problem found
-
-        double correctedVelocityArc = targetedVelocityArc + facing; // correct the direction of velocity according the direction of the car, the corrected velocity is now in reference to the car itself.
-
-        // System.out.print(correctedVelocityArc); System.out.print("    "); // no problem until here
-
-        if (correctedVelocityArc > Math.PI) {
-            // if (correctedVelocityArc > 3/2*Math.PI) {sector = 4; correctedVelocityArc = Math.PI*2 - correctedVelocityArc; } // error, 3/2 will be automatically taken down to integer
-            if (correctedVelocityArc > Math.PI*1.5) {sector = 4; correctedVelocityArc = Math.PI*2 - correctedVelocityArc; } // taking it down to sector 1 is the reverse of the above process
-            else {sector = 3; correctedVelocityArc -= Math.PI; }
-            // } else if (correctedVelocityArc > 1/2*Math.PI) {sector = 2; correctedVelocityArc = Math.PI - correctedVelocityArc; } // error, 1/2 will be automatically taken down to integer
-        } else if (correctedVelocityArc > Math.PI*0.5) {sector = 2; correctedVelocityArc = Math.PI - correctedVelocityArc; }
-        else {sector = 1; } // judge the sector of correctVelocityArc, store the secotr, and take correctedVelocityArc down to sector1
-
-        // System.out.print(correctedVelocityArc); System.out.print("    "); System.out.print(sector); System.out.print("    "); // problem found, sector incorrect
-
-        double xVelocity = 0, yVelocity = 0; // the velocity the robot needs to achieve the resultant velocity, now in refernce to itself
-        xVelocity = Math.cos(correctedVelocityArc) * speed;
-        yVelocity = Math.sin(correctedVelocityArc) * speed;
-        switch (sector) { // transform the velocity back to the sector
-            // in the first sector, velocity remains the same
-            case 2 :{
-                xVelocity *= -1; // in the second sector, velocity is mirrored according to y-axis
-                break;
-            }
-            case 3 :{
-                xVelocity *= -1;
-                yVelocity *= -1; // in the third sector, velocity is pointing to the opposite direction
-                break;
-            }
-            case 4:{
-                yVelocity *= -1; // in the fourth sector, velocity is mirrored according to x-axis
-                break;
-            }
-        }
-
-        correctedMotion[0] = xVelocity;
-        correctedMotion[1] = yVelocity;
-
-        return correctedMotion;
+    /**
+     * turn the pilot's motion, which is in reference to the ground, to be in reference to the robot
+     *
+     * @param objectiveXMotion the motion the pilot asks for, along the x-axle of the ground
+     * @param objectiveYMotion the motion the pilot asks for, along the y-axle of the ground
+     * @param facing the angle to turn the motion by, in radian, counter-clockwise positive
+     * @return the corrected motion, the same vector every call, so the loop does not create objects
+     */
+    private Vector2d navigateGround(double objectiveXMotion, double objectiveYMotion, double facing) {
+        /* keeping the speed, add the facing to the direction of the motion */
+        navigationFacing.set(facing);
+        return correctedMotion.set(objectiveXMotion, objectiveYMotion).rotateByInto(navigationFacing, correctedMotion);
     }
 
     private double linearMap(double value) {
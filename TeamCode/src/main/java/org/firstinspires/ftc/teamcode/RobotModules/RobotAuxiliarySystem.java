@@ -2,13 +2,14 @@ package org.firstinspires.ftc.teamcode.RobotModules;
 
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.hardware.DistanceSensor;
-import com.qualcomm.robotcore.util.ElapsedTime;
 
 import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
 import org.firstinspires.ftc.teamcode.Drivers.ChassisDriver;
 import org.firstinspires.ftc.teamcode.Roboseed_DualPilot;
 import org.firstinspires.ftc.teamcode.RobotModule;
 import org.firstinspires.ftc.teamcode.Sensors.ColorDistanceSensor;
+import org.firstinspires.ftc.teamcode.Utils.CycleTimer;
+import org.firstinspires.ftc.teamcode.Utils.RobotCalibration;
 
 import java.util.HashMap;
 
@@ -50,12 +51,21 @@ public class RobotAuxiliarySystem extends RobotModule {
     /** when approaching as rotating to the right at high speed*/
     private static final double aimEdgeToDropCenterAngleRight = Math.toRadians(0);
 
-    private static final double encoderValuePerCM = 6240 / 30; // measured that 6000 encoder values where increased for a 30cm of move
+    private static final double encoderValuePerCM = RobotCalibration.get().getEncoderValuesPerCM(); // measured that 6240 encoder values where increased for a 30cm of move, see RobotCalibration
     private static final double encoderValuePerCMFastAim = 6540 / 30;
 
     private static final double positionCloseClaw = 0.3; // the distance, in color sensor distance unit, to the cone, for the robot to close its claw
     private static final double autoStageConeSearchRange = 2800;
     private static final double encoderValuePerColorDistanceSensorValue = 2000;
+    /**
+     * the claw opens this long before the arm is predicted to be lowered onto the tower, see Arm.getTimeToArrival(), in seconds
+     * both are 0, the claw opens on arrival, until the profile limits of the lift are measured and the prediction checked against the arrival delays on the telemetry
+     */
+    private static final double clawOpeningLeadTime = 0; // todo: measure this value
+    private static final double fastAimClawOpeningLeadTime = 0; // todo: measure this value
+    /** the arm is waited for at most this much longer than predicted, and never longer than the second it used to be waited for */
+    private static final double descendTimeMargin = 0.2;
+    private static final double maxDescendTime = 1;
 
     private Arm arm;
     private ChassisDriver chassisDriver;
@@ -294,7 +304,7 @@ public class RobotAuxiliarySystem extends RobotModule {
         boolean robotStillMoving, targetAlreadySensed = false;
         double[][] sleeveEdges = new double[2][2];
         double minDistance = 1;
-        ElapsedTime elapsedTime = new ElapsedTime(); elapsedTime.reset();
+        CycleTimer elapsedTime = new CycleTimer(chassisDriver.getClock());
         do {
             positionCalculator.forceUpdateEncoderValue();
             positionCalculator.periodic();
@@ -362,7 +372,7 @@ public class RobotAuxiliarySystem extends RobotModule {
         boolean robotStillMoving, SleeveFound = false;
         double[] sleevePosition = new double[2];
         double sleeveDistance = 0;
-        ElapsedTime elapsedTime = new ElapsedTime(); elapsedTime.reset();
+        CycleTimer elapsedTime = new CycleTimer(chassisDriver.getClock());
         do {
             positionCalculator.forceUpdateEncoderValue();
             positionCalculator.periodic();
@@ -410,7 +420,7 @@ public class RobotAuxiliarySystem extends RobotModule {
 
     /** go to the sleeves stack, which is at most 2000 encoder values away */
     public boolean proceedGoToSleevesStack(double currentFacing) {
-        ElapsedTime timeUsed = new ElapsedTime(); timeUsed.reset();
+        CycleTimer timeUsed = new CycleTimer(chassisDriver.getClock());
         double[] endingPosition = new double[2];
         endingPosition[0] = positionCalculator.getRobotPosition()[0] + Math.cos(currentFacing + Math.PI / 2) * autoStageConeSearchRange;
         endingPosition[1] = positionCalculator.getRobotPosition()[1] + Math.sin(currentFacing + Math.PI / 2) * autoStageConeSearchRange;
@@ -521,14 +531,14 @@ public class RobotAuxiliarySystem extends RobotModule {
                 chassisDriver.setTranslationalMotion(0, 0);
                 chassisDriver.sendCommandsToMotors();
                 arm.lowerArm();
-                ElapsedTime descendTime = new ElapsedTime();
-                while ((descendTime.milliseconds() < 1000 && arm.getArmStatusCode() != 0)) {
+                final double descendTimeout = Math.min(arm.getTimeToArrival() + descendTimeMargin, maxDescendTime);
+                CycleTimer descendTime = new CycleTimer(chassisDriver.getClock()); // each pass of the loop starts a new control cycle, which moves the timer
+                while (descendTime.seconds() < descendTimeout && arm.getTimeToArrival() > clawOpeningLeadTime) {
                     arm.periodic();
                     positionCalculator.forceUpdateEncoderValue();
                     positionCalculator.periodic();
                 }
-                if (arm.getArmStatusCode() == 0) lastAimSucceeded = true;
-                else lastAimSucceeded = false;
+                lastAimSucceeded = arm.getTimeToArrival() <= clawOpeningLeadTime;
 
                 arm.openClaw();
                 statusCode = 0;
@@ -603,14 +613,16 @@ public class RobotAuxiliarySystem extends RobotModule {
                 chassisDriver.setTranslationalMotion(0, 0);
                 chassisDriver.sendCommandsToMotors();
                 arm.lowerArm();
-                ElapsedTime descendTime = new ElapsedTime();
-                while (descendTime.milliseconds() < 300) {
+                final double descendTimeout = Math.min(arm.getTimeToArrival() + descendTimeMargin, maxDescendTime);
+                CycleTimer descendTime = new CycleTimer(chassisDriver.getClock());
+                while (descendTime.seconds() < descendTimeout && arm.getTimeToArrival() > fastAimClawOpeningLeadTime) {
+                    /* the main loop is blocked, start a new control cycle so the arm reads the lift again */
+                    positionCalculator.forceUpdateEncoderValue();
                     arm.periodic();
                     chassisDriver.setRotationalMotion(0);
                 }
 
-                if (arm.getArmStatusCode() == 0) lastAimSucceeded = true;
-                else lastAimSucceeded = false;
+                lastAimSucceeded = arm.getTimeToArrival() <= fastAimClawOpeningLeadTime;
 
                 arm.openClaw();
                 statusCode = 0;
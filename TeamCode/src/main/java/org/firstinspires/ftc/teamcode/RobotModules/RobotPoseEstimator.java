@@ -0,0 +1,364 @@
+package org.firstinspires.ftc.teamcode.RobotModules;
+
+import org.firstinspires.ftc.teamcode.Geometry.Matrix3d;
+import org.firstinspires.ftc.teamcode.Geometry.Pose2d;
+import org.firstinspires.ftc.teamcode.Geometry.Rotation2d;
+import org.firstinspires.ftc.teamcode.RobotModule;
+import org.firstinspires.ftc.teamcode.Utils.CycleTimer;
+import org.firstinspires.ftc.teamcode.Utils.PoseHistoryBuffer;
+import org.firstinspires.ftc.teamcode.Utils.PoseSnapshot;
+import org.firstinspires.ftc.teamcode.Utils.RobotCalibration;
+
+import java.util.HashMap;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: RobotPoseEstimator.java
+ *
+ * an extended kalman filter that fuses the odometry, the imu and the camera into one pose of the robot, with its covariance
+ * every period, the change of the odometry moves the pose and grows the uncertainty (predict)
+ * the imu heading and the camera poses, whenever they arrive, pull the pose towards them and shrink the uncertainty (correct)
+ * the pose is in the units of the odometry, encoder values, and in the frame of the field once a starting pose is given by setPose()
+ *
+ * predict(), correctHeading(), correctPose() and correctDelayedPose() do not touch any hardware, so the filter can be run on logged or simulated data
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class RobotPoseEstimator extends RobotModule {
+    /** the noises of the odometry, the variance grows with the distance travelled and the angle turned */
+    /** the variance of the position, in encoder values squared, per encoder value travelled */
+    private double translationVariancePerDistance = 2;
+    /** the variance of the heading, in radian squared, per radian turned */
+    private double rotationVariancePerRotation = 1e-3;
+    /** the variance of the heading, in radian squared, per encoder value travelled, as the wheels slip sideways */
+    private double rotationVariancePerDistance = 1e-8;
+
+    /** the noise of the imu heading, in radian squared */
+    private double imuHeadingVariance = Math.pow(Math.toRadians(1), 2);
+    /** how often to read the imu, in seconds, reading it holds the bus for a few milliseconds */
+    private double imuUpdateInterval = 0.1;
+
+    /** the noises of the camera, in encoder values squared and radian squared */
+    private double visionPositionVariance = Math.pow(50 * encoderValuesPerMillimeter(), 2);
+    private double visionHeadingVariance = Math.pow(Math.toRadians(5), 2);
+    /** the camera poses further than this from the estimation, in standard deviations, are taken as wrong and ignored */
+    private static final double visionOutlierThreshold = 3.37; // the square root of the 99% chi-squared value with three degrees of freedom
+
+    /** the module that gives the odometry */
+    private RobotPositionCalculator positionCalculator;
+    /** optional, the module that reads the imu */
+    private IMUReader imuReader = null;
+    /** optional, the module that locates the robot with the camera */
+    private ComputerVisionFieldNavigation_v2 fieldNavigation = null;
+
+    /** the estimated pose */
+    private final Pose2d pose = new Pose2d();
+    /** the covariance of the estimated pose, in the order of x, y and heading */
+    private final Matrix3d covariance = new Matrix3d().setZero();
+
+    /** the odometry in the last period, to find how much it changed */
+    private final Pose2d previousOdometry = new Pose2d();
+    /** the pose of the odometry in this period, read all at once as the odometry may be updated by another thread */
+    private final double[] odometryPose = new double[PoseSnapshot.size];
+    /** the difference between the imu heading and the estimated heading, found at the first reading */
+    private double imuHeadingBias;
+    private boolean imuHeadingBiasFound = false;
+    /** the time since the imu was last read */
+    private CycleTimer imuTimer;
+    /** the amount of camera poses already taken in */
+    private int visionUpdatesTaken;
+    /** the amount of camera poses ignored as outliers */
+    private int visionOutliers = 0;
+
+    /** the space to compute in, so the periods do not create objects */
+    private final Matrix3d jacobian = new Matrix3d();
+    private final Matrix3d jacobianTransposed = new Matrix3d();
+    private final Matrix3d processNoise = new Matrix3d().setZero();
+    private final Matrix3d innovationCovariance = new Matrix3d();
+    private final Matrix3d gain = new Matrix3d();
+    private final Matrix3d identityMinusGain = new Matrix3d();
+    private final double[] innovation = new double[3];
+    private final double[] correction = new double[3];
+    private final double[] odometryReading = new double[3];
+    private final Pose2d odometryAtCapture = new Pose2d();
+    private final Pose2d odometryNow = new Pose2d();
+    private final Pose2d odometrySinceCapture = new Pose2d();
+    private final Pose2d delayedMeasurement = new Pose2d();
+
+    public RobotPoseEstimator() {
+        super("poseEstimator");
+    }
+
+    /**
+     * initialize the estimator, starting at the origin with no uncertainty
+     *
+     * @param dependentModules the modules needed by the estimator
+     *                         "positionCalculator" : RobotPositionCalculator, the odometry
+     *                         "imuReader" : IMUReader, optional, to correct the heading
+     *                         "fieldNavigation" : ComputerVisionFieldNavigation_v2, optional, to correct the whole pose, updated by its own periodic
+     * @param dependentInstances null should be given as this module does not depend on any instance
+     */
+    @Override
+    public void init(
+            HashMap<String, RobotModule> dependentModules,
+            HashMap<String, Object> dependentInstances
+    ) throws NullPointerException {
+        /* throw out an error if the odometry is not given */
+        if (dependentModules.isEmpty()) throw new NullPointerException (
+                "an empty set of dependent modules given to the module<<" + this.getModuleName() + ">> which requires at least one module(s) as dependency"
+        );
+        if (!dependentModules.containsKey("positionCalculator")) throw new NullPointerException(
+                "dependency <<" + "positionCalculator" + ">> not specified for module <<" + this.getModuleName() + ">>"
+        );
+        this.positionCalculator = (RobotPositionCalculator) dependentModules.get("positionCalculator");
+
+        /* the other sensors are optional */
+        if (dependentModules.containsKey("imuReader")) this.imuReader = (IMUReader) dependentModules.get("imuReader");
+        if (dependentModules.containsKey("fieldNavigation")) this.fieldNavigation = (ComputerVisionFieldNavigation_v2) dependentModules.get("fieldNavigation");
+
+        this.imuTimer = new CycleTimer(positionCalculator.getClock());
+        setPose(0, 0, 0);
+    }
+
+    /**
+     * updates an instance of this module
+     *
+     * @Deprecated the estimator does not need any instances in the first place
+     */
+    @Override @Deprecated public void updateDependentInstances(String instanceName, Object newerInstance) throws NullPointerException {}
+
+    /** take in the odometry of this period, and the imu and the camera if they have something new */
+    @Override
+    public void periodic() {
+        /* the change of the odometry, in reference to the robot at the start of the period */
+        positionCalculator.getPose(odometryPose);
+        double odometryX = odometryPose[PoseSnapshot.xIndex], odometryY = odometryPose[PoseSnapshot.yIndex], odometryRotation = odometryPose[PoseSnapshot.headingIndex];
+        double fieldX = odometryX - previousOdometry.getX(), fieldY = odometryY - previousOdometry.getY();
+        Rotation2d previousRotation = previousOdometry.getRotation();
+        predict(
+                fieldX * previousRotation.getCos() + fieldY * previousRotation.getSin(),
+                -fieldX * previousRotation.getSin() + fieldY * previousRotation.getCos(),
+                Rotation2d.wrap(odometryRotation - previousOdometry.getHeading())
+        );
+        previousOdometry.set(odometryX, odometryY, odometryRotation);
+
+        if (imuReader != null && imuTimer.seconds() >= imuUpdateInterval) {
+            imuTimer.reset();
+            imuReader.updateIMUStatus();
+            double imuHeading = imuReader.getRobotHeading();
+            /* the imu starts from its own zero, line it up with the estimation the first time */
+            if (!imuHeadingBiasFound) {
+                imuHeadingBias = pose.getHeading() - imuHeading;
+                imuHeadingBiasFound = true;
+            }
+            correctHeading(imuHeading + imuHeadingBias, imuHeadingVariance);
+        }
+
+        if (fieldNavigation != null && fieldNavigation.getUpdateCount() != visionUpdatesTaken) {
+            visionUpdatesTaken = fieldNavigation.getUpdateCount();
+            double[] visionPosition = fieldNavigation.getRobotPosition();
+            correctDelayedPose(
+                    positionCalculator.getPoseHistory(),
+                    fieldNavigation.getCaptureTimestamp(),
+                    visionPosition[0] * encoderValuesPerMillimeter(),
+                    visionPosition[1] * encoderValuesPerMillimeter(),
+                    fieldNavigation.getRobotRotation(),
+                    visionPositionVariance,
+                    visionHeadingVariance
+            );
+        }
+    }
+
+    /**
+     * move the pose by the motion of the robot, and grow the uncertainty accordingly
+     *
+     * @param dx the motion sideways, in reference to the robot, in encoder values
+     * @param dy the motion forward, in reference to the robot, in encoder values
+     * @param dTheta the change in heading, in radian
+     */
+    public void predict(double dx, double dy, double dTheta) {
+        double cos = pose.getRotation().getCos(), sin = pose.getRotation().getSin();
+
+        /* how the new pose changes with the old one, the motion is turned by the old heading */
+        jacobian.setIdentity();
+        jacobian.set(0, 2, -dx * sin - dy * cos);
+        jacobian.set(1, 2, dx * cos - dy * sin);
+
+        pose.set(
+                pose.getX() + dx * cos - dy * sin,
+                pose.getY() + dx * sin + dy * cos,
+                pose.getHeading() + dTheta
+        );
+
+        /* the noise of this motion */
+        double distance = Math.hypot(dx, dy);
+        processNoise.set(0, 0, translationVariancePerDistance * distance);
+        processNoise.set(1, 1, translationVariancePerDistance * distance);
+        processNoise.set(2, 2, rotationVariancePerRotation * Math.abs(dTheta) + rotationVariancePerDistance * distance);
+
+        /* covariance = jacobian * covariance * jacobian^T + noise */
+        jacobian.transposeInto(jacobianTransposed);
+        jacobian.timesInto(covariance, covariance);
+        covariance.timesInto(jacobianTransposed, covariance);
+        covariance.plusInto(processNoise, covariance);
+    }
+
+    /**
+     * pull the heading towards a measured one
+     *
+     * @param heading the measured heading, in radian
+     * @param variance the noise of the measurement, in radian squared
+     */
+    public void correctHeading(double heading, double variance) {
+        /* only the heading is measured, so the gain is the third column of the covariance over its variance */
+        double headingError = Rotation2d.wrap(heading - pose.getHeading());
+        double innovationVariance = covariance.get(2, 2) + variance;
+        double gainX = covariance.get(0, 2) / innovationVariance;
+        double gainY = covariance.get(1, 2) / innovationVariance;
+        double gainHeading = covariance.get(2, 2) / innovationVariance;
+
+        pose.set(
+                pose.getX() + gainX * headingError,
+                pose.getY() + gainY * headingError,
+                pose.getHeading() + gainHeading * headingError
+        );
+
+        /* covariance = (I - gain * H) * covariance, where H picks the heading */
+        identityMinusGain.setIdentity();
+        identityMinusGain.set(0, 2, -gainX);
+        identityMinusGain.set(1, 2, -gainY);
+        identityMinusGain.set(2, 2, 1 - gainHeading);
+        identityMinusGain.timesInto(covariance, covariance);
+        symmetrize();
+    }
+
+    /**
+     * pull the pose towards a measured one, the measurement is ignored if it is too far to be believable
+     *
+     * @param x the measured position, in encoder values
+     * @param y the measured position, in encoder values
+     * @param heading the measured heading, in radian
+     * @param positionVariance the noise of the measured position, in encoder values squared
+     * @param headingVariance the noise of the measured heading, in radian squared
+     * @return whether the measurement is taken in
+     */
+    public boolean correctPose(double x, double y, double heading, double positionVariance, double headingVariance) {
+        innovation[0] = x - pose.getX();
+        innovation[1] = y - pose.getY();
+        innovation[2] = Rotation2d.wrap(heading - pose.getHeading());
+
+        /* the whole pose is measured, so H is the identity and the innovation covariance is the covariance plus the noise */
+        innovationCovariance.set(covariance);
+        innovationCovariance.set(0, 0, innovationCovariance.get(0, 0) + positionVariance);
+        innovationCovariance.set(1, 1, innovationCovariance.get(1, 1) + positionVariance);
+        innovationCovariance.set(2, 2, innovationCovariance.get(2, 2) + headingVariance);
+        innovationCovariance.inverseInto(innovationCovariance);
+
+        /* reject the measurement if its mahalanobis distance is too far */
+        innovationCovariance.timesInto(innovation, correction);
+        double squaredDistance = innovation[0] * correction[0] + innovation[1] * correction[1] + innovation[2] * correction[2];
+        if (squaredDistance > visionOutlierThreshold * visionOutlierThreshold) {
+            visionOutliers++;
+            return false;
+        }
+
+        covariance.timesInto(innovationCovariance, gain);
+        gain.timesInto(innovation, correction);
+        pose.set(pose.getX() + correction[0], pose.getY() + correction[1], pose.getHeading() + correction[2]);
+
+        /* covariance = (I - gain) * covariance */
+        identityMinusGain.setIdentity().minusInto(gain, identityMinusGain);
+        identityMinusGain.timesInto(covariance, covariance);
+        symmetrize();
+        return true;
+    }
+
+    /**
+     * pull the pose towards one measured some time ago, such as from a camera frame that took a while to process
+     * the measurement is moved forward by how the odometry moved since it is taken, and then corrected with as if it is measured now
+     *
+     * @param odometryHistory the recent poses of the odometry, the newest one is taken as now
+     * @param captureTimestamp when the measurement is taken, timed with the same clock as the odometry, in nanoseconds
+     * @param x the measured position, in encoder values
+     * @param y the measured position, in encoder values
+     * @param heading the measured heading, in radian
+     * @param positionVariance the noise of the measured position, in encoder values squared
+     * @param headingVariance the noise of the measured heading, in radian squared
+     * @return whether the measurement is taken in, false if it is older than the history or is taken as an outlier
+     */
+    public boolean correctDelayedPose(PoseHistoryBuffer odometryHistory, long captureTimestamp, double x, double y, double heading, double positionVariance, double headingVariance) {
+        if (!odometryHistory.getPoseAt(captureTimestamp, odometryReading)) return false;
+        odometryAtCapture.set(odometryReading[0], odometryReading[1], odometryReading[2]);
+        odometryHistory.getNewestPose(odometryReading);
+        odometryNow.set(odometryReading[0], odometryReading[1], odometryReading[2]);
+
+        /* replay the motion since the capture on top of the measurement */
+        odometryNow.relativeToInto(odometryAtCapture, odometrySinceCapture);
+        delayedMeasurement.set(x, y, heading).plusInto(odometrySinceCapture, delayedMeasurement);
+        return correctPose(delayedMeasurement.getX(), delayedMeasurement.getY(), delayedMeasurement.getHeading(), positionVariance, headingVariance);
+    }
+
+    /** keep the covariance symmetric, as rounding errors pile up */
+    private void symmetrize() {
+        for (int row = 0; row < 3; row++)
+            for (int column = row + 1; column < 3; column++) {
+                double mean = (covariance.get(row, column) + covariance.get(column, row)) / 2;
+                covariance.set(row, column, mean);
+                covariance.set(column, row, mean);
+            }
+    }
+
+    /**
+     * set the pose of the robot, such as its starting place on the field, the uncertainty is cleared
+     *
+     * @param x the position, in encoder values
+     * @param y the position, in encoder values
+     * @param heading the heading, in radian
+     */
+    public void setPose(double x, double y, double heading) {
+        pose.set(x, y, heading);
+        covariance.setZero();
+        imuHeadingBiasFound = false;
+        /* the filter can also be run without the robot, by calling predict() and the corrections directly */
+        if (positionCalculator != null) {
+            positionCalculator.getPose(odometryPose);
+            previousOdometry.set(odometryPose[PoseSnapshot.xIndex], odometryPose[PoseSnapshot.yIndex], odometryPose[PoseSnapshot.headingIndex]);
+        }
+        if (fieldNavigation != null) visionUpdatesTaken = fieldNavigation.getUpdateCount();
+    }
+
+    /** @return the amount of encoder values the robot travels per millimeter, see RobotCalibration */
+    private static double encoderValuesPerMillimeter() { return RobotCalibration.get().getEncoderValuesPerCM() / 10; }
+
+    /** @return the estimated pose, in encoder values and radian, changing it moves the estimation */
+    public Pose2d getPose() { return pose; }
+
+    /** @return the covariance of the estimated pose, in the order of x, y and heading, do not change it */
+    public Matrix3d getCovariance() { return covariance; }
+
+    /** @return the amount of camera poses ignored as outliers */
+    public int getVisionOutliers() { return visionOutliers; }
+
+    /** @param translationVariancePerDistance the variance of the position, in encoder values squared, per encoder value travelled */
+    public void setTranslationVariancePerDistance(double translationVariancePerDistance) { this.translationVariancePerDistance = translationVariancePerDistance; }
+
+    /** @param rotationVariancePerRotation the variance of the heading, in radian squared, per radian turned */
+    public void setRotationVariancePerRotation(double rotationVariancePerRotation) { this.rotationVariancePerRotation = rotationVariancePerRotation; }
+
+    /** @param imuHeadingVariance the noise of the imu heading, in radian squared */
+    public void setImuHeadingVariance(double imuHeadingVariance) { this.imuHeadingVariance = imuHeadingVariance; }
+
+    /** @param imuUpdateInterval how often to read the imu, in seconds */
+    public void setImuUpdateInterval(double imuUpdateInterval) { this.imuUpdateInterval = imuUpdateInterval; }
+
+    /**
+     * @param positionVariance the noise of the camera position, in encoder values squared
+     * @param headingVariance the noise of the camera heading, in radian squared
+     */
+    public void setVisionVariance(double positionVariance, double headingVariance) {
+        this.visionPositionVariance = positionVariance;
+        this.visionHeadingVariance = headingVariance;
+    }
+}
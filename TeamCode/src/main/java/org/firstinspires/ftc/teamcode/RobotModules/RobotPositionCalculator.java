@@ -1,9 +1,14 @@
 // TODO write this module as a simple calculator for vertical and horizontal encoders only, in place the real robot position calculator for now
 package org.firstinspires.ftc.teamcode.RobotModules;
 
-import com.qualcomm.robotcore.util.ElapsedTime;
-
+import org.firstinspires.ftc.teamcode.Geometry.Pose2d;
+import org.firstinspires.ftc.teamcode.Geometry.Rotation2d;
+import org.firstinspires.ftc.teamcode.Geometry.Twist2d;
 import org.firstinspires.ftc.teamcode.RobotModule;
+import org.firstinspires.ftc.teamcode.Utils.PoseHistoryBuffer;
+import org.firstinspires.ftc.teamcode.Utils.PoseSnapshot;
+import org.firstinspires.ftc.teamcode.Utils.RobotCalibration;
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
 
 import java.util.HashMap;
 
@@ -20,33 +25,65 @@ import java.util.HashMap;
  *  - use angular velocity calculated from the process above can be used to erase the effect of rotation
  *  - simply subtract the velocity reading of an encoder by it's linear velocity when the robot is rotating at that angular velocity calculated above
  *
+ * the calculator can be updated by the main loop, or by an OdometryThread at a fixed rate of its own
+ * either way, the pose is published at the end of every period through a PoseSnapshot, and all the getters read from it
+ * so any thread reading the pose gets the values of the same period, see getPose()
+ *
  * @Author 四只爱写代码の猫
  * @Date 2023.3.24
  * @Version v0.0.0
  */
 public class RobotPositionCalculator extends RobotModule {
+    /** the ways to turn the readings of the encoders into the position of the robot */
+    public enum IntegrationMode {
+        /** multiply the velocity by the time of the period, and turn it with the facing at the end of the period, the error grows with the period and the angular velocity */
+        EULER,
+        /** take the change of the encoders during the period, and move the robot along an arc that turns by the change in facing */
+        POSE_EXPONENTIAL
+    }
+
     /** the module used to the read the data from encoders */
-    private Mini1024EncoderReader encoderReader;
+    protected Mini1024EncoderReader encoderReader;
 
-    /** to calculate the difference in time */
-    private static final ElapsedTime dt = new ElapsedTime();
+    /** the time the encoders are read in the last period, to calculate the difference in time, in nanoseconds */
+    private long previousTimestamp;
 
-    /** some configurations of the robot */
+    /** some configurations of the robot, loaded from the calibration of the robot, see RobotCalibration */
     /** the ratio between the angular velocity(in rad/s) to the difference in the velocity of the two parallel encoders (in encoder value) */
-    private static final double angularVelocityPerParallelEncoderVelocityDifference = 10*Math.PI * 2 / 202520.56922511634; // to get this data I rotated the robot 10 rounds on the field and get the difference in encoder value TODO: not accurate, needs an update
+    private final double angularVelocityPerParallelEncoderVelocityDifference = 1 / RobotCalibration.get().getTrackWidth();
     /** the ratio between the angular velocity(in rad/s) to the velocity of the third encoder, assuming that the robot's rotating center is still */
-    private static final double angularVelocityPerThirdEncoderVelocity = 31.4 / 69865.0; // to get this data, I also make robot rotate 10 times on the field
+    private final double angularVelocityPerThirdEncoderVelocity = 1 / RobotCalibration.get().getLateralWheelOffset();
 
     /** stores the robot's current facing, in radian */
     private double robotRotation;
-    /** the difference between the encoder value of the two parallel encoders during init */
-    private double startingEncoderDifference;
     /** stores the robot's current position, in encoder values */
     private double[] robotPosition = new double[2];
     /** stores the angular velocity of the robot */
     private double angularVelocity = 0;
     /** the velocity of the robot */
     private double[] rawVelocity = new double[2];
+    /** the velocity of the robot, in reference to the field, updated every period */
+    private final double[] actualVelocity = new double[2];
+    /** the facing of the robot, with its sine and cosine worked out once per period */
+    private final Rotation2d heading = new Rotation2d();
+    /** the motion of the robot during the period and its velocity, in reference to itself, and the space to compute the arcs in, so the periods do not create objects */
+    private final Twist2d motion = new Twist2d();
+    private final Twist2d velocity = new Twist2d();
+    private final Pose2d arc = new Pose2d();
+
+    /** how the position is integrated */
+    private IntegrationMode integrationMode = IntegrationMode.POSE_EXPONENTIAL;
+    /** the positions of the encoders in the last period, to get the change in them */
+    private double previousEncoder1Position, previousEncoder2Position, previousEncoder3Position;
+    /** the poses in the last moments, a bit more than one second at 200Hz, so the measurements taken some time ago can be matched with the pose at that time */
+    private final PoseHistoryBuffer poseHistory = new PoseHistoryBuffer(256);
+
+    /** the pose and the velocity of the robot, published at the end of every period for any thread to read */
+    private final PoseSnapshot publishedPose = new PoseSnapshot();
+    /** the thread that updates the odometry, null if it is updated by whoever calls periodic(), see OdometryThread */
+    private volatile Thread updatingThread = null;
+    /** whether another thread asked for a reset, done by the updating thread at the start of its next period */
+    private volatile boolean resetRequested = false;
 
     /**
      * construct method of temporary robot position calculator
@@ -94,40 +131,107 @@ public class RobotPositionCalculator extends RobotModule {
     /** updates the robot's current position by taking the integral of the calculated robot velocity over all times */
     @Override
     public void periodic() {
-        /** calculate the angular velocity of the robot */
-        this.angularVelocity = getAngularVelocity(encoderReader.getEncoderVelocity(1), encoderReader.getEncoderVelocity(2));
+        /* the odometry thread keeps the position up to date, and is the only one to change it */
+        if (updatingThread != null && Thread.currentThread() != updatingThread) return;
+        if (resetRequested) {
+            resetRequested = false;
+            reset();
+        }
+        long timestamp = encoderReader.getLastReadTimestamp();
+
+        /** find how the robot moved during the period, and how fast it is moving, in reference to itself */
+        measureMotion(motion, velocity);
+        this.angularVelocity = velocity.getDTheta();
+        rawVelocity[0] = velocity.getDx();
+        rawVelocity[1] = velocity.getDy();
 
         /** update the robot's current rotation */
-        /* take the integral of angular velocity to time */
-        // this.robotRotation += angularVelocity * this.dt.seconds();
-        this.robotRotation = (encoderReader.getEncoderPosition(2) - encoderReader.getEncoderPosition(1) - startingEncoderDifference) * angularVelocityPerParallelEncoderVelocityDifference; // use the difference between two encoders to determine the heading of the robot
+        double previousRotation = this.robotRotation;
+        this.robotRotation += motion.getDTheta();
         /* format the rotation value */
         while (this.robotRotation > Math.PI*2) this.robotRotation -= Math.PI*2;
         while (this.robotRotation < 0) this.robotRotation += Math.PI*2;
+        heading.set(robotRotation);
+        updateActualVelocity();
+
+        if (integrationMode == IntegrationMode.POSE_EXPONENTIAL) integrateAlongArc(previousRotation);
+        else {
+            /** do an integral of the actual velocity to time towards calculate the robot's position */
+            double timeDifference = RobotClock.nanosToSeconds(timestamp - previousTimestamp);
+            if (timeDifference > 0) { // nothing to integrate if called twice in the same control cycle
+                this.robotPosition[0] += actualVelocity[0] * timeDifference;
+                this.robotPosition[1] += actualVelocity[1] * timeDifference;
+            }
+        }
+        poseHistory.add(timestamp, robotPosition[0], robotPosition[1], robotRotation);
+        publishedPose.publish(timestamp, robotPosition[0], robotPosition[1], robotRotation, actualVelocity[0], actualVelocity[1], angularVelocity);
+
+        // System.out.println(     "robot rotation:" + robotRotation);
+        // System.out.println("raw velocity:" + rawVelocity[0] + ", " + rawVelocity[1]); // TODO the problem originated from the raw velocity
+        // System.out.println("actual velocity: " + actualVelocity[0] + ", " + actualVelocity[1]);
+
+        this.previousTimestamp = timestamp;
+    }
 
+    /**
+     * work out the motion of the robot from the three dead wheel encoders
+     * the calculators using other encoders override this method, the rest of the calculation is shared
+     *
+     * @param displacement to write the change of the robot since the last period in, in reference to the robot at the start of it, in encoder values and radian
+     * @param velocity to write the velocity of the robot in, in reference to itself, in encoder values per second and radian per second
+     */
+    protected void measureMotion(Twist2d displacement, Twist2d velocity) {
         /** calculate the robot's velocity, in reference to itself */
-        /* calculate the horizontal velocity of the robot by correcting the velocity of the horizontal encoder */
-        rawVelocity[0] = correctThirdEncoderVelocity(encoderReader.getEncoderVelocity(3), angularVelocity);
-        /*
-        * the two vertically installed encoders are identical about the central line of the robot and are parallel to each other
-        * therefore, they are influenced equally and reversely by the rotation of the robot
-        * so vertical velocity is the mean value of the two encoder values
-        * */
-        rawVelocity[1] = (encoderReader.getEncoderVelocity(1) + encoderReader.getEncoderVelocity(2)) / 2;
+        double angularVelocity = getAngularVelocity(encoderReader.getEncoderVelocity(1), encoderReader.getEncoderVelocity(2));
+        velocity.set(
+                /* calculate the horizontal velocity of the robot by correcting the velocity of the horizontal encoder */
+                correctThirdEncoderVelocity(encoderReader.getEncoderVelocity(3), angularVelocity),
+                /*
+                 * the two vertically installed encoders are identical about the central line of the robot and are parallel to each other
+                 * therefore, they are influenced equally and reversely by the rotation of the robot
+                 * so vertical velocity is the mean value of the two encoder values
+                 * */
+                (encoderReader.getEncoderVelocity(1) + encoderReader.getEncoderVelocity(2)) / 2,
+                angularVelocity
+        );
 
-        /** do an integral of the actual velocity to time towards calculate the robot's position */
-        this.robotPosition[0] += getActualVelocity(rawVelocity, robotRotation)[0] * dt.seconds();
-        this.robotPosition[1] += getActualVelocity(rawVelocity, robotRotation)[1] * dt.seconds();
+        /* the change of the encoders during the period */
+        double encoder1Difference = encoderReader.getEncoderPosition(1) - previousEncoder1Position;
+        double encoder2Difference = encoderReader.getEncoderPosition(2) - previousEncoder2Position;
+        double encoder3Difference = encoderReader.getEncoderPosition(3) - previousEncoder3Position;
+        recordEncoderPositions();
+
+        /* the motion in reference to the robot, worked out the same way as the velocities */
+        double rotationDifference = (encoder2Difference - encoder1Difference) * angularVelocityPerParallelEncoderVelocityDifference; // use the difference between two encoders to determine the heading of the robot
+        double xDifference = encoder3Difference - rotationDifference / angularVelocityPerThirdEncoderVelocity;
+        double yDifference = (encoder1Difference + encoder2Difference) / 2;
+        displacement.set(xDifference, yDifference, rotationDifference);
+    }
 
-        // System.out.println(     "robot rotation:" + robotRotation);
-        // System.out.println("raw velocity:" + rawVelocity[0] + ", " + rawVelocity[1]); // TODO the problem originated from the raw velocity
-        // System.out.println("actual velocity: " + getActualVelocity(rawVelocity, robotRotation)[0] + ", " + getActualVelocity(rawVelocity, robotRotation)[1]);
+    /**
+     * move the robot by its motion during the period, using the pose exponential
+     * the robot is taken to move along an arc during the period, with constant velocity in reference to itself
+     * so the result stays accurate when the period is long or the robot is spinning fast, unlike multiplying the velocity by the time
+     *
+     * @param previousRotation the facing of the robot at the start of the period, in radian
+     */
+    private void integrateAlongArc(double previousRotation) {
+        /* move along the arc, starting from the facing at the start of the period */
+        arc.set(robotPosition[0], robotPosition[1], previousRotation);
+        arc.expInto(motion, arc);
+        this.robotPosition[0] = arc.getX();
+        this.robotPosition[1] = arc.getY();
+    }
 
-        this.dt.reset();
+    /** remember the current positions of the encoders, so the next period knows how much they changed */
+    protected void recordEncoderPositions() {
+        previousEncoder1Position = encoderReader.getEncoderPosition(1);
+        previousEncoder2Position = encoderReader.getEncoderPosition(2);
+        previousEncoder3Position = encoderReader.getEncoderPosition(3);
     }
 
-    /** force the encoder reader to update the readings */
-    public void forceUpdateEncoderValue() { encoderReader.periodic(); }
+    /** force the encoder reader to update the readings, a new control cycle is started on the hardware so the readings are not the cached ones */
+    public void forceUpdateEncoderValue() { encoderReader.forceUpdate(); }
 
     /**
      * determines the angular velocity of the robot using the difference between the velocity of the two parallel encoders
@@ -136,7 +240,7 @@ public class RobotPositionCalculator extends RobotModule {
      * @param parallelEncoder2Velocity the current velocity of the second parallel encoder
      * @return the calculated angular velocity of the robot, in rad/s
      */
-    private static double getAngularVelocity(double parallelEncoder1Velocity, double parallelEncoder2Velocity) {
+    private double getAngularVelocity(double parallelEncoder1Velocity, double parallelEncoder2Velocity) {
         /* calculate the difference between the velocity of the two parallel encoders */
         double velocityDifference = parallelEncoder2Velocity - parallelEncoder1Velocity;
 
@@ -149,7 +253,7 @@ public class RobotPositionCalculator extends RobotModule {
         return robotRotation;
     }
 
-    private static double correctThirdEncoderVelocity(double thirdEncoderRawVelocity, double angularVelocity) {
+    private double correctThirdEncoderVelocity(double thirdEncoderRawVelocity, double angularVelocity) {
         /*
         * the third encoder is installed horizontally
         * so the linear velocity of the third horizontal encoder, assuming the robot is still can be calculated
@@ -168,55 +272,94 @@ public class RobotPositionCalculator extends RobotModule {
         return thirdEncoderActualVelocity;
     }
 
+    /** turn the raw velocity, in reference to the robot, to be in reference to the field, using the facing of this period */
+    private void updateActualVelocity() {
+        /* the raw horizontal part of the velocity points along the robot's facing, the raw vertical part points 90 degrees to the left of it */
+        actualVelocity[0] = rawVelocity[0] * heading.getCos() - rawVelocity[1] * heading.getSin();
+        actualVelocity[1] = rawVelocity[0] * heading.getSin() + rawVelocity[1] * heading.getCos();
+    }
+
     /**
-     * calculate, using the raw velocity captured by the encoders, the actual velocity vector of the robot, in reference to ground
+     * read the pose of the robot and its velocity all at once, from the same period, safe to call from any thread
+     * does not create any objects, so it is the one to use in loops
      *
-     * @param rawVelocity the raw velocity captured by the encoders
-     * @param robotHeading the robot's current facing, obtained from the imu module or calculated form the encoders
-     * @return the actual velocity, according to the field, in encoder values
+     * @param destination the array to write in, at least PoseSnapshot.size long, indexed by the constants of PoseSnapshot
+     * @return the time the encoders are read for this pose, in nanoseconds
      */
-    private static double[] getActualVelocity(double[] rawVelocity, double robotHeading) {
-        double[] actualVelocity = new double[2];
-
-        /* the effect on the actual horizontal(in reference to the field) component of the velocity by the raw horizontal(according to the robot) part of the velocity */
-        actualVelocity[0] += rawVelocity[0] * Math.cos(robotHeading);
-        /* the effect on the actual horizontal(in reference to the field) component of the velocity by the raw vertical(according to the robot) part of the velocity */
-        actualVelocity[0] += rawVelocity[1] * Math.cos(robotHeading + Math.toRadians(90));
-        /* the effect on the actual vertical(in reference to the field) component of the velocity by the raw horizontal(according to the robot) part of the velocity */
-        actualVelocity[1] += rawVelocity[0] * Math.sin(robotHeading);
-        /* the effect on the actual vertical(in reference to the field) component of the velocity by the raw vertical(according to the robot) part of the velocity */
-        actualVelocity[1] += rawVelocity[1] * Math.sin(robotHeading + Math.toRadians(90));
-
-        return actualVelocity;
-    }
+    public long getPose(double[] destination) { return publishedPose.read(destination); }
 
+    /** @return a copy of the position of the robot, in encoder values */
     public double[] getRobotPosition() {
-        return robotPosition;
+        double[] pose = new double[PoseSnapshot.size];
+        publishedPose.read(pose);
+        return new double[] {pose[PoseSnapshot.xIndex], pose[PoseSnapshot.yIndex]};
     }
 
-    public double getRobotRotation() {
-        return robotRotation;
+    public double getRobotRotation() { return publishedPose.getHeading(); }
+
+    /** @return a copy of the velocity of the robot, in reference to itself, in encoder values per second */
+    public double[] getRawVelocity() {
+        double[] pose = new double[PoseSnapshot.size];
+        publishedPose.read(pose);
+        double cos = Math.cos(pose[PoseSnapshot.headingIndex]), sin = Math.sin(pose[PoseSnapshot.headingIndex]);
+        return new double[] {
+                pose[PoseSnapshot.velocityXIndex] * cos + pose[PoseSnapshot.velocityYIndex] * sin,
+                -pose[PoseSnapshot.velocityXIndex] * sin + pose[PoseSnapshot.velocityYIndex] * cos
+        };
+    }
+
+    public double getAngularVelocity() { return publishedPose.getAngularVelocity(); }
+
+    /** @return a copy of the velocity of the robot, in reference to the field, in encoder values per second */
+    public double[] getVelocity() {
+        double[] pose = new double[PoseSnapshot.size];
+        publishedPose.read(pose);
+        return new double[] {pose[PoseSnapshot.velocityXIndex], pose[PoseSnapshot.velocityYIndex]};
     }
 
-    public double[] getRawVelocity() { return rawVelocity; }
+    /** @param integrationMode how to turn the readings of the encoders into the position of the robot */
+    public void setIntegrationMode(IntegrationMode integrationMode) { this.integrationMode = integrationMode; }
+
+    public IntegrationMode getIntegrationMode() { return integrationMode; }
 
-    public double getAngularVelocity() { return angularVelocity; }
+    /** @return the poses of the robot in the last moments, timed with the clock of the encoder readings */
+    public PoseHistoryBuffer getPoseHistory() { return poseHistory; }
 
-    public double[] getVelocity() { return getActualVelocity(rawVelocity, robotRotation); }
+    /** @return the clock that the readings of the encoders are timed with */
+    public RobotClock getClock() { return encoderReader.getClock(); }
 
-    /** reset the position calculator to initial stat */
+    /**
+     * hand the updating of the odometry to a thread, or take it back, called by OdometryThread
+     *
+     * @param thread the thread to update the odometry, null to update it by whoever calls periodic() again
+     */
+    void setUpdatingThread(Thread thread) { this.updatingThread = thread; }
+
+    /** reset the position calculator to initial stat, if the odometry thread runs, it is reset at the start of its next period */
     public void reset() {
+        if (updatingThread != null && Thread.currentThread() != updatingThread) {
+            resetRequested = true;
+            return;
+        }
+
         /* start the timer */
-        this.dt.reset();
+        this.previousTimestamp = encoderReader.getLastReadTimestamp();
 
         /* set the robot to be in zero position */
         robotPosition[0] = 0;
         robotPosition[1] = 0;
         robotRotation = 0;
 
+        angularVelocity = 0;
         rawVelocity[0] = 0;
         rawVelocity[1] = 0;
-
-        startingEncoderDifference = encoderReader.getEncoderPosition(2) - encoderReader.getEncoderPosition(1);
+        actualVelocity[0] = 0;
+        actualVelocity[1] = 0;
+        heading.set(0);
+
+        recordEncoderPositions();
+        /* the poses before the reset are not comparable with the new ones */
+        poseHistory.clear();
+        publishedPose.publish(previousTimestamp, 0, 0, 0, 0, 0, 0);
     }
 }
@@ -1,8 +1,13 @@
 package org.firstinspires.ftc.teamcode.RobotModules;
 
-import com.qualcomm.robotcore.util.ElapsedTime;
-
+import org.firstinspires.ftc.teamcode.Geometry.Matrix2d;
+import org.firstinspires.ftc.teamcode.Geometry.Matrix3d;
+import org.firstinspires.ftc.teamcode.Geometry.Pose2d;
+import org.firstinspires.ftc.teamcode.Geometry.Rotation2d;
+import org.firstinspires.ftc.teamcode.Geometry.Twist2d;
+import org.firstinspires.ftc.teamcode.Geometry.Vector2d;
 import org.firstinspires.ftc.teamcode.RobotModule;
+import org.firstinspires.ftc.teamcode.Utils.RobotCalibration;
 
 import java.util.HashMap;
 
@@ -11,45 +16,69 @@ import java.util.HashMap;
  * FileName: RobotPositionCalculator_v2_todo.java
  *
  * the module that calculates the robot's position according to the data from the encoders
- * TODO complete this method using linear algebra
+ * every encoder senses the motion of the robot along its facing, at the place it is installed
+ * so the readings are a linear transformation of the robot's motion, which is inverted once during initialization
+ * the motion found every period is then applied along an arc, see Pose2d.exp()
  *
  * @Author 四只爱写代码の猫
  * @Date 2023.3.17
  * @Version v0.0.1
  */
 public class RobotPositionCalculator_v2_todo extends RobotModule {
-    /** some configurations of the encoders TODO: edit these settings according to the robot */
+    /**
+     * some configurations of the encoders TODO: measure these settings in millimeters
+     * until then, the distances are in encoder values with a sensitivity of 1
+     * the places are worked out from the calibration of the robot during init, see RobotCalibration, so the two calculators agree
+     */
 
     /** the difference in amount of encoder values that the first encoder senses when the robot moves every 1 millimeter */
     private final double firstEncoderSensitivity = 1;
     /** the place where the first encoder is installed, in reference to the center of the robot and in millimeters */
-    private final double[] firstEncoderInstallationBias = {0, 0};
+    private final Vector2d firstEncoderInstallationBias = new Vector2d();
     /** the facing of the first encoder, in radian */
-    private final double firstEncoderInstallationFacing = 0;
+    private final double firstEncoderInstallationFacing = Math.PI / 2;
 
     /** the difference in amount of encoder values that the second encoder senses when the robot moves every 1 millimeter */
     private final double secondEncoderSensitivity = 1;
     /** the place where the second encoder is installed, in reference to the center of the robot and in millimeters */
-    private final double[] secondEncoderInstallationBias = {0, 0};
+    private final Vector2d secondEncoderInstallationBias = new Vector2d();
     /** the facing of the second encoder, in radian */
-    private final double secondEncoderInstallationFacing = 0;
+    private final double secondEncoderInstallationFacing = Math.PI / 2;
 
     /** whether to use the third encoder, or to use the imu to sense the direction instead */
     private boolean useThirdEncoderInsteadOfIMU = false;
     /** the difference in amount of encoder values that the third encoder senses when the robot moves every 1 millimeter */
     private final double thirdEncoderSensitivity = 1;
-    /** the place where the second encoder is installed, in reference to the center of the robot and in millimeters */
-    private final double[] thirdEncoderInstallationBias = {0, 0};
-    /** the facing of the second encoder, in radian */
+    /** the place where the third encoder is installed, in reference to the center of the robot and in millimeters */
+    private final Vector2d thirdEncoderInstallationBias = new Vector2d();
+    /** the facing of the third encoder, in radian */
     private final double thirdEncoderInstallationFacing = 0;
 
 
     /** the module that reads and analyze the encoder data */
     private Mini1024EncoderReader encoderReader;
-
-    /** the timer to store the time elapsed between two periods */
-    private final ElapsedTime dt = new ElapsedTime();
-
+    /** the module that reads the facing of the robot, only needed when the third encoder is not used */
+    private IMUReader imuReader;
+
+    /** turns the changes of the three encoders into the motion of the robot, the inverse of how the robot's motion is sensed by them */
+    private final Matrix3d encodersToMotion = new Matrix3d();
+    /** turns the changes of the first two encoders, without the effect of rotation, into the translation of the robot */
+    private final Matrix2d parallelEncodersToTranslation = new Matrix2d();
+    /** how much each encoder senses when the robot turns one radian on the spot */
+    private final double[] rotationSensitivity = new double[3];
+
+    /** the position and facing of the robot */
+    private final Pose2d pose = new Pose2d();
+    /** the motion of the robot in the last period, in reference to itself */
+    private final Twist2d lastMotion = new Twist2d();
+    /** the positions of the encoders in the last period */
+    private final double[] previousEncoderPositions = new double[3];
+    /** the heading of the imu in the last period */
+    private double previousIMUHeading;
+
+    /** the space to compute in, so the periods do not create objects */
+    private final double[] encoderDifferences = new double[3];
+    private final Vector2d translation = new Vector2d();
 
 
     /**
@@ -65,13 +94,15 @@ public class RobotPositionCalculator_v2_todo extends RobotModule {
      *
      * @param dependentModules the related modules needed by this position calculator
      *                         "encoderReader" : Mini1024EncoderReader, the module that reads the encoder's value
+     *                         "imuReader" : IMUReader, the module that reads the imu, needed only when not using the third encoder, and updated by its own periodic
      * @param dependentInstances null would be OK as this module does not need any instance
+     * @throws ArithmeticException if the encoders are installed in a way that cannot tell all the motions apart
      */
     public void init(
             HashMap<String, RobotModule> dependentModules,
             HashMap<String, Object> dependentInstances,
             boolean useThirdEncoderInsteadOfIMU
-    ) throws NullPointerException {
+    ) throws NullPointerException, ArithmeticException {
         /* throw out an error if the dependent module is given an empty map */
         if (dependentModules.isEmpty()) throw new NullPointerException(
                 "an empty map of dependent modules given to this module, which requires at least one modular dependencies"
@@ -85,6 +116,44 @@ public class RobotPositionCalculator_v2_todo extends RobotModule {
 
         /* set whether to use the third encoder */
         this.useThirdEncoderInsteadOfIMU = useThirdEncoderInsteadOfIMU;
+        if (!useThirdEncoderInsteadOfIMU) {
+            if (! dependentModules.containsKey("imuReader")) throw new NullPointerException(
+                    "dependency <<" + "imuReader" + ">> not specified for module <<" + this.getModuleName() + ">>"
+            );
+            this.imuReader = (IMUReader) dependentModules.get("imuReader");
+        }
+
+        /* the parallel encoders are half the track width from the center, the third one is behind it by its lateral offset */
+        RobotCalibration calibration = RobotCalibration.get();
+        firstEncoderInstallationBias.set(-calibration.getTrackWidth() / 2, 0);
+        secondEncoderInstallationBias.set(calibration.getTrackWidth() / 2, 0);
+        thirdEncoderInstallationBias.set(0, -calibration.getLateralWheelOffset());
+
+        /*
+         * an encoder installed at (x, y), facing f, senses
+         * sensitivity * (cos(f) * (xVelocity - angularVelocity * y) + sin(f) * (yVelocity + angularVelocity * x))
+         * so each encoder gives a row of the transformation from the robot's motion to the readings
+         * */
+        rotationSensitivity[0] = rotationSensitivity(firstEncoderSensitivity, firstEncoderInstallationBias, firstEncoderInstallationFacing);
+        rotationSensitivity[1] = rotationSensitivity(secondEncoderSensitivity, secondEncoderInstallationBias, secondEncoderInstallationFacing);
+        rotationSensitivity[2] = rotationSensitivity(thirdEncoderSensitivity, thirdEncoderInstallationBias, thirdEncoderInstallationFacing);
+        new Matrix3d(
+                firstEncoderSensitivity * Math.cos(firstEncoderInstallationFacing), firstEncoderSensitivity * Math.sin(firstEncoderInstallationFacing), rotationSensitivity[0],
+                secondEncoderSensitivity * Math.cos(secondEncoderInstallationFacing), secondEncoderSensitivity * Math.sin(secondEncoderInstallationFacing), rotationSensitivity[1],
+                thirdEncoderSensitivity * Math.cos(thirdEncoderInstallationFacing), thirdEncoderSensitivity * Math.sin(thirdEncoderInstallationFacing), rotationSensitivity[2]
+        ).inverseInto(encodersToMotion);
+        /* without the third encoder, the two parallel encoders only tell one direction apart, so the sideways motion is taken as zero if they are parallel */
+        Matrix2d parallelEncodersSensing = new Matrix2d(
+                firstEncoderSensitivity * Math.cos(firstEncoderInstallationFacing), firstEncoderSensitivity * Math.sin(firstEncoderInstallationFacing),
+                secondEncoderSensitivity * Math.cos(secondEncoderInstallationFacing), secondEncoderSensitivity * Math.sin(secondEncoderInstallationFacing)
+        );
+        if (Math.abs(parallelEncodersSensing.determinant()) > 1e-9) parallelEncodersSensing.inverseInto(parallelEncodersToTranslation);
+        else parallelEncodersToTranslation.set( // the forward motion is the mean value of the two
+                0, 0,
+                1 / (firstEncoderSensitivity + secondEncoderSensitivity), 1 / (firstEncoderSensitivity + secondEncoderSensitivity)
+        );
+
+        reset();
     }
 
     @Override
@@ -108,51 +177,64 @@ public class RobotPositionCalculator_v2_todo extends RobotModule {
     /** update the position according to readings of the imu and the encoders */
     @Override
     public void periodic() {
-        if (useThirdEncoderInsteadOfIMU) updatePositionUsingThirdEncoder(dt.seconds());
-        else updatePositionUsingIMU(dt.seconds());
-        dt.reset();
+        encoderDifferences[0] = encoderReader.getEncoderPosition(1) - previousEncoderPositions[0];
+        encoderDifferences[1] = encoderReader.getEncoderPosition(2) - previousEncoderPositions[1];
+        if (useThirdEncoderInsteadOfIMU) {
+            encoderDifferences[2] = encoderReader.getEncoderPosition(3) - previousEncoderPositions[2];
+            updatePositionUsingThirdEncoder();
+        }
+        else updatePositionUsingIMU();
+
+        pose.expInto(lastMotion, pose);
+        recordReadings();
     }
 
-    /**
-     * calculates the position using the imu and the two encoders
-     *
-     * @param dt the change in time between two periods
-     */
-    private void updatePositionUsingIMU(double dt) {
+    /** calculates the motion using the imu and the two encoders */
+    private void updatePositionUsingIMU() {
+        double imuHeading = imuReader.getRobotHeading();
+        double rotation = Rotation2d.wrap(imuHeading - previousIMUHeading);
 
+        /* take away what the encoders sensed from the rotation, the rest is the translation */
+        translation.set(
+                encoderDifferences[0] - rotationSensitivity[0] * rotation,
+                encoderDifferences[1] - rotationSensitivity[1] * rotation
+        );
+        parallelEncodersToTranslation.timesInto(translation, translation);
+        lastMotion.set(translation.getX(), translation.getY(), rotation);
     }
 
-    /**
-     * calculate the position using all three encoders
-     *
-     * @param dt the change in time between two periods
-     */
-    private void updatePositionUsingThirdEncoder(double dt) {
+    /** calculate the motion using all three encoders */
+    private void updatePositionUsingThirdEncoder() {
+        encodersToMotion.timesInto(encoderDifferences, encoderDifferences);
+        lastMotion.set(encoderDifferences[0], encoderDifferences[1], encoderDifferences[2]);
+    }
 
+    /** remember the current readings, so the next period knows how much they changed */
+    private void recordReadings() {
+        previousEncoderPositions[0] = encoderReader.getEncoderPosition(1);
+        previousEncoderPositions[1] = encoderReader.getEncoderPosition(2);
+        if (useThirdEncoderInsteadOfIMU) previousEncoderPositions[2] = encoderReader.getEncoderPosition(3);
+        else previousIMUHeading = imuReader.getRobotHeading();
     }
-}
 
-/**
- * represents a matrix, whether 2 by 2 or 2 by 1
- * for easier calculation
- */
-abstract class Matrix {
-    /** the size of the matrix, in the form of {columns, rows}*/
-    protected short[] size = new short[2];
+    /** @return how much an encoder senses when the robot turns one radian on the spot */
+    private static double rotationSensitivity(double sensitivity, Vector2d installationBias, double installationFacing) {
+        return sensitivity * (-installationBias.getY() * Math.cos(installationFacing) + installationBias.getX() * Math.sin(installationFacing));
+    }
 
-    /** the contend of the matrix */
-    protected double[][] contend;
+    /** set the robot to be at the origin, facing zero */
+    public void reset() {
+        pose.set(0, 0, 0);
+        lastMotion.set(0, 0, 0);
+        recordReadings();
+    }
 
-    // TODO write the calculations between matrices
-}
+    /** @return the position and facing of the robot, changing it moves the calculated position */
+    public Pose2d getPose() { return pose; }
 
-/** representing a vector in 2d space */
-class Vector2d extends Matrix {
-    public Vector2d(double x, double y) {
-        this.size = new short[] {1, 2};
-        this.contend = new double[1][2];
-    }
-}
+    /** @return the facing of the robot, in radian, from -pi to pi */
+    public double getRobotRotation() { return Rotation2d.wrap(pose.getHeading()); }
 
-/** represents a linear transformation in 2d space */
-class linearTransform {}
\ No newline at end of file
+    /** @return the motion of the robot in the last period, in reference to itself */
+    public Twist2d getLastMotion() { return lastMotion; }
+}
@@ -0,0 +1,75 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: AlphaBetaVelocityEstimator.java
+ *
+ * tracks the position and velocity of the encoder, assuming the velocity stays the same between two readings
+ * every reading, the tracked position is moved forward by the velocity, and the difference between it and the reading corrects both
+ * alpha is how much the position trusts the reading, beta is how much the velocity does, the smaller they are the smoother and the more lagging it is
+ * the acceleration is the change in the tracked velocity over the change in time
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class AlphaBetaVelocityEstimator extends VelocityEstimator {
+    /** how much the reading corrects the position and the velocity, from 0 to 1 and from 0 to 2 */
+    private final double alpha, beta;
+
+    /** the tracked position, in encoder values */
+    private double position;
+    /** the time of the last reading */
+    private long previousTimestamp;
+    /** whether any reading is taken since the last reset */
+    private boolean started = false;
+
+    /**
+     * @param alpha how much the reading corrects the position, from 0 to 1
+     * @param beta how much the reading corrects the velocity, from 0 to 2, beta = alpha^2 / (2 - alpha) is a good start
+     * @throws IllegalArgumentException if the gains make the tracker unstable
+     */
+    public AlphaBetaVelocityEstimator(double alpha, double beta) throws IllegalArgumentException {
+        if (alpha <= 0 || alpha > 1 || beta <= 0 || beta > 4 - 2 * alpha) throw new IllegalArgumentException(
+                "unstable alpha-beta gains: alpha = " + alpha + ", beta = " + beta
+        );
+        this.alpha = alpha;
+        this.beta = beta;
+    }
+
+    /** a tracker with alpha of 0.5, which halves the noise in position and still follows the changes within a few periods */
+    public AlphaBetaVelocityEstimator() {
+        this(0.5, 0.5 * 0.5 / (2 - 0.5));
+    }
+
+    @Override
+    public void update(long timestamp, double reading, double reportedVelocity) {
+        if (!started) {
+            position = reading;
+            previousTimestamp = timestamp;
+            started = true;
+            return;
+        }
+        double timeDifference = RobotClock.nanosToSeconds(timestamp - previousTimestamp);
+        if (timeDifference <= 0) return;
+
+        /* predict, and correct with what is read */
+        double predictedPosition = position + velocity * timeDifference;
+        double residual = reading - predictedPosition;
+        double velocityCorrection = beta * residual / timeDifference;
+
+        position = predictedPosition + alpha * residual;
+        velocity += velocityCorrection;
+        acceleration = velocityCorrection / timeDifference;
+        previousTimestamp = timestamp;
+    }
+
+    @Override
+    public void reset() {
+        started = false;
+        velocity = acceleration = 0;
+    }
+
+    /** @return the tracked position, in encoder values */
+    public double getPosition() { return position; }
+}
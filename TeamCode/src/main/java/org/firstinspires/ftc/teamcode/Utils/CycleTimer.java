@@ -0,0 +1,53 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: CycleTimer.java
+ *
+ * measures the time elapsed since it was last reset, in place of ElapsedTime
+ * it reads the timestamp of the current control cycle from a robot clock, instead of the system time
+ * so all the modules see the same time during a cycle, and the timer follows a virtual clock in the simulations
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class CycleTimer {
+    /** the clock to read the time from */
+    private final RobotClock clock;
+    /** the timestamp when the timer was last reset, in nanoseconds */
+    private long startTime;
+
+    /**
+     * construct a timer, started at the current cycle
+     *
+     * @param clock the clock to read the time from
+     */
+    public CycleTimer(RobotClock clock) {
+        this.clock = clock;
+        reset();
+    }
+
+    /** start timing again from the current cycle */
+    public void reset() {
+        startTime = clock.getCycleTimestamp();
+    }
+
+    /** @return the time elapsed since the last reset, in nanoseconds */
+    public long nanoseconds() {
+        return clock.getCycleTimestamp() - startTime;
+    }
+
+    /** @return the time elapsed since the last reset, in seconds */
+    public double seconds() {
+        return RobotClock.nanosToSeconds(nanoseconds());
+    }
+
+    /** @return the time elapsed since the last reset, in milliseconds */
+    public double milliseconds() {
+        return nanoseconds() / 1e6;
+    }
+
+    /** @return the clock that the timer reads */
+    public RobotClock getClock() { return clock; }
+}
@@ -0,0 +1,67 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: DriveFeedforward.java
+ *
+ * the power the chassis needs to move along one axle at a velocity and an acceleration, before any feedback
+ *   power = kS * sign(velocity) + kV * velocity + kA * acceleration
+ *  - kS, the power to overcome the static friction, below which the robot does not move at all
+ *  - kV, the power per velocity, to balance the back-EMF of the motors and the friction that grows with speed
+ *  - kA, the power per acceleration, to speed up the mass of the robot
+ * one model is kept for each of the axles, forward, sideways and rotating, as the mecanum wheels lose more moving sideways
+ * the values are fitted by DriveCharacterizationSolver from the readings of the DriveCharacterization op-mode, at the nominal voltage
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class DriveFeedforward {
+    /** the voltage the power is fitted at, the battery of the robot when full */
+    public static final double nominalVoltage = 12;
+
+    /** kS, the power to overcome the static friction */
+    private final double staticPower;
+    /** kV, the power per unit of velocity */
+    private final double velocityGain;
+    /** kA, the power per unit of acceleration */
+    private final double accelerationGain;
+
+    /**
+     * @param staticPower kS, the power to overcome the static friction
+     * @param velocityGain kV, the power per unit of velocity
+     * @param accelerationGain kA, the power per unit of acceleration
+     */
+    public DriveFeedforward(double staticPower, double velocityGain, double accelerationGain) {
+        this.staticPower = staticPower;
+        this.velocityGain = velocityGain;
+        this.accelerationGain = accelerationGain;
+    }
+
+    /**
+     * the power needed to move at a velocity and an acceleration
+     * the static friction is overcome in the direction of the velocity, or of the acceleration when starting from rest
+     *
+     * @param velocity the velocity, in the units the model is fitted in
+     * @param acceleration the acceleration, in the units the model is fitted in
+     * @return the power, not limited to the range of the motors
+     */
+    public double calculate(double velocity, double acceleration) {
+        double direction = velocity != 0 ? Math.signum(velocity) : Math.signum(acceleration);
+        return staticPower * direction + velocityGain * velocity + accelerationGain * acceleration;
+    }
+
+    /** @return kS, the power to overcome the static friction */
+    public double getStaticPower() { return staticPower; }
+
+    /** @return kV, the power per unit of velocity */
+    public double getVelocityGain() { return velocityGain; }
+
+    /** @return kA, the power per unit of acceleration */
+    public double getAccelerationGain() { return accelerationGain; }
+
+    @Override
+    public String toString() {
+        return "kS " + staticPower + ", kV " + velocityGain + ", kA " + accelerationGain;
+    }
+}
@@ -0,0 +1,45 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: FiniteDifferenceVelocityEstimator.java
+ *
+ * the velocity is the change in position over the change in time between the last two readings, and the same for the acceleration
+ * it does not lag, but the noise of one encoder value over a period of 10ms is already 100 encoder values per second
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class FiniteDifferenceVelocityEstimator extends VelocityEstimator {
+    /** the last reading */
+    private long previousTimestamp;
+    private double previousPosition;
+    /** whether any reading is taken since the last reset */
+    private boolean started = false;
+
+    @Override
+    public void update(long timestamp, double position, double reportedVelocity) {
+        if (!started) {
+            previousTimestamp = timestamp;
+            previousPosition = position;
+            started = true;
+            return;
+        }
+        double timeDifference = RobotClock.nanosToSeconds(timestamp - previousTimestamp);
+        if (timeDifference <= 0) return;
+
+        double currentVelocity = (position - previousPosition) / timeDifference;
+        acceleration = (currentVelocity - velocity) / timeDifference;
+        velocity = currentVelocity;
+
+        previousTimestamp = timestamp;
+        previousPosition = position;
+    }
+
+    @Override
+    public void reset() {
+        started = false;
+        velocity = acceleration = 0;
+    }
+}
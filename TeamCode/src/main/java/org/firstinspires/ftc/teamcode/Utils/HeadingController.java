@@ -0,0 +1,113 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: HeadingController.java
+ *
+ * a linear-quadratic regulator of the heading of the robot, built on the rotational model of the chassis
+ *   angular acceleration = (power - kS * sign(angular velocity) - kV * angular velocity) / kA, see DriveFeedforward
+ * the state is the error of the heading and of the angular velocity, the power is the gains times the state
+ * the gains are the ones that make the sum of the squared state and power, each weighted, the least over all the cycles to come
+ * they are worked out once, by iterating the riccati equation over the model discretized at the control period, not every cycle
+ * so unlike a proportional gain with a guessed look-ahead time, the braking matches how fast the robot actually slows down
+ * the static friction is added on top, towards where the power pushes, except right at the target so the robot does not shake
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class HeadingController {
+    /** the most times the riccati equation is iterated, and the change of the gains it stops at */
+    private static final int maxIterations = 10000;
+    private static final double convergenceTolerance = 1e-10;
+
+    /** the gains, the power per radian of error, and per radian per second of error of the angular velocity */
+    private final double headingGain, angularVelocityGain;
+    /** kS, the power to overcome the static friction */
+    private final double staticPower;
+    /** within this error of the heading, the static friction is not overcome, in radian */
+    private final double staticPowerDeadband;
+    /** the error of the heading of the last update, counter-clockwise positive, in radian */
+    private double error = 0;
+
+    /**
+     * work out the gains of the regulator
+     *
+     * @param model the rotational model of the chassis, in radian, rotating clockwise as a positive power does
+     * @param period the control period, in seconds
+     * @param maxHeadingError the error of the heading that costs as much as the max power, in radian, smaller to turn harder
+     * @param maxAngularVelocityError the error of the angular velocity that costs as much as the max power, in radian per second, smaller to brake harder
+     * @param maxPower the power that costs as much as the errors above
+     * @param staticPowerDeadband within this error of the heading, the static friction is not overcome, in radian
+     * @throws IllegalArgumentException if the model has no kV or kA, or any of the weights is not positive
+     */
+    public HeadingController(DriveFeedforward model, double period, double maxHeadingError, double maxAngularVelocityError, double maxPower, double staticPowerDeadband) throws IllegalArgumentException {
+        if (!(model.getVelocityGain() > 0 && model.getAccelerationGain() > 0))
+            throw new IllegalArgumentException("the rotational model " + model + " has no kV or kA, run DriveCharacterization first");
+        if (!(period > 0 && maxHeadingError > 0 && maxAngularVelocityError > 0 && maxPower > 0))
+            throw new IllegalArgumentException("the period and the weights of a heading controller must be positive");
+        this.staticPower = model.getStaticPower();
+        this.staticPowerDeadband = staticPowerDeadband;
+
+        /* the model, with the state {heading, angular velocity}, discretized exactly over the period, holding the power */
+        double a = -model.getVelocityGain() / model.getAccelerationGain(), b = 1 / model.getAccelerationGain();
+        double decay = Math.exp(a * period);
+        double a01 = (decay - 1) / a, a11 = decay;
+        double b0 = b * (a01 - period) / a, b1 = b * a01;
+
+        /* the weights, by the largest error and power wanted */
+        double q0 = 1 / (maxHeadingError * maxHeadingError), q1 = 1 / (maxAngularVelocityError * maxAngularVelocityError), r = 1 / (maxPower * maxPower);
+
+        /* iterate P = Q + A'PA - A'PB (R + B'PB)^-1 B'PA until it settles, P is symmetric, {p00, p01, p11} */
+        double p00 = q0, p01 = 0, p11 = q1;
+        double k0 = 0, k1 = 0;
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            /* PA and PB */
+            double pa00 = p00, pa01 = p00 * a01 + p01 * a11, pa10 = p01, pa11 = p01 * a01 + p11 * a11;
+            double pb0 = p00 * b0 + p01 * b1, pb1 = p01 * b0 + p11 * b1;
+            /* B'PA, B'PB and A'PA, where A = {{1, a01}, {0, a11}} */
+            double bpa0 = b0 * pa00 + b1 * pa10, bpa1 = b0 * pa01 + b1 * pa11;
+            double bpb = b0 * pb0 + b1 * pb1;
+            double apa00 = pa00, apa01 = pa01, apa11 = a01 * pa01 + a11 * pa11;
+
+            double newK0 = bpa0 / (r + bpb), newK1 = bpa1 / (r + bpb);
+            p00 = q0 + apa00 - bpa0 * newK0;
+            p01 = apa01 - bpa0 * newK1;
+            p11 = q1 + apa11 - bpa1 * newK1;
+
+            boolean converged = Math.abs(newK0 - k0) < convergenceTolerance * Math.abs(newK0) && Math.abs(newK1 - k1) < convergenceTolerance * Math.abs(newK1);
+            k0 = newK0;
+            k1 = newK1;
+            if (converged) break;
+        }
+        this.headingGain = k0;
+        this.angularVelocityGain = k1;
+    }
+
+    /**
+     * update the controller
+     *
+     * @param targetedHeading the heading to reach, counter-clockwise positive, in radian
+     * @param targetedAngularVelocity how fast the targeted heading turns, counter-clockwise positive, in radian per second
+     * @param heading the heading of the robot
+     * @param angularVelocity the angular velocity of the robot
+     * @param maxPower the highest power to turn with
+     * @return the rotational motion, positive turns the robot clockwise
+     */
+    public double calculate(double targetedHeading, double targetedAngularVelocity, double heading, double angularVelocity, double maxPower) {
+        error = Math.IEEEremainder(targetedHeading - heading, Math.PI * 2);
+        /* the state is the robot from the target, turning clockwise as the power does, which is the error counter-clockwise */
+        double power = -(headingGain * error + angularVelocityGain * (targetedAngularVelocity - angularVelocity));
+        if (Math.abs(error) > staticPowerDeadband) power += Math.copySign(staticPower, power);
+        return Math.max(Math.min(power, maxPower), -maxPower);
+    }
+
+    /** @return the error of the heading of the last update, counter-clockwise positive, in radian */
+    public double getError() { return error; }
+
+    /** @return the power per radian of error of the heading */
+    public double getHeadingGain() { return headingGain; }
+
+    /** @return the power per radian per second of error of the angular velocity */
+    public double getAngularVelocityGain() { return angularVelocityGain; }
+}
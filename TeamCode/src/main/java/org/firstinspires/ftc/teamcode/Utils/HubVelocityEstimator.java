@@ -0,0 +1,45 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: HubVelocityEstimator.java
+ *
+ * takes the velocity measured by the hub itself, from DcMotorEx.getVelocity()
+ * the hub counts over its own, fixed window, so the velocity does not depend on the period of the program
+ * the acceleration is the change in that velocity over the change in time
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class HubVelocityEstimator extends VelocityEstimator {
+    /** the time of the last reading */
+    private long previousTimestamp;
+    /** whether any reading is taken since the last reset */
+    private boolean started = false;
+
+    @Override
+    public void update(long timestamp, double position, double reportedVelocity) {
+        if (!started) {
+            previousTimestamp = timestamp;
+            velocity = reportedVelocity;
+            started = true;
+            return;
+        }
+        double timeDifference = RobotClock.nanosToSeconds(timestamp - previousTimestamp);
+        if (timeDifference <= 0) return;
+
+        acceleration = (reportedVelocity - velocity) / timeDifference;
+        velocity = reportedVelocity;
+        previousTimestamp = timestamp;
+    }
+
+    @Override
+    public void reset() {
+        started = false;
+        velocity = acceleration = 0;
+    }
+
+    @Override
+    public boolean usesReportedVelocity() { return true; }
+}
@@ -0,0 +1,91 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: LeastSquaresVelocityEstimator.java
+ *
+ * fits a parabola through the last few readings, by least squares, and takes its slope and curvature at the newest reading
+ * each reading is placed at its own time, so the uneven periods of the program do not matter
+ * the longer the window, the less noise and the more lag, the lag is about a third of the window for a changing acceleration
+ * the readings are stored in a ring of fixed length, nothing is created after construction
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class LeastSquaresVelocityEstimator extends VelocityEstimator {
+    /** the readings in the window, index "head" is the oldest one */
+    private final long[] timestamps;
+    private final double[] positions;
+    private int head = 0;
+    private int size = 0;
+
+    /**
+     * @param windowSize the amount of readings to fit, at least 3
+     * @throws IllegalArgumentException if the window is too small to fit a parabola
+     */
+    public LeastSquaresVelocityEstimator(int windowSize) throws IllegalArgumentException {
+        if (windowSize < 3) throw new IllegalArgumentException("at least 3 readings are needed to fit a parabola, " + windowSize + " given");
+        timestamps = new long[windowSize];
+        positions = new double[windowSize];
+    }
+
+    /** a window of 8 readings, 40ms at 200Hz */
+    public LeastSquaresVelocityEstimator() {
+        this(8);
+    }
+
+    @Override
+    public void update(long timestamp, double position, double reportedVelocity) {
+        if (size > 0 && timestamp <= timestamps[(head + size - 1) % timestamps.length]) return;
+        if (size < timestamps.length) {
+            timestamps[(head + size) % timestamps.length] = timestamp;
+            positions[(head + size) % timestamps.length] = position;
+            size++;
+        } else {
+            timestamps[head] = timestamp;
+            positions[head] = position;
+            head = (head + 1) % timestamps.length;
+        }
+
+        if (size == 2) {
+            /* too few readings for a parabola, take the line through the two */
+            velocity = (positions[(head + 1) % timestamps.length] - positions[head]) / RobotClock.nanosToSeconds(timestamps[(head + 1) % timestamps.length] - timestamps[head]);
+            return;
+        }
+        if (size < 3) return;
+        fit(timestamp, position);
+    }
+
+    /**
+     * fit position = c0 + c1 * t + c2 * t^2, where t is the time in seconds before the newest reading
+     * so the velocity is c1 and the acceleration is 2 * c2
+     */
+    private void fit(long newestTimestamp, double newestPosition) {
+        /* the sums of the normal equations, the positions are taken relative to the newest one to keep the numbers small */
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0, s4 = 0;
+        double p0 = 0, p1 = 0, p2 = 0;
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) % timestamps.length;
+            double t = RobotClock.nanosToSeconds(timestamps[index] - newestTimestamp);
+            double p = positions[index] - newestPosition;
+            double t2 = t * t;
+            s0 += 1; s1 += t; s2 += t2; s3 += t2 * t; s4 += t2 * t2;
+            p0 += p; p1 += p * t; p2 += p * t2;
+        }
+
+        /* solve the symmetric 3 by 3 system by cramer's rule */
+        double determinant = s0 * (s2 * s4 - s3 * s3) - s1 * (s1 * s4 - s3 * s2) + s2 * (s1 * s3 - s2 * s2);
+        if (Math.abs(determinant) < 1e-30) return; // the readings are too close in time to tell anything
+        double c1 = (s0 * (p1 * s4 - s3 * p2) - p0 * (s1 * s4 - s3 * s2) + s2 * (s1 * p2 - p1 * s2)) / determinant;
+        double c2 = (s0 * (s2 * p2 - p1 * s3) - s1 * (s1 * p2 - p1 * s2) + p0 * (s1 * s3 - s2 * s2)) / determinant;
+        velocity = c1;
+        acceleration = 2 * c2;
+    }
+
+    @Override
+    public void reset() {
+        head = size = 0;
+        velocity = acceleration = 0;
+    }
+}
@@ -0,0 +1,138 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: MecanumKinematics.java
+ *
+ * turns the motion asked of the chassis into the powers of the four mecanum wheels
+ *   leftFront = y + r + x, leftRear = y + r - x, rightFront = y - r - x, rightRear = y - r + x
+ * where x is the motion to the right, y forward, and r rotating, positive turns the robot clockwise
+ *
+ * a motor takes a power from -1 to 1, if a wheel is asked for more, the hub clips that wheel alone
+ * the robot then moves in another direction than asked, and the rotation fights the translation
+ * so instead, when any wheel is saturated, the translation and the rotation are each scaled down, keeping their directions, in three steps:
+ *  - the rotation is given the power up to its authority, such as 0.3, first
+ *  - the translation is given as much of what is left as it asks, or as there is
+ *  - the rotation beyond its authority is given what is left after that
+ * so an authority of 1 puts the heading correction first, when driving at full power it still turns the robot
+ * an authority of 0 puts the translation first, and the ones in between blend the two
+ * the motion can be given in reference to the robot, or to the ground together with the heading of the robot
+ * nothing is created when calculating, the powers are written into an array given
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class MecanumKinematics {
+    /** where the power of each wheel is placed in the array written into */
+    public static final int leftFrontIndex = 0;
+    public static final int leftRearIndex = 1;
+    public static final int rightFrontIndex = 2;
+    public static final int rightRearIndex = 3;
+    /** the length of the array to write the powers into */
+    public static final int wheelCount = 4;
+
+    /** the authorities of the rotation that put it first or last */
+    public static final double rotationFirst = 1;
+    public static final double translationFirst = 0;
+
+    /** the highest power of a motor */
+    private static final double maxWheelPower = 1;
+
+    /** the power of the wheels the rotation gets before the translation */
+    private double rotationalAuthority;
+
+    /** the parts of the power of each wheel, from translating, from rotating within the authority and beyond it, kept so calculating does not create objects */
+    private final double[] translationalPowers = new double[wheelCount];
+    private final double[] rotationalPowers = new double[wheelCount];
+    private final double[] extraRotationalPowers = new double[wheelCount];
+    /** how much the translation was scaled down in the last calculation, one if it was not */
+    private double translationalScale = 1;
+
+    /** @param rotationalAuthority the power of the wheels the rotation gets before the translation, from 0 to 1 */
+    public MecanumKinematics(double rotationalAuthority) throws IllegalArgumentException {
+        setRotationalAuthority(rotationalAuthority);
+    }
+
+    /**
+     * @param rotationalAuthority the power of the wheels the rotation gets before the translation, from 0 to 1
+     * @throws IllegalArgumentException if it is out of the range
+     */
+    public void setRotationalAuthority(double rotationalAuthority) throws IllegalArgumentException {
+        if (!(rotationalAuthority >= 0 && rotationalAuthority <= maxWheelPower))
+            throw new IllegalArgumentException("the authority of the rotation must be from 0 to " + maxWheelPower + ", not " + rotationalAuthority);
+        this.rotationalAuthority = rotationalAuthority;
+    }
+
+    public double getRotationalAuthority() { return rotationalAuthority; }
+
+    /**
+     * the powers of the wheels as they are mixed, without desaturating, for driving the motors with velocities instead of powers
+     *
+     * @param xAxleMotion the motion to the right of the robot
+     * @param yAxleMotion the motion to the front of the robot
+     * @param rotationalMotion the rotating motion, positive turns the robot clockwise
+     * @param wheelPowers the array to write the powers into, indexed by the wheel constants
+     */
+    public static void mix(double xAxleMotion, double yAxleMotion, double rotationalMotion, double[] wheelPowers) {
+        wheelPowers[leftFrontIndex] = yAxleMotion + rotationalMotion + xAxleMotion;
+        wheelPowers[leftRearIndex] = yAxleMotion + rotationalMotion - xAxleMotion;
+        wheelPowers[rightFrontIndex] = yAxleMotion - rotationalMotion - xAxleMotion;
+        wheelPowers[rightRearIndex] = yAxleMotion - rotationalMotion + xAxleMotion;
+    }
+
+    /**
+     * the powers of the wheels for a motion in reference to the robot, desaturated by the authority of the rotation
+     *
+     * @param xAxleMotion the motion to the right of the robot
+     * @param yAxleMotion the motion to the front of the robot
+     * @param rotationalMotion the rotating motion, positive turns the robot clockwise
+     * @param wheelPowers the array to write the powers into, indexed by the wheel constants
+     */
+    public void calculateWheelPowers(double xAxleMotion, double yAxleMotion, double rotationalMotion, double[] wheelPowers) {
+        double rotationWithinAuthority = Math.copySign(Math.min(Math.abs(rotationalMotion), rotationalAuthority), rotationalMotion);
+        mix(xAxleMotion, yAxleMotion, 0, translationalPowers);
+        mix(0, 0, rotationWithinAuthority, rotationalPowers);
+        mix(0, 0, rotationalMotion - rotationWithinAuthority, extraRotationalPowers);
+
+        /* the rotation within the authority never saturates a wheel on its own */
+        translationalScale = getScaleWithinPower(translationalPowers, rotationalPowers);
+        for (int wheel = 0; wheel < wheelCount; wheel++) wheelPowers[wheel] = translationalPowers[wheel] * translationalScale + rotationalPowers[wheel];
+        double extraRotationalScale = getScaleWithinPower(extraRotationalPowers, wheelPowers);
+        for (int wheel = 0; wheel < wheelCount; wheel++) wheelPowers[wheel] += extraRotationalPowers[wheel] * extraRotationalScale;
+    }
+
+    /**
+     * the powers of the wheels for a motion in reference to the ground, desaturated by the authority of the rotation
+     *
+     * @param xAxleMotion the motion along the x-axle of the ground
+     * @param yAxleMotion the motion along the y-axle of the ground
+     * @param rotationalMotion the rotating motion, positive turns the robot clockwise
+     * @param heading the heading of the robot, in radian, counter-clockwise positive
+     * @param wheelPowers the array to write the powers into, indexed by the wheel constants
+     */
+    public void calculateWheelPowersFieldRelative(double xAxleMotion, double yAxleMotion, double rotationalMotion, double heading, double[] wheelPowers) {
+        /* turn the motion clockwise by the heading, so it is in reference to the robot */
+        double cos = Math.cos(heading), sin = Math.sin(heading);
+        calculateWheelPowers(xAxleMotion * cos + yAxleMotion * sin, -xAxleMotion * sin + yAxleMotion * cos, rotationalMotion, wheelPowers);
+    }
+
+    /** @return how much the translation was scaled down in the last calculation, one if it was not, so a motion that the wheels cannot keep up with can be slowed down */
+    public double getTranslationalScale() { return translationalScale; }
+
+    /**
+     * @param powers the powers to scale
+     * @param keptPowers the powers already given to the wheels, each within the power of the motors
+     * @return the largest scale, up to one, that keeps the powers plus the kept ones within the power of the motors, on every wheel
+     */
+    private static double getScaleWithinPower(double[] powers, double[] keptPowers) {
+        double scale = 1;
+        for (int wheel = 0; wheel < wheelCount; wheel++) {
+            if (powers[wheel] == 0) continue;
+            /* the power left on this wheel, in the direction of the power to scale */
+            double powerLeft = maxWheelPower - Math.copySign(1, powers[wheel]) * keptPowers[wheel];
+            scale = Math.min(scale, Math.max(powerLeft, 0) / Math.abs(powers[wheel]));
+        }
+        return scale;
+    }
+}
@@ -0,0 +1,167 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: MotionProfile.java
+ *
+ * plans how to move a distance in the shortest time, starting and ending at rest, within limits of velocity, acceleration and jerk
+ * the motion is made of seven parts, in each the jerk is constant:
+ *  - jerk up, hold the acceleration, jerk down, to reach the cruising velocity (an S-curve)
+ *  - cruise
+ *  - the same in reverse to stop
+ * parts are left out when the distance is too short to reach the limits
+ * with an infinite jerk limit, the jerk parts take no time and it becomes a trapezoidal profile
+ * generating it is closed-form and creates no objects, so a profile can be planned again in every control cycle if needed
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class MotionProfile {
+    /** the amount of parts of a profile */
+    private static final int partsCount = 7;
+
+    /** where each value is placed in the array sampled into */
+    public static final int positionIndex = 0;
+    public static final int velocityIndex = 1;
+    public static final int accelerationIndex = 2;
+
+    /** the time each part starts at, in seconds, and the time the whole profile ends at */
+    private final double[] partStartTimes = new double[partsCount];
+    private double duration = 0;
+    /** the position, velocity and acceleration at the start of each part, and the jerk during it, all in the direction of the motion */
+    private final double[] partStartPositions = new double[partsCount];
+    private final double[] partStartVelocities = new double[partsCount];
+    private final double[] partStartAccelerations = new double[partsCount];
+    private final double[] partJerks = new double[partsCount];
+    /** 1 if the distance is positive, -1 if negative */
+    private double direction = 1;
+    /** the distance of the profile, in the direction of the motion */
+    private double distance = 0;
+    /** the space to work out the start of each part in */
+    private final double[] partEndState = new double[3];
+
+    /** construct an empty profile, which stays at zero, call generate() to plan one */
+    public MotionProfile() {}
+
+    /**
+     * plan the profile, in place of the last one
+     *
+     * @param distance the distance to move, can be negative
+     * @param maxVelocity the limit of the velocity, positive
+     * @param maxAcceleration the limit of the acceleration, positive
+     * @param maxJerk the limit of the jerk, positive, Double.POSITIVE_INFINITY for a trapezoidal profile
+     * @return this profile
+     * @throws IllegalArgumentException if a limit is not positive
+     */
+    public MotionProfile generate(double distance, double maxVelocity, double maxAcceleration, double maxJerk) throws IllegalArgumentException {
+        if (!(maxVelocity > 0 && maxAcceleration > 0 && maxJerk > 0)) throw new IllegalArgumentException(
+                "the limits of a motion profile must be positive, given velocity " + maxVelocity + ", acceleration " + maxAcceleration + ", jerk " + maxJerk
+        );
+        this.direction = distance < 0 ? -1 : 1;
+        this.distance = Math.abs(distance);
+
+        /* the time of each jerk part, the time holding the acceleration, and the cruising velocity */
+        double jerkTime, accelerationTime, cruiseVelocity = maxVelocity;
+        if (maxVelocity * maxJerk < maxAcceleration * maxAcceleration) {
+            /* the velocity limit is reached before the acceleration limit */
+            jerkTime = Math.sqrt(maxVelocity / maxJerk);
+            accelerationTime = 0;
+        } else {
+            jerkTime = maxAcceleration / maxJerk;
+            accelerationTime = maxVelocity / maxAcceleration - jerkTime;
+        }
+
+        /* speeding up and slowing down are symmetric, together they cover the cruising velocity times the time to speed up */
+        double cruiseTime;
+        if (this.distance >= maxVelocity * (2 * jerkTime + accelerationTime)) cruiseTime = this.distance / maxVelocity - (2 * jerkTime + accelerationTime);
+        else {
+            /* too short to reach the velocity limit, find the highest velocity that can be reached */
+            cruiseTime = 0;
+            double accelerationLimitedVelocity = maxAcceleration * (Math.sqrt(maxAcceleration * maxAcceleration / (maxJerk * maxJerk) + 4 * this.distance / maxAcceleration) - maxAcceleration / maxJerk) / 2;
+            if (accelerationLimitedVelocity >= maxAcceleration * maxAcceleration / maxJerk) {
+                cruiseVelocity = accelerationLimitedVelocity;
+                jerkTime = maxAcceleration / maxJerk;
+                accelerationTime = cruiseVelocity / maxAcceleration - jerkTime;
+            } else {
+                /* the acceleration limit is not reached either, the profile is made of the jerk parts only */
+                cruiseVelocity = Math.pow(this.distance * Math.sqrt(maxJerk) / 2, 2.0 / 3);
+                jerkTime = Math.sqrt(cruiseVelocity / maxJerk);
+                accelerationTime = 0;
+            }
+        }
+        double peakAcceleration = accelerationTime > 0 ? maxAcceleration : maxJerk * jerkTime;
+        if (this.distance == 0) jerkTime = accelerationTime = cruiseTime = peakAcceleration = 0;
+
+        setPart(0, jerkTime, maxJerk, 0);
+        setPart(1, accelerationTime, 0, peakAcceleration);
+        setPart(2, jerkTime, -maxJerk, peakAcceleration);
+        setPart(3, cruiseTime, 0, 0);
+        setPart(4, jerkTime, -maxJerk, 0);
+        setPart(5, accelerationTime, 0, -peakAcceleration);
+        setPart(6, jerkTime, maxJerk, -peakAcceleration);
+        return this;
+    }
+
+    /**
+     * set a part of the profile, starting where the last part ends
+     *
+     * @param part the index of the part
+     * @param time how long the part takes
+     * @param jerk the jerk during it
+     * @param startAcceleration the acceleration at the start of it, given rather than worked out, as the jerk is infinite in a trapezoidal profile
+     */
+    private void setPart(int part, double time, double jerk, double startAcceleration) {
+        if (part == 0) {
+            partStartTimes[0] = partStartPositions[0] = partStartVelocities[0] = 0;
+        } else {
+            int previous = part - 1;
+            double previousTime = partStartTimes[part] - partStartTimes[previous];
+            integrate(previous, previousTime, partEndState);
+            partStartPositions[part] = partEndState[positionIndex];
+            partStartVelocities[part] = partEndState[velocityIndex];
+        }
+        partStartAccelerations[part] = startAcceleration;
+        partJerks[part] = time > 0 ? jerk : 0;
+        if (part + 1 < partsCount) partStartTimes[part + 1] = partStartTimes[part] + time;
+        else duration = partStartTimes[part] + time;
+    }
+
+    /**
+     * find the position, velocity and acceleration at a time
+     * before the start it stays at the start, after the end it stays at the end
+     *
+     * @param time the time since the start of the profile, in seconds
+     * @param state the array to write in, indexed by the constants of this class
+     */
+    public void sample(double time, double[] state) {
+        if (time >= duration) {
+            state[positionIndex] = distance * direction;
+            state[velocityIndex] = 0;
+            state[accelerationIndex] = 0;
+            return;
+        }
+        if (time < 0) time = 0;
+
+        int part = partsCount - 1;
+        while (part > 0 && partStartTimes[part] > time) part--;
+        integrate(part, time - partStartTimes[part], state);
+        state[positionIndex] *= direction;
+        state[velocityIndex] *= direction;
+        state[accelerationIndex] *= direction;
+    }
+
+    /** the state some time into a part, in the direction of the motion */
+    private void integrate(int part, double time, double[] state) {
+        double jerk = partJerks[part], acceleration = partStartAccelerations[part], velocity = partStartVelocities[part];
+        state[positionIndex] = partStartPositions[part] + velocity * time + acceleration * time * time / 2 + jerk * time * time * time / 6;
+        state[velocityIndex] = velocity + acceleration * time + jerk * time * time / 2;
+        state[accelerationIndex] = acceleration + jerk * time;
+    }
+
+    /** @return the time the profile takes, in seconds */
+    public double getDuration() { return duration; }
+
+    /** @return the distance of the profile, can be negative */
+    public double getDistance() { return distance * direction; }
+}
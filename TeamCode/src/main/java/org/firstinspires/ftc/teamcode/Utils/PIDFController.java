@@ -0,0 +1,281 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: PIDFController.java
+ *
+ * a proportional-integral-derivative controller, with a feedforward on the setpoint, for every loop of the robot
+ *   output = kP * error + kI * integral of error + kD * rate of error + kF * setpoint
+ *  - the derivative acts on the rate of the measurement, not of the error, so a jump of the setpoint does not kick the output
+ *    the rate is either given, such as the velocity from the odometry, or differentiated from the measurements and low-pass filtered
+ *    if the setpoint moves at a known rate, such as along a motion profile, it can be given too
+ *  - the integral only grows within the integral zone, and not while the output is saturated in the same direction, so it does not wind up
+ *  - the output is limited in range, and optionally in how fast it may change
+ *  - for a continuous input, such as an angle, the error is taken the short way round
+ *  - the gains can be looked up from a table, interpolated by a scheduling value, such as whether the robot is in auto stage
+ * updating creates no objects, so it can be done every control cycle
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class PIDFController {
+    /** where each value is placed in a row of a gain table */
+    public static final int scheduleIndex = 0;
+    public static final int proportionalGainIndex = 1;
+    public static final int integralGainIndex = 2;
+    public static final int derivativeGainIndex = 3;
+    public static final int feedforwardGainIndex = 4;
+    public static final int maxOutputIndex = 5;
+    /** the length of a row of a gain table */
+    public static final int gainTableRowSize = 6;
+
+    /** the gains */
+    private double proportionalGain, integralGain, derivativeGain, feedforwardGain;
+    /** the range of the output */
+    private double minOutput = Double.NEGATIVE_INFINITY, maxOutput = Double.POSITIVE_INFINITY;
+    /** how much the output may change per second */
+    private double maxOutputChangeRate = Double.POSITIVE_INFINITY;
+    /** the integral only grows when the error is smaller than this */
+    private double integralZone = Double.POSITIVE_INFINITY;
+    /** the time constant of the low-pass filter on the differentiated rate of the measurement, in seconds, zero for no filtering */
+    private double derivativeFilterTime = 0;
+    /** whether the input wraps around, and its range */
+    private boolean continuousInput = false;
+    private double inputRange = 0;
+    /** the rows of the gain table, in the order of their scheduling values, null if the gains are set directly */
+    private double[][] gainTable = null;
+
+    /** the state of the controller */
+    private double integral = 0;
+    private double error = 0;
+    private double previousMeasurement = 0;
+    private boolean hasPreviousMeasurement = false;
+    private double filteredMeasurementRate = 0;
+    private double output = 0;
+    private boolean hasOutput = false;
+
+    /**
+     * construct a controller
+     *
+     * @param proportionalGain kP
+     * @param integralGain kI
+     * @param derivativeGain kD
+     * @param feedforwardGain kF
+     */
+    public PIDFController(double proportionalGain, double integralGain, double derivativeGain, double feedforwardGain) {
+        setGains(proportionalGain, integralGain, derivativeGain, feedforwardGain);
+    }
+
+    /**
+     * construct a controller with its gains in a table
+     *
+     * @param gainTable the gain table, see setGainTable()
+     * @param scheduleValue the scheduling value to start with
+     * @throws IllegalArgumentException if the table is empty, or a row is not in order
+     */
+    public PIDFController(double[][] gainTable, double scheduleValue) throws IllegalArgumentException {
+        setGainTable(gainTable);
+        schedule(scheduleValue);
+    }
+
+    /** set the gains directly, they stay until set again or scheduled */
+    public PIDFController setGains(double proportionalGain, double integralGain, double derivativeGain, double feedforwardGain) {
+        this.proportionalGain = proportionalGain;
+        this.integralGain = integralGain;
+        this.derivativeGain = derivativeGain;
+        this.feedforwardGain = feedforwardGain;
+        return this;
+    }
+
+    /**
+     * set the range of the output
+     *
+     * @throws IllegalArgumentException if the minimum is above the maximum
+     */
+    public PIDFController setOutputRange(double minOutput, double maxOutput) throws IllegalArgumentException {
+        if (minOutput > maxOutput) throw new IllegalArgumentException("the minimum output " + minOutput + " of a controller is above the maximum " + maxOutput);
+        this.minOutput = minOutput;
+        this.maxOutput = maxOutput;
+        return this;
+    }
+
+    /** @param maxOutputChangeRate how much the output may change per second, Double.POSITIVE_INFINITY for no limit */
+    public PIDFController setMaxOutputChangeRate(double maxOutputChangeRate) {
+        this.maxOutputChangeRate = maxOutputChangeRate;
+        return this;
+    }
+
+    /** @param integralZone the integral only grows when the error is smaller than this, Double.POSITIVE_INFINITY for always */
+    public PIDFController setIntegralZone(double integralZone) {
+        this.integralZone = integralZone;
+        return this;
+    }
+
+    /** @param derivativeFilterTime the time constant of the low-pass filter on the differentiated rate of the measurement, in seconds, zero for no filtering */
+    public PIDFController setDerivativeFilterTime(double derivativeFilterTime) {
+        this.derivativeFilterTime = derivativeFilterTime;
+        return this;
+    }
+
+    /**
+     * make the input wrap around, the error is then taken the short way round
+     *
+     * @param minInput the lowest value of the input, such as 0 for an angle in radian
+     * @param maxInput the value that equals the lowest, such as 2pi for an angle in radian
+     */
+    public PIDFController setContinuousInput(double minInput, double maxInput) {
+        this.continuousInput = true;
+        this.inputRange = maxInput - minInput;
+        return this;
+    }
+
+    /**
+     * set the table to look up the gains from, the table is kept, not copied
+     *
+     * @param gainTable the rows, each in the form of {scheduling value, kP, kI, kD, kF, max output}, indexed by the constants of this class, in the order of the scheduling values
+     *                  the output is limited from -max output to max output
+     * @throws IllegalArgumentException if the table is empty, or a row is not in order
+     */
+    public PIDFController setGainTable(double[][] gainTable) throws IllegalArgumentException {
+        if (gainTable.length == 0) throw new IllegalArgumentException("the gain table of a controller is empty");
+        for (int row = 0; row < gainTable.length; row++) {
+            if (gainTable[row].length < gainTableRowSize) throw new IllegalArgumentException("the row " + row + " of the gain table of a controller has " + gainTable[row].length + " values, " + gainTableRowSize + " needed");
+            if (row > 0 && gainTable[row][scheduleIndex] <= gainTable[row - 1][scheduleIndex]) throw new IllegalArgumentException("the rows of the gain table of a controller are not in order of their scheduling values, at row " + row);
+        }
+        this.gainTable = gainTable;
+        return this;
+    }
+
+    /**
+     * look up the gains and the output range from the gain table, interpolating between the two rows around the scheduling value
+     * beyond the first or the last row, the gains of that row are used
+     * the integral is kept, so the output does not jump when the gains change gradually
+     *
+     * @param scheduleValue the scheduling value
+     * @throws IllegalStateException if there is no gain table
+     */
+    public void schedule(double scheduleValue) throws IllegalStateException {
+        if (gainTable == null) throw new IllegalStateException("the controller has no gain table to schedule from");
+        int upper = 0;
+        while (upper < gainTable.length && gainTable[upper][scheduleIndex] < scheduleValue) upper++;
+        int lower = Math.max(upper - 1, 0);
+        upper = Math.min(upper, gainTable.length - 1);
+        double fraction = 0;
+        if (upper != lower) fraction = (scheduleValue - gainTable[lower][scheduleIndex]) / (gainTable[upper][scheduleIndex] - gainTable[lower][scheduleIndex]);
+
+        proportionalGain = interpolate(lower, upper, proportionalGainIndex, fraction);
+        integralGain = interpolate(lower, upper, integralGainIndex, fraction);
+        derivativeGain = interpolate(lower, upper, derivativeGainIndex, fraction);
+        feedforwardGain = interpolate(lower, upper, feedforwardGainIndex, fraction);
+        maxOutput = interpolate(lower, upper, maxOutputIndex, fraction);
+        minOutput = -maxOutput;
+    }
+
+    private double interpolate(int lower, int upper, int index, double fraction) {
+        return gainTable[lower][index] + (gainTable[upper][index] - gainTable[lower][index]) * fraction;
+    }
+
+    /**
+     * update the controller, differentiating the measurements for the derivative
+     *
+     * @param setpoint where the measurement should be
+     * @param measurement where it is
+     * @param dt the time since the last update, in seconds
+     * @return the output
+     */
+    public double calculate(double setpoint, double measurement, double dt) {
+        if (hasPreviousMeasurement && dt > 0) {
+            double rate = getDifference(previousMeasurement, measurement) / dt;
+            filteredMeasurementRate += (rate - filteredMeasurementRate) * dt / (derivativeFilterTime + dt);
+        } else filteredMeasurementRate = 0;
+        previousMeasurement = measurement;
+        hasPreviousMeasurement = true;
+        return update(setpoint, measurement, 0, filteredMeasurementRate, dt);
+    }
+
+    /**
+     * update the controller, with the rate of the measurement known
+     *
+     * @param setpoint where the measurement should be
+     * @param measurement where it is
+     * @param measurementRate how fast the measurement changes, per second
+     * @param dt the time since the last update, in seconds
+     * @return the output
+     */
+    public double calculate(double setpoint, double measurement, double measurementRate, double dt) {
+        return calculate(setpoint, 0, measurement, measurementRate, dt);
+    }
+
+    /**
+     * update the controller, with the rates of the setpoint and the measurement known, the derivative then acts on the rate of the error
+     *
+     * @param setpoint where the measurement should be
+     * @param setpointRate how fast the setpoint changes, per second
+     * @param measurement where it is
+     * @param measurementRate how fast the measurement changes, per second
+     * @param dt the time since the last update, in seconds
+     * @return the output
+     */
+    public double calculate(double setpoint, double setpointRate, double measurement, double measurementRate, double dt) {
+        previousMeasurement = measurement;
+        hasPreviousMeasurement = true;
+        return update(setpoint, measurement, setpointRate, measurementRate, dt);
+    }
+
+    private double update(double setpoint, double measurement, double setpointRate, double measurementRate, double dt) {
+        error = getDifference(measurement, setpoint);
+        double outputWithoutIntegral = proportionalGain * error + derivativeGain * (setpointRate - measurementRate) + feedforwardGain * setpoint;
+
+        /* the integral grows only near the setpoint, and not further into a saturated output, and its part never exceeds the output range on its own */
+        if (Math.abs(error) < integralZone && integralGain != 0) {
+            double grownIntegral = integral + error * dt;
+            double unlimitedOutput = outputWithoutIntegral + integralGain * grownIntegral;
+            boolean windingUp = (unlimitedOutput > maxOutput && error > 0) || (unlimitedOutput < minOutput && error < 0);
+            if (!windingUp) integral = grownIntegral;
+            integral = Math.max(Math.min(integral, maxOutput / Math.abs(integralGain)), minOutput / Math.abs(integralGain));
+        }
+
+        double newOutput = Math.max(Math.min(outputWithoutIntegral + integralGain * integral, maxOutput), minOutput);
+        if (hasOutput && maxOutputChangeRate != Double.POSITIVE_INFINITY) {
+            double maxChange = maxOutputChangeRate * dt;
+            newOutput = Math.max(Math.min(newOutput, output + maxChange), output - maxChange);
+        }
+        output = newOutput;
+        hasOutput = true;
+        return output;
+    }
+
+    /** @return the difference from one input to another, the short way round if the input is continuous */
+    private double getDifference(double from, double to) {
+        double difference = to - from;
+        if (continuousInput) difference = Math.IEEEremainder(difference, inputRange);
+        return difference;
+    }
+
+    /** clear the integral, the previous measurement and output, call it when the setpoint is changed to a new target */
+    public void reset() {
+        integral = 0;
+        error = 0;
+        hasPreviousMeasurement = false;
+        filteredMeasurementRate = 0;
+        output = 0;
+        hasOutput = false;
+    }
+
+    /** @return the error of the last update */
+    public double getError() { return error; }
+
+    /** @return the integral of the error */
+    public double getIntegral() { return integral; }
+
+    /** @return the output of the last update */
+    public double getOutput() { return output; }
+
+    /** @return the highest output, of the gains currently scheduled */
+    public double getMaxOutput() { return maxOutput; }
+
+    public double getProportionalGain() { return proportionalGain; }
+
+    public double getDerivativeGain() { return derivativeGain; }
+}
@@ -0,0 +1,139 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: PoseHistoryBuffer.java
+ *
+ * remembers the poses of the robot in the last moments, each with the time it is taken at
+ * so that a measurement taken some time ago, such as a camera frame, can be compared with the pose at that time
+ * the poses are kept in arrays of fixed length, the oldest one is overwritten when it is full, and nothing is created after construction
+ * the methods are synchronized, as the odometry thread may add the poses while the main loop looks them up
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class PoseHistoryBuffer {
+    /** the poses, stored in a ring, index "head" is the oldest one */
+    private final long[] timestamps;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] headings;
+    /** where the oldest pose is */
+    private int head = 0;
+    /** the amount of poses stored */
+    private int size = 0;
+
+    /**
+     * @param capacity the amount of poses to remember, such as the control rate times the longest delay to look back
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public PoseHistoryBuffer(int capacity) throws IllegalArgumentException {
+        if (capacity <= 0) throw new IllegalArgumentException("the capacity of a pose history buffer must be positive, " + capacity + " given");
+        timestamps = new long[capacity];
+        xs = new double[capacity];
+        ys = new double[capacity];
+        headings = new double[capacity];
+    }
+
+    /**
+     * remember a pose, the timestamps must be given in order
+     * a pose with the same timestamp as the newest one replaces it, and a pose older than the newest one is ignored
+     *
+     * @param timestamp the time the pose is taken at, in nanoseconds
+     * @param x the position of the robot
+     * @param y the position of the robot
+     * @param heading the facing of the robot, in radian
+     */
+    public synchronized void add(long timestamp, double x, double y, double heading) {
+        int index;
+        if (size > 0 && timestamp <= timestamps[indexOf(size - 1)]) {
+            if (timestamp < timestamps[indexOf(size - 1)]) return;
+            index = indexOf(size - 1);
+        } else if (size < timestamps.length) index = indexOf(size++);
+        else {
+            index = head;
+            head = (head + 1) % timestamps.length;
+        }
+        timestamps[index] = timestamp;
+        xs[index] = x;
+        ys[index] = y;
+        headings[index] = heading;
+    }
+
+    /**
+     * find the pose at a time in the past, interpolated between the two poses around it
+     * a time after the newest pose gives the newest pose
+     *
+     * @param timestamp the time to look up, in nanoseconds
+     * @param result the array to write the pose in, in the order of x, y and heading
+     * @return whether the pose is found, false if the buffer is empty or the time is older than the oldest pose remembered
+     */
+    public synchronized boolean getPoseAt(long timestamp, double[] result) {
+        if (size == 0 || timestamp < timestamps[head]) return false;
+
+        int newest = indexOf(size - 1);
+        if (timestamp >= timestamps[newest]) {
+            write(newest, result);
+            return true;
+        }
+
+        /* binary search for the last pose taken no later than the time */
+        int low = 0, high = size - 1;
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (timestamps[indexOf(middle)] <= timestamp) low = middle;
+            else high = middle;
+        }
+        int before = indexOf(low), after = indexOf(high);
+
+        double ratio = (double) (timestamp - timestamps[before]) / (timestamps[after] - timestamps[before]);
+        result[0] = xs[before] + (xs[after] - xs[before]) * ratio;
+        result[1] = ys[before] + (ys[after] - ys[before]) * ratio;
+        /* turn the shorter way, in case the heading jumps between -pi and pi */
+        double headingDifference = Math.IEEEremainder(headings[after] - headings[before], Math.PI * 2);
+        result[2] = headings[before] + headingDifference * ratio;
+        return true;
+    }
+
+    /**
+     * get the newest pose
+     *
+     * @param result the array to write the pose in, in the order of x, y and heading
+     * @return whether there is any pose
+     */
+    public synchronized boolean getNewestPose(double[] result) {
+        if (size == 0) return false;
+        write(indexOf(size - 1), result);
+        return true;
+    }
+
+    /** forget all the poses */
+    public synchronized void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /** @return the amount of poses remembered */
+    public synchronized int size() { return size; }
+
+    /** @return the amount of poses that can be remembered */
+    public int capacity() { return timestamps.length; }
+
+    /** @return the time of the oldest pose remembered, in nanoseconds, meaningless if empty */
+    public synchronized long getOldestTimestamp() { return timestamps[head]; }
+
+    /** @return the time of the newest pose remembered, in nanoseconds, meaningless if empty */
+    public synchronized long getNewestTimestamp() { return timestamps[size == 0 ? head : indexOf(size - 1)]; }
+
+    /** @return the index in the arrays of the i-th oldest pose */
+    private int indexOf(int i) {
+        return (head + i) % timestamps.length;
+    }
+
+    private void write(int index, double[] result) {
+        result[0] = xs[index];
+        result[1] = ys[index];
+        result[2] = headings[index];
+    }
+}
@@ -0,0 +1,91 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: PoseSnapshot.java
+ *
+ * the pose of the robot and its velocity, published by one thread and read by any others, without locking
+ * guarded by a sequence lock: the writer makes the sequence odd, writes the values, and makes it even again
+ * a reader reads the sequence before and after the values, and reads again if the writer was in between
+ * so the readers always get the values of the same period together, and the writer is never blocked by them
+ * every field is volatile, otherwise the reads of the values could be moved past the second read of the sequence
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class PoseSnapshot {
+    /** where each value is placed in the array read into */
+    public static final int xIndex = 0;
+    public static final int yIndex = 1;
+    public static final int headingIndex = 2;
+    public static final int velocityXIndex = 3;
+    public static final int velocityYIndex = 4;
+    public static final int angularVelocityIndex = 5;
+    /** the length of the array to read into */
+    public static final int size = 6;
+
+    /** odd while the writer is in the middle of publishing, grows by two every time */
+    private volatile long sequence = 0;
+
+    /** the time of the readings the pose is worked out from, in nanoseconds */
+    private volatile long timestamp;
+    /** the position, in encoder values, and the heading, in radian */
+    private volatile double x, y, heading;
+    /** the velocity, in reference to the field, in encoder values per second, and the angular velocity, in radian per second */
+    private volatile double velocityX, velocityY, angularVelocity;
+
+    /**
+     * publish a new pose, only one thread may call it
+     *
+     * @param timestamp the time of the readings the pose is worked out from, in nanoseconds
+     * @param x the position, in encoder values
+     * @param y the position, in encoder values
+     * @param heading the heading, in radian
+     * @param velocityX the velocity, in reference to the field, in encoder values per second
+     * @param velocityY the velocity, in reference to the field, in encoder values per second
+     * @param angularVelocity the angular velocity, in radian per second
+     */
+    public void publish(long timestamp, double x, double y, double heading, double velocityX, double velocityY, double angularVelocity) {
+        long sequence = this.sequence;
+        this.sequence = sequence + 1;
+        this.timestamp = timestamp;
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        this.velocityX = velocityX;
+        this.velocityY = velocityY;
+        this.angularVelocity = angularVelocity;
+        this.sequence = sequence + 2;
+    }
+
+    /**
+     * read all the values of the same publish, from any thread
+     *
+     * @param destination the array to write the values in, at least size long, indexed by the constants of this class
+     * @return the time of the readings the pose is worked out from, in nanoseconds
+     */
+    public long read(double[] destination) {
+        while (true) {
+            long sequence = this.sequence;
+            if ((sequence & 1) != 0) continue; // the writer is in the middle, it only takes a few nanoseconds
+            long timestamp = this.timestamp;
+            destination[xIndex] = x;
+            destination[yIndex] = y;
+            destination[headingIndex] = heading;
+            destination[velocityXIndex] = velocityX;
+            destination[velocityYIndex] = velocityY;
+            destination[angularVelocityIndex] = angularVelocity;
+            if (this.sequence == sequence) return timestamp;
+        }
+    }
+
+    /** @return the heading of the last publish, in radian, on its own */
+    public double getHeading() { return heading; }
+
+    /** @return the angular velocity of the last publish, in radian per second, on its own */
+    public double getAngularVelocity() { return angularVelocity; }
+
+    /** @return the amount of times published, to tell whether there is a new pose since the last read */
+    public long getPublishCount() { return sequence >> 1; }
+}
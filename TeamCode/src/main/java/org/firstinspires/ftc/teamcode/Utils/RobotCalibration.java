@@ -0,0 +1,207 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: RobotCalibration.java
+ *
+ * the measured constants of the robot, loaded once from a file on the robot controller when first asked for
+ * the file is written by OdometryCalibrationSolver from the readings of the OdometryCalibration op-mode, and copied to the robot
+ * DriveCharacterizationSolver adds the feedforward of the chassis to the same file
+ * the feedforward of the lift and the limits of its motion profiles are written into it by hand once they are measured
+ * every constant missing from the file, or the whole file, falls back to the value measured by hand before
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class RobotCalibration {
+    /** where the file is kept on the robot controller */
+    public static final String defaultFilePath = "/sdcard/FIRST/robot_calibration.properties";
+
+    /** the names of the constants in the file */
+    public static final String trackWidthKey = "odometry.trackWidth";
+    public static final String lateralWheelOffsetKey = "odometry.lateralWheelOffset";
+    public static final String encoderValuesPerCMKey = "odometry.encoderValuesPerCM";
+    public static final String xAxleMotionScaleFactorKey = "chassis.xAxleMotionScaleFactor";
+    /** the feedforward of each axle, the names are followed by ".kS", ".kV" and ".kA" */
+    public static final String forwardFeedforwardKey = "feedforward.forward";
+    public static final String strafeFeedforwardKey = "feedforward.strafe";
+    public static final String rotationalFeedforwardKey = "feedforward.rotational";
+    public static final String liftFeedforwardKey = "feedforward.lift";
+    /** the limits of the motion profiles of the lift */
+    public static final String liftMaxVelocityKey = "lift.maxVelocity";
+    public static final String liftMaxAccelerationKey = "lift.maxAcceleration";
+    public static final String liftMaxJerkKey = "lift.maxJerk";
+
+    /** the values measured by hand, used if the file does not give them */
+    /** rotated the robot 10 rounds on the field and got a difference of 202520.57 between the two parallel encoders */
+    public static final double defaultTrackWidth = 202520.56922511634 / (10 * Math.PI * 2);
+    /** rotated the robot 10 rounds on the field and got 69865 on the third encoder */
+    public static final double defaultLateralWheelOffset = 69865.0 / 31.4;
+    /** measured that 6240 encoder values where increased for a 30cm of move */
+    public static final double defaultEncoderValuesPerCM = 6240.0 / 30;
+    public static final double defaultXAxleMotionScaleFactor = 1.32;
+    /** the robot reaches about 25000 encoder values per second at full power, the feedforward used by the motion profiles before it was characterized */
+    public static final DriveFeedforward defaultForwardFeedforward = new DriveFeedforward(0, 1.0 / 25000, 1.0 / 125000);
+    public static final DriveFeedforward defaultStrafeFeedforward = new DriveFeedforward(0, defaultXAxleMotionScaleFactor / 25000, defaultXAxleMotionScaleFactor / 125000);
+    /** never measured, no feedforward on the rotation */
+    public static final DriveFeedforward defaultRotationalFeedforward = new DriveFeedforward(0, 0, 0);
+    /** the lift reaches about 2800 encoder values per second at full power and takes about 0.05 seconds to speed up, never characterized, todo: measure these values */
+    public static final DriveFeedforward defaultLiftFeedforward = new DriveFeedforward(0.1, 1.0 / 2800, 0.05 / 2800);
+    /** the lift is moved well below the speed it reaches at full power, in encoder values per second, per second squared and per second cubed, never measured, todo: measure these values */
+    public static final double defaultLiftMaxVelocity = 1800;
+    public static final double defaultLiftMaxAcceleration = 6000;
+    public static final double defaultLiftMaxJerk = 60000;
+
+    /** the calibration loaded from the default file, loaded when first asked for */
+    private static RobotCalibration instance = null;
+
+    /** the constants read from the file */
+    private final Properties properties;
+
+    /** construct a calibration with all the values measured by hand */
+    public RobotCalibration() {
+        this.properties = new Properties();
+    }
+
+    /**
+     * read a calibration from a file
+     *
+     * @param file the file to read
+     * @throws IOException if the file cannot be read
+     */
+    public RobotCalibration(File file) throws IOException {
+        this();
+        InputStream inputStream = new FileInputStream(file);
+        try {
+            properties.load(inputStream);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * get the calibration of the robot, loaded from the default file the first time
+     *
+     * @return the calibration, with the values measured by hand if the file does not exist or cannot be read
+     */
+    public static RobotCalibration get() {
+        if (instance != null) return instance;
+        File file = new File(defaultFilePath);
+        try {
+            instance = file.exists() ? new RobotCalibration(file) : new RobotCalibration();
+        } catch (IOException e) {
+            System.out.println("cannot read the calibration of the robot from " + defaultFilePath + ", the values measured by hand are used: " + e);
+            instance = new RobotCalibration();
+        }
+        return instance;
+    }
+
+    /**
+     * write the calibration into a file
+     *
+     * @param file the file to write
+     * @param comments the line to write on top of the file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(File file, String comments) throws IOException {
+        OutputStream outputStream = new FileOutputStream(file);
+        try {
+            properties.store(outputStream, comments);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    private double getDouble(String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null) return defaultValue;
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("invalid value of " + key + " in the calibration of the robot: " + value + ", the value measured by hand is used");
+            return defaultValue;
+        }
+    }
+
+    private void setDouble(String key, double value) {
+        properties.setProperty(key, Double.toString(value));
+    }
+
+    /** @return the difference between the two parallel encoders when the robot rotates one radian, in encoder values */
+    public double getTrackWidth() { return getDouble(trackWidthKey, defaultTrackWidth); }
+
+    public void setTrackWidth(double trackWidth) { setDouble(trackWidthKey, trackWidth); }
+
+    /** @return the change of the third encoder when the robot rotates one radian on the spot, in encoder values, the distance from the rotating center to it */
+    public double getLateralWheelOffset() { return getDouble(lateralWheelOffsetKey, defaultLateralWheelOffset); }
+
+    public void setLateralWheelOffset(double lateralWheelOffset) { setDouble(lateralWheelOffsetKey, lateralWheelOffset); }
+
+    /** @return the encoder values the odometry counts when the robot moves one centimeter */
+    public double getEncoderValuesPerCM() { return getDouble(encoderValuesPerCMKey, defaultEncoderValuesPerCM); }
+
+    public void setEncoderValuesPerCM(double encoderValuesPerCM) { setDouble(encoderValuesPerCMKey, encoderValuesPerCM); }
+
+    /** @return how much more power is needed for the robot to move sideways as fast as forward */
+    public double getXAxleMotionScaleFactor() { return getDouble(xAxleMotionScaleFactorKey, defaultXAxleMotionScaleFactor); }
+
+    public void setXAxleMotionScaleFactor(double xAxleMotionScaleFactor) { setDouble(xAxleMotionScaleFactorKey, xAxleMotionScaleFactor); }
+
+    private DriveFeedforward getFeedforward(String key, DriveFeedforward defaultValue) {
+        return new DriveFeedforward(
+                getDouble(key + ".kS", defaultValue.getStaticPower()),
+                getDouble(key + ".kV", defaultValue.getVelocityGain()),
+                getDouble(key + ".kA", defaultValue.getAccelerationGain())
+        );
+    }
+
+    private void setFeedforward(String key, DriveFeedforward feedforward) {
+        setDouble(key + ".kS", feedforward.getStaticPower());
+        setDouble(key + ".kV", feedforward.getVelocityGain());
+        setDouble(key + ".kA", feedforward.getAccelerationGain());
+    }
+
+    /** @return the power to move forward, in encoder values per second and per second squared, at the nominal voltage */
+    public DriveFeedforward getForwardFeedforward() { return getFeedforward(forwardFeedforwardKey, defaultForwardFeedforward); }
+
+    public void setForwardFeedforward(DriveFeedforward feedforward) { setFeedforward(forwardFeedforwardKey, feedforward); }
+
+    /** @return the power to move sideways, to the right, in encoder values per second and per second squared, at the nominal voltage */
+    public DriveFeedforward getStrafeFeedforward() { return getFeedforward(strafeFeedforwardKey, defaultStrafeFeedforward); }
+
+    public void setStrafeFeedforward(DriveFeedforward feedforward) { setFeedforward(strafeFeedforwardKey, feedforward); }
+
+    /** @return the power to rotate clockwise, the way a positive rotational motion turns the robot, in radian per second and per second squared, at the nominal voltage */
+    public DriveFeedforward getRotationalFeedforward() { return getFeedforward(rotationalFeedforwardKey, defaultRotationalFeedforward); }
+
+    public void setRotationalFeedforward(DriveFeedforward feedforward) { setFeedforward(rotationalFeedforwardKey, feedforward); }
+
+    /** @return the power to move the lift up, beyond holding it against the gravity, in encoder values per second and per second squared, at the nominal voltage */
+    public DriveFeedforward getLiftFeedforward() { return getFeedforward(liftFeedforwardKey, defaultLiftFeedforward); }
+
+    public void setLiftFeedforward(DriveFeedforward feedforward) { setFeedforward(liftFeedforwardKey, feedforward); }
+
+    /** @return the highest velocity of the motion profiles of the lift, in encoder values per second */
+    public double getLiftMaxVelocity() { return getDouble(liftMaxVelocityKey, defaultLiftMaxVelocity); }
+
+    public void setLiftMaxVelocity(double liftMaxVelocity) { setDouble(liftMaxVelocityKey, liftMaxVelocity); }
+
+    /** @return the highest acceleration of the motion profiles of the lift, in encoder values per second squared */
+    public double getLiftMaxAcceleration() { return getDouble(liftMaxAccelerationKey, defaultLiftMaxAcceleration); }
+
+    public void setLiftMaxAcceleration(double liftMaxAcceleration) { setDouble(liftMaxAccelerationKey, liftMaxAcceleration); }
+
+    /** @return the highest jerk of the motion profiles of the lift, in encoder values per second cubed */
+    public double getLiftMaxJerk() { return getDouble(liftMaxJerkKey, defaultLiftMaxJerk); }
+
+    public void setLiftMaxJerk(double liftMaxJerk) { setDouble(liftMaxJerkKey, liftMaxJerk); }
+}
@@ -0,0 +1,97 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: RobotClock.java
+ *
+ * the source of time for the robot's program
+ * the modules and the scheduler ask this class, instead of the system, for the current time
+ * so that the whole program can be run under a simulated clock on a computer
+ * the clock is sampled once at the start of every control cycle, and all the modules read that same timestamp during the cycle
+ * until the first cycle is started, the timestamp of the cycle follows the clock, so the programs that do not run in cycles still work
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public abstract class RobotClock {
+    /** the amount of nanoseconds in one second */
+    public static final long nanosPerSecond = 1000000000L;
+
+    /** the time sampled at the start of the current control cycle, in nanoseconds */
+    private long cycleTimestamp;
+    /** the time between the starts of the last two control cycles, in nanoseconds */
+    private long cycleDt;
+    /** whether a control cycle has ever been started */
+    private boolean cycleStarted = false;
+
+    /**
+     * get the current time of the clock
+     * the starting point is arbitrary, only the difference between two readings is meaningful
+     *
+     * @return the current time, in nanoseconds
+     */
+    public abstract long nanoTime();
+
+    /**
+     * get the current time of the clock in seconds
+     *
+     * @return the current time, in seconds
+     */
+    public double seconds() {
+        return nanoTime() / (double) nanosPerSecond;
+    }
+
+    /**
+     * sample the clock for a new control cycle, called once at the start of every cycle by the hardware driver
+     *
+     * @return the timestamp of the new cycle, in nanoseconds
+     */
+    public long beginCycle() {
+        long now = nanoTime();
+        cycleDt = cycleStarted ? now - cycleTimestamp : 0;
+        cycleTimestamp = now;
+        cycleStarted = true;
+        return now;
+    }
+
+    /**
+     * get the time sampled at the start of the current control cycle
+     * every module reading it during the same cycle gets the same value
+     *
+     * @return the timestamp of the current cycle, or the current time if no cycle has been started, in nanoseconds
+     */
+    public long getCycleTimestamp() {
+        return cycleStarted ? cycleTimestamp : nanoTime();
+    }
+
+    /** @return the timestamp of the current cycle, in seconds */
+    public double getCycleSeconds() {
+        return getCycleTimestamp() / (double) nanosPerSecond;
+    }
+
+    /** @return the time between the starts of the last two control cycles, zero before the second cycle, in seconds */
+    public double getCycleDt() {
+        return cycleDt / (double) nanosPerSecond;
+    }
+
+    /**
+     * turn a period of time from seconds to nanoseconds
+     *
+     * @param seconds the period of time, in seconds
+     * @return the period of time, in nanoseconds
+     */
+    public static long secondsToNanos(double seconds) {
+        return (long) (seconds * nanosPerSecond);
+    }
+
+    /**
+     * turn a period of time from nanoseconds to seconds
+     *
+     * @param nanos the period of time, in nanoseconds
+     * @return the period of time, in seconds
+     */
+    public static double nanosToSeconds(long nanos) {
+        return nanos / (double) nanosPerSecond;
+    }
+}
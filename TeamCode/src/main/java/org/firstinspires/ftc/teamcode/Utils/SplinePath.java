@@ -0,0 +1,245 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: SplinePath.java
+ *
+ * a smooth path through a list of waypoints, and the plan of how fast to move along it, so the robot drives through the waypoints without stopping
+ * the path is made of cubic hermite curves, one between two adjacent waypoints, passing each waypoint in the direction from the one before it to the one after it
+ * the heading is separate from the direction of the path, as a mecanum chassis can move any way while facing any way
+ * between two waypoints, the heading turns evenly with the distance moved, the short way round
+ *
+ * the speed along the path is planned when it is constructed, at stations a short distance apart:
+ *  - the limit of each station is the lowest of the velocity limit, what the centripetal acceleration limit allows on its curvature, and what the angular velocity limit allows on its turning
+ *  - going forward from the start at rest, and backward from the end at rest, the speed is lowered so that no station needs more than the acceleration limit to reach
+ * the acceleration between two stations is constant, so a sample is worked out exactly from the nearest station
+ * constructing creates the stations, sampling creates no objects, so it can be done every control cycle
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class SplinePath {
+    /** where each value of a waypoint is placed */
+    public static final int waypointXIndex = 0;
+    public static final int waypointYIndex = 1;
+    public static final int waypointHeadingIndex = 2;
+
+    /** where each value is placed in the array sampled into */
+    public static final int xIndex = 0;
+    public static final int yIndex = 1;
+    public static final int headingIndex = 2;
+    public static final int velocityXIndex = 3;
+    public static final int velocityYIndex = 4;
+    public static final int accelerationXIndex = 5;
+    public static final int accelerationYIndex = 6;
+    public static final int angularVelocityIndex = 7;
+    public static final int arcLengthIndex = 8;
+    /** the length of the array to sample into */
+    public static final int size = 9;
+
+    /** the amount of stations each curve is divided into */
+    private static final int stationsPerCurve = 50;
+
+    /** the values at each station: the distance along the path, the position, the direction of the path, its curvature, the heading and how fast it turns per distance */
+    private final double[] arcLengths, xs, ys, tangentXs, tangentYs, curvatures, headings, headingChangeRates;
+    /** the planned speed at each station, and the time the robot passes it */
+    private final double[] velocities, times;
+    /** the amount of stations */
+    private final int stationsCount;
+
+    /**
+     * construct a path and plan the speed along it
+     *
+     * @param waypoints the waypoints, at least two, in the form of {x, y, heading}, in encoder values and radian, indexed by the waypoint constants of this class
+     * @param maxVelocity the limit of the speed along the path, in encoder values per second
+     * @param maxAcceleration the limit of the acceleration along the path, in encoder values per second squared
+     * @param maxCentripetalAcceleration the limit of the acceleration towards the inside of the curves, in encoder values per second squared
+     * @param maxAngularVelocity the limit of how fast the heading turns, in radian per second
+     * @throws IllegalArgumentException if there are less than two waypoints, two adjacent waypoints are at the same position, or a limit is not positive
+     */
+    public SplinePath(double[][] waypoints, double maxVelocity, double maxAcceleration, double maxCentripetalAcceleration, double maxAngularVelocity) throws IllegalArgumentException {
+        if (waypoints.length < 2) throw new IllegalArgumentException("a path needs at least two waypoints, given " + waypoints.length);
+        if (!(maxVelocity > 0 && maxAcceleration > 0 && maxCentripetalAcceleration > 0 && maxAngularVelocity > 0)) throw new IllegalArgumentException(
+                "the limits of a path must be positive, given velocity " + maxVelocity + ", acceleration " + maxAcceleration
+                        + ", centripetal acceleration " + maxCentripetalAcceleration + ", angular velocity " + maxAngularVelocity
+        );
+        int curvesCount = waypoints.length - 1;
+        for (int i = 0; i < curvesCount; i++)
+            if (chordLength(waypoints, i) == 0) throw new IllegalArgumentException("the waypoints " + i + " and " + (i + 1) + " of a path are at the same position");
+
+        stationsCount = curvesCount * stationsPerCurve + 1;
+        arcLengths = new double[stationsCount];
+        xs = new double[stationsCount];
+        ys = new double[stationsCount];
+        tangentXs = new double[stationsCount];
+        tangentYs = new double[stationsCount];
+        curvatures = new double[stationsCount];
+        headings = new double[stationsCount];
+        headingChangeRates = new double[stationsCount];
+        velocities = new double[stationsCount];
+        times = new double[stationsCount];
+
+        /* the direction the path passes each waypoint in, of length one */
+        double[] directionXs = new double[waypoints.length], directionYs = new double[waypoints.length];
+        for (int i = 0; i < waypoints.length; i++) {
+            int before = Math.max(i - 1, 0), after = Math.min(i + 1, curvesCount);
+            double directionX = waypoints[after][waypointXIndex] - waypoints[before][waypointXIndex];
+            double directionY = waypoints[after][waypointYIndex] - waypoints[before][waypointYIndex];
+            /* the path turns right back at the waypoint, head to the next one */
+            if (directionX == 0 && directionY == 0) {
+                directionX = waypoints[after][waypointXIndex] - waypoints[i][waypointXIndex];
+                directionY = waypoints[after][waypointYIndex] - waypoints[i][waypointYIndex];
+            }
+            double norm = Math.hypot(directionX, directionY);
+            directionXs[i] = directionX / norm;
+            directionYs[i] = directionY / norm;
+        }
+
+        /* the stations along each curve, the heading is unwrapped so that it turns the short way round */
+        double heading = waypoints[0][waypointHeadingIndex];
+        for (int curve = 0; curve < curvesCount; curve++) {
+            double chordLength = chordLength(waypoints, curve);
+            /* the tangents of a hermite curve, scaled by the chord so that the curve does not loop */
+            double startTangentX = directionXs[curve] * chordLength, startTangentY = directionYs[curve] * chordLength;
+            double endTangentX = directionXs[curve + 1] * chordLength, endTangentY = directionYs[curve + 1] * chordLength;
+            double startX = waypoints[curve][waypointXIndex], startY = waypoints[curve][waypointYIndex];
+            double endX = waypoints[curve + 1][waypointXIndex], endY = waypoints[curve + 1][waypointYIndex];
+
+            int firstStation = curve * stationsPerCurve;
+            for (int step = curve == 0 ? 0 : 1; step <= stationsPerCurve; step++) {
+                int station = firstStation + step;
+                double t = (double) step / stationsPerCurve, t2 = t * t, t3 = t2 * t;
+                xs[station] = (2 * t3 - 3 * t2 + 1) * startX + (t3 - 2 * t2 + t) * startTangentX + (-2 * t3 + 3 * t2) * endX + (t3 - t2) * endTangentX;
+                ys[station] = (2 * t3 - 3 * t2 + 1) * startY + (t3 - 2 * t2 + t) * startTangentY + (-2 * t3 + 3 * t2) * endY + (t3 - t2) * endTangentY;
+
+                double firstDerivativeX = (6 * t2 - 6 * t) * startX + (3 * t2 - 4 * t + 1) * startTangentX + (-6 * t2 + 6 * t) * endX + (3 * t2 - 2 * t) * endTangentX;
+                double firstDerivativeY = (6 * t2 - 6 * t) * startY + (3 * t2 - 4 * t + 1) * startTangentY + (-6 * t2 + 6 * t) * endY + (3 * t2 - 2 * t) * endTangentY;
+                double secondDerivativeX = (12 * t - 6) * startX + (6 * t - 4) * startTangentX + (-12 * t + 6) * endX + (6 * t - 2) * endTangentX;
+                double secondDerivativeY = (12 * t - 6) * startY + (6 * t - 4) * startTangentY + (-12 * t + 6) * endY + (6 * t - 2) * endTangentY;
+                double speed = Math.hypot(firstDerivativeX, firstDerivativeY);
+                tangentXs[station] = firstDerivativeX / speed;
+                tangentYs[station] = firstDerivativeY / speed;
+                curvatures[station] = (firstDerivativeX * secondDerivativeY - firstDerivativeY * secondDerivativeX) / (speed * speed * speed);
+
+                if (station > 0) arcLengths[station] = arcLengths[station - 1] + Math.hypot(xs[station] - xs[station - 1], ys[station] - ys[station - 1]);
+            }
+
+            double curveLength = arcLengths[firstStation + stationsPerCurve] - arcLengths[firstStation];
+            double headingChange = Math.IEEEremainder(waypoints[curve + 1][waypointHeadingIndex] - heading, Math.PI * 2);
+            for (int step = 0; step <= stationsPerCurve; step++) {
+                int station = firstStation + step;
+                headings[station] = heading + headingChange * (arcLengths[station] - arcLengths[firstStation]) / curveLength;
+                /* the rate of the station shared by two curves is the one of the curve after it */
+                headingChangeRates[station] = headingChange / curveLength;
+            }
+            heading += headingChange;
+        }
+
+        planVelocities(maxVelocity, maxAcceleration, maxCentripetalAcceleration, maxAngularVelocity);
+    }
+
+    /** @return the distance between two adjacent waypoints, a waypoint and the one after it */
+    private static double chordLength(double[][] waypoints, int waypoint) {
+        return Math.hypot(
+                waypoints[waypoint + 1][waypointXIndex] - waypoints[waypoint][waypointXIndex],
+                waypoints[waypoint + 1][waypointYIndex] - waypoints[waypoint][waypointYIndex]
+        );
+    }
+
+    /** plan the speed at each station and the time the robot passes it */
+    private void planVelocities(double maxVelocity, double maxAcceleration, double maxCentripetalAcceleration, double maxAngularVelocity) {
+        for (int station = 0; station < stationsCount; station++) {
+            double limit = maxVelocity;
+            if (curvatures[station] != 0) limit = Math.min(limit, Math.sqrt(maxCentripetalAcceleration / Math.abs(curvatures[station])));
+            if (headingChangeRates[station] != 0) limit = Math.min(limit, maxAngularVelocity / Math.abs(headingChangeRates[station]));
+            velocities[station] = limit;
+        }
+
+        /* starting and ending at rest, v^2 = v0^2 + 2as between two stations */
+        velocities[0] = velocities[stationsCount - 1] = 0;
+        for (int station = 1; station < stationsCount; station++) {
+            double distance = arcLengths[station] - arcLengths[station - 1];
+            velocities[station] = Math.min(velocities[station], Math.sqrt(velocities[station - 1] * velocities[station - 1] + 2 * maxAcceleration * distance));
+        }
+        for (int station = stationsCount - 2; station >= 0; station--) {
+            double distance = arcLengths[station + 1] - arcLengths[station];
+            velocities[station] = Math.min(velocities[station], Math.sqrt(velocities[station + 1] * velocities[station + 1] + 2 * maxAcceleration * distance));
+        }
+
+        times[0] = 0;
+        for (int station = 1; station < stationsCount; station++) {
+            double distance = arcLengths[station] - arcLengths[station - 1];
+            times[station] = times[station - 1] + 2 * distance / (velocities[station - 1] + velocities[station]);
+        }
+    }
+
+    /**
+     * find where the robot should be at a time, how fast it should move and turn
+     * before the start it stays at the start, after the end it stays at the end
+     *
+     * @param time the time since the start of the path, in seconds
+     * @param state the array to write in, at least size long, indexed by the constants of this class
+     */
+    public void sample(double time, double[] state) {
+        int station = 0;
+        double timeSinceStation = 0;
+        if (time >= times[stationsCount - 1]) {
+            station = stationsCount - 1;
+        } else if (time > 0) {
+            /* the last station passed, by binary search */
+            int low = 0, high = stationsCount - 1;
+            while (high - low > 1) {
+                int middle = (low + high) >>> 1;
+                if (times[middle] <= time) low = middle;
+                else high = middle;
+            }
+            station = low;
+            timeSinceStation = time - times[station];
+        }
+
+        double velocity = velocities[station], acceleration = 0, fraction = 0;
+        if (station < stationsCount - 1) {
+            double distance = arcLengths[station + 1] - arcLengths[station];
+            acceleration = (velocities[station + 1] * velocities[station + 1] - velocities[station] * velocities[station]) / (2 * distance);
+            fraction = (velocities[station] * timeSinceStation + acceleration * timeSinceStation * timeSinceStation / 2) / distance;
+            velocity += acceleration * timeSinceStation;
+        }
+        int next = Math.min(station + 1, stationsCount - 1);
+
+        double tangentX = interpolate(tangentXs, station, next, fraction), tangentY = interpolate(tangentYs, station, next, fraction);
+        double tangentNorm = Math.hypot(tangentX, tangentY);
+        tangentX /= tangentNorm;
+        tangentY /= tangentNorm;
+        /* towards the inside of the curve, the normal turned left from the tangent, scaled by the curvature */
+        double centripetalAcceleration = velocity * velocity * interpolate(curvatures, station, next, fraction);
+
+        state[xIndex] = interpolate(xs, station, next, fraction);
+        state[yIndex] = interpolate(ys, station, next, fraction);
+        state[headingIndex] = interpolate(headings, station, next, fraction);
+        state[velocityXIndex] = tangentX * velocity;
+        state[velocityYIndex] = tangentY * velocity;
+        state[accelerationXIndex] = tangentX * acceleration - tangentY * centripetalAcceleration;
+        state[accelerationYIndex] = tangentY * acceleration + tangentX * centripetalAcceleration;
+        state[angularVelocityIndex] = headingChangeRates[station] * velocity;
+        state[arcLengthIndex] = interpolate(arcLengths, station, next, fraction);
+    }
+
+    /** the value between two stations, at a fraction of the way from the first */
+    private static double interpolate(double[] values, int station, int next, double fraction) {
+        return values[station] + (values[next] - values[station]) * fraction;
+    }
+
+    /** @return the time the path takes, in seconds */
+    public double getDuration() { return times[stationsCount - 1]; }
+
+    /** @return the length of the path, in encoder values */
+    public double getLength() { return arcLengths[stationsCount - 1]; }
+
+    /** @return the position of the end of the path, in encoder values */
+    public double getEndX() { return xs[stationsCount - 1]; }
+    public double getEndY() { return ys[stationsCount - 1]; }
+
+    /** @return the heading at the end of the path, in radian, unwrapped from the heading at the start, so it may be out of 0 to 2pi */
+    public double getEndHeading() { return headings[stationsCount - 1]; }
+}
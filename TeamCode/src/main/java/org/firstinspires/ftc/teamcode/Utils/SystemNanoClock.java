@@ -0,0 +1,18 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: SystemNanoClock.java
+ *
+ * the clock used on the real robot, reads the time from System.nanoTime()
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class SystemNanoClock extends RobotClock {
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+}
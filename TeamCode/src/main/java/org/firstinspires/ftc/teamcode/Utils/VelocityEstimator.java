@@ -0,0 +1,44 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: VelocityEstimator.java
+ *
+ * works out the velocity and acceleration of an encoder from its readings, each taken at a known time
+ * the ways to do so differ in how much noise they let through and how much they lag behind, see the subclasses
+ * the estimators do not touch any hardware, so they can be compared by feeding them the same recorded readings
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public abstract class VelocityEstimator {
+    /** the velocity, in encoder values per second */
+    protected double velocity = 0;
+    /** the acceleration, in encoder values per second squared */
+    protected double acceleration = 0;
+
+    /**
+     * take in a new reading
+     * a reading with the same timestamp as the last one changes nothing, as no time has passed
+     *
+     * @param timestamp the time the reading is taken at, in nanoseconds
+     * @param position the position of the encoder, in encoder values
+     * @param reportedVelocity the velocity measured by the hub, only read if usesReportedVelocity() is true, in encoder values per second
+     */
+    public abstract void update(long timestamp, double position, double reportedVelocity);
+
+    /**
+     * forget the past readings, the next reading starts the estimation over from zero velocity
+     */
+    public abstract void reset();
+
+    /** @return whether the estimator needs the velocity measured by the hub, so the reader knows whether to read it */
+    public boolean usesReportedVelocity() { return false; }
+
+    /** @return the velocity, in encoder values per second */
+    public double getVelocity() { return velocity; }
+
+    /** @return the acceleration, in encoder values per second squared */
+    public double getAcceleration() { return acceleration; }
+}
@@ -0,0 +1,58 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: VirtualClock.java
+ *
+ * a simulated clock that only moves when it is told to
+ * used to run the robot's program on a computer, deterministically and faster than real time
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class VirtualClock extends RobotClock {
+    /** the current time of the simulated clock, in nanoseconds */
+    private long currentTime;
+
+    /**
+     * construct a virtual clock that starts at time zero
+     */
+    public VirtualClock() {
+        this(0);
+    }
+
+    /**
+     * construct a virtual clock that starts at a given time
+     *
+     * @param startingTime the starting time, in nanoseconds
+     */
+    public VirtualClock(long startingTime) {
+        this.currentTime = startingTime;
+    }
+
+    @Override
+    public long nanoTime() {
+        return currentTime;
+    }
+
+    /**
+     * move the clock forward
+     *
+     * @param nanos the amount of time to move forward, in nanoseconds
+     * @throws IllegalArgumentException if asked to move backwards
+     */
+    public void advance(long nanos) throws IllegalArgumentException {
+        if (nanos < 0) throw new IllegalArgumentException("a virtual clock cannot go backwards, asked to advance by " + nanos + "ns");
+        currentTime += nanos;
+    }
+
+    /**
+     * move the clock forward
+     *
+     * @param seconds the amount of time to move forward, in seconds
+     */
+    public void advanceSeconds(double seconds) {
+        advance(secondsToNanos(seconds));
+    }
+}
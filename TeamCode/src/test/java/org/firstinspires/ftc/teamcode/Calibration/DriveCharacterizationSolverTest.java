@@ -0,0 +1,141 @@
+package org.firstinspires.ftc.teamcode.Calibration;
+
+import static org.junit.Assert.assertEquals;
+
+import org.firstinspires.ftc.teamcode.Utils.DriveFeedforward;
+import org.firstinspires.ftc.teamcode.Utils.RobotCalibration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: DriveCharacterizationSolverTest.java
+ *
+ * writes the readings of a simulated robot going through the script of DriveCharacterization, and fits them with the solver
+ * along each axle the robot follows power = kS * sign(velocity) + kV * velocity + kA * acceleration, with known gains
+ * it stays still while the power is below kS, it turns a little while strafing, and its battery runs down over the script
+ *  - the solver gives back the gains of each axle, scaled to the nominal voltage, in the file it writes
+ *  - the odometry constants already in the file are used to work out the motion, and kept
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class DriveCharacterizationSolverTest {
+    /** the feedforward of each axle, forward and sideways in encoder values, rotating clockwise in radian */
+    private static final DriveFeedforward forwardFeedforward = new DriveFeedforward(0.06, 1.0 / 26000, 1.0 / 180000);
+    private static final DriveFeedforward strafeFeedforward = new DriveFeedforward(0.07, 1.0 / 20000, 1.0 / 140000);
+    private static final DriveFeedforward rotationalFeedforward = new DriveFeedforward(0.05, 0.15, 0.02);
+    /** the odometry of the robot, in the calibration file before the solver runs */
+    private static final double trackWidth = 3100, lateralWheelOffset = 2400;
+    /** the turn of the robot while strafing, counter-clockwise in radian per encoder value moved */
+    private static final double strafingTurn = 1e-5;
+    /** the voltage of the battery at the start, and how much it drops over each second of the script */
+    private static final double startVoltage = 13.2, voltageDrop = 0.03;
+    private static final double period = 0.01;
+    /** the steps the motion between two readings is integrated in */
+    private static final int steps = 20;
+
+    /** the script of DriveCharacterization for each axle, the name of each segment and the power during it, (starting power, power ramped up per second, seconds) */
+    private static final String[] axles = {"forward", "strafe", "rotational"};
+    private static final String[] segmentNames = {
+            "ramp", "settle", "ramp", "settle",
+            "step", "settle", "step", "settle"
+    };
+    private static final double[][] segmentPowers = {
+            {0, 0.12, 3}, {0, 0, 1}, {0, -0.12, 3}, {0, 0, 1},
+            {0.5, 0, 1}, {0, 0, 1}, {-0.5, 0, 1}, {0, 0, 1}
+    };
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void solverGivesBackTheGainsOfEachAxle() throws IOException {
+        final File readings = folder.newFile("drive_characterization.csv");
+        writeReadings(readings);
+        final File output = folder.newFile("robot_calibration.properties");
+        final RobotCalibration odometry = new RobotCalibration();
+        odometry.setTrackWidth(trackWidth);
+        odometry.setLateralWheelOffset(lateralWheelOffset);
+        odometry.save(output, "fitted by OdometryCalibrationSolver");
+
+        DriveCharacterizationSolver.main(new String[] {readings.getPath(), output.getPath()});
+
+        final RobotCalibration calibration = new RobotCalibration(output);
+        assertFeedforwardEquals(forwardFeedforward, calibration.getForwardFeedforward());
+        assertFeedforwardEquals(strafeFeedforward, calibration.getStrafeFeedforward());
+        assertFeedforwardEquals(rotationalFeedforward, calibration.getRotationalFeedforward());
+        assertEquals(trackWidth, calibration.getTrackWidth(), 0);
+        assertEquals(lateralWheelOffset, calibration.getLateralWheelOffset(), 0);
+    }
+
+    /** drive the simulated robot through the script, writing a reading every period like DriveCharacterization does */
+    private static void writeReadings(File file) throws IOException {
+        final PrintWriter log = new PrintWriter(file);
+        log.println("axle,segment,seconds,power,voltage,encoder1,encoder2,encoder3");
+        double encoder1 = 0, encoder2 = 0, encoder3 = 0, time = 0;
+        try {
+            for (int axle = 0; axle < axles.length; axle++) {
+                final DriveFeedforward feedforward = axle == 0 ? forwardFeedforward : axle == 1 ? strafeFeedforward : rotationalFeedforward;
+                /* the velocity along the axle, in encoder values or radian per second */
+                double velocity = 0;
+                for (int segment = 0; segment < segmentNames.length; segment++) {
+                    final double[] powers = segmentPowers[segment];
+                    for (double segmentTime = 0; segmentTime < powers[2] - 1e-9; segmentTime += period) {
+                        final double power = powers[0] + powers[1] * segmentTime, voltage = startVoltage - voltageDrop * time;
+                        log.println(axles[axle] + "," + segmentNames[segment] + "," + time + "," + power + "," + voltage + ","
+                                + Math.round(encoder1) + "," + Math.round(encoder2) + "," + Math.round(encoder3));
+
+                        /* the power the motors give, at the nominal voltage, held until the next reading */
+                        final double nominalPower = power * voltage / DriveFeedforward.nominalVoltage;
+                        for (int step = 0; step < steps; step++) {
+                            final double dt = period / steps;
+                            velocity = nextVelocity(feedforward, velocity, nominalPower, dt);
+                            final double motion = velocity * dt;
+                            if (axle == 0) {
+                                encoder1 += motion;
+                                encoder2 += motion;
+                            } else if (axle == 1) {
+                                final double counterClockwiseRotation = motion * strafingTurn;
+                                encoder1 -= counterClockwiseRotation * trackWidth / 2;
+                                encoder2 += counterClockwiseRotation * trackWidth / 2;
+                                encoder3 += motion + counterClockwiseRotation * lateralWheelOffset;
+                            } else {
+                                /* a clockwise turn */
+                                encoder1 += motion * trackWidth / 2;
+                                encoder2 -= motion * trackWidth / 2;
+                                encoder3 -= motion * lateralWheelOffset;
+                            }
+                        }
+                        time += period;
+                    }
+                }
+            }
+        } finally {
+            log.close();
+        }
+    }
+
+    /** @return the velocity after a step, the static friction holds the robot still while the power is below kS */
+    private static double nextVelocity(DriveFeedforward feedforward, double velocity, double power, double dt) {
+        final double staticPower = feedforward.getStaticPower();
+        if (velocity == 0 && Math.abs(power) <= staticPower) return 0;
+        final double direction = velocity != 0 ? Math.signum(velocity) : Math.signum(power);
+        final double acceleration = (power - staticPower * direction - feedforward.getVelocityGain() * velocity) / feedforward.getAccelerationGain();
+        final double nextVelocity = velocity + acceleration * dt;
+        /* the friction stops it, rather than turning it back */
+        return Math.signum(nextVelocity) == -direction ? 0 : nextVelocity;
+    }
+
+    private static void assertFeedforwardEquals(DriveFeedforward expected, DriveFeedforward actual) {
+        assertEquals(expected.getStaticPower(), actual.getStaticPower(), expected.getStaticPower() * 0.05);
+        assertEquals(expected.getVelocityGain(), actual.getVelocityGain(), expected.getVelocityGain() * 0.02);
+        assertEquals(expected.getAccelerationGain(), actual.getAccelerationGain(), expected.getAccelerationGain() * 0.05);
+    }
+}
@@ -0,0 +1,127 @@
+package org.firstinspires.ftc.teamcode.Calibration;
+
+import static org.junit.Assert.assertEquals;
+
+import org.firstinspires.ftc.teamcode.Utils.RobotCalibration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: OdometryCalibrationSolverTest.java
+ *
+ * writes the readings of a simulated robot going through the script of OdometryCalibration, and fits them with the solver
+ * the robot has a known track width, lateral wheel offset, encoder values per centimeter and x axle motion scale factor
+ * its speed follows the power with a lag, so it still moves while settling, and it turns a little while strafing, like a real one
+ * the encoders are read in whole values and the imu yaw within (-pi, pi], as OdometryCalibration writes them
+ *  - the solver gives back the four constants, in the file it writes
+ *  - a calibration file already there is replaced
+ *  - readings missing the spins are rejected, as nothing could be fitted from them
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class OdometryCalibrationSolverTest {
+    private static final double trackWidth = 3100, lateralWheelOffset = 2400, encoderValuesPerCM = 215, xAxleMotionScaleFactor = 1.25;
+    /** the speeds of the robot at the power of the script, forward in encoder values per second and spinning in radian per second */
+    private static final double forwardSpeed = 9000, spinningSpeed = 3;
+    /** the turn of the robot while strafing, in radian per second */
+    private static final double strafingTurn = 0.05;
+    /** the time the robot takes to reach its speed, in seconds */
+    private static final double timeConstant = 0.15;
+    private static final double period = 0.01;
+
+    /** the script of OdometryCalibration, the name of each segment and the motion during it, (x, y, rotation, seconds) */
+    private static final String[] segmentNames = {
+            "spin", "settle", "spin", "settle",
+            "forward", "settle", "forward", "settle",
+            "strafe", "settle", "strafe", "settle"
+    };
+    private static final double[][] segmentMotions = {
+            {0, 0, 0.35, 4}, {0, 0, 0, 1}, {0, 0, -0.35, 4}, {0, 0, 0, 1},
+            {0, 0.35, 0, 1.5}, {0, 0, 0, 1}, {0, -0.35, 0, 1.5}, {0, 0, 0, 1},
+            {0.35, 0, 0, 1.5}, {0, 0, 0, 1}, {-0.35, 0, 0, 1.5}, {0, 0, 0, 1}
+    };
+    /** the segment after which the pilot measures the distance moved */
+    private static final int measuredSegment = 5;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void solverGivesBackTheConstantsOfTheRobot() throws IOException {
+        final File readings = folder.newFile("odometry_calibration.csv");
+        final double measuredForwardDistance = writeReadings(readings);
+        /* a file written before, with values the solver must replace */
+        final File output = folder.newFile("robot_calibration.properties");
+        RobotCalibration previous = new RobotCalibration();
+        previous.setTrackWidth(1);
+        previous.setEncoderValuesPerCM(1);
+        previous.save(output, "written before");
+
+        OdometryCalibrationSolver.main(new String[] {readings.getPath(), Double.toString(measuredForwardDistance), output.getPath()});
+
+        final RobotCalibration calibration = new RobotCalibration(output);
+        assertEquals(trackWidth, calibration.getTrackWidth(), trackWidth * 1e-3);
+        assertEquals(lateralWheelOffset, calibration.getLateralWheelOffset(), lateralWheelOffset * 1e-3);
+        assertEquals(encoderValuesPerCM, calibration.getEncoderValuesPerCM(), encoderValuesPerCM * 1e-3);
+        assertEquals(xAxleMotionScaleFactor, calibration.getXAxleMotionScaleFactor(), xAxleMotionScaleFactor * 1e-2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readingsWithoutTheSpinsAreRejected() throws IOException {
+        final File readings = folder.newFile("odometry_calibration.csv");
+        PrintWriter log = new PrintWriter(readings);
+        log.println("segment,seconds,encoder1,encoder2,encoder3,imuYaw");
+        for (int i = 0; i < 10; i++) log.println("forward," + i * period + "," + i * 100 + "," + i * 100 + ",0,0");
+        log.close();
+        OdometryCalibrationSolver.main(new String[] {readings.getPath(), "30", folder.getRoot().getPath() + "/robot_calibration.properties"});
+    }
+
+    /**
+     * drive the simulated robot through the script, writing a reading every period like OdometryCalibration does
+     *
+     * @return the distance the robot moved forward, from the start of the first forward drive to the end of the settling after it, in centimeters
+     */
+    private static double writeReadings(File file) throws IOException {
+        final PrintWriter log = new PrintWriter(file);
+        log.println("segment,seconds,encoder1,encoder2,encoder3,imuYaw");
+        /* the motion of the robot in its own frame, sideways and forward in encoder values and turning counter-clockwise in radian */
+        double y = 0, heading = 0, velocityX = 0, velocityY = 0, angularVelocity = 0;
+        double encoder1 = 0, encoder2 = 0, encoder3 = 0;
+        double time = 0, measuredStart = 0, measuredEnd = 0;
+        try {
+            for (int segment = 0; segment < segmentNames.length; segment++) {
+                final double[] motion = segmentMotions[segment];
+                if (segment == measuredSegment - 1) measuredStart = y;
+                final double targetX = motion[0] / 0.35 * forwardSpeed / xAxleMotionScaleFactor, targetY = motion[1] / 0.35 * forwardSpeed;
+                final double targetAngularVelocity = motion[2] / 0.35 * spinningSpeed + Math.abs(motion[0]) / 0.35 * strafingTurn;
+                for (double segmentTime = 0; segmentTime < motion[3] - 1e-9; segmentTime += period) {
+                    log.println(segmentNames[segment] + "," + time + "," + Math.round(encoder1) + "," + Math.round(encoder2) + "," + Math.round(encoder3) + "," + Math.IEEEremainder(heading, Math.PI * 2));
+
+                    velocityX += (targetX - velocityX) * period / timeConstant;
+                    velocityY += (targetY - velocityY) * period / timeConstant;
+                    angularVelocity += (targetAngularVelocity - angularVelocity) * period / timeConstant;
+                    final double dx = velocityX * period, dy = velocityY * period, dTheta = angularVelocity * period;
+                    y += dy;
+                    heading += dTheta;
+                    encoder1 += dy - dTheta * trackWidth / 2;
+                    encoder2 += dy + dTheta * trackWidth / 2;
+                    encoder3 += dx + dTheta * lateralWheelOffset;
+                    time += period;
+                }
+                /* the solver takes the drive up to the last reading of the settling, which is written before the motion of its period */
+                if (segment == measuredSegment) measuredEnd = y - velocityY * period;
+            }
+        } finally {
+            log.close();
+        }
+        return (measuredEnd - measuredStart) / encoderValuesPerCM;
+    }
+}
@@ -0,0 +1,220 @@
+package org.firstinspires.ftc.teamcode.Commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
+import org.firstinspires.ftc.teamcode.Utils.VirtualClock;
+import org.junit.Test;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: CommandGroupTest.java
+ *
+ * runs the command groups on a virtual clock, with commands that take a known time and record how they ended
+ *  - the sequential group starts each command in the cycle the former ends, goes on after one times out, and skips the rest when cancelled
+ *  - the parallel group ends with its last command, the race with its first, the deadline with the first given, the others interrupted
+ *  - a group that times out interrupts the commands still running
+ *  - a routine shaped like the one of AutoStage takes the time of its steps less the time of the steps done alongside the longer ones
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class CommandGroupTest {
+    private static final double period = 0.01;
+    /** the most cycles a command is run for */
+    private static final int maxCycles = 10000;
+
+    private final VirtualClock clock = new VirtualClock();
+
+    @Test
+    public void sequentialGroupStartsEachCommandAsTheFormerEnds() {
+        final RecordingCommand first = new RecordingCommand(0.1), second = new RecordingCommand(0.2);
+        final SequentialCommandGroup group = new SequentialCommandGroup(first, second);
+        run(group);
+
+        assertEquals(0.3, group.getLastDuration(), 1e-9);
+        assertEquals(first.endTimestamp, second.startTimestamp);
+        assertEnded(first, false);
+        assertEnded(second, false);
+        assertEquals(0.3, group.getSerializedDuration(), 1e-9);
+    }
+
+    @Test
+    public void sequentialGroupGoesOnAfterATimeout() {
+        final RecordingCommand stuck = new RecordingCommand(Double.POSITIVE_INFINITY), next = new RecordingCommand(0.1);
+        final SequentialCommandGroup group = new SequentialCommandGroup(stuck.withTimeout(0.1), next);
+        run(group);
+
+        assertEnded(stuck, true);
+        assertTrue(stuck.isTimedOut());
+        assertEnded(next, false);
+        assertFalse(group.isTimedOut());
+        assertEquals(0.2, group.getLastDuration(), 1e-9);
+    }
+
+    @Test
+    public void cancelledSequentialGroupSkipsTheRest() {
+        final RecordingCommand first = new RecordingCommand(0.1), second = new RecordingCommand(0.5), third = new RecordingCommand(0.1);
+        final SequentialCommandGroup group = new SequentialCommandGroup(first, second, third);
+        runFor(group, 0.2);
+        group.cancel();
+
+        assertEnded(first, false);
+        assertEnded(second, true);
+        assertEquals("the rest is not started", 0, third.initializeCount);
+        assertFalse(group.isRunning());
+        assertEquals(0.2, group.getLastDuration(), 1e-9);
+        assertEquals("only the commands that ran are added up", 0.2, group.getSerializedDuration(), 1e-9);
+    }
+
+    @Test
+    public void parallelGroupEndsWithItsLastCommand() {
+        final RecordingCommand shorter = new RecordingCommand(0.1), longer = new RecordingCommand(0.3);
+        final ParallelCommandGroup group = new ParallelCommandGroup(shorter, longer);
+        run(group);
+
+        assertEquals(0.3, group.getLastDuration(), 1e-9);
+        assertEnded(shorter, false);
+        assertEnded(longer, false);
+        assertEquals(0.4, group.getSerializedDuration(), 1e-9);
+    }
+
+    @Test
+    public void cancelledParallelGroupInterruptsTheCommandsRunning() {
+        final RecordingCommand shorter = new RecordingCommand(0.1), longer = new RecordingCommand(0.3);
+        final ParallelCommandGroup group = new ParallelCommandGroup(shorter, longer);
+        runFor(group, 0.2);
+        group.cancel();
+
+        assertEnded(shorter, false);
+        assertEnded(longer, true);
+        assertEquals(0.2, group.getLastDuration(), 1e-9);
+    }
+
+    @Test
+    public void raceGroupEndsWithItsFirstCommand() {
+        final RecordingCommand shorter = new RecordingCommand(0.1), longer = new RecordingCommand(0.3);
+        final ParallelRaceGroup group = new ParallelRaceGroup(longer, shorter);
+        run(group);
+
+        assertEquals(0.1, group.getLastDuration(), 1e-9);
+        assertEnded(shorter, false);
+        assertEnded(longer, true);
+        assertEquals(longer.startTimestamp + RobotClock.secondsToNanos(0.1), longer.endTimestamp);
+    }
+
+    @Test
+    public void deadlineGroupEndsWithTheDeadline() {
+        final RecordingCommand deadline = new RecordingCommand(0.2), shorter = new RecordingCommand(0.1), endless = new RecordingCommand(Double.POSITIVE_INFINITY);
+        final ParallelDeadlineGroup group = new ParallelDeadlineGroup(deadline, shorter, endless);
+        run(group);
+
+        assertEquals(0.2, group.getLastDuration(), 1e-9);
+        assertEnded(deadline, false);
+        assertEnded(shorter, false);
+        assertEnded(endless, true);
+    }
+
+    @Test
+    public void timedOutGroupInterruptsTheCommandsRunning() {
+        final RecordingCommand endless = new RecordingCommand(Double.POSITIVE_INFINITY), shorter = new RecordingCommand(0.1);
+        final RobotCommand group = new ParallelCommandGroup(endless, shorter).withTimeout(0.3);
+        run(group);
+
+        assertTrue(group.isTimedOut());
+        assertEquals(0.3, group.getLastDuration(), 1e-9);
+        assertEnded(endless, true);
+        assertFalse("the command inside did not time out on its own", endless.isTimedOut());
+        assertEnded(shorter, false);
+    }
+
+    @Test
+    public void stepsDoneAlongsideSaveTheirTime() {
+        /* the routine of AutoStage, the drives and the arm moves stood in for by commands of their usual time */
+        final RobotCommand routine = new SequentialCommandGroup(
+                new InstantCommand(new Runnable() { @Override public void run() {} }),
+                new WaitCommand(0.5),
+                new ParallelCommandGroup(new WaitCommand(2.0), new WaitCommand(1.2)),
+                new InstantCommand(new Runnable() { @Override public void run() {} }),
+                new WaitCommand(0.8),
+                new ParallelCommandGroup(new WaitCommand(1.5), new RecordingCommand(0.9).withTimeout(2)),
+                new SequentialCommandGroup(
+                        new InstantCommand(new Runnable() { @Override public void run() {} }),
+                        new WaitCommand(0.3),
+                        new WaitCommand(0.4))
+        );
+        run(routine);
+
+        /* each instant command takes the cycle it is updated in */
+        assertEquals(0.5 + 2.0 + 0.8 + 1.5 + 0.3 + 0.4 + 3 * period, routine.getLastDuration(), 1e-9);
+        /* the arm moves are done while the robot drives */
+        assertEquals(1.2 + 0.9, routine.getSerializedDuration() - routine.getLastDuration(), 1e-9);
+    }
+
+    /** run a command until it ends */
+    private void run(RobotCommand command) {
+        start(command);
+        for (int cycle = 0; cycle < maxCycles; cycle++) if (runCycle(command)) return;
+        throw new AssertionError("the command did not end");
+    }
+
+    /** run a command for a time, it must still be running */
+    private void runFor(RobotCommand command, double duration) {
+        start(command);
+        for (int cycle = 0; cycle < Math.round(duration / period); cycle++) assertFalse(runCycle(command));
+    }
+
+    private void start(RobotCommand command) {
+        clock.beginCycle();
+        command.start(clock);
+    }
+
+    /** @return whether the command has ended */
+    private boolean runCycle(RobotCommand command) {
+        clock.advanceSeconds(period);
+        clock.beginCycle();
+        return command.update();
+    }
+
+    private static void assertEnded(RecordingCommand command, boolean interrupted) {
+        assertEquals("started once", 1, command.initializeCount);
+        assertEquals("ended once", 1, command.endCount);
+        assertEquals(interrupted ? "interrupted" : "finished", interrupted, command.interrupted);
+        assertFalse(command.isRunning());
+    }
+
+    /** a command that finishes after a time, recording when it started and ended and whether it was interrupted */
+    private static final class RecordingCommand extends RobotCommand {
+        /** the time it takes, in seconds */
+        private final double duration;
+        private int initializeCount = 0, endCount = 0;
+        private boolean interrupted;
+        /** the timestamps of the cycles it started and ended in, in nanoseconds */
+        private long startTimestamp, endTimestamp;
+
+        RecordingCommand(double duration) {
+            this.duration = duration;
+        }
+
+        @Override
+        protected void initialize() {
+            initializeCount++;
+            startTimestamp = getClock().getCycleTimestamp();
+        }
+
+        @Override
+        protected boolean isFinished() {
+            return getElapsedSeconds() >= duration;
+        }
+
+        @Override
+        protected void end(boolean interrupted) {
+            endCount++;
+            this.interrupted = interrupted;
+            endTimestamp = getClock().getCycleTimestamp();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package org.firstinspires.ftc.teamcode.Drivers;
+
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.SimulatedChassis;
+import org.firstinspires.ftc.teamcode.Utils.DriveFeedforward;
+import org.firstinspires.ftc.teamcode.Utils.RobotCalibration;
+import org.firstinspires.ftc.teamcode.Utils.SplinePath;
+import org.junit.Test;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: ChassisDriverTest.java
+ *
+ * drives the simulated chassis to a grid of targets, straight, sideways and diagonal, from 2000 to 30000 encoder values away
+ * once by following a motion profile, and once by the proportional control towards the position used before the profiles
+ * on robots a bit slower and a bit faster than the limits of the profile assume, the profiles must settle sooner in total without overshooting
+ * and drives the route of the auto stage, once stopping at every waypoint and once following a path through them, the path must save time and stay close to the spline
+ * and turns the robot to a set of headings, once by the rotational PIDF controller and once by the heading controller on the rotational model of the robot
+ * the model is the one of the nominal robot, the heading controller must settle in fewer cycles in total and overshoot less on robots turning slower and faster too
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class ChassisDriverTest {
+    private static final double period = 0.01;
+    private static final double maxSimulatedTime = 6;
+    /** the robot has settled once it stays this close to the target, in encoder values, the tolerance of reaching a position */
+    private static final double settledDistance = 360;
+    /** the furthest the profiled motion may pass the target, in encoder values, about half a centimeter */
+    private static final double maxOvershoot = 100;
+
+    private static final double[][] targets = {
+            {0, 2000}, {0, 5000}, {0, 10000}, {0, 20000}, {0, 30000},
+            {3000, 0}, {10000, 0}, {-20000, 0},
+            {7000, 7000}, {-15000, 15000}
+    };
+    /** the velocities of the simulated robots at full power, in encoder values per second */
+    private static final double[] maxVelocities = {21000, 25000, 29000};
+
+    /** the route of the auto stage, in legs of waypoints {x, y, heading in degrees}, the robot stops at the end of each leg, a waypoint repeated is a turn on the spot */
+    private static final double[][][] route = {
+            {{0, 1000, 0}, {-11500, 1000, 0}, {-11500, 14500, 0}},
+            {{-11500, 29000, 0}, {-11500, 29000, -90}, {13800, 29000, -90}}
+    };
+    /** the longest a motion may take before the test gives up on it, in seconds */
+    private static final double maxMotionTime = 20;
+    /** the furthest the robot may be from the path it follows, in encoder values, about five centimeters */
+    private static final double maxPathDeviation = 1000;
+
+    /** the headings to turn to, in degrees, and the angular velocities of the simulated robots at full power, in radian per second */
+    private static final double[] headings = {5, 15, 45, 90, 180, -30};
+    private static final double[] maxAngularVelocities = {4.5, 6, 7.5};
+    /** the robot has settled once it stays this close to the targeted heading, in degrees */
+    private static final double settledHeadingError = 2.5;
+    /** the cycles each turn is simulated for */
+    private static final int turningCycles = 400;
+
+    @Test
+    public void profiledMovesSettleSoonerThanTheProportionalControl() {
+        for (double maxVelocity : maxVelocities) {
+            double proportionalSettleTime = 0, profiledSettleTime = 0;
+            for (double[] target : targets) {
+                final double[] proportional = simulateMove(false, maxVelocity, target[0], target[1]);
+                final double[] profiled = simulateMove(true, maxVelocity, target[0], target[1]);
+                System.out.printf("robot at %.0f, target (%.0f, %.0f): proportional control settles in %.2fs, profile in %.2fs, overshooting %.0f%n",
+                        maxVelocity, target[0], target[1], proportional[0], profiled[0], profiled[1]);
+                assertTrue("the profile overshot (" + target[0] + ", " + target[1] + ") by " + profiled[1], profiled[1] < maxOvershoot);
+                proportionalSettleTime += proportional[0];
+                profiledSettleTime += profiled[0];
+            }
+            assertTrue(String.format("at %.0f, the profiles took %.2fs in total, the proportional control %.2fs", maxVelocity, profiledSettleTime, proportionalSettleTime),
+                    profiledSettleTime < proportionalSettleTime);
+        }
+    }
+
+    @Test
+    public void followingAPathSavesTimeOverStoppingAtEveryWaypoint() {
+        for (double maxVelocity : maxVelocities) {
+            final double stoppingTime = simulateRoute(false, maxVelocity);
+            final double pathTime = simulateRoute(true, maxVelocity);
+            System.out.printf("robot at %.0f: stopping at every waypoint takes %.2fs, following the paths %.2fs%n", maxVelocity, stoppingTime, pathTime);
+            assertTrue(String.format("at %.0f, the paths took %.2fs, stopping %.2fs", maxVelocity, pathTime, stoppingTime), pathTime < stoppingTime);
+        }
+    }
+
+    @Test
+    public void headingControllerSettlesSoonerThanThePIDF() {
+        final DriveFeedforward rotationalModel = SimulatedChassis.getRotationalModel(SimulatedChassis.nominalMaxAngularVelocity);
+        int pidfSettleCycles = 0, headingControllerSettleCycles = 0;
+        double pidfOvershoot = 0, headingControllerOvershoot = 0;
+        for (double maxAngularVelocity : maxAngularVelocities)
+            for (boolean aiming : new boolean[] {false, true})
+                for (double heading : headings) {
+                    final double[] pidf = simulateTurn(null, maxAngularVelocity, aiming, heading);
+                    final double[] headingController = simulateTurn(rotationalModel, maxAngularVelocity, aiming, heading);
+                    pidfSettleCycles += pidf[0];
+                    headingControllerSettleCycles += headingController[0];
+                    pidfOvershoot = Math.max(pidfOvershoot, pidf[1]);
+                    headingControllerOvershoot = Math.max(headingControllerOvershoot, headingController[1]);
+                }
+        System.out.printf("turning: the PIDF settles in %d cycles in total, overshooting up to %.1f degrees, the heading controller in %d, overshooting up to %.1f%n",
+                pidfSettleCycles, pidfOvershoot, headingControllerSettleCycles, headingControllerOvershoot);
+        assertTrue(headingControllerSettleCycles + " against " + pidfSettleCycles, headingControllerSettleCycles < pidfSettleCycles);
+        assertTrue(headingControllerOvershoot + " against " + pidfOvershoot, headingControllerOvershoot <= pidfOvershoot);
+        assertTrue("the heading controller overshot by " + headingControllerOvershoot, headingControllerOvershoot < settledHeadingError);
+    }
+
+    /** @return the time the robot settled at the target, in seconds, and how far it went past it, in encoder values */
+    private static double[] simulateMove(boolean profiled, double maxVelocity, double targetX, double targetY) {
+        SimulatedChassis chassis = new SimulatedChassis(maxVelocity);
+        ChassisDriver chassisDriver = chassis.getChassisDriver();
+        if (profiled) chassisDriver.startGoToPosition(targetX, targetY, 0.0);
+        else {
+            chassisDriver.setAutoMode(true);
+            chassisDriver.setTargetedTranslation_fixedRotation(targetX, targetY, 0);
+        }
+
+        final double distance = Math.hypot(targetX, targetY);
+        boolean proportionalControlStopped = false;
+        double settleTime = 0, furthest = 0;
+        for (double time = 0; time < maxSimulatedTime; time += period) {
+            chassis.beginCycle();
+            /* the proportional control stopped the robot once within the tolerance */
+            if (!profiled && !proportionalControlStopped) {
+                final double[] position = chassis.getPositionCalculator().getRobotPosition();
+                if (Math.hypot(targetX - position[0], targetY - position[1]) < settledDistance) {
+                    proportionalControlStopped = true;
+                    chassisDriver.setTranslationalMotion(0, 0);
+                }
+            }
+            chassis.endCycle(period);
+
+            if (Math.hypot(targetX - chassis.getX(), targetY - chassis.getY()) >= settledDistance) settleTime = time + period;
+            furthest = Math.max(furthest, (chassis.getX() * targetX + chassis.getY() * targetY) / distance);
+        }
+        return new double[] {settleTime, furthest - distance};
+    }
+
+    /** @return the time to drive the route, in seconds */
+    private static double simulateRoute(boolean followingPaths, double maxVelocity) {
+        SimulatedChassis chassis = new SimulatedChassis(maxVelocity);
+        ChassisDriver chassisDriver = chassis.getChassisDriver();
+        double time = 0;
+        for (double[][] leg : route) {
+            if (!followingPaths) {
+                for (int i = 0; i < leg.length; i++) {
+                    final boolean turningOnTheSpot = i > 0 && leg[i][0] == leg[i - 1][0] && leg[i][1] == leg[i - 1][1];
+                    time += simulateMotion(chassis, turningOnTheSpot ?
+                            chassisDriver.startGoToRotation((int) leg[i][2])
+                            : chassisDriver.startGoToPosition(leg[i][0], leg[i][1], (int) leg[i][2]));
+                }
+                continue;
+            }
+
+            /* the turns on the spot are left to the heading of the path */
+            double[][] waypoints = new double[leg.length][];
+            int waypointsCount = 0;
+            for (double[] waypoint : leg) {
+                if (waypointsCount > 0 && waypoints[waypointsCount - 1][0] == waypoint[0] && waypoints[waypointsCount - 1][1] == waypoint[1]) waypointsCount--;
+                waypoints[waypointsCount++] = new double[] {waypoint[0], waypoint[1], Math.toRadians(waypoint[2])};
+            }
+            double[][] pathWaypoints = new double[waypointsCount][];
+            System.arraycopy(waypoints, 0, pathWaypoints, 0, waypointsCount);
+
+            ChassisMotionCommand motion = chassisDriver.startFollowPath(pathWaypoints);
+            SplinePath path = chassisDriver.getPath();
+            double[] state = new double[SplinePath.size];
+            double motionTime = 0;
+            while (!motion.isFinished() && motionTime < maxMotionTime) {
+                motionTime += simulateCycle(chassis);
+                double deviation = Double.POSITIVE_INFINITY;
+                for (double pathTime = 0; pathTime <= path.getDuration(); pathTime += 0.01) {
+                    path.sample(pathTime, state);
+                    deviation = Math.min(deviation, Math.hypot(state[SplinePath.xIndex] - chassis.getX(), state[SplinePath.yIndex] - chassis.getY()));
+                }
+                assertTrue("the robot went " + deviation + " off the path", deviation < maxPathDeviation);
+            }
+            assertTrue("the path ended with " + motion.getResult(), motion.isSucceeded());
+            time += motionTime;
+        }
+        return time;
+    }
+
+    /**
+     * @param rotationalModel the model given to the chassis driver, null to leave it unmeasured so the PIDF is used
+     * @return the cycles the robot took to settle at the heading, and how far it turned past it, in degrees
+     */
+    private static double[] simulateTurn(DriveFeedforward rotationalModel, double maxAngularVelocity, boolean aiming, double targetedHeading) {
+        SimulatedChassis chassis = new SimulatedChassis(SimulatedChassis.nominalMaxVelocity, maxAngularVelocity);
+        ChassisDriver chassisDriver = chassis.getChassisDriver();
+        if (rotationalModel != null) {
+            RobotCalibration calibration = RobotCalibration.get();
+            chassisDriver.setFeedforward(calibration.getForwardFeedforward(), calibration.getStrafeFeedforward(), rotationalModel);
+        }
+        if (aiming) chassisDriver.newAimStarted();
+        chassisDriver.startGoToRotation(Math.toRadians(targetedHeading));
+
+        int settleCycles = 0;
+        double overshoot = 0;
+        for (int cycle = 0; cycle < turningCycles; cycle++) {
+            simulateCycle(chassis);
+            final double error = Math.toDegrees(Math.IEEEremainder(chassis.getHeading() - Math.toRadians(targetedHeading), Math.PI * 2));
+            if (Math.abs(error) > settledHeadingError) settleCycles = cycle + 1;
+            overshoot = Math.max(overshoot, Math.signum(targetedHeading) * error);
+        }
+        return new double[] {settleCycles, overshoot};
+    }
+
+    /** @return the time the motion took, in seconds */
+    private static double simulateMotion(SimulatedChassis chassis, ChassisMotionCommand motion) {
+        double time = 0;
+        while (!motion.isFinished() && time < maxMotionTime) time += simulateCycle(chassis);
+        assertTrue("the motion ended with " + motion.getResult(), motion.isSucceeded());
+        return time;
+    }
+
+    /** @return the time of the cycle, in seconds */
+    private static double simulateCycle(SimulatedChassis chassis) {
+        chassis.beginCycle();
+        chassis.endCycle(period);
+        return period;
+    }
+}
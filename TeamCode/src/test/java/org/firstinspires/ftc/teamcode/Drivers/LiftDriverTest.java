@@ -0,0 +1,134 @@
+package org.firstinspires.ftc.teamcode.Drivers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.SimulatedLift;
+import org.firstinspires.ftc.teamcode.Utils.VirtualClock;
+import org.junit.Test;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: LiftDriverTest.java
+ *
+ * moves a simulated lift through the heights of a cycle of the game, and compares when the driver predicts each move to arrive to when it does
+ * the prediction made when a move starts, and every one made during it, must be within a cycle of the arrival
+ * then fails one of the encoders, cut off or stopping mid-move, and checks the driver blames the right one and still arrives on the other
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class LiftDriverTest {
+    private static final double period = 0.012;
+    /** the heights to move to in turn, in encoder values, from the ground to the highest tower and down the stack of sleeves */
+    private static final double[] targets = {745, 480, 320, 65, 745};
+    /** the most cycles a move is simulated for */
+    private static final int maxCycles = 300;
+    /** the distance from the target within which the driver takes the lift as arrived, in encoder values, see LiftDriver */
+    private static final double arrivalTolerance = 20;
+
+    private final SimulatedLift lift = new SimulatedLift();
+    private final VirtualClock clock = new VirtualClock();
+    private final HardwareDriver hardwareDriver = new HardwareDriver(clock);
+
+    @Test
+    public void arrivalIsPredictedWithinACycle() {
+        final LiftDriver liftDriver = createLiftDriver();
+
+        for (double target : targets) {
+            liftDriver.update();
+            final double plannedDuration = liftDriver.getMoveDuration(target);
+            liftDriver.moveTo(target);
+            liftDriver.sendCommandsToMotors();
+            final double predictedAtStart = liftDriver.getTimeToArrival();
+            assertEquals(plannedDuration, predictedAtStart, 1e-9);
+
+            /* the arrival predicted in every cycle of the move, in seconds since it started */
+            final double[] predictions = new double[maxCycles];
+            int predictionsCount = 0;
+            double time = 0, arrivalTime = -1;
+            for (int cycle = 0; cycle < maxCycles && arrivalTime < 0; cycle++) {
+                runCycle();
+                time += period;
+                liftDriver.update();
+                if (liftDriver.hasArrived()) arrivalTime = time;
+                else predictions[predictionsCount++] = time + liftDriver.getTimeToArrival();
+                liftDriver.sendCommandsToMotors();
+            }
+            System.out.printf("to %.0f: predicted %.3fs, arrived at %.3fs%n", target, predictedAtStart, arrivalTime);
+
+            assertTrue("the lift did not arrive at " + target, arrivalTime > 0);
+            assertEquals("predicted when the move to " + target + " started", arrivalTime, predictedAtStart, period);
+            for (int i = 0; i < predictionsCount; i++)
+                assertEquals("predicted in cycle " + i + " of the move to " + target, arrivalTime, predictions[i], period);
+            assertEquals(arrivalTime - predictedAtStart, liftDriver.getLastArrivalDelay(), 1e-9);
+            assertFalse(liftDriver.getStallDetector().isAnyCollided());
+        }
+        assertTrue(liftDriver.isLeftEncoderHealthy() && liftDriver.isRightEncoderHealthy());
+    }
+
+    @Test
+    public void encoderStuckAtZeroIsLeftOut() {
+        final LiftDriver liftDriver = createLiftDriver();
+        assertTrue(moveUntilArrived(liftDriver, 320, Double.NaN));
+
+        lift.cutOffLeftEncoder();
+        assertTrue("the lift did not arrive on the right encoder", moveUntilArrived(liftDriver, 745, Double.NaN));
+        assertFalse(liftDriver.isLeftEncoderHealthy());
+        assertTrue(liftDriver.isRightEncoderHealthy());
+        assertEquals(745, lift.getPosition(), arrivalTolerance);
+    }
+
+    @Test
+    public void encoderStoppingMidMoveIsLeftOut() {
+        final LiftDriver liftDriver = createLiftDriver();
+        assertTrue("the lift did not arrive on the left encoder", moveUntilArrived(liftDriver, 745, 300));
+        assertTrue(liftDriver.isLeftEncoderHealthy());
+        assertFalse(liftDriver.isRightEncoderHealthy());
+        assertEquals(745, lift.getPosition(), arrivalTolerance);
+
+        /* the lift goes on working on one encoder */
+        assertTrue(moveUntilArrived(liftDriver, 320, Double.NaN));
+        assertEquals(320, lift.getPosition(), arrivalTolerance);
+    }
+
+    /** connect the simulated lift and create the driver in the first cycle */
+    private LiftDriver createLiftDriver() {
+        lift.connect(hardwareDriver);
+        hardwareDriver.beginControlCycle();
+        return new LiftDriver(hardwareDriver);
+    }
+
+    /**
+     * move the lift to a target until the driver takes it as arrived
+     *
+     * @param freezeHeight the height at which the right encoder stops counting, NaN to leave it counting
+     * @return whether it arrived within the most cycles of a move
+     */
+    private boolean moveUntilArrived(LiftDriver liftDriver, double target, double freezeHeight) {
+        liftDriver.update();
+        liftDriver.moveTo(target);
+        liftDriver.sendCommandsToMotors();
+        for (int cycle = 0; cycle < maxCycles; cycle++) {
+            runCycle();
+            if (lift.getPosition() >= freezeHeight) {
+                lift.freezeRightEncoder();
+                freezeHeight = Double.NaN;
+            }
+            liftDriver.update();
+            if (liftDriver.hasArrived()) return true;
+            liftDriver.sendCommandsToMotors();
+        }
+        return false;
+    }
+
+    /** send the commands of this cycle, move the lift until the next one, and read the hardware again */
+    private void runCycle() {
+        hardwareDriver.endControlCycle();
+        lift.simulate(period);
+        clock.advanceSeconds(period);
+        hardwareDriver.beginControlCycle();
+    }
+}
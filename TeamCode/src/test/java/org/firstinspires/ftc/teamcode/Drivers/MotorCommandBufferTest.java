@@ -0,0 +1,128 @@
+package org.firstinspires.ftc.teamcode.Drivers;
+
+import static org.junit.Assert.assertEquals;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+import org.firstinspires.ftc.teamcode.SimulatedMotor;
+import org.firstinspires.ftc.teamcode.SimulatedServo;
+import org.junit.Test;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: MotorCommandBufferTest.java
+ *
+ * sends commands to simulated motors and servos through the buffer, and counts the writes that reach them
+ *  - a power within the power epsilon of the one sent is dropped, but a stop is always sent
+ *  - a mode already in effect is dropped, and changing the mode sends the next power again
+ *  - with batching, only the last command of each kind in a cycle is written, at the end of the cycle
+ *  - the counters of the buffer agree with the writes counted on the motors
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class MotorCommandBufferTest {
+    private final SimulatedMotor[] motors = {new SimulatedMotor(), new SimulatedMotor(), new SimulatedMotor(), new SimulatedMotor()};
+    private final MotorCommandBuffer buffer = new MotorCommandBuffer();
+
+    @Test
+    public void redundantPowersAreDropped() {
+        final DcMotorEx motor = motors[0].asDcMotorEx();
+        buffer.setPower(motor, 0.5);
+        buffer.setPower(motor, 0.503);
+        assertEquals(1, motors[0].getWritesCount());
+        assertEquals(0.5, motors[0].getPower(), 0);
+
+        buffer.setPower(motor, 0.51);
+        assertEquals(2, motors[0].getWritesCount());
+        /* the small changes are measured from the power sent, so they do not creep past the epsilon unnoticed */
+        buffer.setPower(motor, 0.513);
+        buffer.setPower(motor, 0.516);
+        assertEquals(3, motors[0].getWritesCount());
+        assertEquals(0.516, motors[0].getPower(), 0);
+
+        buffer.setPower(motor, 0.004);
+        buffer.setPower(motor, 0);
+        assertEquals("a stop is sent, however close the power was", 5, motors[0].getWritesCount());
+        buffer.setPower(motor, 0);
+        buffer.setPower(motor, 0.002);
+        assertEquals(5, motors[0].getWritesCount());
+
+        buffer.startNewCycle();
+        assertEquals(5, buffer.getWritesIssuedLastCycle());
+        assertEquals(4, buffer.getWritesSuppressedLastCycle());
+    }
+
+    @Test
+    public void modeChangeSendsThePowerAgain() {
+        final DcMotorEx motor = motors[0].asDcMotorEx();
+        buffer.setMode(motor, DcMotor.RunMode.RUN_USING_ENCODER);
+        buffer.setPower(motor, 0.5);
+        buffer.setMode(motor, DcMotor.RunMode.RUN_USING_ENCODER);
+        buffer.setPower(motor, 0.5);
+        assertEquals(2, motors[0].getWritesCount());
+
+        /* the controller may reset the output when the mode changes */
+        buffer.setMode(motor, DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        buffer.setPower(motor, 0.5);
+        assertEquals(4, motors[0].getWritesCount());
+
+        /* whatever the sdk did meanwhile, everything is sent again */
+        buffer.invalidate();
+        buffer.setMode(motor, DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        buffer.setPower(motor, 0.5);
+        assertEquals(6, motors[0].getWritesCount());
+    }
+
+    @Test
+    public void batchingWritesTheLastCommandAtTheEndOfTheCycle() {
+        buffer.setBatching(true);
+        /* the modules of a cycle each set the powers of the wheels, the last one decides */
+        for (int module = 0; module < 3; module++) {
+            for (SimulatedMotor motor : motors) buffer.setPower(motor.asDcMotorEx(), 0.2 * (module + 1));
+        }
+        for (SimulatedMotor motor : motors) assertEquals(0, motor.getWritesCount());
+
+        buffer.flush();
+        for (SimulatedMotor motor : motors) {
+            assertEquals(1, motor.getWritesCount());
+            assertEquals(0.6, motor.getPower(), 1e-12);
+        }
+        buffer.startNewCycle();
+        assertEquals(4, buffer.getWritesIssuedLastCycle());
+        assertEquals(8, buffer.getWritesSuppressedLastCycle());
+
+        /* a robot driving straight on writes nothing more */
+        for (int cycle = 0; cycle < 100; cycle++) {
+            for (SimulatedMotor motor : motors) buffer.setPower(motor.asDcMotorEx(), 0.6);
+            buffer.flush();
+            buffer.startNewCycle();
+            assertEquals(0, buffer.getWritesIssuedLastCycle());
+            assertEquals(4, buffer.getWritesSuppressedLastCycle());
+        }
+        for (SimulatedMotor motor : motors) assertEquals(1, motor.getWritesCount());
+    }
+
+    @Test
+    public void turningBatchingOffSendsTheCommandsWaiting() {
+        final SimulatedServo claw = new SimulatedServo();
+        buffer.setBatching(true);
+        buffer.setPower(motors[0].asDcMotorEx(), 0.3);
+        buffer.setServoPosition(claw.asServo(), 0.45);
+        buffer.setServoPosition(claw.asServo(), 0.1);
+        assertEquals(0, motors[0].getWritesCount());
+        assertEquals(0, claw.getWritesCount());
+
+        buffer.setBatching(false);
+        assertEquals(1, motors[0].getWritesCount());
+        assertEquals(1, claw.getWritesCount());
+        assertEquals(0.1, claw.getPosition(), 0);
+
+        /* without batching, each command is written at once, still only if it changes anything */
+        buffer.setServoPosition(claw.asServo(), 0.1);
+        buffer.setServoPosition(claw.asServo(), 0.45);
+        assertEquals(2, claw.getWritesCount());
+    }
+}
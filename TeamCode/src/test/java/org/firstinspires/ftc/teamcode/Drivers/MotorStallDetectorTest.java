@@ -0,0 +1,200 @@
+package org.firstinspires.ftc.teamcode.Drivers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.SimulatedMotor;
+import org.firstinspires.ftc.teamcode.Utils.VirtualClock;
+import org.junit.Test;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: MotorStallDetectorTest.java
+ *
+ * judges simulated motors through the states of the detector
+ *  - a block raises the collision event in the very update it is seen, and the stall event in the update the stall time is reached
+ *  - a motor missing a share of its speed between the two loads keeps the state it had, so the state does not flicker
+ *  - a motor given almost no power is judged by its current alone
+ *  - the current is read from one motor at a time, in turn, once every few cycles
+ *  - a motor creeping to its target on a small power is never stalled, while one losing part of its speed against a junction is, as its current agrees
+ * the current of a motor is the share of its stall current the power not turned into speed draws, like the motors of the robot
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class MotorStallDetectorTest {
+    private static final double period = 0.01;
+    /** the static power, the response time in seconds and the stall current in amps of the simulated motors */
+    private static final double staticPower = 0.1, responseTime = 0.05, stallCurrent = 9.2;
+    /** the time a motor keeps pushing before it has stalled, in seconds, the default of the detector */
+    private static final double stallTime = 0.25;
+
+    private final VirtualClock clock = new VirtualClock();
+    private final SimulatedMotor motor = new SimulatedMotor();
+
+    @Test
+    public void eventsAreRaisedInTheUpdateTheStateChanges() {
+        final MotorStallDetector detector = createDetector(1);
+        /* up to speed, the speed it should have once the static power is taken off */
+        for (int i = 0; i < 100; i++) runCycle(detector, 0.6, 0.5);
+        assertEquals(MotorStallDetector.freeState, detector.getState(0));
+
+        int eventsCount = 0;
+        double blockedTime = 0, stalledAfter = -1;
+        for (int i = 0; i < 50; i++) {
+            runCycle(detector, 0.6, 0);
+            blockedTime += period;
+            if (i == 0) {
+                assertEquals("the collision is raised in the update the block is seen", MotorStallDetector.collisionState, detector.getState(0));
+                assertTrue(detector.hasEvent(0));
+            }
+            if (detector.hasEvent(0)) eventsCount++;
+            if (detector.getState(0) == MotorStallDetector.stallState && stalledAfter < 0) {
+                assertTrue("the stall is raised in the update it is reached", detector.hasEvent(0));
+                stalledAfter = blockedTime;
+            }
+        }
+        assertEquals("only the collision and the stall are raised", 2, eventsCount);
+        assertEquals("stalled within a cycle of the stall time", stallTime + period / 2, stalledAfter, period / 2 + 1e-9);
+        assertTrue(detector.isAnyCollided() && detector.isAnyStalled());
+
+        /* free again once the motor speeds up */
+        runCycle(detector, 0.6, 0.5);
+        assertEquals(MotorStallDetector.freeState, detector.getState(0));
+        assertFalse(detector.hasEvent(0));
+    }
+
+    @Test
+    public void stateDoesNotFlickerBetweenTheTwoLoads() {
+        final MotorStallDetector detector = createDetector(1);
+        for (int i = 0; i < 100; i++) runCycle(detector, 0.6, 0.5);
+
+        /* missing 55% of the speed, with no current to confirm it, is not a collision */
+        runCycle(detector, 0.6, 0.5 * 0.45, 0);
+        assertEquals(0.55, detector.getLoad(0), 1e-6);
+        assertEquals(MotorStallDetector.freeState, detector.getState(0));
+
+        runCycle(detector, 0.6, 0.5 * 0.2, 0);
+        assertEquals(MotorStallDetector.collisionState, detector.getState(0));
+
+        /* the same 55% keeps a collided motor collided */
+        runCycle(detector, 0.6, 0.5 * 0.45, 0);
+        assertEquals(MotorStallDetector.collisionState, detector.getState(0));
+        assertFalse(detector.hasEvent(0));
+
+        /* below the lower load, it is free */
+        runCycle(detector, 0.6, 0.5 * 0.65, 0);
+        assertEquals(MotorStallDetector.freeState, detector.getState(0));
+
+        /* the 55% the current agrees with is a collision from the free state */
+        runCycle(detector, 0.6, 0.5 * 0.45);
+        assertEquals(MotorStallDetector.collisionState, detector.getState(0));
+    }
+
+    @Test
+    public void motorGivenAlmostNoPowerIsJudgedByTheCurrent() {
+        final MotorStallDetector detector = createDetector(1);
+        /* a motor held at its position by the hub, with a power limit of 0.3 */
+        detector.setMaxPower(0, 0.3);
+        for (int i = 0; i < 50; i++) runCycle(detector, 0.05, 0, stallCurrent * 0.3 * 0.2);
+        assertEquals(0.2, detector.getLoad(0), 1e-9);
+        assertEquals(MotorStallDetector.freeState, detector.getState(0));
+
+        /* pushed away from its position, it draws most of the current its power limit allows */
+        runCycle(detector, 0.05, 0, stallCurrent * 0.3 * 0.8);
+        assertEquals(0.8, detector.getLoad(0), 1e-9);
+        assertEquals(MotorStallDetector.collisionState, detector.getState(0));
+        assertTrue(detector.hasEvent(0));
+    }
+
+    @Test
+    public void currentIsReadInTurnEveryFewCycles() {
+        final int sampleInterval = 5, motorsCount = 4, cycles = 40;
+        final MotorStallDetector detector = new MotorStallDetector(sampleInterval);
+        final SimulatedMotor[] motors = new SimulatedMotor[motorsCount];
+        for (int i = 0; i < motorsCount; i++) {
+            motors[i] = new SimulatedMotor();
+            motors[i].current = i + 1;
+            detector.addMotor(motors[i].asDcMotorEx(), staticPower, responseTime, stallCurrent);
+        }
+
+        int totalReads = 0;
+        for (int cycle = 1; cycle <= cycles; cycle++) {
+            clock.advanceSeconds(period);
+            detector.update(clock.nanoTime());
+            int reads = 0;
+            for (SimulatedMotor simulatedMotor : motors) reads += simulatedMotor.getCurrentReadsCount();
+            assertEquals("one read every " + sampleInterval + " cycles, in cycle " + cycle, totalReads + (cycle % sampleInterval == 0 ? 1 : 0), reads);
+            totalReads = reads;
+            /* updating again in the same cycle reads nothing */
+            detector.update(clock.nanoTime());
+        }
+
+        assertEquals(cycles / sampleInterval, totalReads);
+        for (int i = 0; i < motorsCount; i++) {
+            assertEquals("each motor is read in turn", cycles / sampleInterval / motorsCount, motors[i].getCurrentReadsCount());
+            assertEquals(i + 1, detector.getCurrent(i), 0);
+        }
+    }
+
+    @Test
+    public void slowFinalApproachIsNotAStall() {
+        final MotorStallDetector detector = createDetector(1);
+        /* the motor is slower to speed up than the detector expects, as it carries a load, then creeps to the target on a small power */
+        final double motorResponseTime = responseTime * 1.5;
+        double velocityPower = 0;
+        for (double time = 0; time < 2; time += period) {
+            final double power;
+            if (time < 0.5) power = 0.5;
+            else if (time < 0.8) power = 0.5 - (0.5 - 0.12) * (time - 0.5) / 0.3;
+            else power = 0.12;
+            velocityPower += (Math.max(power - staticPower, 0) - velocityPower) * period / (motorResponseTime + period);
+            runCycle(detector, power, velocityPower);
+            assertFalse("collided at " + time + "s, with a power of " + power, detector.isAnyCollided());
+        }
+    }
+
+    @Test
+    public void pushingAJunctionIsAStall() {
+        final MotorStallDetector detector = createDetector(1);
+        for (int i = 0; i < 100; i++) runCycle(detector, 0.5, 0.4);
+
+        /* the junction bends, so the motor keeps 40% of its speed, more than the speed alone would call a block */
+        boolean collided = false, stalled = false;
+        for (int i = 0; i < 50; i++) {
+            runCycle(detector, 0.5, 0.4 * 0.4);
+            assertTrue(detector.getLoad(0) < 0.7);
+            collided |= detector.getState(0) != MotorStallDetector.freeState;
+            stalled |= detector.getState(0) == MotorStallDetector.stallState;
+        }
+        assertTrue(collided && stalled);
+    }
+
+    /** create a detector judging the simulated motor */
+    private MotorStallDetector createDetector(int currentSampleInterval) {
+        final MotorStallDetector detector = new MotorStallDetector(currentSampleInterval);
+        detector.addMotor(motor.asDcMotorEx(), staticPower, responseTime, stallCurrent);
+        return detector;
+    }
+
+    /** run a cycle with the current the power not turned into speed draws */
+    private void runCycle(MotorStallDetector detector, double power, double velocityPower) {
+        runCycle(detector, power, velocityPower, stallCurrent * Math.max(Math.abs(power) - staticPower - Math.abs(velocityPower), 0));
+    }
+
+    /**
+     * give the detector the power of the last cycle and the speed and the current of this one, then update it
+     *
+     * @param velocityPower the speed of the motor, in the unit of the power
+     * @param current the current drawn, in amps
+     */
+    private void runCycle(MotorStallDetector detector, double power, double velocityPower, double current) {
+        clock.advanceSeconds(period);
+        motor.current = current;
+        detector.setPower(0, power);
+        detector.setVelocity(0, velocityPower);
+        detector.update(clock.nanoTime());
+    }
+}
@@ -0,0 +1,73 @@
+package org.firstinspires.ftc.teamcode.Geometry;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: MatrixTest.java
+ *
+ * tests of Matrix2d and Matrix3d: a matrix times its inverse is the identity, singular matrices are refused
+ * and the transform of a pose moves points the same way as the pose does
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class MatrixTest {
+    private static final double tolerance = 1e-9;
+
+    private final Random random = new Random(1);
+
+    @Test
+    public void matrix2dTimesItsInverseIsTheIdentity() {
+        Matrix2d matrix = new Matrix2d(), inverse = new Matrix2d(), product = new Matrix2d();
+        for (int i = 0; i < 1000; i++) {
+            matrix.set(random.nextDouble() * 10 - 5, random.nextDouble() * 10 - 5, random.nextDouble() * 10 - 5, random.nextDouble() * 10 - 5);
+            if (Math.abs(matrix.determinant()) < 1e-3) continue;
+            matrix.timesInto(matrix.inverseInto(inverse), product);
+            for (int row = 0; row < 2; row++)
+                for (int column = 0; column < 2; column++)
+                    assertEquals(row == column ? 1 : 0, product.get(row, column), 1e-6);
+        }
+    }
+
+    @Test
+    public void matrix3dTimesItsInverseIsTheIdentity() {
+        Matrix3d matrix = new Matrix3d(), inverse = new Matrix3d(), product = new Matrix3d();
+        double[] elements = new double[9];
+        for (int i = 0; i < 1000; i++) {
+            for (int k = 0; k < 9; k++) elements[k] = random.nextDouble() * 10 - 5;
+            matrix.set(elements);
+            if (Math.abs(matrix.determinant()) < 1e-3) continue;
+            matrix.timesInto(matrix.inverseInto(inverse), product);
+            for (int row = 0; row < 3; row++)
+                for (int column = 0; column < 3; column++)
+                    assertEquals(row == column ? 1 : 0, product.get(row, column), 1e-6);
+        }
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void singularMatrix2dIsRefused() {
+        new Matrix2d(1, 2, 2, 4).inverse();
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void singularMatrix3dIsRefused() {
+        new Matrix3d(1, 2, 3, 2, 4, 6, 0, 0, 1).inverse();
+    }
+
+    @Test
+    public void transformMovesPointsLikeThePose() {
+        Pose2d pose = new Pose2d(10, -20, 0.7);
+        Pose2d point = new Pose2d(3, 4, 0);
+        Pose2d expected = pose.plus(point);
+        double[] moved = Matrix3d.transform(pose).timesInto(new double[] {3, 4, 1}, new double[3]);
+        assertEquals(expected.getX(), moved[0], tolerance);
+        assertEquals(expected.getY(), moved[1], tolerance);
+        assertEquals(1, moved[2], tolerance);
+    }
+}
@@ -0,0 +1,126 @@
+package org.firstinspires.ftc.teamcode.Geometry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.MicroBenchmark;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: Pose2dTest.java
+ *
+ * tests of Pose2d: exp() and log() undo each other, and so do plus() and relativeTo(), over random poses
+ * and benchmarks of the "into" variants used by the control loop, which must allocate nothing
+ * the turning of the velocity into the field is checked and timed against the arrays the position calculator used before the geometry classes
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class Pose2dTest {
+    private static final double tolerance = 1e-9;
+    private static final int samples = 10000;
+
+    private final Random random = new Random(1);
+
+    @Test
+    public void expFollowsAnArc() {
+        /* a quarter of a circle of radius 1, driving forward and turning left */
+        Pose2d end = new Pose2d().exp(new Twist2d(0, Math.PI / 2, Math.PI / 2));
+        assertEquals(-1, end.getX(), tolerance);
+        assertEquals(1, end.getY(), tolerance);
+        assertEquals(Math.PI / 2, end.getHeading(), tolerance);
+    }
+
+    @Test
+    public void logUndoesExp() {
+        Pose2d start = new Pose2d(), end = new Pose2d();
+        Twist2d twist = new Twist2d(), found = new Twist2d();
+        for (int i = 0; i < samples; i++) {
+            start.set(random.nextDouble() * 1000, random.nextDouble() * 1000, random.nextDouble() * 20 - 10);
+            /* including the rotations too small to divide by */
+            final double rotation = i % 10 == 0 ? random.nextDouble() * 1e-7 : random.nextDouble() * 6 - 3;
+            twist.set(random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100, rotation);
+
+            start.logInto(start.expInto(twist, end), found);
+            assertEquals(twist.getDx(), found.getDx(), 1e-6);
+            assertEquals(twist.getDy(), found.getDy(), 1e-6);
+            assertEquals(twist.getDTheta(), found.getDTheta(), tolerance);
+        }
+    }
+
+    @Test
+    public void relativeToUndoesPlus() {
+        Pose2d origin = new Pose2d(), pose = new Pose2d(), fieldPose = new Pose2d(), found = new Pose2d();
+        for (int i = 0; i < samples; i++) {
+            origin.set(random.nextDouble() * 1000, random.nextDouble() * 1000, random.nextDouble() * 20 - 10);
+            pose.set(random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100, random.nextDouble() * 6 - 3);
+
+            origin.plusInto(pose, fieldPose).relativeToInto(origin, found);
+            assertEquals(pose.getX(), found.getX(), 1e-6);
+            assertEquals(pose.getY(), found.getY(), 1e-6);
+            assertEquals(pose.getHeading(), found.getHeading(), tolerance);
+        }
+    }
+
+    @Test
+    public void rotatingMatchesTheFormerArrays() {
+        Rotation2d facing = new Rotation2d();
+        Vector2d velocity = new Vector2d(), fieldVelocity = new Vector2d();
+        for (int i = 0; i < samples; i++) {
+            velocity.set(random.nextDouble() * 2000 - 1000, random.nextDouble() * 2000 - 1000);
+            facing.set(random.nextDouble() * 20 - 10);
+            double[] former = rotateWithArrays(velocity.toArray(), facing.getRadians());
+            velocity.rotateByInto(facing, fieldVelocity);
+            assertEquals(former[0], fieldVelocity.getX(), 1e-6);
+            assertEquals(former[1], fieldVelocity.getY(), 1e-6);
+        }
+    }
+
+    @Test
+    public void intoVariantsAllocateNothing() {
+        final Pose2d start = new Pose2d(100, 200, 1), end = new Pose2d();
+        final Twist2d twist = new Twist2d(), found = new Twist2d();
+        final Rotation2d facing = new Rotation2d();
+        final Vector2d velocity = new Vector2d(300, 400), fieldVelocity = new Vector2d();
+        final double[] rawVelocity = {300, 400};
+
+        MicroBenchmark.Result poseExponential = MicroBenchmark.run("Pose2d.expInto + logInto", 2000000, new MicroBenchmark.Operation() {
+            @Override
+            public double run(int iteration) {
+                twist.set(30, 40, iteration * 1e-6);
+                return start.logInto(start.expInto(twist, end), found).getDx();
+            }
+        });
+        MicroBenchmark.Result rotation = MicroBenchmark.run("Vector2d.rotateByInto", 2000000, new MicroBenchmark.Operation() {
+            @Override
+            public double run(int iteration) {
+                facing.set(iteration * 1e-6);
+                return velocity.rotateByInto(facing, fieldVelocity).getX();
+            }
+        });
+        /* printed to compare with, the JIT usually removes its arrays too, so it is not checked */
+        MicroBenchmark.run("the former rotation with arrays", 2000000, new MicroBenchmark.Operation() {
+            @Override
+            public double run(int iteration) {
+                return rotateWithArrays(rawVelocity, iteration * 1e-6)[0];
+            }
+        });
+
+        assertTrue(poseExponential.toString(), Double.isNaN(poseExponential.bytesPerOperation) || poseExponential.bytesPerOperation < 1);
+        assertTrue(rotation.toString(), Double.isNaN(rotation.bytesPerOperation) || rotation.bytesPerOperation < 1);
+    }
+
+    /** how the position calculator turned the velocity into the field before the geometry classes, four trigonometric functions and a new array in every period */
+    private static double[] rotateWithArrays(double[] rawVelocity, double facing) {
+        double[] actualVelocity = new double[2];
+        actualVelocity[0] += rawVelocity[0] * Math.cos(facing);
+        actualVelocity[0] += rawVelocity[1] * Math.cos(facing + Math.toRadians(90));
+        actualVelocity[1] += rawVelocity[0] * Math.sin(facing);
+        actualVelocity[1] += rawVelocity[1] * Math.sin(facing + Math.toRadians(90));
+        return actualVelocity;
+    }
+}
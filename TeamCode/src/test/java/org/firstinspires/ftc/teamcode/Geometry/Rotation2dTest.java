@@ -0,0 +1,49 @@
+package org.firstinspires.ftc.teamcode.Geometry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: Rotation2dTest.java
+ *
+ * tests of Rotation2d: the wrapping of the angles, the shortest turn between two facings, and the composition of rotations
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class Rotation2dTest {
+    private static final double tolerance = 1e-9;
+
+    @Test
+    public void wrapKeepsTheFacingWithinHalfATurn() {
+        assertEquals(0, Rotation2d.wrap(Math.PI * 2), tolerance);
+        assertEquals(-Math.PI / 2, Rotation2d.wrap(Math.PI * 1.5), tolerance);
+        assertEquals(Math.PI / 2, Rotation2d.wrap(-Math.PI * 7.5), tolerance);
+        for (double angle = -20; angle < 20; angle += 0.01) {
+            final double wrapped = Rotation2d.wrap(angle);
+            assertEquals(0, Rotation2d.wrap(wrapped - angle), tolerance);
+            assertTrue(Math.abs(wrapped) <= Math.PI);
+        }
+    }
+
+    @Test
+    public void differenceTakesTheShortWay() {
+        assertEquals(Math.toRadians(2), Rotation2d.fromDegrees(179).differenceTo(Rotation2d.fromDegrees(-179)), tolerance);
+        assertEquals(Math.toRadians(-2), Rotation2d.fromDegrees(-179).differenceTo(Rotation2d.fromDegrees(179)), tolerance);
+        assertEquals(Math.toRadians(10), Rotation2d.fromDegrees(720).differenceTo(Rotation2d.fromDegrees(10)), tolerance);
+    }
+
+    @Test
+    public void plusAndMinusUndoEachOther() {
+        Rotation2d a = new Rotation2d(2.5), b = new Rotation2d(-4);
+        Rotation2d sum = a.plus(b);
+        assertEquals(-1.5, sum.getRadians(), tolerance);
+        assertEquals(Math.cos(-1.5), sum.getCos(), tolerance);
+        assertEquals(Math.sin(-1.5), sum.getSin(), tolerance);
+        assertEquals(a.getRadians(), sum.minus(b).getRadians(), tolerance);
+    }
+}
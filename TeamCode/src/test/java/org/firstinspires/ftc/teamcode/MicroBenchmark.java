@@ -0,0 +1,96 @@
+package org.firstinspires.ftc.teamcode;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: MicroBenchmark.java
+ *
+ * times an operation of the control loops on the computer, for the benchmarks among the tests
+ * the operation is run first to let the JIT compile it, then timed over a few rounds, and the fastest round is kept, as the slower ones were disturbed by something else
+ * the bytes allocated by the operation are counted too, where the JVM can count them, so the loops that should allocate nothing can be checked
+ * the results of the operation are summed into a field, so the JIT cannot drop the operation as unused
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public final class MicroBenchmark {
+    /** the rounds timed, after the one to warm up */
+    private static final int rounds = 5;
+
+    /** the sum of the results of all the operations */
+    private static double sink = 0;
+
+    private MicroBenchmark() {}
+
+    /** an operation to time */
+    public interface Operation {
+        /**
+         * @param iteration the count of the run, to vary the inputs with
+         * @return any result of the operation, summed so it is not dropped
+         */
+        double run(int iteration);
+    }
+
+    /** what a benchmark measured */
+    public static final class Result {
+        /** the name of the operation */
+        public final String name;
+        /** the time of one run of the operation, in the fastest round, in nanoseconds */
+        public final double nanosPerOperation;
+        /** the bytes allocated by one run of the operation, in the same round, NaN if the JVM cannot count them */
+        public final double bytesPerOperation;
+
+        private Result(String name, double nanosPerOperation, double bytesPerOperation) {
+            this.name = name;
+            this.nanosPerOperation = nanosPerOperation;
+            this.bytesPerOperation = bytesPerOperation;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.1f ns/op, %.2f B/op", name, nanosPerOperation, bytesPerOperation);
+        }
+    }
+
+    /**
+     * time an operation, and print the result
+     *
+     * @param name the name of the operation, to print
+     * @param operations the runs of the operation in each round
+     * @param operation the operation
+     * @return what was measured
+     */
+    public static Result run(String name, int operations, Operation operation) {
+        for (int i = 0; i < operations; i++) sink += operation.run(i);
+
+        double bestNanos = Double.POSITIVE_INFINITY, bestBytes = Double.NaN;
+        for (int round = 0; round < rounds; round++) {
+            final long startingBytes = getAllocatedBytes();
+            final long startingTime = System.nanoTime();
+            for (int i = 0; i < operations; i++) sink += operation.run(i);
+            final long time = System.nanoTime() - startingTime;
+            final long bytes = getAllocatedBytes() - startingBytes;
+
+            if (time < bestNanos * operations) {
+                bestNanos = time / (double) operations;
+                bestBytes = startingBytes < 0 ? Double.NaN : bytes / (double) operations;
+            }
+        }
+
+        Result result = new Result(name, bestNanos, bestBytes);
+        System.out.println(result);
+        return result;
+    }
+
+    /** @return the bytes allocated by the current thread so far, -1 if the JVM cannot count them */
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean allocationCountingBean = (com.sun.management.ThreadMXBean) threadBean;
+        if (!allocationCountingBean.isThreadAllocatedMemorySupported() || !allocationCountingBean.isThreadAllocatedMemoryEnabled()) return -1;
+        return allocationCountingBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,151 @@
+package org.firstinspires.ftc.teamcode;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
+import org.firstinspires.ftc.teamcode.Utils.VirtualClock;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: RobotModuleSchedulerTest.java
+ *
+ * runs the scheduler on a virtual clock, with modules that record when they are called and can take time of their own
+ *  - each module is released at the multiples of its period, however the main loop spins
+ *  - the modules due in the same cycle are called from the highest priority, the ones of the same priority in the order registered
+ *  - a module running past its deadline is an overrun, and the periods the loop missed meanwhile are skipped, not caught up
+ *  - restarting when the op mode starts releases the modules from then, so the wait for the start is not counted as skipped
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class RobotModuleSchedulerTest {
+    private static final double millisecond = 0.001;
+
+    private final VirtualClock clock = new VirtualClock();
+    private final RobotModuleScheduler scheduler = new RobotModuleScheduler(clock);
+    /** the names of the modules, in the order they are called */
+    private final ArrayList<String> calls = new ArrayList<>();
+
+    @Test
+    public void modulesAreReleasedAtTheirRates() {
+        final RecordingModule fast = new RecordingModule("fast"), slow = new RecordingModule("slow");
+        scheduler.register(fast, 100, 0);
+        scheduler.register(slow, 20, 0);
+
+        /* a loop that does not divide the periods, taking three milliseconds */
+        runFor(1, 3 * millisecond);
+        assertEquals(100, fast.callTimes.size());
+        assertEquals(20, slow.callTimes.size());
+        for (int i = 0; i < fast.callTimes.size(); i++) assertReleasedWithinALoop(fast.callTimes.get(i), i * 0.01, 3 * millisecond);
+        for (int i = 0; i < slow.callTimes.size(); i++) assertReleasedWithinALoop(slow.callTimes.get(i), i * 0.05, 3 * millisecond);
+
+        assertEquals(0, scheduler.getScheduledModule("fast").getSkippedPeriods());
+        assertEquals(0, scheduler.getScheduledModule("fast").getOverruns());
+    }
+
+    @Test
+    public void modulesDueTogetherAreCalledByPriority() {
+        scheduler.register(new RecordingModule("low"), 50, 0);
+        scheduler.register(new RecordingModule("high"), 50, 2);
+        scheduler.register(new RecordingModule("middle"), 50, 1);
+        scheduler.register(new RecordingModule("middle, registered later"), 50, 1);
+
+        assertEquals(4, scheduler.runCycle());
+        assertArrayEquals(new String[] {"high", "middle", "middle, registered later", "low"}, calls.toArray());
+        assertEquals("none is due again until the next period", 0, scheduler.runCycle());
+        assertEquals(RobotClock.secondsToNanos(0.02), scheduler.getTimeUntilNextRelease());
+        clock.advanceSeconds(5 * millisecond);
+        assertEquals(RobotClock.secondsToNanos(0.015), scheduler.getTimeUntilNextRelease());
+    }
+
+    @Test
+    public void lateModuleIsCountedAsOverrunAndSkipped() {
+        final RecordingModule module = new RecordingModule("late");
+        final RobotModuleScheduler.ScheduledModule scheduledModule = scheduler.register(module, 100, 0);
+        /* the third call takes two and a half periods */
+        module.slowCall = 2;
+        module.slowCallTime = 25 * millisecond;
+
+        runFor(0.1, millisecond);
+        assertEquals(1, scheduledModule.getOverruns());
+        assertEquals(0.025, scheduledModule.getMaxExecutionTime(), 1e-9);
+        /* finished at 45ms, the release of 30ms is missed, the one of 40ms is called in the next loop, and the releases go on from 50ms */
+        assertEquals(1, scheduledModule.getSkippedPeriods());
+        assertReleasedWithinALoop(module.callTimes.get(3), 0.045, millisecond);
+        assertReleasedWithinALoop(module.callTimes.get(4), 0.05, 0);
+        assertEquals(9, scheduledModule.getRuns());
+    }
+
+    @Test
+    public void restartReleasesFromTheStart() {
+        final RecordingModule module = new RecordingModule("waiting");
+        final RobotModuleScheduler.ScheduledModule scheduledModule = scheduler.register(module, 100, 0);
+        scheduler.runCycle();
+
+        /* the op mode waits five seconds for the start */
+        clock.advanceSeconds(5);
+        scheduler.restart();
+        assertEquals(0, scheduledModule.getRuns());
+        runFor(0.1, millisecond);
+
+        assertEquals(0, scheduledModule.getSkippedPeriods());
+        assertEquals(0, scheduledModule.getOverruns());
+        assertEquals(10, scheduledModule.getRuns());
+        for (int i = 1; i < module.callTimes.size(); i++) assertReleasedWithinALoop(module.callTimes.get(i), 5 + (i - 1) * 0.01, 0);
+    }
+
+    @Test
+    public void waitWithoutRestartIsCountedAsSkipped() {
+        final RobotModuleScheduler.ScheduledModule scheduledModule = scheduler.register(new RecordingModule("waiting"), 100, 0);
+        scheduler.runCycle();
+        clock.advanceSeconds(5);
+        scheduler.runCycle();
+        assertEquals(499, scheduledModule.getSkippedPeriods());
+    }
+
+    /** run the main loop, calling the scheduler once every loop */
+    private void runFor(double duration, double loopTime) {
+        final long endTime = clock.nanoTime() + RobotClock.secondsToNanos(duration);
+        while (clock.nanoTime() < endTime) {
+            scheduler.runCycle();
+            clock.advanceSeconds(loopTime);
+        }
+    }
+
+    /** a module called no earlier than its release, and within a loop after it */
+    private static void assertReleasedWithinALoop(double callTime, double releaseTime, double loopTime) {
+        assertTrue("called at " + callTime + "s, released at " + releaseTime + "s", callTime >= releaseTime - 1e-9 && callTime <= releaseTime + loopTime + 1e-9);
+    }
+
+    /** a module that records the times it is called, in seconds, and can take time on one of its calls */
+    private final class RecordingModule extends RobotModule {
+        private final ArrayList<Double> callTimes = new ArrayList<>();
+        /** the call that takes time, -1 for none, and the time it takes in seconds */
+        private int slowCall = -1;
+        private double slowCallTime = 0;
+
+        RecordingModule(String moduleName) {
+            super(moduleName);
+        }
+
+        @Override
+        public void init(HashMap<String, RobotModule> dependentModules, HashMap<String, Object> dependentInstances) {}
+
+        @Override
+        public void updateDependentInstances(String instanceName, Object newerInstance) {}
+
+        @Override
+        public void periodic() {
+            if (callTimes.size() == slowCall) clock.advanceSeconds(slowCallTime);
+            callTimes.add(RobotClock.nanosToSeconds(clock.nanoTime()));
+            calls.add(getModuleName());
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package org.firstinspires.ftc.teamcode.RobotModules;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.qualcomm.robotcore.hardware.Gamepad;
+
+import org.firstinspires.ftc.teamcode.Drivers.HardwareDriver;
+import org.firstinspires.ftc.teamcode.RobotModule;
+import org.firstinspires.ftc.teamcode.SimulatedLift;
+import org.firstinspires.ftc.teamcode.SimulatedServo;
+import org.firstinspires.ftc.teamcode.Utils.RobotClock;
+import org.firstinspires.ftc.teamcode.Utils.VirtualClock;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: ArmTest.java
+ *
+ * runs the arm on a simulated lift and claw, through the states of its table
+ *  - grabbing goes down with the claw open, closes it on the ground, lifts the sleeve to the low position and holds it there, on the arrivals and the timeout of the closing
+ *  - the time spent in each state adds up to the time the arm has run
+ *  - a lift pushed back while moving holds where it is, and one stalled while holding is deactivated
+ *  - the requests posted while events are being handled wait in the queue, and the ones beyond its capacity are counted as dropped
+ * the pilot's game pad is left untouched, so only the requests of the test and the events of the lift move the arm
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class ArmTest {
+    private static final double period = 0.012;
+    /** the low position of the arm, see Arm, the lift starts at 0 so it is not offset */
+    private static final int lowPos = 320;
+    /** the distance from the target within which the lift driver takes the lift as arrived, in encoder values, see LiftDriver */
+    private static final double arrivalTolerance = 20;
+    /** the time the claw takes to close, in seconds, see Arm.State */
+    private static final double clawClosingTime = 0.3;
+    /** a push on the arm stronger than the feedback of the lift can hold against */
+    private static final double overwhelmingPush = 0.9;
+
+    private final SimulatedLift lift = new SimulatedLift();
+    private final SimulatedServo claw = new SimulatedServo();
+    private final VirtualClock clock = new VirtualClock();
+    private final HardwareDriver hardwareDriver = new HardwareDriver(clock);
+    private final Arm arm = new Arm();
+    /** the time the arm was initialized, in nanoseconds */
+    private long initTimestamp;
+
+    @Before
+    public void initArm() {
+        lift.connect(hardwareDriver);
+        hardwareDriver.claw = claw.asServo();
+        hardwareDriver.beginControlCycle();
+        initTimestamp = hardwareDriver.getClock().getCycleTimestamp();
+
+        final HashMap<String, Object> instances = new HashMap<>();
+        instances.put("hardwareDriver", hardwareDriver);
+        instances.put("initialControllerPad", new Gamepad());
+        arm.init(new HashMap<String, RobotModule>(), instances, false);
+
+        /* the arm is deactivated when it starts, and relaxes once it reaches the ground position */
+        assertEquals(Arm.State.DEACTIVATING, arm.getState());
+        assertTrue(runUntil(Arm.State.RELAXED, 3, null));
+    }
+
+    @Test
+    public void grabbingClosesTheClawOnTheGroundAndLiftsTheSleeve() {
+        arm.grabSleeve();
+        assertEquals(Arm.State.GRAB_DESCENDING, arm.getState());
+        assertEquals("the claw opens to grab", 0.45, claw.getPosition(), 0);
+
+        final ArrayList<Arm.State> visitedStates = new ArrayList<>();
+        visitedStates.add(arm.getState());
+        assertTrue(runUntil(Arm.State.HOLDING, 5, visitedStates));
+        assertArrayEquals(new Arm.State[] {Arm.State.GRAB_DESCENDING, Arm.State.GRAB_CLOSING, Arm.State.INCLINING, Arm.State.HOLDING}, visitedStates.toArray());
+        assertEquals("the claw holds the sleeve", 0.1, claw.getPosition(), 0);
+        assertEquals(lowPos, lift.getPosition(), arrivalTolerance);
+
+        /* the descent and the inclining arrived, and the closing timed out */
+        assertEquals(3, arm.getEventCount(Arm.Event.ARRIVED));
+        assertEquals(1, arm.getEventCount(Arm.Event.TIMEOUT));
+        assertEquals(0, arm.getDroppedEventsCount());
+
+        /* the claw closes for its timeout, and the states share all the time the arm has run */
+        final double closingTime = arm.getTimeInState(Arm.State.GRAB_CLOSING);
+        assertTrue("closed for " + closingTime + "s", closingTime > clawClosingTime && closingTime <= clawClosingTime + period + 1e-9);
+        double totalTime = 0;
+        for (Arm.State state : Arm.State.values()) {
+            totalTime += arm.getTimeInState(state);
+            final int expectedEntries = state == Arm.State.RELAXED || state == Arm.State.DEACTIVATING || visitedStates.contains(state) ? 1 : 0;
+            assertEquals("entries of " + state, expectedEntries, arm.getStateEntries(state));
+        }
+        assertEquals(RobotClock.nanosToSeconds(hardwareDriver.getClock().getCycleTimestamp() - initTimestamp), totalTime, 1e-9);
+        assertEquals(arm.getTimeInCurrentState(), arm.getTimeInState(Arm.State.HOLDING), 1e-9);
+    }
+
+    @Test
+    public void liftPushedBackWhileMovingHoldsWhereItIs() {
+        arm.toHighArmPosition();
+        assertEquals(Arm.State.INCLINING, arm.getState());
+        runCycles(0.2);
+        assertEquals(Arm.State.INCLINING, arm.getState());
+
+        lift.setExternalPower(overwhelmingPush);
+        assertTrue(runUntil(Arm.State.HOLDING, 0.5, null));
+        assertEquals(1, arm.getEventCount(Arm.Event.COLLIDED));
+        lift.setExternalPower(0);
+
+        /* it holds where it collided, instead of driving on to the high position */
+        final double collisionPosition = lift.getPosition();
+        runCycles(1);
+        assertEquals(Arm.State.HOLDING, arm.getState());
+        assertEquals(collisionPosition, lift.getPosition(), arrivalTolerance * 2);
+    }
+
+    @Test
+    public void liftStalledWhileHoldingIsDeactivated() {
+        arm.toLowArmPosition();
+        assertTrue(runUntil(Arm.State.HOLDING, 3, null));
+
+        /* the arm is pressed down harder than the lift can hold, a collision changes nothing while holding, a stall deactivates it */
+        lift.setExternalPower(overwhelmingPush);
+        assertTrue(runUntil(Arm.State.DEACTIVATING, 1, null));
+        assertEquals(1, arm.getEventCount(Arm.Event.STALLED));
+        assertEquals(0, arm.getEventCount(Arm.Event.COLLIDED));
+
+        lift.setExternalPower(0);
+        assertTrue(runUntil(Arm.State.RELAXED, 3, null));
+    }
+
+    @Test
+    public void requestsPostedWhileHandlingEventsWaitInTheQueue() throws ReflectiveOperationException {
+        /* as if an entry action posts them, while the events are being handled */
+        final Field handlingEvents = Arm.class.getDeclaredField("handlingEvents");
+        handlingEvents.setAccessible(true);
+        handlingEvents.setBoolean(arm, true);
+
+        /* the queue holds eight, the two last requests are dropped */
+        for (int i = 0; i < 10; i++) {
+            if (i % 2 == 0) arm.toHighArmPosition();
+            else arm.grabSleeve();
+        }
+        assertEquals(Arm.State.RELAXED, arm.getState());
+        assertEquals(2, arm.getDroppedEventsCount());
+
+        /* the next cycle handles the eight in the order they came, the last one kept is a grab */
+        handlingEvents.setBoolean(arm, false);
+        runCycles(period);
+        assertEquals(Arm.State.GRAB_DESCENDING, arm.getState());
+        assertEquals(4, arm.getEventCount(Arm.Event.RAISE));
+        assertEquals(4, arm.getEventCount(Arm.Event.GRAB));
+        assertEquals(4, arm.getStateEntries(Arm.State.INCLINING));
+        assertEquals(4, arm.getStateEntries(Arm.State.GRAB_DESCENDING));
+        assertEquals(2, arm.getDroppedEventsCount());
+    }
+
+    /**
+     * run cycles until the arm enters a state
+     *
+     * @param maxTime the most time to run, in seconds
+     * @param visitedStates the states the arm goes through, each added as it is entered, or null
+     * @return whether it entered the state in time
+     */
+    private boolean runUntil(Arm.State state, double maxTime, ArrayList<Arm.State> visitedStates) {
+        for (double time = 0; time < maxTime; time += period) {
+            runCycle();
+            if (visitedStates != null && arm.getState() != visitedStates.get(visitedStates.size() - 1)) visitedStates.add(arm.getState());
+            if (arm.getState() == state) return true;
+        }
+        return false;
+    }
+
+    /** @param duration the time to run the arm for, in seconds */
+    private void runCycles(double duration) {
+        for (double time = 0; time < duration; time += period) runCycle();
+    }
+
+    /** run the arm in this cycle, send the commands, move the lift until the next cycle, and read the hardware again */
+    private void runCycle() {
+        arm.periodic();
+        hardwareDriver.endControlCycle();
+        lift.simulate(period);
+        clock.advanceSeconds(period);
+        hardwareDriver.beginControlCycle();
+    }
+}
@@ -0,0 +1,116 @@
+package org.firstinspires.ftc.teamcode.RobotModules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.Drivers.HardwareDriver;
+import org.firstinspires.ftc.teamcode.Geometry.Twist2d;
+import org.firstinspires.ftc.teamcode.RobotModule;
+import org.firstinspires.ftc.teamcode.SimulatedMotor;
+import org.firstinspires.ftc.teamcode.Utils.VirtualClock;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: MecanumWheelPositionCalculatorTest.java
+ *
+ * turns the wheels of a simulated mecanum chassis by known motions of the robot, and reads back the motion fitted from them
+ *  - wheels that agree give back the exact motion, and its velocity, with no residual, whatever the configurations of the wheels
+ *  - one wheel slipping is shared out over the fit, and leaves a residual on all four, in the pattern no motion of the robot can make
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class MecanumWheelPositionCalculatorTest {
+    private static final double period = 0.02;
+    /** the encoder values each wheel turns when the robot rotates by one radian, see MecanumWheelPositionCalculator */
+    private static final double wheelEncoderValuesPerRadian = 3900 / (Math.PI * 2);
+    /** the motions of the wheels, sideways X, forward Y and rotating R, in whole encoder values like the encoders read them */
+    private static final int[][] wheelMotions = {
+            {0, 100, 0},
+            {80, 0, 0},
+            {0, 0, -60},
+            {-35, 120, 25},
+            {17, -90, -40}
+    };
+
+    /** the wheels, in the order of leftFront, leftRear, rightFront and rightRear */
+    private final SimulatedMotor[] wheels = {new SimulatedMotor(), new SimulatedMotor(), new SimulatedMotor(), new SimulatedMotor()};
+    private final VirtualClock clock = new VirtualClock();
+    private final HardwareDriver hardwareDriver = new HardwareDriver(clock);
+    private final Mini1024EncoderReader encoderReader = new Mini1024EncoderReader();
+    private final MecanumWheelPositionCalculator calculator = new MecanumWheelPositionCalculator();
+    private final Twist2d displacement = new Twist2d(), velocity = new Twist2d();
+
+    @Test
+    public void agreeingWheelsGiveTheExactMotion() {
+        /* the rollers slip sideways, so strafing moves the robot less than driving forward */
+        final double[][] configurations = {{1, 1}, {1.1, 0.8}};
+        for (double[] configuration : configurations) {
+            final double forwardDistance = configuration[0], sidewaysDistance = configuration[1];
+            createCalculator();
+            calculator.setWheelConfigurations(forwardDistance, sidewaysDistance, wheelEncoderValuesPerRadian);
+
+            for (int[] wheelMotion : wheelMotions) {
+                turnWheels(wheelMotion[0], wheelMotion[1], wheelMotion[2], 0);
+                final double dx = wheelMotion[0] * sidewaysDistance, dy = wheelMotion[1] * forwardDistance, dTheta = -wheelMotion[2] / wheelEncoderValuesPerRadian;
+                assertEquals(dx, displacement.getDx(), 1e-9);
+                assertEquals(dy, displacement.getDy(), 1e-9);
+                assertEquals(dTheta, displacement.getDTheta(), 1e-12);
+                assertEquals(dx / period, velocity.getDx(), 1e-6);
+                assertEquals(dy / period, velocity.getDy(), 1e-6);
+                assertEquals(dTheta / period, velocity.getDTheta(), 1e-9);
+                assertEquals(0, calculator.getWheelSlip(), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void slippingWheelLeavesAResidual() {
+        createCalculator();
+        turnWheels(10, 100, 20, 0);
+        assertEquals(0, calculator.getWheelSlip(), 1e-9);
+
+        /* the left front wheel spins 40 encoder values more than the robot moves it */
+        final double slip = 40;
+        turnWheels(10, 100, 20, slip);
+        /* the four readings only disagree along (1, -1, 1, -1), a quarter of the slip of the wheel on each, with the signs of that pattern */
+        final double[] residualPattern = {1, -1, 1, -1};
+        for (int wheel = 0; wheel < wheels.length; wheel++) assertEquals(slip / 4 * residualPattern[wheel], calculator.getWheelResiduals()[wheel], 1e-9);
+        assertEquals(slip / 2, calculator.getWheelSlip(), 1e-9);
+        /* the rest of the slip is taken as motion */
+        assertTrue(displacement.getDx() > 10 && displacement.getDy() > 100);
+    }
+
+    private void createCalculator() {
+        for (SimulatedMotor wheel : wheels) wheel.position = 0;
+        final HashMap<String, Object> instances = new HashMap<>();
+        for (int i = 0; i < wheels.length; i++) instances.put("encoder-" + (i + 1) + "-instance", wheels[i].asDcMotorEx());
+        instances.put("hardwareDriver", hardwareDriver);
+        hardwareDriver.beginControlCycle();
+        encoderReader.init(null, instances);
+
+        final HashMap<String, RobotModule> modules = new HashMap<>();
+        modules.put("encoderReader", encoderReader);
+        calculator.init(modules, null);
+    }
+
+    /**
+     * turn the wheels by a motion of the robot in one period, and fit the motion from them
+     *
+     * @param slip the extra turn of the left front wheel, in encoder values
+     */
+    private void turnWheels(int x, int y, int rotation, double slip) {
+        wheels[0].position += y + rotation + x + slip;
+        wheels[1].position += y + rotation - x;
+        wheels[2].position += y - rotation - x;
+        wheels[3].position += y - rotation + x;
+        clock.advanceSeconds(period);
+        hardwareDriver.beginControlCycle();
+        encoderReader.periodic();
+        calculator.measureMotion(displacement, velocity);
+    }
+}
@@ -0,0 +1,147 @@
+package org.firstinspires.ftc.teamcode.RobotModules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.Geometry.Rotation2d;
+import org.firstinspires.ftc.teamcode.MicroBenchmark;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: RobotPoseEstimatorTest.java
+ *
+ * runs the filter on a simulated stream, without the robot, through predict() and the corrections
+ * the robot drives a long arc, its odometry reads each motion with a noise and a scale a little off, like wheels slipping and worn
+ * the imu reads the heading every few cycles, and the camera the whole pose every couple of seconds, each with its own noise
+ *  - the error of the filter stays within a few of its own standard deviations, while the odometry alone drifts away
+ *  - each correction shrinks the covariance of what it measures, and the covariance settles instead of growing
+ *  - a camera pose too far to believe is ignored
+ *  - a cycle of the filter takes well under a millisecond, and creates no objects
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class RobotPoseEstimatorTest {
+    /** the cycles simulated, at 100Hz */
+    private static final int cycles = 20000;
+    /** the motion of the robot in each cycle, sideways and forward in encoder values, and turning in radian */
+    private static final double motionX = 0.5, motionY = 20, motionHeading = 0.002;
+    /** the noise of the odometry, as a share of the motion, its scale error, and the noise of its heading in radian */
+    private static final double odometryNoise = 0.02, odometryScale = 1.01, odometryHeadingNoise = 0.0005;
+    /** the cycles between two readings of the imu, and its noise in radian */
+    private static final int imuInterval = 10;
+    private static final double imuNoise = Math.toRadians(1);
+    /** the cycles between two camera poses, and their noises in encoder values and radian */
+    private static final int cameraInterval = 200;
+    private static final double cameraPositionNoise = 1000, cameraHeadingNoise = Math.toRadians(5);
+
+    private final Random random = new Random(20261018);
+    private final RobotPoseEstimator estimator = new RobotPoseEstimator();
+    /** the true pose of the robot, and the one of the odometry alone */
+    private double x = 0, y = 0, heading = 0;
+    private double odometryX = 0, odometryY = 0, odometryHeading = 0;
+
+    @Test
+    public void errorStaysBoundedWhileTheOdometryDrifts() {
+        double maxNormalizedError = 0;
+        for (int cycle = 1; cycle <= cycles; cycle++) {
+            runCycle(cycle);
+            final double normalizedError = Math.max(
+                    Math.hypot(estimator.getPose().getX() - x, estimator.getPose().getY() - y) / Math.sqrt(estimator.getCovariance().get(0, 0) + estimator.getCovariance().get(1, 1)),
+                    Math.abs(Rotation2d.wrap(estimator.getPose().getHeading() - heading)) / Math.sqrt(estimator.getCovariance().get(2, 2)));
+            /* once the first camera pose is in */
+            if (cycle > cameraInterval) maxNormalizedError = Math.max(maxNormalizedError, normalizedError);
+        }
+
+        final double positionError = Math.hypot(estimator.getPose().getX() - x, estimator.getPose().getY() - y);
+        final double odometryError = Math.hypot(odometryX - x, odometryY - y);
+        System.out.printf("position error %.0f, odometry alone %.0f, heading error %.2fdeg, worst %.2f standard deviations, %d outliers%n",
+                positionError, odometryError, Math.toDegrees(Rotation2d.wrap(estimator.getPose().getHeading() - heading)), maxNormalizedError, estimator.getVisionOutliers());
+
+        assertTrue(maxNormalizedError < 5);
+        assertTrue(positionError < cameraPositionNoise);
+        assertTrue(Math.abs(Rotation2d.wrap(estimator.getPose().getHeading() - heading)) < imuNoise * 2);
+        assertTrue("the odometry alone drifts further", odometryError > positionError * 5);
+    }
+
+    @Test
+    public void correctionsShrinkTheCovariance() {
+        /* a stretch with no correction grows it */
+        for (int cycle = 1; cycle < imuInterval; cycle++) estimator.predict(motionX, motionY, motionHeading);
+        final double headingVarianceBefore = estimator.getCovariance().get(2, 2);
+        assertTrue(headingVarianceBefore > 0);
+        estimator.correctHeading(0, imuNoise * imuNoise);
+        assertTrue(estimator.getCovariance().get(2, 2) < headingVarianceBefore);
+
+        final double positionVarianceBefore = estimator.getCovariance().get(0, 0) + estimator.getCovariance().get(1, 1);
+        assertTrue(estimator.correctPose(estimator.getPose().getX(), estimator.getPose().getY(), estimator.getPose().getHeading(), cameraPositionNoise * cameraPositionNoise, cameraHeadingNoise * cameraHeadingNoise));
+        assertTrue(estimator.getCovariance().get(0, 0) + estimator.getCovariance().get(1, 1) < positionVarianceBefore);
+
+        /* over the whole run, the covariance settles, the position within the noise of the camera */
+        double maxPositionVariance = 0;
+        for (int cycle = 1; cycle <= cycles; cycle++) {
+            runCycle(cycle);
+            if (cycle > cycles / 2) maxPositionVariance = Math.max(maxPositionVariance, estimator.getCovariance().get(0, 0));
+            assertEquals(estimator.getCovariance().get(0, 1), estimator.getCovariance().get(1, 0), 1e-6);
+        }
+        assertTrue("the variance of the position grew to " + maxPositionVariance, maxPositionVariance < cameraPositionNoise * cameraPositionNoise);
+    }
+
+    @Test
+    public void unbelievableCameraPoseIsIgnored() {
+        for (int cycle = 1; cycle <= cameraInterval * 3; cycle++) runCycle(cycle);
+        final double estimatedX = estimator.getPose().getX(), estimatedY = estimator.getPose().getY();
+
+        assertFalse(estimator.correctPose(x + cameraPositionNoise * 20, y, heading, cameraPositionNoise * cameraPositionNoise, cameraHeadingNoise * cameraHeadingNoise));
+        assertEquals(1, estimator.getVisionOutliers());
+        assertEquals(estimatedX, estimator.getPose().getX(), 0);
+        assertEquals(estimatedY, estimator.getPose().getY(), 0);
+    }
+
+    @Test
+    public void cycleTakesWellUnderAMillisecond() {
+        final double imuVariance = imuNoise * imuNoise, cameraPositionVariance = cameraPositionNoise * cameraPositionNoise, cameraHeadingVariance = cameraHeadingNoise * cameraHeadingNoise;
+        MicroBenchmark.Result result = MicroBenchmark.run("RobotPoseEstimator cycle", 1000000, new MicroBenchmark.Operation() {
+            @Override
+            public double run(int iteration) {
+                estimator.predict(motionX, motionY, motionHeading);
+                if (iteration % imuInterval == 0) estimator.correctHeading(estimator.getPose().getHeading(), imuVariance);
+                if (iteration % cameraInterval == 0) estimator.correctPose(estimator.getPose().getX(), estimator.getPose().getY(), estimator.getPose().getHeading(), cameraPositionVariance, cameraHeadingVariance);
+                return estimator.getPose().getX();
+            }
+        });
+        /* a tenth of a millisecond, to leave the rest of the cycle to the others */
+        assertTrue(result.toString(), result.nanosPerOperation < 100000);
+        assertTrue(result.toString(), Double.isNaN(result.bytesPerOperation) || result.bytesPerOperation < 1);
+    }
+
+    /** move the robot, give the filter the odometry of the motion, and the imu and the camera when they read */
+    private void runCycle(int cycle) {
+        final double cos = Math.cos(heading), sin = Math.sin(heading);
+        x += motionX * cos - motionY * sin;
+        y += motionX * sin + motionY * cos;
+        heading += motionHeading;
+
+        final double readX = motionX * odometryScale * (1 + odometryNoise * random.nextGaussian());
+        final double readY = motionY * odometryScale * (1 + odometryNoise * random.nextGaussian());
+        final double readHeading = motionHeading + odometryHeadingNoise * random.nextGaussian();
+        final double odometryCos = Math.cos(odometryHeading), odometrySin = Math.sin(odometryHeading);
+        odometryX += readX * odometryCos - readY * odometrySin;
+        odometryY += readX * odometrySin + readY * odometryCos;
+        odometryHeading += readHeading;
+        estimator.predict(readX, readY, readHeading);
+
+        if (cycle % imuInterval == 0) estimator.correctHeading(heading + imuNoise * random.nextGaussian(), imuNoise * imuNoise);
+        if (cycle % cameraInterval == 0) estimator.correctPose(
+                x + cameraPositionNoise * random.nextGaussian(),
+                y + cameraPositionNoise * random.nextGaussian(),
+                heading + cameraHeadingNoise * random.nextGaussian(),
+                cameraPositionNoise * cameraPositionNoise,
+                cameraHeadingNoise * cameraHeadingNoise);
+    }
+}
@@ -0,0 +1,122 @@
+package org.firstinspires.ftc.teamcode.RobotModules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.Drivers.HardwareDriver;
+import org.firstinspires.ftc.teamcode.RobotModule;
+import org.firstinspires.ftc.teamcode.SimulatedMotor;
+import org.firstinspires.ftc.teamcode.Utils.RobotCalibration;
+import org.firstinspires.ftc.teamcode.Utils.VirtualClock;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: RobotPositionCalculatorTest.java
+ *
+ * drives a simulated robot along a curve, turning at 3 rad/s for five seconds, and compares the position worked out from its encoders to the truth
+ * the drift of both ways of integration is checked at periods from 5ms to 60ms, the pose exponential must stay within a few encoder values
+ * while the euler integration drifts in proportion to the period
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class RobotPositionCalculatorTest {
+    private static final double[] periods = {0.005, 0.02, 0.04, 0.06};
+    private static final double simulatedTime = 5;
+    /** the steps the motion of the robot is simulated in during each period */
+    private static final int simulationSteps = 200;
+
+    private final SimulatedMotor[] encoders = {new SimulatedMotor(), new SimulatedMotor(), new SimulatedMotor()};
+    /** the true pose of the robot, in reference to the field */
+    private double x, y, heading;
+    /** the hardware and the encoder reader of the calculator last created */
+    private HardwareDriver hardwareDriver;
+    private Mini1024EncoderReader encoderReader;
+
+    @Test
+    public void poseExponentialDriftsFarLessThanEuler() {
+        for (double period : periods) {
+            final double eulerDrift = simulateDrift(RobotPositionCalculator.IntegrationMode.EULER, period);
+            final double exponentialDrift = simulateDrift(RobotPositionCalculator.IntegrationMode.POSE_EXPONENTIAL, period);
+            System.out.printf("period %.3f s: euler drift %.1f, pose exponential drift %.1f, in encoder values%n", period, eulerDrift, exponentialDrift);
+
+            /* a centimeter is about 200 encoder values */
+            assertTrue("pose exponential drifted " + exponentialDrift + " at a period of " + period, exponentialDrift < 5);
+            assertTrue("euler drifted only " + eulerDrift + " at a period of " + period, eulerDrift > exponentialDrift * 10);
+        }
+    }
+
+    @Test
+    public void bothModesAreExactWithoutRotation() {
+        for (RobotPositionCalculator.IntegrationMode mode : RobotPositionCalculator.IntegrationMode.values()) {
+            RobotPositionCalculator calculator = createCalculator(mode);
+            VirtualClock clock = (VirtualClock) calculator.getClock();
+            for (int i = 0; i < 100; i++) {
+                for (SimulatedMotor encoder : encoders) encoder.position += 50;
+                clock.advanceSeconds(0.02);
+                runCycle(calculator);
+            }
+            assertEquals(mode.toString(), 0, calculator.getRobotRotation(), 1e-9);
+            assertEquals(mode.toString(), 5000, calculator.getRobotPosition()[0], 1e-6);
+            assertEquals(mode.toString(), 5000, calculator.getRobotPosition()[1], 1e-6);
+        }
+    }
+
+    /** @return the distance between the true and the calculated position at the end of the drive */
+    private double simulateDrift(RobotPositionCalculator.IntegrationMode mode, double period) {
+        RobotPositionCalculator calculator = createCalculator(mode);
+        VirtualClock clock = (VirtualClock) calculator.getClock();
+        final double trackWidth = RobotCalibration.get().getTrackWidth();
+        final double lateralWheelOffset = RobotCalibration.get().getLateralWheelOffset();
+
+        for (double time = 0; time < simulatedTime; time += period) {
+            /* in reference to the robot, in encoder values per second and radians per second */
+            final double velocityX = 3000 * Math.cos(time), velocityY = 8000, angularVelocity = 3;
+            final double step = period / simulationSteps;
+            for (int i = 0; i < simulationSteps; i++) {
+                final double dx = velocityX * step, dy = velocityY * step, rotation = angularVelocity * step;
+                x += dx * Math.cos(heading) - dy * Math.sin(heading);
+                y += dx * Math.sin(heading) + dy * Math.cos(heading);
+                heading += rotation;
+                encoders[0].position += dy - rotation * trackWidth / 2;
+                encoders[1].position += dy + rotation * trackWidth / 2;
+                encoders[2].position += dx + rotation * lateralWheelOffset;
+            }
+            clock.advanceSeconds(period);
+            runCycle(calculator);
+        }
+        return Math.hypot(calculator.getRobotPosition()[0] - x, calculator.getRobotPosition()[1] - y);
+    }
+
+    private RobotPositionCalculator createCalculator(RobotPositionCalculator.IntegrationMode mode) {
+        x = y = heading = 0;
+        for (SimulatedMotor encoder : encoders) encoder.position = 0;
+
+        HardwareDriver hardwareDriver = new HardwareDriver(new VirtualClock());
+        HashMap<String, Object> instances = new HashMap<>();
+        for (int i = 0; i < encoders.length; i++) instances.put("encoder-" + (i + 1) + "-instance", encoders[i].asDcMotorEx());
+        instances.put("hardwareDriver", hardwareDriver);
+        hardwareDriver.beginControlCycle();
+        Mini1024EncoderReader encoderReader = new Mini1024EncoderReader();
+        encoderReader.init(null, instances);
+
+        HashMap<String, RobotModule> modules = new HashMap<>();
+        modules.put("encoderReader", encoderReader);
+        RobotPositionCalculator calculator = new RobotPositionCalculator();
+        calculator.init(modules, null);
+        calculator.setIntegrationMode(mode);
+        this.encoderReader = encoderReader;
+        this.hardwareDriver = hardwareDriver;
+        return calculator;
+    }
+
+    private void runCycle(RobotPositionCalculator calculator) {
+        hardwareDriver.beginControlCycle();
+        encoderReader.periodic();
+        calculator.periodic();
+    }
+}
@@ -0,0 +1,158 @@
+package org.firstinspires.ftc.teamcode;
+
+import org.firstinspires.ftc.teamcode.Drivers.ChassisDriver;
+import org.firstinspires.ftc.teamcode.Drivers.HardwareDriver;
+import org.firstinspires.ftc.teamcode.RobotModules.Mini1024EncoderReader;
+import org.firstinspires.ftc.teamcode.RobotModules.RobotPositionCalculator;
+import org.firstinspires.ftc.teamcode.Utils.DriveFeedforward;
+import org.firstinspires.ftc.teamcode.Utils.RobotCalibration;
+import org.firstinspires.ftc.teamcode.Utils.VirtualClock;
+
+import java.util.HashMap;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: SimulatedChassis.java
+ *
+ * the mecanum chassis simulated on the computer, driven by the real ChassisDriver and measured by the real odometry, for the tests of the motions
+ * each wheel speeds up towards the velocity its power gives with a time constant, and the static friction eats the smallest powers
+ * the odometry encoders are the first three channels, plugged into the ports of the front wheels and the left rear wheel like on the robot
+ * a cycle is run as beginCycle(), the control of the test, then endCycle(), which sends the commands and moves the robot
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public final class SimulatedChassis {
+    /** the steps the motion is simulated in during each cycle */
+    private static final int simulationSteps = 20;
+    /** the time the wheels take to reach about two thirds of a change in velocity, in seconds */
+    private static final double timeConstant = 0.15;
+    /** the power the static friction eats */
+    private static final double staticPower = 0.06;
+    /** the velocity and angular velocity of the robot the tests are tuned on at full power, in encoder values and radian per second */
+    public static final double nominalMaxVelocity = 25000;
+    public static final double nominalMaxAngularVelocity = 6;
+    /** strafing is this much slower than driving forward */
+    private static final double strafeSlowdown = 1.32;
+
+    private final double maxVelocity, maxAngularVelocity;
+    private final SimulatedMotor[] wheels = {new SimulatedMotor(), new SimulatedMotor(), new SimulatedMotor(), new SimulatedMotor()};
+    private final VirtualClock clock = new VirtualClock();
+    private final HardwareDriver hardwareDriver = new HardwareDriver(clock);
+    private final Mini1024EncoderReader encoderReader = new Mini1024EncoderReader();
+    private final RobotPositionCalculator positionCalculator = new RobotPositionCalculator();
+    private final ChassisDriver chassisDriver;
+
+    private final double trackWidth = RobotCalibration.get().getTrackWidth();
+    private final double lateralWheelOffset = RobotCalibration.get().getLateralWheelOffset();
+
+    /** the true pose and velocity of the robot, the pose in reference to the field and the velocity to the robot */
+    private double x = 0, y = 0, heading = 0;
+    private double velocityX = 0, velocityY = 0, angularVelocity = 0;
+
+    /**
+     * @param maxVelocity the velocity of the robot driving forward at full power, in encoder values per second
+     */
+    public SimulatedChassis(double maxVelocity) {
+        this(maxVelocity, nominalMaxAngularVelocity);
+    }
+
+    /**
+     * @param maxVelocity the velocity of the robot driving forward at full power, in encoder values per second
+     * @param maxAngularVelocity the angular velocity of the robot at full power, in radian per second
+     */
+    public SimulatedChassis(double maxVelocity, double maxAngularVelocity) {
+        this.maxVelocity = maxVelocity;
+        this.maxAngularVelocity = maxAngularVelocity;
+        hardwareDriver.leftFront = wheels[0].asDcMotorEx();
+        hardwareDriver.rightFront = wheels[1].asDcMotorEx();
+        hardwareDriver.leftRear = wheels[2].asDcMotorEx();
+        hardwareDriver.rightRear = wheels[3].asDcMotorEx();
+
+        HashMap<String, Object> instances = new HashMap<>();
+        instances.put("encoder-1-instance", hardwareDriver.leftFront);
+        instances.put("encoder-2-instance", hardwareDriver.rightFront);
+        instances.put("encoder-3-instance", hardwareDriver.leftRear);
+        instances.put("hardwareDriver", hardwareDriver);
+        hardwareDriver.beginControlCycle();
+        encoderReader.init(null, instances);
+
+        HashMap<String, RobotModule> modules = new HashMap<>();
+        modules.put("encoderReader", encoderReader);
+        positionCalculator.init(modules, null);
+        chassisDriver = new ChassisDriver(hardwareDriver, positionCalculator);
+    }
+
+    /** read the hardware and update the odometry, before the control of this cycle */
+    public void beginCycle() {
+        hardwareDriver.beginControlCycle();
+        encoderReader.periodic();
+        positionCalculator.periodic();
+    }
+
+    /**
+     * send the commands of the control to the wheels, and move the robot until the next cycle
+     *
+     * @param period the time until the next cycle, in seconds
+     */
+    public void endCycle(double period) {
+        chassisDriver.sendCommandsToMotors();
+        hardwareDriver.endControlCycle();
+
+        final double leftFront = wheels[0].getPower(), rightFront = wheels[1].getPower(), leftRear = wheels[2].getPower(), rightRear = wheels[3].getPower();
+        final double forwardPower = (leftFront + leftRear + rightFront + rightRear) / 4;
+        final double strafePower = (leftFront - leftRear - rightFront + rightRear) / 4;
+        final double rotationalPower = (leftFront + leftRear - rightFront - rightRear) / 4;
+
+        final double step = period / simulationSteps;
+        for (int i = 0; i < simulationSteps; i++) {
+            velocityX += (overcomeFriction(strafePower) * maxVelocity / strafeSlowdown - velocityX) * step / timeConstant;
+            velocityY += (overcomeFriction(forwardPower) * maxVelocity - velocityY) * step / timeConstant;
+            angularVelocity += (-overcomeFriction(rotationalPower) * maxAngularVelocity - angularVelocity) * step / timeConstant;
+
+            final double dx = velocityX * step, dy = velocityY * step, rotation = angularVelocity * step;
+            x += dx * Math.cos(heading) - dy * Math.sin(heading);
+            y += dx * Math.sin(heading) + dy * Math.cos(heading);
+            heading += rotation;
+            wheels[0].position += dy - rotation * trackWidth / 2;
+            wheels[1].position += dy + rotation * trackWidth / 2;
+            wheels[2].position += dx + rotation * lateralWheelOffset;
+        }
+        clock.advanceSeconds(period);
+    }
+
+    /**
+     * the rotational model a characterization of the simulated robot would find, see DriveFeedforward
+     *
+     * @param maxAngularVelocity the angular velocity of the robot at full power, in radian per second
+     * @return the power to rotate clockwise, in radian
+     */
+    public static DriveFeedforward getRotationalModel(double maxAngularVelocity) {
+        final double velocityGain = (1 - staticPower) / maxAngularVelocity;
+        return new DriveFeedforward(staticPower, velocityGain, velocityGain * timeConstant);
+    }
+
+    /** @return the part of the power left after the static friction, scaled back to full power */
+    private static double overcomeFriction(double power) {
+        if (Math.abs(power) < staticPower) return 0;
+        return Math.signum(power) * (Math.abs(power) - staticPower) / (1 - staticPower);
+    }
+
+    public ChassisDriver getChassisDriver() { return chassisDriver; }
+
+    public RobotPositionCalculator getPositionCalculator() { return positionCalculator; }
+
+    public VirtualClock getClock() { return clock; }
+
+    /** @return the true position of the robot, in encoder values */
+    public double getX() { return x; }
+
+    public double getY() { return y; }
+
+    /** @return the true facing of the robot, in radian */
+    public double getHeading() { return heading; }
+
+    /** @return the true speed of the robot, in encoder values per second */
+    public double getSpeed() { return Math.hypot(velocityX, velocityY); }
+}
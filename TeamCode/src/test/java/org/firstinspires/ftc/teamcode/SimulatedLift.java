@@ -0,0 +1,109 @@
+package org.firstinspires.ftc.teamcode;
+
+import org.firstinspires.ftc.teamcode.Drivers.HardwareDriver;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: SimulatedLift.java
+ *
+ * the lift of the arm simulated on the computer, for the tests of LiftDriver and Arm
+ * the lift is a mass on two motors, pulled down by a gravity that weakens as the arm stands up, held by a static friction, slowed by the back emf
+ * the gravity differs a little from the table of the driver, as the one of the robot would
+ * the left encoder can be cut off, reading 0 from then on, and the right one frozen, stopping where it is, like the failures LiftDriver falls back from
+ * a push on the arm from outside, such as the arm pressed against the field, is a power pulling it down
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public final class SimulatedLift {
+    /** the steps the lift is simulated in during each call */
+    private static final int simulationSteps = 12;
+    /** the power per velocity, the power per acceleration and the power of the static friction of the lift */
+    private static final double velocityGain = 1 / 2800.0, accelerationGain = 0.05 / 2800, staticPower = 0.1;
+    /** the current of a lift motor held still at full power, in amps */
+    private static final double stallCurrent = 9.2;
+    /** the right encoder reads this much more than the left one */
+    private static final int rightEncoderOffset = 7;
+
+    private final SimulatedMotor leftMotor = new SimulatedMotor(), rightMotor = new SimulatedMotor();
+    /** the true height and velocity of the lift */
+    private double position = 0, velocity = 0;
+    /** the power pushing the arm down from outside */
+    private double externalPower = 0;
+    /** whether the left encoder is cut off, and the reading the right one is frozen at, NaN if it still counts */
+    private boolean leftEncoderCutOff = false;
+    private double frozenRightReading = Double.NaN;
+
+    public SimulatedLift() {
+        updateEncoders();
+    }
+
+    /** plug the motors into the lift ports of the hardware driver */
+    public void connect(HardwareDriver hardwareDriver) {
+        hardwareDriver.lift_left = leftMotor.asDcMotorEx();
+        hardwareDriver.lift_right = rightMotor.asDcMotorEx();
+    }
+
+    /**
+     * move the lift by the power of its motors
+     *
+     * @param duration the time to simulate, in seconds
+     */
+    public void simulate(double duration) {
+        final double power = (leftMotor.getPower() + rightMotor.getPower()) / 2;
+        final double step = duration / simulationSteps;
+        for (int i = 0; i < simulationSteps; i++) {
+            final double drivingPower = power - gravity(position) - externalPower;
+            final double friction;
+            if (velocity != 0) friction = Math.copySign(staticPower, velocity);
+            else friction = Math.abs(drivingPower) < staticPower ? drivingPower : Math.copySign(staticPower, drivingPower);
+            double newVelocity = velocity + (drivingPower - friction - velocityGain * velocity) / accelerationGain * step;
+            /* the static friction holds the lift once it stops */
+            if (velocity != 0 && Math.signum(newVelocity) != Math.signum(velocity) && Math.abs(drivingPower) < staticPower) newVelocity = 0;
+            velocity = newVelocity;
+            position += velocity * step;
+            if (position < 0) position = velocity = 0;
+        }
+        updateEncoders();
+    }
+
+    private void updateEncoders() {
+        leftMotor.position = leftEncoderCutOff ? 0 : position;
+        rightMotor.position = Double.isNaN(frozenRightReading) ? position + rightEncoderOffset : frozenRightReading;
+        leftMotor.velocity = leftEncoderCutOff ? 0 : velocity;
+        rightMotor.velocity = Double.isNaN(frozenRightReading) ? velocity : 0;
+        leftMotor.current = stallCurrent * Math.abs(leftMotor.getPower() - velocity * velocityGain - staticPower);
+        rightMotor.current = stallCurrent * Math.abs(rightMotor.getPower() - velocity * velocityGain - staticPower);
+    }
+
+    /** @return the power gravity pulls the lift down with, highest at the ground and weakening as the arm stands up */
+    private static double gravity(double position) {
+        return 0.16 * Math.cos(position / 1000 * 0.55 * Math.PI);
+    }
+
+    /** cut off the encoder of the left motor, it reads 0 from now on */
+    public void cutOffLeftEncoder() {
+        leftEncoderCutOff = true;
+        updateEncoders();
+    }
+
+    /** stop the encoder of the right motor from counting, it keeps its present reading */
+    public void freezeRightEncoder() {
+        frozenRightReading = rightMotor.position;
+        updateEncoders();
+    }
+
+    /** @param externalPower the power pushing the arm down from outside, zero once it is let go */
+    public void setExternalPower(double externalPower) { this.externalPower = externalPower; }
+
+    /** @return the true height of the lift, in encoder values of the left motor */
+    public double getPosition() { return position; }
+
+    /** @return the true velocity of the lift, in encoder values per second */
+    public double getVelocity() { return velocity; }
+
+    public SimulatedMotor getLeftMotor() { return leftMotor; }
+
+    public SimulatedMotor getRightMotor() { return rightMotor; }
+}
@@ -0,0 +1,91 @@
+package org.firstinspires.ftc.teamcode;
+
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: SimulatedMotor.java
+ *
+ * a motor or encoder of the robot, simulated on the computer, for the tests of the modules that read and drive the hardware
+ * the test moves the position and velocity by its own model of the robot, and reads the power the module last set
+ * asDcMotorEx() gives the instance to hand to the modules, any other method of it does nothing and returns zero
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public final class SimulatedMotor {
+    /** the position, in encoder values, rounded when read like the real encoder */
+    public double position = 0;
+    /** the velocity, in encoder values per second */
+    public double velocity = 0;
+    /** the current drawn, in amps */
+    public double current = 0;
+    /** the last power set to the motor, kept within -1 and 1 */
+    private double power = 0;
+    /** the times the current has been read, each a transaction with the hub on the robot */
+    private int currentReadsCount = 0;
+    /** the times a command has been written to the motor, its mode, target position, power or velocity, each a transaction with the hub */
+    private int writesCount = 0;
+
+    private final DcMotorEx instance;
+
+    public SimulatedMotor() {
+        instance = (DcMotorEx) Proxy.newProxyInstance(
+                SimulatedMotor.class.getClassLoader(),
+                new Class[] {DcMotorEx.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] arguments) {
+                        return handle(proxy, method, arguments);
+                    }
+                }
+        );
+    }
+
+    private Object handle(Object proxy, Method method, Object[] arguments) {
+        final String name = method.getName();
+        if (name.equals("setPower")) {
+            power = Math.max(-1, Math.min(1, (Double) arguments[0]));
+            writesCount++;
+            return null;
+        }
+        if (name.equals("setMode") || name.equals("setTargetPosition") || name.equals("setVelocity")) {
+            writesCount++;
+            return null;
+        }
+        if (name.equals("getPower")) return power;
+        if (name.equals("getCurrentPosition")) return (int) Math.round(position);
+        if (name.equals("getVelocity")) return velocity;
+        if (name.equals("getCurrent")) {
+            currentReadsCount++;
+            return current;
+        }
+        /* the command buffer keeps the motors in maps */
+        if (name.equals("hashCode")) return System.identityHashCode(proxy);
+        if (name.equals("equals")) return proxy == arguments[0];
+        if (name.equals("toString")) return "SimulatedMotor@" + Integer.toHexString(System.identityHashCode(proxy));
+
+        final Class<?> returnType = method.getReturnType();
+        if (returnType == double.class) return 0.0;
+        if (returnType == int.class) return 0;
+        if (returnType == boolean.class) return false;
+        return null;
+    }
+
+    /** @return the instance to give to the modules */
+    public DcMotorEx asDcMotorEx() { return instance; }
+
+    /** @return the last power set to the motor */
+    public double getPower() { return power; }
+
+    /** @return the times the current has been read */
+    public int getCurrentReadsCount() { return currentReadsCount; }
+
+    /** @return the times a command has been written to the motor */
+    public int getWritesCount() { return writesCount; }
+}
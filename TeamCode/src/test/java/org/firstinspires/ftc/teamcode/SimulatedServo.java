@@ -0,0 +1,70 @@
+package org.firstinspires.ftc.teamcode;
+
+import com.qualcomm.robotcore.hardware.Servo;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: SimulatedServo.java
+ *
+ * a servo of the robot, simulated on the computer, for the tests of the modules that drive the claw
+ * the test reads the position the module last set, the servo reaches it at once
+ * asServo() gives the instance to hand to the modules, any other method of it does nothing and returns zero
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public final class SimulatedServo {
+    /** the last position set to the servo, NaN if none has been */
+    private double position = Double.NaN;
+    /** the times a position has been written to the servo */
+    private int writesCount = 0;
+
+    private final Servo instance;
+
+    public SimulatedServo() {
+        instance = (Servo) Proxy.newProxyInstance(
+                SimulatedServo.class.getClassLoader(),
+                new Class[] {Servo.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] arguments) {
+                        return handle(proxy, method, arguments);
+                    }
+                }
+        );
+    }
+
+    private Object handle(Object proxy, Method method, Object[] arguments) {
+        final String name = method.getName();
+        if (name.equals("setPosition")) {
+            position = (Double) arguments[0];
+            writesCount++;
+            return null;
+        }
+        if (name.equals("getPosition")) return position;
+        /* the command buffer compares the servos */
+        if (name.equals("hashCode")) return System.identityHashCode(proxy);
+        if (name.equals("equals")) return proxy == arguments[0];
+        if (name.equals("toString")) return "SimulatedServo@" + Integer.toHexString(System.identityHashCode(proxy));
+
+        final Class<?> returnType = method.getReturnType();
+        if (returnType == double.class) return 0.0;
+        if (returnType == int.class) return 0;
+        if (returnType == boolean.class) return false;
+        return null;
+    }
+
+    /** @return the instance to give to the modules */
+    public Servo asServo() { return instance; }
+
+    /** @return the last position set to the servo, NaN if none has been */
+    public double getPosition() { return position; }
+
+    /** @return the times a position has been written to the servo */
+    public int getWritesCount() { return writesCount; }
+}
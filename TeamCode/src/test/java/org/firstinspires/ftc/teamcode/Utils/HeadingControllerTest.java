@@ -0,0 +1,101 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.MicroBenchmark;
+import org.junit.Test;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: HeadingControllerTest.java
+ *
+ * tests of HeadingController: the regulator settles the model it is worked out on without overshooting, weighs the errors as told
+ * adds the static power only away from the target, keeps within the max power and takes the short way round
+ * and benchmarks of working out the gains, once per change of the model, and of an update, once per cycle
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class HeadingControllerTest {
+    private static final double period = 0.01;
+    /** the rotational model of the chassis, as characterized */
+    private static final DriveFeedforward model = new DriveFeedforward(0.06, 0.156, 0.0229);
+    private static final double maxHeadingError = Math.toRadians(5), maxAngularVelocityError = Math.toRadians(40);
+    private static final double maxPower = 0.5, staticPowerDeadband = Math.toRadians(1);
+
+    private final HeadingController controller = new HeadingController(model, period, maxHeadingError, maxAngularVelocityError, maxPower, staticPowerDeadband);
+
+    @Test
+    public void settlesTheModelWithoutOvershooting() {
+        /* the model without the static friction, which the plant below does not have either */
+        final DriveFeedforward frictionlessModel = new DriveFeedforward(0, model.getVelocityGain(), model.getAccelerationGain());
+        final HeadingController frictionlessController = new HeadingController(frictionlessModel, period, maxHeadingError, maxAngularVelocityError, maxPower, staticPowerDeadband);
+        final double target = Math.toRadians(90);
+        final int steps = 10;
+        double heading = 0, angularVelocity = 0, overshoot = 0;
+        for (int cycle = 0; cycle < 300; cycle++) {
+            /* a positive power turns the robot clockwise */
+            final double power = frictionlessController.calculate(target, 0, heading, angularVelocity, maxPower);
+            for (int i = 0; i < steps; i++) {
+                final double clockwiseAcceleration = (power + frictionlessModel.getVelocityGain() * angularVelocity) / frictionlessModel.getAccelerationGain();
+                angularVelocity -= clockwiseAcceleration * period / steps;
+                heading += angularVelocity * period / steps;
+            }
+            overshoot = Math.max(overshoot, heading - target);
+        }
+        assertEquals(target, heading, Math.toRadians(0.1));
+        assertTrue("overshot by " + Math.toDegrees(overshoot) + " degrees", overshoot < Math.toRadians(1));
+    }
+
+    @Test
+    public void smallerHeadingErrorTurnsHarder() {
+        HeadingController harder = new HeadingController(model, period, maxHeadingError / 2, maxAngularVelocityError, maxPower, staticPowerDeadband);
+        assertTrue(controller.getHeadingGain() > 0 && controller.getAngularVelocityGain() > 0);
+        assertTrue(harder.getHeadingGain() > controller.getHeadingGain());
+    }
+
+    @Test
+    public void staticPowerIsAddedOnlyAwayFromTheTarget() {
+        final double nearTarget = Math.toRadians(0.5), awayFromTarget = Math.toRadians(2);
+        assertEquals(-controller.getHeadingGain() * nearTarget, controller.calculate(nearTarget, 0, 0, 0, maxPower), 1e-12);
+        assertEquals(-controller.getHeadingGain() * awayFromTarget - model.getStaticPower(), controller.calculate(awayFromTarget, 0, 0, 0, maxPower), 1e-12);
+    }
+
+    @Test
+    public void powerStaysWithinTheMaxPower() {
+        assertEquals(-0.3, controller.calculate(Math.toRadians(90), 0, 0, 0, 0.3), 0);
+        assertEquals(0.3, controller.calculate(Math.toRadians(-90), 0, 0, 0, 0.3), 0);
+    }
+
+    @Test
+    public void turnsTheShortWayRound() {
+        controller.calculate(Math.toRadians(-179), 0, Math.toRadians(179), 0, maxPower);
+        assertEquals(Math.toRadians(2), controller.getError(), 1e-12);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unmeasuredModelIsRejected() {
+        new HeadingController(new DriveFeedforward(0, 0, 0), period, maxHeadingError, maxAngularVelocityError, maxPower, staticPowerDeadband);
+    }
+
+    @Test
+    public void gainsAreWorkedOutInMicrosecondsAndUpdatesInNanoseconds() {
+        MicroBenchmark.Result construction = MicroBenchmark.run("new HeadingController", 2000, new MicroBenchmark.Operation() {
+            @Override
+            public double run(int iteration) {
+                return new HeadingController(model, period, maxHeadingError + iteration * 1e-9, maxAngularVelocityError, maxPower, staticPowerDeadband).getHeadingGain();
+            }
+        });
+        MicroBenchmark.Result update = MicroBenchmark.run("HeadingController.calculate", 5000000, new MicroBenchmark.Operation() {
+            @Override
+            public double run(int iteration) {
+                return controller.calculate(iteration * 1e-5, 0, (iteration & 255) * 1e-3, 0.1, maxPower);
+            }
+        });
+        assertTrue(construction.toString(), construction.nanosPerOperation < 1000000);
+        assertTrue(update.toString(), update.nanosPerOperation < 500);
+        assertTrue(update.toString(), Double.isNaN(update.bytesPerOperation) || update.bytesPerOperation < 1);
+    }
+}
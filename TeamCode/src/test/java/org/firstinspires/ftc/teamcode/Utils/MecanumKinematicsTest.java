@@ -0,0 +1,114 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.MicroBenchmark;
+import org.junit.Test;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: MecanumKinematicsTest.java
+ *
+ * tests of MecanumKinematics: the powers within range are passed through, saturated ones are scaled down keeping the direction of the translation
+ * the rotation or the translation is kept first by the rotational authority, and the motions relative to the field are turned into the robot's
+ * the motion is read back from the wheel powers by the inverse of the mixing
+ * and a benchmark of working out the powers relative to the field, once per cycle, which must allocate nothing
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class MecanumKinematicsTest {
+    private static final double tolerance = 1e-12;
+
+    private final double[] wheelPowers = new double[MecanumKinematics.wheelCount];
+
+    @Test
+    public void powersWithinRangeAreUnchanged() {
+        new MecanumKinematics(MecanumKinematics.rotationFirst).calculateWheelPowers(0.3, 0.4, 0.1, wheelPowers);
+        assertMotion(0.3, 0.4, 0.1);
+    }
+
+    @Test
+    public void saturatedTranslationKeepsItsDirection() {
+        new MecanumKinematics(MecanumKinematics.rotationFirst).calculateWheelPowers(0.8, 0.9, 0.5, wheelPowers);
+        assertEquals(1, maxPower(), tolerance);
+        assertEquals(0.5, rotationalMotion(), tolerance);
+        assertEquals(0.8 / 0.9, xAxleMotion() / yAxleMotion(), tolerance);
+    }
+
+    @Test
+    public void rotationFirstKeepsTheRotation() {
+        new MecanumKinematics(MecanumKinematics.rotationFirst).calculateWheelPowers(0, 1, 0.3, wheelPowers);
+        assertMotion(0, 0.7, 0.3);
+    }
+
+    @Test
+    public void translationFirstKeepsTheTranslation() {
+        new MecanumKinematics(MecanumKinematics.translationFirst).calculateWheelPowers(0.5, 0.5, 0.5, wheelPowers);
+        assertTrue(maxPower() <= 1 + tolerance);
+        assertEquals(0.5, xAxleMotion(), tolerance);
+        assertEquals(0.5, yAxleMotion(), tolerance);
+    }
+
+    @Test
+    public void partialAuthorityReservesThatMuchForTheRotation() {
+        new MecanumKinematics(0.3).calculateWheelPowers(0, 1, 0.5, wheelPowers);
+        assertMotion(0, 0.7, 0.3);
+    }
+
+    @Test
+    public void fieldRelativeMotionIsTurnedIntoTheRobots() {
+        /* forward on the field, with the robot facing left, is to the right of the robot */
+        new MecanumKinematics(MecanumKinematics.rotationFirst).calculateWheelPowersFieldRelative(0, 1, 0, Math.PI / 2, wheelPowers);
+        assertMotion(1, 0, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void authorityBeyondOneIsRejected() {
+        new MecanumKinematics(MecanumKinematics.rotationFirst).setRotationalAuthority(1.5);
+    }
+
+    @Test
+    public void fieldRelativeCalculationCostsAFewNanoseconds() {
+        final MecanumKinematics kinematics = new MecanumKinematics(0.3);
+        MicroBenchmark.Result result = MicroBenchmark.run("MecanumKinematics.calculateWheelPowersFieldRelative", 5000000, new MicroBenchmark.Operation() {
+            @Override
+            public double run(int iteration) {
+                kinematics.calculateWheelPowersFieldRelative((iteration & 7) * 0.2 - 0.7, (iteration & 15) * 0.1 - 0.7, ((iteration >> 4) & 7) * 0.1 - 0.35, iteration * 1e-6, wheelPowers);
+                return wheelPowers[MecanumKinematics.leftFrontIndex] + wheelPowers[MecanumKinematics.rightRearIndex];
+            }
+        });
+        assertTrue(result.toString(), result.nanosPerOperation < 500);
+        assertTrue(result.toString(), Double.isNaN(result.bytesPerOperation) || result.bytesPerOperation < 1);
+    }
+
+    private void assertMotion(double xAxleMotion, double yAxleMotion, double rotationalMotion) {
+        assertEquals(xAxleMotion, xAxleMotion(), tolerance);
+        assertEquals(yAxleMotion, yAxleMotion(), tolerance);
+        assertEquals(rotationalMotion, rotationalMotion(), tolerance);
+    }
+
+    /** the motion the wheels give, the inverse of MecanumKinematics.mix() */
+    private double xAxleMotion() {
+        return (wheelPowers[MecanumKinematics.leftFrontIndex] - wheelPowers[MecanumKinematics.leftRearIndex]
+                - wheelPowers[MecanumKinematics.rightFrontIndex] + wheelPowers[MecanumKinematics.rightRearIndex]) / 4;
+    }
+
+    private double yAxleMotion() {
+        return (wheelPowers[MecanumKinematics.leftFrontIndex] + wheelPowers[MecanumKinematics.leftRearIndex]
+                + wheelPowers[MecanumKinematics.rightFrontIndex] + wheelPowers[MecanumKinematics.rightRearIndex]) / 4;
+    }
+
+    private double rotationalMotion() {
+        return (wheelPowers[MecanumKinematics.leftFrontIndex] + wheelPowers[MecanumKinematics.leftRearIndex]
+                - wheelPowers[MecanumKinematics.rightFrontIndex] - wheelPowers[MecanumKinematics.rightRearIndex]) / 4;
+    }
+
+    private double maxPower() {
+        double maxPower = 0;
+        for (double power : wheelPowers) maxPower = Math.max(maxPower, Math.abs(power));
+        return maxPower;
+    }
+}
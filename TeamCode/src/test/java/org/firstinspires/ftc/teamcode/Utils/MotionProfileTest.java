@@ -0,0 +1,110 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.MicroBenchmark;
+import org.junit.Test;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: MotionProfileTest.java
+ *
+ * tests of MotionProfile: the velocity, acceleration and jerk stay within the limits, the motion only goes one way and ends still at the distance
+ * for long and short moves, backwards, and trapezoidal profiles without a jerk limit
+ * and a benchmark of generating and sampling a profile, done in the control loop every time a motion starts
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class MotionProfileTest {
+    /** the step the profiles are sampled at, in seconds */
+    private static final double samplingStep = 1e-4;
+
+    /** distance, velocity, acceleration and jerk limits, from reaching all the limits to reaching none */
+    private static final double[][] cases = {
+            {30000, 15000, 25000, 150000},
+            {3000, 15000, 25000, 150000},
+            {300, 15000, 25000, 150000},
+            {-20000, 15000, 25000, 150000},
+            {20000, 15000, 25000, Double.POSITIVE_INFINITY},
+            {-500, 15000, 25000, Double.POSITIVE_INFINITY}
+    };
+
+    @Test
+    public void limitsAreRespectedAndTheMoveEndsStillAtTheDistance() {
+        MotionProfile profile = new MotionProfile();
+        double[] state = new double[3];
+        for (double[] limits : cases) {
+            final double distance = limits[0], maxVelocity = limits[1], maxAcceleration = limits[2], maxJerk = limits[3];
+            final String name = String.format("distance %.0f, limits %.0f %.0f %.0f", distance, maxVelocity, maxAcceleration, maxJerk);
+            profile.generate(distance, maxVelocity, maxAcceleration, maxJerk);
+            assertEquals(name, distance, profile.getDistance(), 1e-9);
+
+            double previousPosition = 0, previousAcceleration = 0;
+            for (double time = 0; time <= profile.getDuration(); time += samplingStep) {
+                profile.sample(time, state);
+                final double position = state[MotionProfile.positionIndex], velocity = state[MotionProfile.velocityIndex], acceleration = state[MotionProfile.accelerationIndex];
+                assertTrue(name + ", velocity " + velocity, Math.abs(velocity) <= maxVelocity * (1 + 1e-9));
+                assertTrue(name + ", acceleration " + acceleration, Math.abs(acceleration) <= maxAcceleration * (1 + 1e-9));
+                /* the acceleration jumps when the jerk is not limited */
+                if (!Double.isInfinite(maxJerk) && time > 0)
+                    assertTrue(name + " jerks at " + time, Math.abs(acceleration - previousAcceleration) <= maxJerk * samplingStep * (1 + 1e-6));
+                assertTrue(name + " moves back at " + time, Math.signum(distance) * (position - previousPosition) >= -1e-9);
+                previousPosition = position;
+                previousAcceleration = acceleration;
+            }
+
+            profile.sample(profile.getDuration(), state);
+            assertEquals(name, distance, state[MotionProfile.positionIndex], 1e-6);
+            assertEquals(name, 0, state[MotionProfile.velocityIndex], 1e-3);
+            /* after the end, it stays there */
+            profile.sample(profile.getDuration() + 1, state);
+            assertEquals(name, distance, state[MotionProfile.positionIndex], 1e-6);
+            assertEquals(name, 0, state[MotionProfile.velocityIndex], 0);
+        }
+    }
+
+    @Test
+    public void longMovesCruiseAtTheVelocityLimit() {
+        MotionProfile profile = new MotionProfile().generate(30000, 15000, 25000, 150000);
+        double[] state = new double[3];
+        profile.sample(profile.getDuration() / 2, state);
+        assertEquals(15000, state[MotionProfile.velocityIndex], 1e-6);
+    }
+
+    @Test
+    public void zeroDistanceTakesNoTime() {
+        MotionProfile profile = new MotionProfile().generate(0, 1, 1, 1);
+        assertEquals(0, profile.getDuration(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void limitsMustBePositive() {
+        new MotionProfile().generate(1000, 15000, 0, 150000);
+    }
+
+    @Test
+    public void generatingAndSamplingTakeAFewMicroseconds() {
+        final MotionProfile profile = new MotionProfile();
+        final double[] state = new double[3];
+        MicroBenchmark.Result generation = MicroBenchmark.run("MotionProfile.generate", 1000000, new MicroBenchmark.Operation() {
+            @Override
+            public double run(int iteration) {
+                return profile.generate(1000 + iteration % 30000, 15000, 25000, 150000).getDuration();
+            }
+        });
+        MicroBenchmark.Result sampling = MicroBenchmark.run("MotionProfile.sample", 1000000, new MicroBenchmark.Operation() {
+            @Override
+            public double run(int iteration) {
+                profile.sample((iteration % 1000) * 1e-3, state);
+                return state[MotionProfile.positionIndex];
+            }
+        });
+        assertTrue(generation.toString(), generation.nanosPerOperation < 5000);
+        assertTrue(sampling.toString(), sampling.nanosPerOperation < 1000);
+        assertTrue(generation.toString(), Double.isNaN(generation.bytesPerOperation) || generation.bytesPerOperation < 1);
+        assertTrue(sampling.toString(), Double.isNaN(sampling.bytesPerOperation) || sampling.bytesPerOperation < 1);
+    }
+}
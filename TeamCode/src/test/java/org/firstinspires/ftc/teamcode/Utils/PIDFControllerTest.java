@@ -0,0 +1,157 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.MicroBenchmark;
+import org.junit.Test;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: PIDFControllerTest.java
+ *
+ * tests of PIDFController: the anti-windup, the integral zone, the continuous input, the slew limit, the derivative and its filter and the gain table
+ * and a benchmark of a fully configured update, which must cost under a microsecond and allocate nothing
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class PIDFControllerTest {
+    private static final double tolerance = 1e-9;
+    private static final double dt = 0.01;
+
+    @Test
+    public void proportionalAndFeedforward() {
+        PIDFController controller = new PIDFController(2, 0, 0, 0.1);
+        assertEquals(2 * 3 + 0.1 * 10, controller.calculate(10, 7, dt), tolerance);
+        assertEquals(3, controller.getError(), tolerance);
+    }
+
+    @Test
+    public void integralDoesNotWindUpWhileSaturated() {
+        PIDFController controller = new PIDFController(0.1, 1, 0, 0).setOutputRange(-1, 1);
+        /* a long way from the setpoint, saturated for two seconds */
+        for (int i = 0; i < 200; i++) assertEquals(1, controller.calculate(10, 0, dt), tolerance);
+        assertTrue("the integral grew while saturated: " + controller.getIntegral(), controller.getIntegral() <= 1 + tolerance);
+
+        /* once the measurement passes the setpoint, the output turns around in the very next update, instead of unwinding the integral first */
+        assertTrue(controller.calculate(10, 10.5, dt) < 0);
+    }
+
+    @Test
+    public void integralPartStaysWithinTheOutputRange() {
+        PIDFController controller = new PIDFController(0, 2, 0, 0).setOutputRange(-0.5, 0.5);
+        for (int i = 0; i < 1000; i++) assertTrue(controller.calculate(1, 0, dt) <= 0.5);
+        assertTrue("the integral grew to " + controller.getIntegral(), controller.getIntegral() <= 0.5 / 2 + tolerance);
+    }
+
+    @Test
+    public void integralOnlyGrowsWithinTheZone() {
+        PIDFController controller = new PIDFController(0, 1, 0, 0).setIntegralZone(5);
+        controller.calculate(10, 0, 1);
+        assertEquals(0, controller.getIntegral(), tolerance);
+        controller.calculate(3, 0, 1);
+        assertEquals(3, controller.getIntegral(), tolerance);
+    }
+
+    @Test
+    public void continuousInputTakesTheShortWayRound() {
+        PIDFController controller = new PIDFController(1, 0, 0, 0).setContinuousInput(-Math.PI, Math.PI);
+        /* from just below pi to just above -pi is a small step forward, not almost a whole turn back */
+        assertEquals(0.2, controller.calculate(-Math.PI + 0.1, Math.PI - 0.1, dt), tolerance);
+        assertEquals(-0.2, controller.calculate(Math.PI - 0.1, -Math.PI + 0.1, dt), tolerance);
+    }
+
+    @Test
+    public void continuousInputDifferentiatesAcrossTheWrap() {
+        PIDFController controller = new PIDFController(0, 0, 1, 0).setContinuousInput(-Math.PI, Math.PI);
+        controller.calculate(0, Math.PI - 0.05, dt);
+        /* the measurement moved 0.1 forward across the wrap, at 10 per second */
+        assertEquals(-0.1 / dt, controller.calculate(0, -Math.PI + 0.05, dt), 1e-6);
+    }
+
+    @Test
+    public void outputChangesNoFasterThanTheSlewLimit() {
+        PIDFController controller = new PIDFController(1, 0, 0, 0).setMaxOutputChangeRate(10);
+        controller.calculate(0, 0, dt);
+        /* a step of the setpoint is followed at 10 per second, 0.1 per update, both ways */
+        for (int i = 1; i <= 5; i++) assertEquals(0.1 * i, controller.calculate(100, 0, dt), tolerance);
+        for (int i = 4; i >= -5; i--) assertEquals(0.1 * i, controller.calculate(-100, 0, dt), tolerance);
+    }
+
+    @Test
+    public void derivativeActsOnTheMeasurementOnly() {
+        PIDFController controller = new PIDFController(0, 0, 1, 0);
+        controller.calculate(0, 0, dt);
+        /* a jump of the setpoint does not kick the output */
+        assertEquals(0, controller.calculate(100, 0, dt), tolerance);
+        /* a move of the measurement brakes it */
+        assertEquals(-1 / dt, controller.calculate(100, 1, dt), tolerance);
+    }
+
+    @Test
+    public void derivativeFilterSmoothsTheNoiseOfTheMeasurement() {
+        PIDFController unfiltered = new PIDFController(0, 0, 1, 0);
+        PIDFController filtered = new PIDFController(0, 0, 1, 0).setDerivativeFilterTime(0.1);
+        double unfilteredPeak = 0, filteredPeak = 0;
+        /* a still measurement with one count of noise every other update */
+        for (int i = 0; i < 100; i++) {
+            final double measurement = i % 2;
+            unfilteredPeak = Math.max(unfilteredPeak, Math.abs(unfiltered.calculate(0, measurement, dt)));
+            filteredPeak = Math.max(filteredPeak, Math.abs(filtered.calculate(0, measurement, dt)));
+        }
+        assertEquals(1 / dt, unfilteredPeak, tolerance);
+        assertTrue("the filtered derivative peaked at " + filteredPeak, filteredPeak < unfilteredPeak * 0.1);
+
+        /* a steady move still comes through in full once the filter has settled */
+        filtered.reset();
+        double output = 0;
+        for (int i = 0; i < 200; i++) output = filtered.calculate(0, i * 0.5, dt);
+        assertEquals(-0.5 / dt, output, 1e-3);
+    }
+
+    @Test
+    public void gainsAreInterpolatedFromTheTable() {
+        double[][] gainTable = {
+                {0, 1, 0, 0, 0, 0.4},
+                {1, 3, 0, 0, 0, 0.6}
+        };
+        PIDFController controller = new PIDFController(gainTable, 0.5);
+        assertEquals(2, controller.getProportionalGain(), tolerance);
+        assertEquals(0.5, controller.getMaxOutput(), tolerance);
+        /* beyond the table, the last row is kept */
+        controller.schedule(5);
+        assertEquals(3, controller.getProportionalGain(), tolerance);
+        controller.schedule(-5);
+        assertEquals(1, controller.getProportionalGain(), tolerance);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void gainTableOutOfOrderIsRejected() {
+        new PIDFController(new double[][] {{1, 0, 0, 0, 0, 1}, {0, 0, 0, 0, 0, 1}}, 0);
+    }
+
+    @Test
+    public void updateCostsUnderAMicrosecondAndAllocatesNothing() {
+        final double[][] gainTable = {
+                {0, 0.01, 0.001, 0.001, 0.0001, 0.6},
+                {1, 0.02, 0.002, 0.001, 0.0001, 1}
+        };
+        final PIDFController controller = new PIDFController(gainTable, 0)
+                .setIntegralZone(200)
+                .setContinuousInput(0, Math.PI * 2)
+                .setMaxOutputChangeRate(50)
+                .setDerivativeFilterTime(0.02);
+
+        MicroBenchmark.Result result = MicroBenchmark.run("PIDFController.calculate", 2000000, new MicroBenchmark.Operation() {
+            @Override
+            public double run(int iteration) {
+                if ((iteration & 1023) == 0) controller.schedule((iteration >> 10) & 1);
+                return controller.calculate(iteration * 1e-4, iteration & 255, dt);
+            }
+        });
+        assertTrue(result.toString(), result.nanosPerOperation < 1000);
+        assertTrue(result.toString(), Double.isNaN(result.bytesPerOperation) || result.bytesPerOperation < 1);
+    }
+}
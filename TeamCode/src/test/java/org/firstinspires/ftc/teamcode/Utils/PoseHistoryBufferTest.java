@@ -0,0 +1,113 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.firstinspires.ftc.teamcode.MicroBenchmark;
+import org.junit.Test;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: PoseHistoryBufferTest.java
+ *
+ * tests of PoseHistoryBuffer: the poses between two remembered ones are interpolated, turning the short way, the oldest ones are overwritten when it is full
+ * the times out of the history are answered as documented, and the poses out of order are replaced or ignored
+ * and a benchmark of looking up a pose in a full buffer, done for every camera frame, which must allocate nothing
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class PoseHistoryBufferTest {
+    private static final double tolerance = 1e-9;
+
+    private final double[] pose = new double[3];
+
+    @Test
+    public void posesBetweenAreInterpolated() {
+        PoseHistoryBuffer buffer = new PoseHistoryBuffer(8);
+        buffer.add(100, 0, 0, 0);
+        buffer.add(200, 10, -20, 1);
+        assertTrue(buffer.getPoseAt(125, pose));
+        assertPose(2.5, -5, 0.25);
+    }
+
+    @Test
+    public void headingTurnsTheShortWay() {
+        PoseHistoryBuffer buffer = new PoseHistoryBuffer(8);
+        buffer.add(0, 0, 0, Math.PI - 0.1);
+        buffer.add(100, 0, 0, -Math.PI + 0.1);
+        assertTrue(buffer.getPoseAt(50, pose));
+        assertEquals(0, Math.IEEEremainder(pose[2] - Math.PI, Math.PI * 2), tolerance);
+    }
+
+    @Test
+    public void oldestPosesAreOverwrittenWhenFull() {
+        PoseHistoryBuffer buffer = new PoseHistoryBuffer(8);
+        for (int i = 0; i < 20; i++) buffer.add(i * 100, i, 2 * i, 0);
+        assertEquals(8, buffer.size());
+        assertEquals(1200, buffer.getOldestTimestamp());
+        assertEquals(1900, buffer.getNewestTimestamp());
+        assertFalse(buffer.getPoseAt(1150, pose));
+        assertTrue(buffer.getPoseAt(1250, pose));
+        assertPose(12.5, 25, 0);
+    }
+
+    @Test
+    public void timesAfterTheNewestGiveTheNewest() {
+        PoseHistoryBuffer buffer = new PoseHistoryBuffer(8);
+        buffer.add(100, 1, 2, 3);
+        assertTrue(buffer.getPoseAt(1000, pose));
+        assertPose(1, 2, 3);
+    }
+
+    @Test
+    public void posesOutOfOrderAreReplacedOrIgnored() {
+        PoseHistoryBuffer buffer = new PoseHistoryBuffer(8);
+        buffer.add(100, 1, 1, 0);
+        buffer.add(200, 2, 2, 0);
+        buffer.add(200, 3, 3, 0);
+        buffer.add(150, 9, 9, 0);
+        assertEquals(2, buffer.size());
+        assertTrue(buffer.getNewestPose(pose));
+        assertPose(3, 3, 0);
+    }
+
+    @Test
+    public void emptyBufferFindsNothing() {
+        PoseHistoryBuffer buffer = new PoseHistoryBuffer(8);
+        assertFalse(buffer.getPoseAt(0, pose));
+        assertFalse(buffer.getNewestPose(pose));
+        buffer.add(100, 1, 1, 0);
+        buffer.clear();
+        assertFalse(buffer.getPoseAt(100, pose));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBePositive() {
+        new PoseHistoryBuffer(0);
+    }
+
+    @Test
+    public void lookingUpAllocatesNothing() {
+        final PoseHistoryBuffer buffer = new PoseHistoryBuffer(256);
+        /* a second and a bit at 200Hz */
+        for (int i = 0; i < 256; i++) buffer.add(i * 5000000L, i, i, i * 0.01);
+        MicroBenchmark.Result result = MicroBenchmark.run("PoseHistoryBuffer.getPoseAt", 2000000, new MicroBenchmark.Operation() {
+            @Override
+            public double run(int iteration) {
+                buffer.getPoseAt((iteration % 255) * 5000000L + 1234567, pose);
+                return pose[0];
+            }
+        });
+        assertTrue(result.toString(), result.nanosPerOperation < 1000);
+        assertTrue(result.toString(), Double.isNaN(result.bytesPerOperation) || result.bytesPerOperation < 1);
+    }
+
+    private void assertPose(double x, double y, double heading) {
+        assertEquals(x, pose[0], tolerance);
+        assertEquals(y, pose[1], tolerance);
+        assertEquals(heading, pose[2], tolerance);
+    }
+}
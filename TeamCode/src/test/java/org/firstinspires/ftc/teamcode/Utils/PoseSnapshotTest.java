@@ -0,0 +1,71 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: PoseSnapshotTest.java
+ *
+ * publishes poses from one thread as fast as it can while another reads them, every value of a pose worked out from its timestamp
+ * so a read that mixes two publishes has values that disagree with one another, or with its timestamp
+ *  - every read is of a single publish, whole
+ *  - the reads never go back to an older publish
+ *  - the publish count is the amount of times published
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class PoseSnapshotTest {
+    /** the poses published, small enough to be kept exactly in a double */
+    private static final long publishes = 100000;
+
+    private final PoseSnapshot snapshot = new PoseSnapshot();
+
+    @Test
+    public void everyReadIsOfASinglePublish() throws InterruptedException {
+        final Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (long timestamp = 1; timestamp <= publishes; timestamp++) {
+                    final double n = timestamp;
+                    snapshot.publish(timestamp, n, n * 2, -n, n * 3, n + 0.5, n / 4);
+                    /* let the reader in, on a single core it would otherwise only see the last publish of each time slice */
+                    Thread.yield();
+                }
+            }
+        }, "pose writer");
+
+        final double[] pose = new double[PoseSnapshot.size];
+        long reads = 0, distinctReads = 0, inconsistentReads = 0, lastTimestamp = 0;
+        writer.start();
+        while (lastTimestamp < publishes) {
+            final long timestamp = snapshot.read(pose);
+            reads++;
+            assertTrue("read " + timestamp + " after " + lastTimestamp, timestamp >= lastTimestamp);
+            if (timestamp != lastTimestamp) distinctReads++;
+            lastTimestamp = timestamp;
+            Thread.yield(); // and the writer in
+            if (timestamp == 0) continue; // nothing published yet
+
+            final double n = timestamp;
+            if (pose[PoseSnapshot.xIndex] != n
+                    || pose[PoseSnapshot.yIndex] != n * 2
+                    || pose[PoseSnapshot.headingIndex] != -n
+                    || pose[PoseSnapshot.velocityXIndex] != n * 3
+                    || pose[PoseSnapshot.velocityYIndex] != n + 0.5
+                    || pose[PoseSnapshot.angularVelocityIndex] != n / 4) inconsistentReads++;
+        }
+        writer.join();
+        System.out.println(reads + " reads, of " + distinctReads + " different publishes, " + inconsistentReads + " inconsistent");
+
+        assertEquals(0, inconsistentReads);
+        /* the reader kept up with the writer often enough for the two to have run into each other */
+        assertTrue(distinctReads > publishes / 10);
+        assertEquals(publishes, snapshot.getPublishCount());
+        assertEquals(-(double) publishes, snapshot.getHeading(), 0);
+    }
+}
@@ -0,0 +1,95 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: RobotCalibrationTest.java
+ *
+ * writes calibrations into files and reads them back
+ *  - every constant set is read back exactly, the feedforwards with their three gains
+ *  - a constant missing from the file, or one that is not a number, falls back to the value measured by hand, without touching the others
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class RobotCalibrationTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void savedCalibrationIsReadBack() throws IOException {
+        final RobotCalibration calibration = new RobotCalibration();
+        calibration.setTrackWidth(3100.5);
+        calibration.setLateralWheelOffset(-2400.25);
+        calibration.setEncoderValuesPerCM(215.125);
+        calibration.setXAxleMotionScaleFactor(1.25);
+        calibration.setForwardFeedforward(new DriveFeedforward(0.06, 1.0 / 26000, 1.0 / 180000));
+        calibration.setStrafeFeedforward(new DriveFeedforward(0.07, 1.0 / 20000, 1.0 / 140000));
+        calibration.setRotationalFeedforward(new DriveFeedforward(0.05, 0.15, 0.02));
+        calibration.setLiftFeedforward(new DriveFeedforward(0.12, 1.0 / 2700, 0.04 / 2700));
+        calibration.setLiftMaxVelocity(1700);
+        calibration.setLiftMaxAcceleration(5500);
+        calibration.setLiftMaxJerk(50000);
+        final File file = folder.newFile("robot_calibration.properties");
+        calibration.save(file, "written by RobotCalibrationTest");
+
+        final RobotCalibration read = new RobotCalibration(file);
+        assertEquals(3100.5, read.getTrackWidth(), 0);
+        assertEquals(-2400.25, read.getLateralWheelOffset(), 0);
+        assertEquals(215.125, read.getEncoderValuesPerCM(), 0);
+        assertEquals(1.25, read.getXAxleMotionScaleFactor(), 0);
+        assertFeedforwardEquals(calibration.getForwardFeedforward(), read.getForwardFeedforward());
+        assertFeedforwardEquals(calibration.getStrafeFeedforward(), read.getStrafeFeedforward());
+        assertFeedforwardEquals(calibration.getRotationalFeedforward(), read.getRotationalFeedforward());
+        assertFeedforwardEquals(calibration.getLiftFeedforward(), read.getLiftFeedforward());
+        assertEquals(1700, read.getLiftMaxVelocity(), 0);
+        assertEquals(5500, read.getLiftMaxAcceleration(), 0);
+        assertEquals(50000, read.getLiftMaxJerk(), 0);
+    }
+
+    @Test
+    public void missingAndInvalidValuesFallBackToTheOnesMeasuredByHand() throws IOException {
+        /* a file edited by hand, one constant mistyped, one feedforward gain left empty, the others missing */
+        final File file = folder.newFile("robot_calibration.properties");
+        final PrintWriter writer = new PrintWriter(file);
+        writer.println(RobotCalibration.trackWidthKey + "=31OO");
+        writer.println(RobotCalibration.encoderValuesPerCMKey + " = 215.5 ");
+        writer.println(RobotCalibration.liftFeedforwardKey + ".kS=0.12");
+        writer.println(RobotCalibration.liftFeedforwardKey + ".kV=");
+        writer.close();
+
+        final RobotCalibration read = new RobotCalibration(file);
+        assertEquals(RobotCalibration.defaultTrackWidth, read.getTrackWidth(), 0);
+        assertEquals(215.5, read.getEncoderValuesPerCM(), 0);
+        assertEquals(RobotCalibration.defaultLateralWheelOffset, read.getLateralWheelOffset(), 0);
+        assertEquals(RobotCalibration.defaultXAxleMotionScaleFactor, read.getXAxleMotionScaleFactor(), 0);
+        assertFeedforwardEquals(RobotCalibration.defaultForwardFeedforward, read.getForwardFeedforward());
+        assertFeedforwardEquals(new DriveFeedforward(0.12, RobotCalibration.defaultLiftFeedforward.getVelocityGain(), RobotCalibration.defaultLiftFeedforward.getAccelerationGain()), read.getLiftFeedforward());
+        assertEquals(RobotCalibration.defaultLiftMaxJerk, read.getLiftMaxJerk(), 0);
+    }
+
+    @Test
+    public void emptyCalibrationGivesTheValuesMeasuredByHand() {
+        final RobotCalibration calibration = new RobotCalibration();
+        assertEquals(RobotCalibration.defaultTrackWidth, calibration.getTrackWidth(), 0);
+        assertEquals(RobotCalibration.defaultEncoderValuesPerCM, calibration.getEncoderValuesPerCM(), 0);
+        assertFeedforwardEquals(RobotCalibration.defaultStrafeFeedforward, calibration.getStrafeFeedforward());
+        assertEquals(RobotCalibration.defaultLiftMaxVelocity, calibration.getLiftMaxVelocity(), 0);
+    }
+
+    private static void assertFeedforwardEquals(DriveFeedforward expected, DriveFeedforward actual) {
+        assertEquals(expected.getStaticPower(), actual.getStaticPower(), 0);
+        assertEquals(expected.getVelocityGain(), actual.getVelocityGain(), 0);
+        assertEquals(expected.getAccelerationGain(), actual.getAccelerationGain(), 0);
+    }
+}
@@ -0,0 +1,112 @@
+package org.firstinspires.ftc.teamcode.Utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Copyright © 2023 SCCSC-Robotics-Club
+ * FileName: VelocityEstimatorTest.java
+ *
+ * feeds the estimators the readings of an encoder speeding up at a steady rate, read in whole encoder values with a little noise,
+ * at the uneven periods of the program, and compares each with the finite difference of the same readings
+ * on a ramp of velocity, the mean error of an estimator over the acceleration is how far it lags behind, and the spread of its error is its noise
+ *  - the alpha-beta tracker lets through much less noise than the finite difference, for a lag of a few periods
+ *  - the least squares fit lets through less noise than the finite difference, and does not lag on a ramp, as the parabola fits it exactly
+ *  - a reading with the same timestamp as the last one changes nothing
+ *
+ * @Author 四只爱写代码の猫
+ * @Date 2026.10.18
+ * @Version v0.0.1
+ */
+public class VelocityEstimatorTest {
+    /** the acceleration of the encoder, in encoder values per second squared, and its velocity at the start */
+    private static final double acceleration = 20000, startVelocity = -5000;
+    /** the noise of the readings, in encoder values */
+    private static final double readingNoise = 2;
+    /** the periods of the program, in seconds, from 4 to 6 milliseconds */
+    private static final double minPeriod = 0.004, periodSpread = 0.002;
+    private static final int readings = 2000;
+    /** the readings taken before the errors are counted, for the estimators to settle */
+    private static final int settlingReadings = 100;
+
+    @Test
+    public void alphaBetaTrackerSmoothsTheNoiseForALag() {
+        final RampErrors finiteDifference = runRamp(new FiniteDifferenceVelocityEstimator());
+        final RampErrors alphaBeta = runRamp(new AlphaBetaVelocityEstimator());
+        System.out.println("finite difference: " + finiteDifference + ", alpha-beta: " + alphaBeta);
+
+        assertTrue(alphaBeta.variance < finiteDifference.variance / 4);
+        assertTrue(alphaBeta.lag > finiteDifference.lag);
+        assertTrue("the lag is a few periods", alphaBeta.lag < 5 * (minPeriod + periodSpread));
+    }
+
+    @Test
+    public void leastSquaresFitSmoothsTheNoiseWithoutLag() {
+        final RampErrors finiteDifference = runRamp(new FiniteDifferenceVelocityEstimator());
+        final RampErrors leastSquares = runRamp(new LeastSquaresVelocityEstimator());
+        final RampErrors longerLeastSquares = runRamp(new LeastSquaresVelocityEstimator(16));
+        System.out.println("finite difference: " + finiteDifference + ", least squares: " + leastSquares + ", over 16 readings: " + longerLeastSquares);
+
+        assertTrue(leastSquares.variance < finiteDifference.variance);
+        assertTrue("a longer window lets through less noise", longerLeastSquares.variance < leastSquares.variance / 4);
+        /* the finite difference is the velocity half a period before the reading, the fit is the one at the reading */
+        assertEquals(minPeriod / 2 + periodSpread / 4, finiteDifference.lag, 0.0005);
+        assertEquals(0, leastSquares.lag, 0.0005);
+        assertEquals(0, longerLeastSquares.lag, 0.0005);
+    }
+
+    @Test
+    public void sameTimestampChangesNothing() {
+        final VelocityEstimator[] estimators = {new FiniteDifferenceVelocityEstimator(), new AlphaBetaVelocityEstimator(), new LeastSquaresVelocityEstimator()};
+        for (VelocityEstimator estimator : estimators) {
+            for (int i = 0; i < 10; i++) estimator.update(RobotClock.secondsToNanos(i * 0.005), i * i, 0);
+            final double velocity = estimator.getVelocity(), acceleration = estimator.getAcceleration();
+            estimator.update(RobotClock.secondsToNanos(9 * 0.005), 1000, 0);
+            assertEquals(velocity, estimator.getVelocity(), 0);
+            assertEquals(acceleration, estimator.getAcceleration(), 0);
+        }
+    }
+
+    /** feed an estimator the readings of the ramp, the same readings for each estimator */
+    private static RampErrors runRamp(VelocityEstimator estimator) {
+        final Random random = new Random(20261018);
+        double sum = 0, squaredSum = 0;
+        long timestamp = 0;
+        for (int i = 0; i < readings; i++) {
+            timestamp += RobotClock.secondsToNanos(minPeriod + periodSpread * random.nextDouble());
+            final double time = RobotClock.nanosToSeconds(timestamp);
+            final double position = startVelocity * time + acceleration * time * time / 2;
+            estimator.update(timestamp, Math.round(position + readingNoise * random.nextGaussian()), 0);
+            if (i < settlingReadings) continue;
+
+            final double error = estimator.getVelocity() - (startVelocity + acceleration * time);
+            sum += error;
+            squaredSum += error * error;
+        }
+        final int count = readings - settlingReadings;
+        final double meanError = sum / count;
+        return new RampErrors(-meanError / acceleration, squaredSum / count - meanError * meanError);
+    }
+
+    /** the errors of an estimator on the ramp */
+    private static final class RampErrors {
+        /** how far the estimate lags behind, in seconds */
+        private final double lag;
+        /** the variance of the error, in encoder values per second, squared */
+        private final double variance;
+
+        RampErrors(double lag, double variance) {
+            this.lag = lag;
+            this.variance = variance;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("lag %.2fms, noise %.0f encoder values per second", lag * 1000, Math.sqrt(variance));
+        }
+    }
+}